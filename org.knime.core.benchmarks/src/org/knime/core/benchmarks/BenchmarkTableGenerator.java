@@ -0,0 +1,175 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.benchmarks;
+
+import java.util.Random;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Creates reproducible synthetic tables for the benchmarks. Tables consist of int, long, double and string columns
+ * (in this order); all values are derived from a seeded random generator so that repeated runs work on identical data.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class BenchmarkTableGenerator {
+
+    /** Seed used by all benchmarks unless they need different data. */
+    public static final long DEFAULT_SEED = 0x4B4E494D45L;
+
+    private final int m_intColumns;
+    private final int m_longColumns;
+    private final int m_doubleColumns;
+    private final int m_stringColumns;
+    private int m_stringCardinality = 1000;
+    private double m_missingRatio = 0.0;
+    private long m_seed = DEFAULT_SEED;
+
+    /**
+     * @param intColumns number of int columns
+     * @param longColumns number of long columns
+     * @param doubleColumns number of double columns
+     * @param stringColumns number of string columns
+     */
+    public BenchmarkTableGenerator(final int intColumns, final int longColumns, final int doubleColumns,
+        final int stringColumns) {
+        m_intColumns = intColumns;
+        m_longColumns = longColumns;
+        m_doubleColumns = doubleColumns;
+        m_stringColumns = stringColumns;
+    }
+
+    /**
+     * @param cardinality number of distinct values in each string column, default is 1000
+     * @return this (for method chaining)
+     */
+    public BenchmarkTableGenerator withStringCardinality(final int cardinality) {
+        m_stringCardinality = cardinality;
+        return this;
+    }
+
+    /**
+     * @param ratio fraction of missing cells, default is 0
+     * @return this (for method chaining)
+     */
+    public BenchmarkTableGenerator withMissingRatio(final double ratio) {
+        m_missingRatio = ratio;
+        return this;
+    }
+
+    /**
+     * @param seed the seed for the random generator
+     * @return this (for method chaining)
+     */
+    public BenchmarkTableGenerator withSeed(final long seed) {
+        m_seed = seed;
+        return this;
+    }
+
+    /** @return the spec of the generated tables. */
+    public DataTableSpec createSpec() {
+        DataColumnSpec[] cols = new DataColumnSpec[m_intColumns + m_longColumns + m_doubleColumns + m_stringColumns];
+        int c = 0;
+        c = addColumns(cols, c, m_intColumns, "int", IntCell.TYPE);
+        c = addColumns(cols, c, m_longColumns, "long", LongCell.TYPE);
+        c = addColumns(cols, c, m_doubleColumns, "double", DoubleCell.TYPE);
+        addColumns(cols, c, m_stringColumns, "string", StringCell.TYPE);
+        return new DataTableSpec("Benchmark Table", cols);
+    }
+
+    private static int addColumns(final DataColumnSpec[] cols, final int offset, final int count,
+        final String prefix, final DataType type) {
+        for (int i = 0; i < count; i++) {
+            cols[offset + i] = new DataColumnSpecCreator(prefix + "-" + i, type).createSpec();
+        }
+        return offset + count;
+    }
+
+    /**
+     * Creates the rows of a table, row keys are "Row0", "Row1", ...
+     *
+     * @param rowCount the number of rows
+     * @return the rows
+     */
+    public DataRow[] createRows(final int rowCount) {
+        final Random rand = new Random(m_seed);
+        final int colCount = m_intColumns + m_longColumns + m_doubleColumns + m_stringColumns;
+        DataRow[] rows = new DataRow[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            DataCell[] cells = new DataCell[colCount];
+            int c = 0;
+            for (int i = 0; i < m_intColumns; i++) {
+                cells[c++] = isMissing(rand) ? DataType.getMissingCell() : new IntCell(rand.nextInt());
+            }
+            for (int i = 0; i < m_longColumns; i++) {
+                cells[c++] = isMissing(rand) ? DataType.getMissingCell() : new LongCell(rand.nextLong());
+            }
+            for (int i = 0; i < m_doubleColumns; i++) {
+                cells[c++] = isMissing(rand) ? DataType.getMissingCell() : new DoubleCell(rand.nextGaussian());
+            }
+            for (int i = 0; i < m_stringColumns; i++) {
+                cells[c++] = isMissing(rand) ? DataType.getMissingCell()
+                    : new StringCell("value_" + rand.nextInt(m_stringCardinality));
+            }
+            rows[r] = new DefaultRow(RowKey.createRowKey((long)r), cells);
+        }
+        return rows;
+    }
+
+    private boolean isMissing(final Random rand) {
+        return m_missingRatio > 0.0 && rand.nextDouble() < m_missingRatio;
+    }
+}
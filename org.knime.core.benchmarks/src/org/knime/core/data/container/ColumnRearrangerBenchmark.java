@@ -0,0 +1,178 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.benchmarks.BenchmarkExecutionContext;
+import org.knime.core.benchmarks.BenchmarkTableGenerator;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.workflow.SingleNodeContainer.MemoryPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link ExecutionContext#createColumnRearrangeTable(BufferedDataTable, ColumnRearranger,
+ * org.knime.core.node.ExecutionMonitor)} with a cell factory that is processed sequentially or in parallel (see
+ * {@link AbstractCellFactory#setParallelProcessing(boolean, int, int)}), optionally in chunks of rows (see
+ * {@link AbstractCellFactory#setChunkedProcessing(boolean)}).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ColumnRearrangerBenchmark {
+
+    /** Number of rows. */
+    @Param({"200000"})
+    public int m_rowCount;
+
+    /** Number of parallel workers, 0 for sequential processing. */
+    @Param({"0", "4"})
+    public int m_workerCount;
+
+    /** Whether the rows are processed in chunks (only applies to parallel processing). */
+    @Param({"false", "true"})
+    public boolean m_chunked;
+
+    /** Artificial work per cell (number of loop iterations), mimics more expensive computations. */
+    @Param({"0", "1000"})
+    public int m_workPerCell;
+
+    private ExecutionContext m_exec;
+
+    private BufferedDataTable m_table;
+
+    private BufferedDataTable m_lastResult;
+
+    /** Creates the input table. */
+    @Setup(Level.Trial)
+    public void setup() {
+        m_exec = BenchmarkExecutionContext.create(MemoryPolicy.CacheSmallInMemory);
+        BenchmarkTableGenerator generator = new BenchmarkTableGenerator(1, 0, 3, 1);
+        BufferedDataContainer container = m_exec.createDataContainer(generator.createSpec());
+        for (DataRow row : generator.createRows(m_rowCount)) {
+            container.addRowToTable(row);
+        }
+        container.close();
+        m_table = container.getTable();
+    }
+
+    /** Clears the result of the invocation (outside of the measured region). */
+    @TearDown(Level.Invocation)
+    public void clearResult() {
+        if (m_lastResult != null) {
+            m_exec.clearTable(m_lastResult);
+            m_lastResult = null;
+        }
+    }
+
+    /** Clears the input table. */
+    @TearDown(Level.Trial)
+    public void clearTable() {
+        m_exec.clearTable(m_table);
+    }
+
+    /**
+     * Appends one column computed from the double and string columns.
+     *
+     * @return the new table
+     * @throws CanceledExecutionException not thrown
+     */
+    @Benchmark
+    public BufferedDataTable appendColumn() throws CanceledExecutionException {
+        final int workPerCell = m_workPerCell;
+        SingleCellFactory factory = new SingleCellFactory(
+            new DataColumnSpecCreator("result", DoubleCell.TYPE).createSpec()) {
+            @Override
+            public DataCell getCell(final DataRow row) {
+                double sum = 0.0;
+                for (DataCell cell : row) {
+                    if (cell instanceof DoubleValue) {
+                        sum += ((DoubleValue)cell).getDoubleValue();
+                    } else if (cell instanceof StringValue) {
+                        sum += ((StringValue)cell).getStringValue().length();
+                    }
+                }
+                for (int i = 0; i < workPerCell; i++) {
+                    sum = Math.sqrt(sum * sum + i);
+                }
+                return new DoubleCell(sum);
+            }
+        };
+        if (m_workerCount > 0) {
+            factory.setParallelProcessing(true, m_workerCount, 100 * m_workerCount);
+            factory.setChunkedProcessing(m_chunked);
+        }
+        ColumnRearranger rearranger = new ColumnRearranger(m_table.getDataTableSpec());
+        rearranger.append(factory);
+        m_lastResult = m_exec.createColumnRearrangeTable(m_table, rearranger, m_exec);
+        return m_lastResult;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.benchmarks.BenchmarkTableGenerator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
+import org.knime.core.data.container.DefaultTableStoreFormat.DefaultTableStoreSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link DataContainer#addRowToTable(DataRow)} and {@link DataContainer#close()} as well as reading the
+ * resulting {@link Buffer} for each {@link CompressionFormat}. Tables are always written to disc.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DataContainerBenchmark {
+
+    /** Number of rows written/read. */
+    @Param({"100000"})
+    public int m_rowCount;
+
+    /** Compression of the table file. */
+    @Param({"NONE", "GZIP", "SNAPPY"})
+    public CompressionFormat m_compression;
+
+    /** Whether to write synchronously (rather than through the asynchronous writer thread). */
+    @Param({"false", "true"})
+    public boolean m_syncIO;
+
+    private DataTableSpec m_spec;
+
+    private DataRow[] m_rows;
+
+    private DataContainerSettings m_settings;
+
+    private ContainerTable m_readTable;
+
+    private final List<ContainerTable> m_writtenTables = new ArrayList<>();
+
+    /** Creates the data and the table to be read. */
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkTableGenerator generator = new BenchmarkTableGenerator(2, 1, 3, 2).withMissingRatio(0.01);
+        m_spec = generator.createSpec();
+        m_rows = generator.createRows(m_rowCount);
+        m_settings = DataContainerSettings.getDefault().withMaxCellsInMemory(0).withInitializedDomain(false)
+            .withSyncIO(m_syncIO).withBufferSettings(BufferSettings.getDefault().withLRU(false).withOutputFormat(
+                new DefaultTableStoreFormat(DefaultTableStoreSettings.getDefault().withCompression(m_compression))));
+        m_readTable = writeTable();
+    }
+
+    /** Deletes the tables written during the iteration. */
+    @TearDown(Level.Iteration)
+    public void clearWrittenTables() {
+        m_writtenTables.forEach(ContainerTable::clear);
+        m_writtenTables.clear();
+    }
+
+    /** Deletes the table used for reading. */
+    @TearDown(Level.Trial)
+    public void clearReadTable() {
+        m_readTable.clear();
+    }
+
+    /**
+     * Writes all rows and closes the container.
+     *
+     * @return the table (to be cleared after the iteration)
+     */
+    @Benchmark
+    public ContainerTable write() {
+        ContainerTable table = writeTable();
+        m_writtenTables.add(table);
+        return table;
+    }
+
+    /**
+     * Iterates the table written during setup, accessing all cells.
+     *
+     * @param bh consumes the cells
+     */
+    @Benchmark
+    public void read(final Blackhole bh) {
+        for (DataRow row : m_readTable) {
+            for (int i = 0; i < row.getNumCells(); i++) {
+                bh.consume(row.getCell(i));
+            }
+        }
+    }
+
+    private ContainerTable writeTable() {
+        DataContainer container = new DataContainer(m_spec, m_settings);
+        for (DataRow row : m_rows) {
+            container.addRowToTable(row);
+        }
+        container.close();
+        return container.getBufferedTable();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.def;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.knime.core.benchmarks.BenchmarkTableGenerator;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataInput;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.DataCellSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the {@link DataCellSerializer} round trip (serialize, then deserialize) of the cells in this package.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DataCellSerializerBenchmark {
+
+    /** The cell types under test along with a generator for random cells. */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public enum CellKind {
+        /** {@link IntCell}. */
+        INT(new IntCell.IntCellSerializer(), r -> new IntCell(r.nextInt())),
+        /** {@link LongCell}. */
+        LONG(new LongCell.LongSerializer(), r -> new LongCell(r.nextLong())),
+        /** {@link DoubleCell}. */
+        DOUBLE(new DoubleCell.DoubleSerializer(), r -> new DoubleCell(r.nextGaussian())),
+        /** {@link BooleanCell}. */
+        BOOLEAN(new BooleanCell.BooleanSerializer(), r -> BooleanCell.get(r.nextBoolean())),
+        /** {@link StringCell}. */
+        STRING(new StringCell.StringSerializer(), r -> new StringCell("value_" + r.nextInt(100000))),
+        /** {@link ComplexNumberCell}. */
+        COMPLEX_NUMBER(new ComplexNumberCell.ComplexNumberSerializer(),
+            r -> new ComplexNumberCell(r.nextDouble(), r.nextDouble())),
+        /** {@link IntervalCell}. */
+        INTERVAL(new IntervalCell.IntervalSerializer(), r -> {
+            double left = r.nextDouble();
+            return new IntervalCell(left, left + r.nextDouble());
+        });
+
+        private final DataCellSerializer<DataCell> m_serializer;
+
+        private final Function<Random, DataCell> m_generator;
+
+        CellKind(final DataCellSerializer serializer, final Function<Random, DataCell> generator) {
+            m_serializer = serializer;
+            m_generator = generator;
+        }
+    }
+
+    /** The cell type. */
+    @Param
+    public CellKind m_cellKind;
+
+    /** Number of cells per round trip. */
+    @Param({"10000"})
+    public int m_cellCount;
+
+    private DataCell[] m_cells;
+
+    private final ByteArrayOutputStream m_bytes = new ByteArrayOutputStream();
+
+    /** Creates the cells. */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rand = new Random(BenchmarkTableGenerator.DEFAULT_SEED);
+        m_cells = new DataCell[m_cellCount];
+        for (int i = 0; i < m_cellCount; i++) {
+            m_cells[i] = m_cellKind.m_generator.apply(rand);
+        }
+    }
+
+    /**
+     * Serializes all cells into a byte array and deserializes them again.
+     *
+     * @param bh consumes the deserialized cells
+     * @throws IOException not thrown (in-memory streams)
+     */
+    @Benchmark
+    public void roundTrip(final Blackhole bh) throws IOException {
+        final DataCellSerializer<DataCell> serializer = m_cellKind.m_serializer;
+        m_bytes.reset();
+        try (CellOutput out = new CellOutput(m_bytes)) {
+            for (DataCell cell : m_cells) {
+                serializer.serialize(cell, out);
+            }
+        }
+        try (CellInput in = new CellInput(new ByteArrayInputStream(m_bytes.toByteArray()))) {
+            for (int i = 0; i < m_cells.length; i++) {
+                bh.consume(serializer.deserialize(in));
+            }
+        }
+    }
+
+    /** Plain data output, the cells under test have no nested cells. */
+    private static final class CellOutput extends DataOutputStream implements DataCellDataOutput {
+        CellOutput(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void writeDataCell(final DataCell cell) throws IOException {
+            throw new UnsupportedOperationException("Nested cells not supported");
+        }
+    }
+
+    /** Plain data input, the cells under test have no nested cells. */
+    private static final class CellInput extends DataInputStream implements DataCellDataInput {
+        CellInput(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public DataCell readDataCell() throws IOException {
+            throw new UnsupportedOperationException("Nested cells not supported");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.sort;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.benchmarks.BenchmarkExecutionContext;
+import org.knime.core.benchmarks.BenchmarkTableGenerator;
+import org.knime.core.data.DataRow;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.workflow.SingleNodeContainer.MemoryPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link BufferedDataTableSorter}, both sorting in memory and with chunks spilled to disc (and merged in
+ * several levels if the number of open containers is small).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BufferedDataTableSorterBenchmark {
+
+    /** Number of rows to sort. */
+    @Param({"200000"})
+    public int m_rowCount;
+
+    /** Whether to sort in memory or write and merge chunks. */
+    @Param({"true", "false"})
+    public boolean m_sortInMemory;
+
+    /** Max number of open containers during the merge phase (only relevant if not sorted in memory). */
+    @Param({"40", "4"})
+    public int m_maxOpenContainers;
+
+    private ExecutionContext m_exec;
+
+    private BufferedDataTable m_table;
+
+    private BufferedDataTable m_lastResult;
+
+    /** Creates the table to sort. */
+    @Setup(Level.Trial)
+    public void setup() {
+        m_exec = BenchmarkExecutionContext.create(MemoryPolicy.CacheOnDisc);
+        BenchmarkTableGenerator generator = new BenchmarkTableGenerator(1, 1, 1, 1);
+        BufferedDataContainer container = m_exec.createDataContainer(generator.createSpec());
+        for (DataRow row : generator.createRows(m_rowCount)) {
+            container.addRowToTable(row);
+        }
+        container.close();
+        m_table = container.getTable();
+    }
+
+    /** Clears the result of the last invocation. */
+    @TearDown(Level.Iteration)
+    public void clearResult() {
+        if (m_lastResult != null) {
+            m_exec.clearTable(m_lastResult);
+            m_lastResult = null;
+        }
+    }
+
+    /** Clears the input table. */
+    @TearDown(Level.Trial)
+    public void clearTable() {
+        m_exec.clearTable(m_table);
+    }
+
+    /**
+     * Sorts the table by the string column (ascending) and the double column (descending).
+     *
+     * @return the sorted table
+     * @throws CanceledExecutionException not thrown
+     */
+    @Benchmark
+    public BufferedDataTable sort() throws CanceledExecutionException {
+        BufferedDataTableSorter sorter =
+            new BufferedDataTableSorter(m_table, Arrays.asList("string-0", "double-0"), new boolean[]{true, false});
+        sorter.setSortInMemory(m_sortInMemory);
+        sorter.setMaxOpenContainers(m_maxOpenContainers);
+        clearResult();
+        m_lastResult = sorter.sort(m_exec);
+        return m_lastResult;
+    }
+}
@@ -206,4 +206,52 @@ public void testAllPropertiesAndSaveLoad() throws Exception {
         Assert.assertEquals(spec, load);
     }
 
+    @Test
+    public void testDerivedSpecSharesColumns() {
+        DataColumnSpec[] cols1 = createColumnSpecs(5, "ColName");
+        DataTableSpec base = new DataTableSpec(cols1);
+        DataTableSpec derived = new DataTableSpecCreator(base).addColumns(createColumnSpecs(3, "Other")).createSpec();
+        Assert.assertEquals(8, derived.getNumColumns());
+        for (int i = 0; i < cols1.length; i++) {
+            Assert.assertSame(cols1[i], derived.getColumnSpec(i));
+            Assert.assertEquals(i, derived.findColumnIndex("ColName" + i));
+        }
+        Assert.assertEquals(7, derived.findColumnIndex("Other2"));
+        Assert.assertEquals(-1, derived.findColumnIndex("Other3"));
+        Assert.assertEquals(new DataTableSpec(derived.getColumnSpecs()), derived);
+        Assert.assertEquals(base.hashCode(), new DataTableSpec(cols1).hashCode());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testDerivedSpecConflictNames() {
+        DataTableSpec spec1 = new DataTableSpec(createColumnSpecs(5, "ColName"));
+        DataTableSpec spec2 = new DataTableSpec(createColumnSpecs(2, "ColName"));
+        new DataTableSpec(spec1, spec2); // throws exception
+    }
+
+    @Test
+    public void testLoadInternsSpecs() throws Exception {
+        DataColumnSpecCreator colCreator = new DataColumnSpecCreator("nominal", StringCell.TYPE);
+        colCreator.setDomain(new DataColumnDomainCreator(
+            new DataCell[] {new StringCell("a"), new StringCell("b")}).createDomain());
+        DataTableSpec spec = new DataTableSpec(colCreator.createSpec());
+        NodeSettings config = new NodeSettings("dummy");
+        spec.save(config);
+        DataTableSpec load1 = DataTableSpec.load(config);
+        DataTableSpec load2 = DataTableSpec.load(config);
+        Assert.assertEquals(spec, load1);
+        Assert.assertSame(load1, load2);
+
+        // equal but different order of possible values -- must not be replaced
+        colCreator.setDomain(new DataColumnDomainCreator(
+            new DataCell[] {new StringCell("b"), new StringCell("a")}).createDomain());
+        DataTableSpec reverseSpec = new DataTableSpec(colCreator.createSpec());
+        config = new NodeSettings("dummy");
+        reverseSpec.save(config);
+        DataTableSpec reverseLoad = DataTableSpec.load(config);
+        Assert.assertEquals(load1, reverseLoad);
+        Assert.assertEquals(new StringCell("b"),
+            reverseLoad.getColumnSpec(0).getDomain().getValues().iterator().next());
+    }
+
 }
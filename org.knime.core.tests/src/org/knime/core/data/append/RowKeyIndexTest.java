@@ -0,0 +1,237 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.append;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowIterator;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.append.AppendedRowsIterator.PairSupplier;
+import org.knime.core.data.append.AppendedRowsTable.DuplicatePolicy;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.container.DataContainer;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.util.Pair;
+
+/**
+ * Tests {@link RowKeyIndex} and its use in {@link AppendedRowsIterator}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class RowKeyIndexTest {
+
+    private static final DataTableSpec SPEC =
+        new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec());
+
+    /** Keys are found after insertion (also after the table grew), iteration is in insertion order. */
+    @Test
+    public void testAddContains() {
+        RowKeyIndex index = new RowKeyIndex();
+        final int count = 10000;
+        for (int i = 0; i < count; i++) {
+            assertTrue("Key not added", index.add(new RowKey("Row" + i)));
+        }
+        assertFalse("Duplicate added", index.add(new RowKey("Row17")));
+        assertEquals("Unexpected size", count, index.size());
+        assertTrue("Key not found", index.contains(new RowKey("Row" + (count - 1))));
+        assertFalse("Unexpected key found", index.contains(new RowKey("Row" + count)));
+        assertFalse("Spilled", index.isSpilled());
+        int i = 0;
+        for (RowKey key : index) {
+            assertEquals("Unexpected order", "Row" + i++, key.getString());
+        }
+        assertEquals("Not all keys iterated", count, i);
+        index.dispose();
+    }
+
+    /** Index works the same way if it's backed by a temporary file, also with long and non-ASCII keys. */
+    @Test
+    public void testSpill() {
+        RowKeyIndex index = new RowKeyIndex(0);
+        final int count = 20000;
+        StringBuilder longSuffix = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longSuffix.append('ä');
+        }
+        for (int i = 0; i < count; i++) {
+            String key = i % 1000 == 0 ? "Zeile" + i + longSuffix : "Zeile" + i;
+            assertTrue("Key not added", index.add(new RowKey(key)));
+        }
+        assertTrue("Not spilled", index.isSpilled());
+        for (int i = 0; i < count; i += 7) {
+            String key = i % 1000 == 0 ? "Zeile" + i + longSuffix : "Zeile" + i;
+            assertTrue("Key not found", index.contains(new RowKey(key)));
+        }
+        assertFalse("Unexpected key found", index.contains(new RowKey("Zeile0")));
+        Iterator<RowKey> it = index.iterator();
+        assertEquals("Unexpected first key", "Zeile0" + longSuffix, it.next().getString());
+        assertEquals("Unexpected second key", "Zeile1", it.next().getString());
+        index.dispose();
+    }
+
+    /** A small index doesn't allocate large chunks (and is hence not spilled with a small threshold). */
+    @Test
+    public void testSmallIndex() {
+        RowKeyIndex index = new RowKeyIndex(1 << 16);
+        assertTrue("Key not added", index.add(new RowKey("Row0")));
+        assertFalse("Small index spilled", index.isSpilled());
+        index.dispose();
+    }
+
+    /** The file regions of hash tables that are replaced when the index grows are reused. */
+    @Test
+    public void testSpillRegionsReused() {
+        RowKeyIndex index = new RowKeyIndex(0);
+        final int count = 1000000;
+        for (int i = 0; i < count; i++) {
+            index.add(new RowKey("k" + i));
+        }
+        assertTrue("Key not found", index.contains(new RowKey("k" + (count - 1))));
+        // 16MB hash table and 24MB arena chunks in use; without reusing regions the file has 52MB
+        assertTrue("Regions not reused, file size " + index.getSpillFileSize(),
+            index.getSpillFileSize() < (44L << 20));
+        index.dispose();
+    }
+
+    private static PairSupplier createSupplier(final int from, final int to) {
+        DataContainer container = new DataContainer(SPEC);
+        for (int i = from; i < to; i++) {
+            container.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i)));
+        }
+        container.close();
+        return new PairSupplier(new Pair<RowIterator, DataTableSpec>(container.getTable().iterator(), SPEC));
+    }
+
+    /** Concatenation with reading ahead keeps the order and handles duplicates. */
+    @Test
+    public void testAppendWithReadAhead() {
+        PairSupplier[] suppliers = new PairSupplier[]{createSupplier(0, 5000), createSupplier(2500, 7500),
+            createSupplier(0, 0), createSupplier(7000, 12000)};
+        AppendedRowsIterator it =
+            new AppendedRowsIterator(suppliers, DuplicatePolicy.AppendSuffix, "_dup", SPEC, null, -1, true);
+        int count = 0;
+        int duplicates = 0;
+        int previousValue = -1;
+        while (it.hasNext()) {
+            DataRow row = it.next();
+            int value = ((IntCell)row.getCell(0)).getIntValue();
+            if (row.getKey().getString().endsWith("_dup")) {
+                duplicates++;
+            } else {
+                assertTrue("Unexpected order", value > previousValue);
+                previousValue = value;
+            }
+            count++;
+        }
+        assertEquals("Unexpected row count", 5000 + 5000 + 5000, count);
+        assertEquals("Unexpected duplicate count", 2500 + 500, duplicates);
+        Map<RowKey, RowKey> nameMap = it.getDuplicateNameMap();
+        assertEquals("Unexpected map size", count, nameMap.size());
+        assertEquals("Unexpected original key", RowKey.createRowKey(2500L),
+            nameMap.get(new RowKey(RowKey.createRowKey(2500L).getString() + "_dup")));
+        assertEquals("Unexpected original key", RowKey.createRowKey(1L), nameMap.get(RowKey.createRowKey(1L)));
+        it.close();
+        assertEquals("Unexpected map size after close", count, nameMap.size());
+        assertEquals("Unexpected original key after close", RowKey.createRowKey(2500L),
+            nameMap.get(new RowKey(RowKey.createRowKey(2500L).getString() + "_dup")));
+        assertEquals("Map changed on close", nameMap, it.getDuplicateNameMap());
+    }
+
+    /** Closing the iterator while the next table is read ahead doesn't block. */
+    @Test(timeout = 10000)
+    public void testCloseWhileReadingAhead() {
+        PairSupplier[] suppliers = new PairSupplier[]{createSupplier(0, 10), createSupplier(10, 20000)};
+        AppendedRowsIterator it =
+            new AppendedRowsIterator(suppliers, DuplicatePolicy.Skip, null, SPEC, null, -1, true);
+        it.next();
+        it.close();
+        assertFalse("Rows after close", it.hasNext());
+    }
+
+    /** An iterator that is abandoned without being closed stops reading ahead and closes the source. */
+    @Test(timeout = 10000)
+    public void testAbandonedReadAhead() throws InterruptedException {
+        final CountDownLatch sourceClosed = new CountDownLatch(1);
+        CloseableRowIterator endless = new CloseableRowIterator() {
+            private long m_index;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public DataRow next() {
+                return new DefaultRow(RowKey.createRowKey(m_index++), new IntCell(0));
+            }
+
+            @Override
+            public void close() {
+                sourceClosed.countDown();
+            }
+        };
+        PairSupplier[] suppliers = new PairSupplier[]{createSupplier(0, 10),
+            new PairSupplier(new Pair<RowIterator, DataTableSpec>(endless, SPEC))};
+        AppendedRowsIterator it =
+            new AppendedRowsIterator(suppliers, DuplicatePolicy.Skip, null, SPEC, null, -1, true);
+        it.next();
+        it = null;
+        while (!sourceClosed.await(100, TimeUnit.MILLISECONDS)) {
+            System.gc();
+        }
+    }
+}
@@ -196,6 +196,8 @@ private static void checkDefaultTable(final WindowCacheTable cache) throws Unkno
     @Test
     public void testExecutionMonitorBehaviour() {
         WindowCacheTable cache = new WindowCacheTable(CONT.getTable());
+        // rows must not be in the cache before they are requested
+        cache.setPrefetchEnabled(false);
         ExecutionMonitor monitor = new ExecutionMonitor();
 
         // test regular behavior
@@ -478,6 +480,97 @@ public void testCachingStrategy() throws IndexOutOfBoundsException, CanceledExec
         }
     }
 
+    /**
+     * Tests scrolling down and up with prefetching enabled, the cache has to start the iterator at row offsets when
+     * scrolling up and rows are read concurrently in the background.
+     * @throws IndexOutOfBoundsException
+     * @throws CanceledExecutionException
+     */
+    @Test
+    public void testScrollingWithPrefetch() throws IndexOutOfBoundsException, CanceledExecutionException {
+        WindowCacheTable cache = new WindowCacheTable(CONT.getTable(), "col2");
+        cache.setCacheSize(CUSTOM_CACHE_SIZE);
+        cache.setLookAheadSize(CUSTOM_LOOK_AHEAD_SIZE);
+        assertTrue("Prefetching should be enabled by default", cache.isPrefetchEnabled());
+        assertFalse("Prefetching should be disabled for tables without row offset", new WindowCacheTable(
+            new RestrictedAccessTable(CONT.getTable(), new boolean[]{true, false})).isPrefetchEnabled());
+
+        final int windowSize = 10;
+        for (int start = 0; start < NUM_ROWS; start += 7) { // scroll down
+            checkWindow(cache, start, windowSize);
+        }
+        for (int start = NUM_ROWS - 1; start >= 0; start -= 7) { // scroll up
+            checkWindow(cache, start, windowSize);
+        }
+        final Random rand = new Random();
+        for (int i = 0; i < 50; i++) { // jump around
+            checkWindow(cache, rand.nextInt(NUM_ROWS), windowSize);
+        }
+    }
+
+    /**
+     * Tests that the rows following the requested window are prefetched after jumping to a row that wasn't cached.
+     * @throws Exception if that fails
+     */
+    @Test
+    public void testPrefetchAfterJump() throws Exception {
+        WindowCacheTable cache = new WindowCacheTable(CONT.getTable(), "col2");
+        cache.setCacheSize(CUSTOM_CACHE_SIZE);
+        cache.setLookAheadSize(CUSTOM_LOOK_AHEAD_SIZE);
+        final int start = NUM_ROWS / 2 + 100;
+        checkWindow(cache, start, 10);
+        awaitPrefetch(cache);
+        for (int row = start; row < NUM_ROWS; row++) {
+            assertTrue("Row " + row + " not prefetched", cache.isRowCached(row));
+        }
+        assertFalse("Row before the window cached", cache.isRowCached(start - CUSTOM_CACHE_SIZE));
+        checkWindow(cache, NUM_ROWS - 10, 10);
+    }
+
+    /**
+     * Tests that changing the included columns clears the cache and prefetching continues with the new columns.
+     * @throws Exception if that fails
+     */
+    @Test
+    public void testPrefetchAfterChangeOfIncludedColumns() throws Exception {
+        WindowCacheTable cache = new WindowCacheTable(CONT.getTable(), "col2");
+        cache.setCacheSize(CUSTOM_CACHE_SIZE);
+        cache.setLookAheadSize(CUSTOM_LOOK_AHEAD_SIZE);
+        final int start = NUM_ROWS / 2;
+        checkWindow(cache, start, 10);
+        awaitPrefetch(cache);
+
+        cache.setIncludedColumns("col1", "col2");
+        assertFalse("Cache not cleared", cache.isRowCached(start));
+        checkWindow(cache, start, 10);
+        awaitPrefetch(cache);
+        for (int row = start; row < NUM_ROWS; row++) {
+            assertTrue("Row " + row + " not prefetched", cache.isRowCached(row));
+        }
+        List<DataRow> rows = cache.getRows(NUM_ROWS - 10, 10, null);
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals("Unexpected cell of new column", "Some content " + (NUM_ROWS - 10 + i),
+                ((StringCell)rows.get(i).getCell(0)).getStringValue());
+        }
+    }
+
+    private static void awaitPrefetch(final WindowCacheTable cache) throws InterruptedException {
+        for (int i = 0; i < 1000 && cache.isPrefetchRunning(); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse("Prefetching not finished", cache.isPrefetchRunning());
+    }
+
+    private static void checkWindow(final WindowCacheTable cache, final int start, final int length)
+        throws CanceledExecutionException {
+        List<DataRow> rows = cache.getRows(start, length, new ExecutionMonitor());
+        assertEquals("Unexpected number of rows", Math.min(length, NUM_ROWS - start), rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals("Unexpected row", "r" + (start + i), rows.get(i).getKey().getString());
+            assertEquals("Unexpected cell", start + i, ((IntCell)rows.get(i).getCell(1)).getIntValue());
+        }
+    }
+
     /**
      * Wrapper table for an arbitrary {@link DataTable}, which is accessed via a {@link RestrictedAccessIterator}.
      */
@@ -0,0 +1,171 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.collection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataInput;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+
+/**
+ * Tests {@link DoubleListCell}, {@link IntListCell} and {@link LongListCell}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PrimitiveListCellTest {
+
+    /** Primitive list cells are equal to list cells with the same elements (and have the same hash code). */
+    @Test
+    public void testEqualsListCell() {
+        double[] doubles = {1.5, -2.0, Double.NaN};
+        List<DataCell> doubleCells = new ArrayList<>();
+        for (double d : doubles) {
+            doubleCells.add(new DoubleCell(d));
+        }
+        DoubleListCell doubleList = CollectionCellFactory.createDoubleListCell(doubles);
+        ListCell listCell = CollectionCellFactory.createListCell(doubleCells);
+        assertEquals("Not equal to list cell", listCell, doubleList);
+        assertEquals("Not equal to primitive list cell", doubleList, listCell);
+        assertEquals("Different hash codes", listCell.hashCode(), doubleList.hashCode());
+        assertEquals("Different string representation", listCell.toString(), doubleList.toString());
+        assertEquals("Unexpected element type", listCell.getElementType(), doubleList.getElementType());
+
+        ListCell intListCell = CollectionCellFactory.createListCell(new ArrayList<>(
+            Arrays.asList(new IntCell(3), new IntCell(-7))));
+        IntListCell intList = CollectionCellFactory.createIntListCell(new int[]{3, -7});
+        assertEquals("Not equal to list cell", intListCell, intList);
+        assertEquals("Different hash codes", intListCell.hashCode(), intList.hashCode());
+        assertNotEquals("Equal to list of different type", intList, doubleList);
+
+        ListCell longListCell = CollectionCellFactory.createListCell(new ArrayList<>(
+            Arrays.asList(new LongCell(Long.MAX_VALUE), new LongCell(-1L))));
+        LongListCell longList = CollectionCellFactory.createLongListCell(new long[]{Long.MAX_VALUE, -1L});
+        assertEquals("Not equal to list cell", longListCell, longList);
+        assertEquals("Different hash codes", longListCell.hashCode(), longList.hashCode());
+    }
+
+    /** Elements are accessible as cells and primitives, the array is copied. */
+    @Test
+    public void testAccess() {
+        int[] values = {4, 5, 6};
+        IntListCell cell = CollectionCellFactory.createIntListCell(values);
+        values[0] = 0;
+        assertEquals("Unexpected size", 3, cell.size());
+        assertEquals("Unexpected element", 4, cell.getInt(0));
+        assertEquals("Unexpected element", new IntCell(5), cell.get(1));
+        int expected = 4;
+        for (DataCell c : cell) {
+            assertEquals("Unexpected element", new IntCell(expected++), c);
+        }
+        int[] array = cell.getIntArray();
+        array[1] = 0;
+        assertArrayEquals("Unexpected array", new int[]{4, 5, 6}, cell.getIntArray());
+        assertTrue("Not a list value", IntListCell.TYPE.isCompatible(ListDataValue.class));
+        assertEquals("Unexpected preferred value class", ListDataValue.class,
+            IntListCell.TYPE.getPreferredValueClass());
+    }
+
+    /** Serialization round trip.
+     * @throws IOException if that fails */
+    @Test
+    public void testSerialization() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DoubleListCell doubleList = CollectionCellFactory.createDoubleListCell(new double[]{0.25, 1e300, -3});
+        IntListCell intList = CollectionCellFactory.createIntListCell(new int[0]);
+        LongListCell longList = CollectionCellFactory.createLongListCell(new long[]{1L << 40, 42});
+        try (CellOutput out = new CellOutput(bytes)) {
+            new DoubleListCell.DoubleListCellSerializer().serialize(doubleList, out);
+            new IntListCell.IntListCellSerializer().serialize(intList, out);
+            new LongListCell.LongListCellSerializer().serialize(longList, out);
+        }
+        try (CellInput in = new CellInput(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals("Unexpected cell", doubleList, new DoubleListCell.DoubleListCellSerializer().deserialize(in));
+            assertEquals("Unexpected cell", intList, new IntListCell.IntListCellSerializer().deserialize(in));
+            assertEquals("Unexpected cell", longList, new LongListCell.LongListCellSerializer().deserialize(in));
+            assertEquals("Unexpected remaining bytes", -1, in.read());
+        }
+    }
+
+    private static final class CellOutput extends DataOutputStream implements DataCellDataOutput {
+        CellOutput(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void writeDataCell(final DataCell cell) throws IOException {
+            throw new UnsupportedOperationException("Nested cells not supported");
+        }
+    }
+
+    private static final class CellInput extends DataInputStream implements DataCellDataInput {
+        CellInput(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public DataCell readDataCell() throws IOException {
+            throw new UnsupportedOperationException("Nested cells not supported");
+        }
+    }
+}
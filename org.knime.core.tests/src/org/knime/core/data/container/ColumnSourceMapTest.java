@@ -0,0 +1,214 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
+
+/**
+ * Tests {@link ColumnSourceMap} on chains of {@link RearrangeColumnsTable} and {@link JoinedTable}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ColumnSourceMapTest {
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final ExecutionContext EXEC = new ExecutionContext(new DefaultNodeProgressMonitor(),
+        new Node((NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(new PortType[0])),
+        SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, NotInWorkflowDataRepository.newInstance());
+
+    private static final int ROW_COUNT = 100;
+
+    private static final int CHAIN_LENGTH = 5;
+
+    /** Table with a single column of the given name with value i in row i. */
+    private static BufferedDataTable createTable(final String column) {
+        BufferedDataContainer cont =
+            EXEC.createDataContainer(new DataTableSpec(new DataColumnSpecCreator(column, IntCell.TYPE).createSpec()));
+        for (int i = 0; i < ROW_COUNT; i++) {
+            cont.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i)));
+        }
+        cont.close();
+        return cont.getTable();
+    }
+
+    /** Appends column "c<level>" with value (level + 1) * value of column "c0". */
+    private static BufferedDataTable appendColumn(final BufferedDataTable table, final int level) throws Exception {
+        ColumnRearranger rearranger = new ColumnRearranger(table.getDataTableSpec());
+        rearranger.append(new SingleCellFactory(new DataColumnSpecCreator("c" + level, IntCell.TYPE).createSpec()) {
+            @Override
+            public DataCell getCell(final DataRow row) {
+                return new IntCell((level + 1) * ((IntValue)row.getCell(0)).getIntValue());
+            }
+        });
+        return EXEC.createColumnRearrangeTable(table, rearranger, EXEC);
+    }
+
+    /** Creates a chain of tables, each of which appends one column. */
+    private static BufferedDataTable createChain() throws Exception {
+        BufferedDataTable table = createTable("c0");
+        for (int level = 1; level <= CHAIN_LENGTH; level++) {
+            table = appendColumn(table, level);
+        }
+        return table;
+    }
+
+    private static void checkRow(final DataRow row, final int rowIndex, final int... levels) {
+        assertEquals("Unexpected row key", RowKey.createRowKey((long)rowIndex), row.getKey());
+        assertEquals("Unexpected number of cells", levels.length, row.getNumCells());
+        for (int c = 0; c < levels.length; c++) {
+            assertEquals("Unexpected cell in column " + c, new IntCell((levels[c] + 1) * rowIndex), row.getCell(c));
+        }
+    }
+
+    /**
+     * A chain of rearranged tables is resolved into the input table and one append table per level.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testRearrangeChain() throws Exception {
+        BufferedDataTable table = createChain();
+        ColumnSourceMap map = new ColumnSourceMap(table.getDelegate());
+        assertTrue("Chain not recognized as nested", map.isNested());
+        assertEquals("Unexpected number of sources", CHAIN_LENGTH + 1, map.getSourceCount());
+
+        int i = 0;
+        try (CloseableRowIterator it = table.iterator()) {
+            while (it.hasNext()) {
+                checkRow(it.next(), i++, 0, 1, 2, 3, 4, 5);
+            }
+        }
+        assertEquals("Unexpected row count", ROW_COUNT, i);
+    }
+
+    /**
+     * Row range filters are applied to the source tables, reordered and removed columns are resolved.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testRearrangeChainWithFilter() throws Exception {
+        BufferedDataTable table = createChain();
+        ColumnRearranger rearranger = new ColumnRearranger(table.getDataTableSpec());
+        rearranger.permute(new int[]{5, 0, 3, 1, 2, 4});
+        rearranger.remove(3, 4, 5);
+        table = EXEC.createColumnRearrangeTable(table, rearranger, EXEC);
+
+        int i = 10;
+        try (CloseableRowIterator it = table.filter(TableFilter.filterRangeOfRows(10, 19)).iterator()) {
+            while (it.hasNext()) {
+                checkRow(it.next(), i++, 5, 0, 3);
+            }
+        }
+        assertEquals("Unexpected last row", 20, i);
+    }
+
+    /**
+     * Joined tables are resolved on both sides, the common input table is iterated only once.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testJoinedChains() throws Exception {
+        BufferedDataTable input = createTable("c0");
+        BufferedDataTable left = appendColumn(appendColumn(input, 1), 2);
+        ColumnRearranger rearranger = new ColumnRearranger(input.getDataTableSpec());
+        rearranger.remove(0);
+        rearranger.append(new SingleCellFactory(new DataColumnSpecCreator("c3", IntCell.TYPE).createSpec()) {
+            @Override
+            public DataCell getCell(final DataRow row) {
+                return new IntCell(4 * ((IntValue)row.getCell(0)).getIntValue());
+            }
+        });
+        BufferedDataTable right = EXEC.createColumnRearrangeTable(input, rearranger, EXEC);
+        BufferedDataTable joined = EXEC.createJoinedTable(left, right, EXEC);
+
+        ColumnSourceMap map = new ColumnSourceMap(joined.getDelegate());
+        assertTrue("Join of chains not recognized as nested", map.isNested());
+        assertEquals("Unexpected number of sources", 4, map.getSourceCount());
+
+        int i = 0;
+        try (CloseableRowIterator it = joined.iterator()) {
+            while (it.hasNext()) {
+                checkRow(it.next(), i++, 0, 1, 2, 3);
+            }
+        }
+        assertEquals("Unexpected row count", ROW_COUNT, i);
+    }
+
+    /**
+     * A single level is not flattened.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testSingleLevel() throws Exception {
+        BufferedDataTable table = appendColumn(createTable("c0"), 1);
+        assertFalse("Single level recognized as nested", new ColumnSourceMap(table.getDelegate()).isNested());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellSerializer;
+import org.knime.core.data.DataTypeRegistry;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.xml.XMLCell;
+
+/**
+ * Testcases for {@link PrimitiveCellSerializer}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PrimitiveCellSerializerTest {
+
+    /**
+     * Checks that the primitive serializers write exactly the same bytes as the registered serializers.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testSameContentAsRegisteredSerializer() throws Exception {
+        DataCell[] cells = new DataCell[]{new DoubleCell(-1.5), new IntCell(42), new LongCell(Long.MIN_VALUE),
+            new StringCell("K\u00f6nigsweg"), BooleanCell.TRUE, BooleanCell.FALSE};
+        for (DataCell cell : cells) {
+            @SuppressWarnings("unchecked")
+            DataCellSerializer<DataCell> serializer = (DataCellSerializer<DataCell>)DataTypeRegistry.getInstance()
+                .getSerializer(cell.getClass()).get();
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            try (DCObjectOutputVersion2 out = new DCObjectOutputVersion2(expected, null)) {
+                out.writeDataCellPerKNIMESerializer(serializer, cell);
+            }
+
+            PrimitiveCellSerializer primitive = PrimitiveCellSerializer.get(cell.getClass());
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            try (DCObjectOutputVersion2 out = new DCObjectOutputVersion2(actual, null)) {
+                out.writeDataCellPerPrimitiveSerializer(primitive, cell);
+            }
+            assertArrayEquals("Different content for " + cell, expected.toByteArray(), actual.toByteArray());
+        }
+    }
+
+    /** Checks the lookup of serializers. */
+    @Test
+    public void testGet() {
+        assertEquals(PrimitiveCellSerializer.DOUBLE, PrimitiveCellSerializer.get(DoubleCell.class));
+        assertEquals(PrimitiveCellSerializer.STRING, PrimitiveCellSerializer.get(StringCell.class));
+        assertNull(PrimitiveCellSerializer.get(XMLCell.class));
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
+
+/**
+ * Tests the chunked processing in {@link RearrangeColumnsTable}, see
+ * {@link AbstractCellFactory#setChunkedProcessing(boolean)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class RearrangeColumnsTableChunkedProcessingTest {
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final ExecutionContext EXEC = new ExecutionContext(new DefaultNodeProgressMonitor(),
+        new Node((NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(new PortType[0])),
+        SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, NotInWorkflowDataRepository.newInstance());
+
+    /** More than two chunks, the last one incomplete. */
+    private static final int ROW_COUNT = 5 * RearrangeColumnsTable.MIN_CHUNK_SIZE / 2 + 7;
+
+    private static BufferedDataTable createTable() {
+        BufferedDataContainer cont =
+            EXEC.createDataContainer(new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec()));
+        for (int i = 0; i < ROW_COUNT; i++) {
+            cont.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i)));
+        }
+        cont.close();
+        return cont.getTable();
+    }
+
+    /** Factory that doubles the value of the first column, fails for the given value. */
+    private static SingleCellFactory createFactory(final int failValue) {
+        SingleCellFactory factory =
+            new SingleCellFactory(new DataColumnSpecCreator("double", IntCell.TYPE).createSpec()) {
+                @Override
+                public DataCell getCell(final DataRow row) {
+                    int value = ((IntValue)row.getCell(0)).getIntValue();
+                    if (value == failValue) {
+                        throw new IllegalStateException("Failing for row " + row.getKey());
+                    }
+                    return new IntCell(2 * value);
+                }
+            };
+        factory.setParallelProcessing(true, 3, 30);
+        factory.setChunkedProcessing(true);
+        return factory;
+    }
+
+    /**
+     * Rows are appended in the order of the input table.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testChunkedProcessing() throws Exception {
+        BufferedDataTable table = createTable();
+        // chunks are only processed concurrently for tables held in memory
+        assertTrue("Table not held in memory", ((ContainerTable)table.getDelegate()).isHeldInMemory());
+        ColumnRearranger rearranger = new ColumnRearranger(table.getDataTableSpec());
+        rearranger.append(createFactory(-1));
+        BufferedDataTable result = EXEC.createColumnRearrangeTable(table, rearranger, EXEC);
+        assertEquals("Unexpected row count", ROW_COUNT, result.size());
+        int i = 0;
+        for (DataRow row : result) {
+            assertEquals("Unexpected row key", RowKey.createRowKey((long)i), row.getKey());
+            assertEquals("Unexpected input cell", new IntCell(i), row.getCell(0));
+            assertEquals("Unexpected new cell", new IntCell(2 * i), row.getCell(1));
+            i++;
+        }
+        assertEquals("Unexpected number of iterated rows", ROW_COUNT, i);
+    }
+
+    /**
+     * Exceptions thrown by the factory in a worker are passed on to the caller.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testExceptionInChunk() throws Exception {
+        BufferedDataTable table = createTable();
+        ColumnRearranger rearranger = new ColumnRearranger(table.getDataTableSpec());
+        rearranger.append(createFactory(2 * RearrangeColumnsTable.MIN_CHUNK_SIZE + 1));
+        try {
+            EXEC.createColumnRearrangeTable(table, rearranger, EXEC);
+            fail("Expected exception not thrown");
+        } catch (IllegalStateException e) {
+            assertTrue("Unexpected exception " + e, e.getMessage().startsWith("Failing"));
+        }
+    }
+}
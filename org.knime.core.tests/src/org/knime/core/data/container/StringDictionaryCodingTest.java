@@ -0,0 +1,162 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.collection.CollectionCellFactory;
+import org.knime.core.data.collection.ListCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Tests {@link StringDictionaryCoding}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class StringDictionaryCodingTest {
+
+    /** Codes are written as expected and the decoder returns shared cells until the dictionary is disabled.
+     * @throws Exception if that fails */
+    @Test
+    public void testEncodeDecode() throws Exception {
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i <= StringDictionaryCoding.MAX_ENTRY_LENGTH; i++) {
+            longString.append('x');
+        }
+        List<String> values = Arrays.asList("a", "b", "a", longString.toString(), "c", "b", "d", "a");
+        StringDictionaryCoding.Encoder encoder = new StringDictionaryCoding.Encoder(3);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DCObjectOutputVersion2 out = new DCObjectOutputVersion2(bytes, null)) {
+            for (String value : values) {
+                if (encoder.isActive()) {
+                    encoder.write(new StringCell(value), out);
+                } else {
+                    out.writeDataCellPerPrimitiveSerializer(PrimitiveCellSerializer.STRING, new StringCell(value));
+                }
+            }
+        }
+        assertFalse("Encoder not disabled", encoder.isActive());
+
+        StringDictionaryCoding.Decoder decoder = new StringDictionaryCoding.Decoder();
+        DCObjectInputVersion2 in = new DCObjectInputVersion2(new ByteArrayInputStream(bytes.toByteArray()), null);
+        List<DataCell> cells = new ArrayList<>();
+        for (String value : values) {
+            DataCell cell = decoder.isActive() ? decoder.read(in)
+                : in.readDataCellPerPrimitiveSerializer(PrimitiveCellSerializer.STRING);
+            assertEquals("Unexpected value", new StringCell(value), cell);
+            cells.add(cell);
+        }
+        in.close();
+        assertFalse("Decoder not disabled", decoder.isActive());
+        assertSame("Cell not shared", cells.get(0), cells.get(2));
+        assertSame("Cell not shared", cells.get(1), cells.get(5));
+        assertNotSame("Cell shared after disabling", cells.get(0), cells.get(7));
+    }
+
+    /** Tables with low and high cardinality string columns, missing and nested cells are read back correctly. */
+    @Test
+    public void testWriteReadTable() {
+        DataTableSpec spec = new DataTableSpec(
+            new DataColumnSpecCreator("nominal", StringCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("unique", StringCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("list", ListCell.getCollectionType(StringCell.TYPE)).createSpec());
+        final int rowCount = 3 * StringDictionaryCoding.DEF_MAX_DICTIONARY_SIZE;
+        List<DataRow> rows = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            DataCell nominal = i % 10 == 9 ? DataType.getMissingCell() : new StringCell("Class " + (i % 5));
+            rows.add(new DefaultRow(RowKey.createRowKey((long)i), nominal, new StringCell("Value " + i),
+                CollectionCellFactory.createListCell(Arrays.asList(new StringCell("Class " + (i % 5))))));
+        }
+        // no LRU caching and no cells in memory, so that the table is read back from disk
+        DataContainer container = new DataContainer(spec, DataContainerSettings.getDefault()
+            .withMaxCellsInMemory(0).withBufferSettings(BufferSettings.getDefault().withLRU(false)));
+        for (DataRow row : rows) {
+            container.addRowToTable(row);
+        }
+        final Buffer buffer = container.getBuffer();
+        container.close();
+        assertTrue("Table not written to disk", buffer.isFlushedToDisk());
+        assertEquals("Dictionary encoded table not written in format version 13", 13, buffer.getReadVersion());
+
+        DataCell classZero = null;
+        int i = 0;
+        try (CloseableRowIterator it = buffer.iterator()) {
+            while (it.hasNext()) {
+                DataRow row = it.next();
+                DataRow expected = rows.get(i);
+                for (int c = 0; c < spec.getNumColumns(); c++) {
+                    assertEquals("Unexpected cell in row " + i + ", column " + c, expected.getCell(c),
+                        row.getCell(c));
+                }
+                if (i % 5 == 0 && i % 10 != 9) {
+                    if (classZero == null) {
+                        classZero = row.getCell(0);
+                    }
+                    assertSame("Cell not shared", classZero, row.getCell(0));
+                }
+                i++;
+            }
+        }
+        assertEquals("Unexpected row count", rowCount, i);
+    }
+}
@@ -52,6 +52,7 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -59,6 +60,7 @@
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import org.junit.Test;
@@ -80,6 +82,7 @@
 import org.knime.core.data.convert.map.CellValueProducer;
 import org.knime.core.data.convert.map.CellValueProducerFactory;
 import org.knime.core.data.convert.map.ConsumptionPath;
+import org.knime.core.data.convert.map.DataRowConsumer;
 import org.knime.core.data.convert.map.Destination;
 import org.knime.core.data.convert.map.MappingFramework;
 import org.knime.core.data.convert.map.ProducerRegistry;
@@ -545,6 +548,44 @@ class HitchHikersDest extends H2ODestination {
         }
     }
 
+    /**
+     * Tests that a {@link DataRowConsumer} creates its consumers once per column rather than once per cell.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void rowConsumerReusesConsumersTest() throws Exception {
+        final AtomicInteger createCount = new AtomicInteger();
+        final SimpleCellValueConsumerFactory<H2ODestination, Integer, String, H2OParameters> countingConsumer =
+            new SimpleCellValueConsumerFactory<H2ODestination, Integer, String, H2OParameters>(Integer.class, "INT",
+                (c, v, p) -> {
+                    c.h2oFrame.get(p.rowIndex)[p.columnIndex] = v;
+                }) {
+                @Override
+                public CellValueConsumer<H2ODestination, Integer, H2OParameters> create() {
+                    createCount.incrementAndGet();
+                    return super.create();
+                }
+            };
+        final ConsumptionPath[] mapping = new ConsumptionPath[]{new ConsumptionPath(DataCellToJavaConverterRegistry
+            .getInstance().getConverterFactories(IntCell.TYPE, Integer.class).stream().findFirst().get(),
+            countingConsumer)};
+
+        final H2ODestination testSink = new H2ODestination();
+        final DataRowConsumer<H2OParameters> rowConsumer = MappingFramework.createDataRowConsumer(testSink, mapping);
+        final H2OParameters[] parameters = new H2OParameters[]{new H2OParameters()};
+        for (int i = 0; i < 10; i++) {
+            testSink.h2oFrame.add(new Object[1]);
+            parameters[0].rowIndex = i;
+            rowConsumer.consumeDataRow(
+                new DefaultRow(RowKey.createRowKey((long)i), i == 5 ? new MissingCell(null) : new IntCell(i)),
+                parameters);
+        }
+        assertEquals("Consumer not reused", 1, createCount.get());
+        assertEquals(Integer.valueOf(9), testSink.h2oFrame.get(9)[0]);
+        assertNull(testSink.h2oFrame.get(5)[0]);
+    }
+
     /** Test getting all available production paths from {@link ProducerRegistry} */
     @Test
     public void availableProductionPathsTest() {
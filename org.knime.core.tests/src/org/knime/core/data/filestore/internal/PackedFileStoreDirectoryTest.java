@@ -0,0 +1,135 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.filestore.internal;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Testcases for {@link PackedFileStoreDirectory}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PackedFileStoreDirectoryTest {
+
+    private File m_tempDir;
+
+    /**
+     * Creates a temporary directory.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Before
+    public void createTempDir() throws Exception {
+        m_tempDir = FileUtil.createTempDir(getClass().getSimpleName());
+    }
+
+    /** Deletes the temporary directory. */
+    @After
+    public void deleteTempDir() {
+        FileUtil.deleteRecursively(m_tempDir);
+    }
+
+    /**
+     * Packs a directory with small, large and nested files and checks that unpacking restores the exact content.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testPackUnpackRoundTrip() throws Exception {
+        File source = new File(m_tempDir, "source");
+        Random rand = new Random(42);
+        byte[][] contents = new byte[50][];
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = new byte[i == 7 ? 100000 : rand.nextInt(200)];
+            rand.nextBytes(contents[i]);
+            File f = new File(source, String.format("%03d/file_%d.bin", i / 10, i));
+            f.getParentFile().mkdirs();
+            Files.write(f.toPath(), contents[i]);
+        }
+        new File(source, "000/empty_dir").mkdirs();
+
+        File packed = new File(m_tempDir, "packed");
+        PackedFileStoreDirectory.pack(source, packed, 1024);
+        assertThat("Small file not packed", new File(packed, "000/file_1.bin").exists(), is(false));
+        assertThat("Large file packed", new File(packed, "000/file_7.bin").exists(), is(true));
+
+        File restored = new File(m_tempDir, "restored");
+        PackedFileStoreDirectory.unpack(packed, restored);
+        for (int i = 0; i < contents.length; i++) {
+            File f = new File(restored, String.format("%03d/file_%d.bin", i / 10, i));
+            assertArrayEquals("Unexpected content in " + f.getName(), contents[i], Files.readAllBytes(f.toPath()));
+        }
+        assertThat("Empty directory not restored", new File(restored, "000/empty_dir").isDirectory(), is(true));
+        assertThat("Segment folder not removed",
+            new File(restored, PackedFileStoreDirectory.SEGMENT_FOLDER).exists(), is(false));
+    }
+
+    /**
+     * Checks that directories without segment index (as written by older versions) are copied as is.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testUnpackPlainDirectory() throws Exception {
+        File source = new File(m_tempDir, "plain");
+        File f = new File(source, "000/000/file.bin");
+        f.getParentFile().mkdirs();
+        Files.write(f.toPath(), new byte[]{1, 2, 3});
+        File restored = new File(m_tempDir, "restored");
+        PackedFileStoreDirectory.unpack(source, restored);
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(new File(restored, "000/000/file.bin").toPath()));
+    }
+}
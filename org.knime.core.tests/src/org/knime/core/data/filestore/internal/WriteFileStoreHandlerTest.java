@@ -0,0 +1,187 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.filestore.internal;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.filestore.FileStore;
+import org.knime.core.data.filestore.FileStoreUtil;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Testcases for {@link WriteFileStoreHandler}, in particular the hashed layout and concurrent file store creation.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class WriteFileStoreHandlerTest {
+
+    private File m_tempDir;
+
+    /**
+     * Creates a temporary directory.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Before
+    public void createTempDir() throws Exception {
+        m_tempDir = FileUtil.createTempDir(getClass().getSimpleName());
+    }
+
+    /** Deletes the temporary directory. */
+    @After
+    public void deleteTempDir() {
+        FileUtil.deleteRecursively(m_tempDir);
+    }
+
+    private WriteFileStoreHandler createHandler(final boolean hashed) throws Exception {
+        File baseDir = new File(m_tempDir, "fs");
+        baseDir.mkdirs();
+        if (hashed) {
+            new File(baseDir, ".layout_hashed").createNewFile();
+        }
+        WriteFileStoreHandler handler = new WriteFileStoreHandler("Test Node 0:1", UUID.randomUUID());
+        handler.setBaseDir(baseDir);
+        handler.open();
+        return handler;
+    }
+
+    /**
+     * File stores in the hashed layout are spread over three folder levels with at most
+     * {@link WriteFileStoreHandler#HASHED_FILES_PER_FOLDER} entries per folder.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testHashedLayout() throws Exception {
+        WriteFileStoreHandler handler = createHandler(true);
+        assertThat("Layout not detected from marker", handler.isHashedLayout(), is(true));
+        final int count = 3 * WriteFileStoreHandler.HASHED_FILES_PER_FOLDER + 17;
+        Set<File> files = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            File f = handler.createFileStore("file_" + i).getFile();
+            assertThat("Unable to create file " + f, f.createNewFile(), is(true));
+            files.add(f);
+            File relative = handler.getBaseDir().toPath().relativize(f.toPath()).toFile();
+            assertThat("Unexpected folder depth: " + relative, relative.toPath().getNameCount(),
+                is(WriteFileStoreHandler.HASHED_FOLDER_LEVEL + 1));
+        }
+        handler.close();
+        assertThat("File stores not unique", files.size(), is(count));
+        Set<File> leafFolders = new HashSet<>();
+        for (File f : files) {
+            leafFolders.add(f.getParentFile());
+        }
+        assertThat("Unexpected number of leaf folders", leafFolders.size(), is(4));
+        for (File folder : leafFolders) {
+            assertThat("Too many files in " + folder, folder.list().length
+                <= WriteFileStoreHandler.HASHED_FILES_PER_FOLDER, is(true));
+        }
+        // the default layout is used for directories without marker
+        assertThat(createHandler(false).isHashedLayout(), is(false));
+    }
+
+    /**
+     * File stores created concurrently get distinct indices and files; a duplicate name is still detected.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testConcurrentCreation() throws Exception {
+        final WriteFileStoreHandler handler = createHandler(true);
+        final int threads = 8;
+        final int perThread = 500;
+        ExecutorService service = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<FileStore>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                futures.add(service.submit((Callable<List<FileStore>>)() -> {
+                    List<FileStore> result = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        result.add(handler.createFileStore("file_" + thread + "_" + i));
+                    }
+                    return result;
+                }));
+            }
+            Set<Integer> indices = new HashSet<>();
+            Set<File> files = new HashSet<>();
+            for (Future<List<FileStore>> future : futures) {
+                for (FileStore fs : future.get()) {
+                    indices.add(FileStoreUtil.getFileStoreKey(fs).getIndex());
+                    files.add(fs.getFile());
+                    assertThat("Parent folder not created", fs.getFile().getParentFile().isDirectory(), is(true));
+                }
+            }
+            assertThat("Indices not unique", indices.size(), is(threads * perThread));
+            assertThat("Files not unique", files.size(), is(threads * perThread));
+            assertThat("Unexpected next index", handler.getNextIndex(), is(threads * perThread));
+        } finally {
+            service.shutdownNow();
+        }
+        try {
+            handler.createFileStore("file_3_42");
+            fail("Duplicate file store name not detected");
+        } catch (RuntimeException e) {
+            // expected
+        }
+        handler.close();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.image.png;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.image.png.PNGThumbnailCache.Key;
+import org.knime.core.data.image.png.PNGThumbnailCache.Thumbnail;
+
+/**
+ * Testcases for {@link PNGImageContent}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PNGImageContentTest {
+
+    /** Clears the shared thumbnail cache. */
+    @Before
+    public void clearCache() {
+        PNGThumbnailCache.clear();
+    }
+
+    private static byte[] createPNG(final int width, final int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Checks that the size is read from the image header.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testPreferredSize() throws Exception {
+        PNGImageContent content = new PNGImageContent(createPNG(400, 200));
+        assertThat("Unexpected size", content.getPreferredSize(), is(new Dimension(400, 200)));
+    }
+
+    /**
+     * Checks that images scaled to the rendered size are cached and shared among contents with the same bytes.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testPaintUsesSharedThumbnail() throws Exception {
+        byte[] bytes = createPNG(400, 200);
+        BufferedImage canvas = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = canvas.createGraphics();
+        try {
+            new PNGImageContent(bytes).paint(g, 100, 100);
+            assertThat("Unexpected number of cached images", PNGThumbnailCache.size(), is(1));
+            assertThat("Image not painted", canvas.getRGB(50, 50), is(Color.RED.getRGB()));
+
+            new PNGImageContent(Arrays.copyOf(bytes, bytes.length)).paint(g, 100, 100);
+            assertThat("Scaled image not shared", PNGThumbnailCache.size(), is(1));
+
+            new PNGImageContent(bytes).paint(g, 50, 50);
+            assertThat("Unexpected number of cached images", PNGThumbnailCache.size(), is(2));
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Checks that invalid content is rejected.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidContent() throws Exception {
+        new PNGImageContent(new byte[]{1, 2, 3, 4});
+    }
+
+    /**
+     * Checks that failures while decoding in the background don't leave the image pending forever.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testAsyncFailure() throws Exception {
+        byte[] bytes = createPNG(40, 20);
+        PNGImageContent content = new PNGImageContent(bytes) {
+            @Override
+            Thumbnail createThumbnail(final int width, final int height) {
+                throw new IllegalStateException("Decoding failed");
+            }
+        };
+        CountDownLatch done = new CountDownLatch(1);
+        PNGThumbnailCache.computeAsync(content, new Key(bytes, Arrays.hashCode(bytes), 10, 10), done::countDown);
+        assertThat("Callback not run", done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat("Image still pending", PNGThumbnailCache.pendingCount(), is(0));
+        Thumbnail thumbnail = PNGThumbnailCache.get(new Key(bytes, Arrays.hashCode(bytes), 10, 10));
+        assertThat("Error not cached", thumbnail.getError(), is("Decoding failed"));
+    }
+
+    /**
+     * Checks that the number of queued decoding tasks is bounded.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testAsyncQueueBounded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        final int count = PNGThumbnailCache.MAX_QUEUED_TASKS * 2;
+        try {
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = createPNG(10 + i, 10);
+                PNGImageContent content = new PNGImageContent(bytes) {
+                    @Override
+                    Thumbnail createThumbnail(final int width, final int height) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return super.createThumbnail(width, height);
+                    }
+                };
+                PNGThumbnailCache.computeAsync(content, new Key(bytes, Arrays.hashCode(bytes), 5, 5), () -> {
+                });
+            }
+            // at most 4 decoder threads
+            assertThat("Queue not bounded", PNGThumbnailCache.pendingCount() <= PNGThumbnailCache.MAX_QUEUED_TASKS + 4,
+                is(true));
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
+
+/**
+ * Tests {@link Shuffler#shuffleInBlocks(BufferedDataTable, ExecutionContext, long)} and
+ * {@link Shuffler#sample(BufferedDataTable, long, ExecutionContext, long)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ShufflerTest {
+
+    private ExecutionContext m_exec;
+
+    /** Creates the execution context. */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    @Before
+    public void setUp() {
+        m_exec = new ExecutionContext(new DefaultNodeProgressMonitor(),
+            new Node((NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(new PortType[0])),
+            SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, NotInWorkflowDataRepository.newInstance());
+    }
+
+    private BufferedDataTable createTable(final int rowCount) {
+        BufferedDataContainer cont =
+            m_exec.createDataContainer(new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec()));
+        for (int i = 0; i < rowCount; i++) {
+            cont.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i)));
+        }
+        cont.close();
+        return cont.getTable();
+    }
+
+    private static List<Integer> getValues(final BufferedDataTable table) {
+        List<Integer> values = new ArrayList<>();
+        try (CloseableRowIterator it = table.iterator()) {
+            while (it.hasNext()) {
+                DataRow row = it.next();
+                int value = ((IntValue)row.getCell(0)).getIntValue();
+                assertEquals("Row key doesn't match value", RowKey.createRowKey((long)value), row.getKey());
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * The result is a permutation of the input, which only depends on the seed; tables larger than the block size
+     * are shuffled recursively.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testShuffleInBlocks() throws Exception {
+        BufferedDataTable table = createTable(1000);
+        List<Integer> shuffled = getValues(Shuffler.shuffleInBlocks(table, m_exec, 42L, 10));
+        assertEquals("Unexpected row count", 1000, shuffled.size());
+        assertEquals("Not a permutation", 1000, new HashSet<>(shuffled).size());
+        assertNotEquals("Table not shuffled", getValues(table), shuffled);
+        assertEquals("Not deterministic", shuffled, getValues(Shuffler.shuffleInBlocks(table, m_exec, 42L, 10)));
+        assertNotEquals("Seed ignored", shuffled, getValues(Shuffler.shuffleInBlocks(table, m_exec, 43L, 10)));
+        List<Integer> inMemory = getValues(Shuffler.shuffleInBlocks(table, m_exec, 42L));
+        assertEquals("Not a permutation", 1000, new HashSet<>(inMemory).size());
+    }
+
+    /**
+     * If memory runs low while blocks are read, the blocks are sorted instead of shuffled in memory; the result is
+     * the same permutation.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testShuffleInBlocksLowMemory() throws Exception {
+        BufferedDataTable table = createTable(1000);
+        for (int blockSize : new int[]{1000, 100}) {
+            AtomicInteger checks = new AtomicInteger();
+            List<Integer> shuffled = getValues(
+                Shuffler.shuffleInBlocks(table, m_exec, 42L, blockSize, () -> checks.incrementAndGet() % 50 == 0));
+            assertEquals("Unexpected row count", 1000, shuffled.size());
+            assertEquals("Not a permutation", 1000, new HashSet<>(shuffled).size());
+            assertNotEquals("Table not shuffled", getValues(table), shuffled);
+            assertEquals("Result depends on memory",
+                getValues(Shuffler.shuffleInBlocks(table, m_exec, 42L, blockSize, () -> false)), shuffled);
+        }
+    }
+
+    /**
+     * All permutations of a small table are drawn about equally often, also if the table is split into blocks.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testShuffleInBlocksUniform() throws Exception {
+        BufferedDataTable table = createTable(3);
+        Map<List<Integer>, Integer> counts = new HashMap<>();
+        final int runs = 300;
+        for (long seed = 0; seed < runs; seed++) {
+            counts.merge(getValues(Shuffler.shuffleInBlocks(table, m_exec, seed, 1)), 1, Integer::sum);
+        }
+        assertEquals("Not all permutations drawn: " + counts, 6, counts.size());
+        for (Map.Entry<List<Integer>, Integer> e : counts.entrySet()) {
+            // expected 50 each
+            assertTrue("Permutation " + e.getKey() + " drawn " + e.getValue() + " times",
+                e.getValue() >= 20 && e.getValue() <= 80);
+        }
+    }
+
+    /**
+     * Samples have the requested size, keep the row order and only depend on the seed.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testSample() throws Exception {
+        BufferedDataTable table = createTable(1000);
+        List<Integer> sample = getValues(Shuffler.sample(table, 100, m_exec, 42L));
+        assertEquals("Unexpected sample size", 100, sample.size());
+        for (int i = 1; i < sample.size(); i++) {
+            assertTrue("Row order not retained", sample.get(i - 1) < sample.get(i));
+        }
+        assertEquals("Not deterministic", sample, getValues(Shuffler.sample(table, 100, m_exec, 42L)));
+        assertNotEquals("Seed ignored", sample, getValues(Shuffler.sample(table, 100, m_exec, 43L)));
+
+        assertEquals("Unexpected sample size", 0, Shuffler.sample(table, 0, m_exec, 42L).size());
+        assertEquals("Sample larger than table", getValues(table),
+            getValues(Shuffler.sample(table, 2000, m_exec, 42L)));
+    }
+
+    /**
+     * Each row is drawn with about the same probability.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testSampleUniform() throws Exception {
+        BufferedDataTable table = createTable(10);
+        int[] counts = new int[10];
+        final int runs = 500;
+        for (long seed = 0; seed < runs; seed++) {
+            for (int value : getValues(Shuffler.sample(table, 2, m_exec, seed))) {
+                counts[value]++;
+            }
+        }
+        for (int i = 0; i < counts.length; i++) {
+            // expected 100 each
+            assertTrue("Row " + i + " drawn " + counts[i] + " times", counts[i] >= 60 && counts[i] <= 140);
+        }
+    }
+}
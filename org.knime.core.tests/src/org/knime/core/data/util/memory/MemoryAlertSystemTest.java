@@ -52,11 +52,16 @@
 import static org.junit.Assert.assertThat;
 
 import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.knime.core.data.util.memory.MemoryAlertSystem.MemoryPressure;
 import org.knime.core.node.NodeLogger;
 
 /**
@@ -216,6 +221,62 @@ protected boolean memoryAlert(final MemoryAlert alert) {
         }
     }
 
+    /**
+     * Checks whether listeners with release priority are notified in order of their priority and whether pressure
+     * levels are recorded.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testPrioritizedListeners() throws Exception {
+        int reserveSize = (int)(MemoryAlertSystem.DEFAULT_USAGE_THRESHOLD
+            * (MemoryAlertSystem.getMaximumMemory() - MemoryAlertSystem.getUsedMemory()));
+        final long hardCount = m_memSystem.getPressureCount(MemoryPressure.HARD);
+
+        final List<String> notified = Collections.synchronizedList(new ArrayList<>());
+        MemoryAlertListener small = new PrioritizedListener("small", 10, notified);
+        MemoryAlertListener large = new PrioritizedListener("large", 1000, notified);
+        m_memSystem.addListener(small);
+        m_memSystem.addListener(large);
+        try {
+            @SuppressWarnings("unused")
+            byte[] buf = new byte[reserveSize];
+            forceGC();
+            Thread.sleep(2000);
+            assertThat("Listeners not notified in order of priority", notified, is(Arrays.asList("large", "small")));
+            assertThat("Hard pressure level not recorded",
+                m_memSystem.getPressureCount(MemoryPressure.HARD) > hardCount, is(true));
+        } finally {
+            m_memSystem.removeListener(small);
+            m_memSystem.removeListener(large);
+        }
+    }
+
+    private static final class PrioritizedListener extends MemoryAlertListener {
+        private final String m_name;
+
+        private final long m_priority;
+
+        private final List<String> m_notified;
+
+        PrioritizedListener(final String name, final long priority, final List<String> notified) {
+            m_name = name;
+            m_priority = priority;
+            m_notified = notified;
+        }
+
+        @Override
+        protected boolean memoryAlert(final MemoryAlert alert) {
+            m_notified.add(m_name);
+            return true;
+        }
+
+        @Override
+        protected long getReleasePriority() {
+            return m_priority;
+        }
+    }
+
     /**
      * Forces a GC run. By using soft reference {@link System#gc()} is called until the soft reference has been cleared.
      *
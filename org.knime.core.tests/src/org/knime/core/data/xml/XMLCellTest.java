@@ -49,11 +49,15 @@
 package org.knime.core.data.xml;
 
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.junit.Test;
+import org.knime.core.data.util.LockedSupplier;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -122,4 +126,56 @@ public void testEqualsAndHashcodeEqual() throws Exception {
         assertThat("equals and hashcode are not compatible", eq && hc || !eq , is(true));
     }
 
+    /**
+     * Checks that cells created from the same string share the parsed document, while documents passed
+     * in by the caller are not shared.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testParsedDocumentIsShared() throws Exception {
+        XMLDocumentCache.clear();
+        String xml = "<root><child attr=\"value\"/></root>";
+        XMLCellContent c1 = new XMLCellContent(xml, true);
+        XMLCellContent c2 = new XMLCellContent(xml, true);
+        XMLCellContent c3 = new XMLCellContent(c1.getStringValue(), false);
+        try (LockedSupplier<Document> s1 = c1.getDocumentSupplier();
+                LockedSupplier<Document> s2 = c2.getDocumentSupplier();
+                LockedSupplier<Document> s3 = c3.getDocumentSupplier()) {
+            assertSame("Parsed document not shared", s1.get(), s2.get());
+            assertSame("Parsed document not shared for lazily parsed content", s1.get(), s3.get());
+        }
+
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        doc.appendChild(doc.createElement("root"));
+        XMLCellContent c4 = new XMLCellContent(doc);
+        XMLCellContent c5 = new XMLCellContent(c4.getStringValue(), true);
+        assertSame("Caller's document not used", doc, c4.getDocument());
+        assertNotSame("Caller's document shared", doc, c5.getDocument());
+    }
+
+    /**
+     * Checks that the deprecated {@link XMLCellContent#getDocument()} doesn't expose the shared document.
+     *
+     * @throws Exception if an error occurs
+     */
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testSharedDocumentNotExposed() throws Exception {
+        XMLDocumentCache.clear();
+        String xml = "<root><child attr=\"value\"/></root>";
+        XMLCellContent c1 = new XMLCellContent(xml, true);
+        XMLCellContent c2 = new XMLCellContent(xml, true);
+        Document copy = c1.getDocument();
+        try (LockedSupplier<Document> s1 = c1.getDocumentSupplier()) {
+            assertNotSame("Shared document returned", s1.get(), copy);
+        }
+        Element copiedChild = (Element)copy.getElementsByTagName("child").item(0);
+        copiedChild.removeAttribute("attr");
+        assertNull("Attribute not removed", copiedChild.getAttributeNode("attr"));
+        try (LockedSupplier<Document> s2 = c2.getDocumentSupplier()) {
+            Element child = (Element)s2.get().getElementsByTagName("child").item(0);
+            assertThat("Shared document modified", child.getAttribute("attr"), is("value"));
+        }
+    }
 }
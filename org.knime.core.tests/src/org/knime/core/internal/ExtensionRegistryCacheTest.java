@@ -0,0 +1,159 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.internal;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Testcases for {@link ExtensionRegistryCache}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ExtensionRegistryCacheTest {
+
+    private File m_tempDir;
+
+    private File m_file;
+
+    /**
+     * Creates a temporary directory.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Before
+    public void createTempDir() throws Exception {
+        m_tempDir = FileUtil.createTempDir(getClass().getSimpleName());
+        m_file = new File(new File(m_tempDir, "registry-cache"), "org.knime.test.properties");
+    }
+
+    /** Deletes the temporary directory. */
+    @After
+    public void deleteTempDir() {
+        FileUtil.deleteRecursively(m_tempDir);
+    }
+
+    /** Entries written by one instance are read by the next one if the fingerprint matches. */
+    @Test
+    public void testSaveAndLoad() {
+        ExtensionRegistryCache cache = ExtensionRegistryCache.load(m_file, "a@1.0;b@2.0");
+        assertThat("New cache not empty", cache.get("key").isEmpty(), is(true));
+        cache.put("key", Arrays.asList("org.b.Cell", "org.a.Cell"));
+        cache.put("empty", Collections.emptyList());
+        cache.save();
+        assertThat("Cache not written", m_file.isFile(), is(true));
+
+        ExtensionRegistryCache loaded = ExtensionRegistryCache.load(m_file, "a@1.0;b@2.0");
+        assertThat(loaded.get("key"), is(new TreeSet<>(Arrays.asList("org.a.Cell", "org.b.Cell"))));
+        assertThat(loaded.get("empty").isEmpty(), is(true));
+        assertThat(loaded.get("unknown").isEmpty(), is(true));
+    }
+
+    /** A cache written for other plug-in versions is ignored. */
+    @Test
+    public void testOutdatedFingerprint() {
+        ExtensionRegistryCache cache = ExtensionRegistryCache.load(m_file, "a@1.0");
+        cache.put("key", Arrays.asList("org.a.Cell"));
+        cache.save();
+        ExtensionRegistryCache loaded = ExtensionRegistryCache.load(m_file, "a@1.1");
+        assertThat("Outdated entry used", loaded.get("key").isEmpty(), is(true));
+    }
+
+    /** Unmodified caches are not written; putting an identical entry doesn't modify the cache. */
+    @Test
+    public void testNoWriteIfUnchanged() {
+        ExtensionRegistryCache cache = ExtensionRegistryCache.load(m_file, "a@1.0");
+        cache.save();
+        assertThat("Empty unmodified cache written", m_file.exists(), is(false));
+        cache.put("key", Arrays.asList("org.a.Cell"));
+        cache.save();
+        long lastModified = m_file.lastModified();
+        m_file.setLastModified(lastModified - 10000);
+        cache.put("key", Arrays.asList("org.a.Cell"));
+        cache.save();
+        assertThat("Unchanged cache written again", m_file.lastModified(), is(lastModified - 10000));
+    }
+
+    /**
+     * Concurrent writers (e.g. several KNIME instances sharing the home directory) each use their own temporary file,
+     * the result is always a complete cache and no temporary files are left behind.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testConcurrentSave() throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 20; i++) {
+                    ExtensionRegistryCache cache = ExtensionRegistryCache.load(m_file, "a@1.0");
+                    cache.put("key", Arrays.asList("org.a.Cell" + thread, "org.b.Cell" + i));
+                    cache.save();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread t : threads) {
+            t.join();
+        }
+        ExtensionRegistryCache loaded = ExtensionRegistryCache.load(m_file, "a@1.0");
+        assertThat("Incomplete cache", loaded.get("key").size(), is(2));
+        assertThat("Temporary files left behind", Arrays.asList(m_file.getParentFile().list()),
+            is(Arrays.asList(m_file.getName())));
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.AsyncLogDispatcher.OverflowPolicy;
+
+/**
+ * Testcases for {@link AsyncLogDispatcher}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class AsyncLogDispatcherTest {
+
+    private Logger m_logger;
+
+    private CollectingAppender m_appender;
+
+    /** Creates a logger with a collecting appender. */
+    @Before
+    public void setUp() {
+        m_logger = Logger.getLogger(getClass().getName() + "." + UUID.randomUUID());
+        m_logger.setAdditivity(false);
+        m_logger.setLevel(Level.DEBUG);
+        m_appender = new CollectingAppender();
+        m_logger.addAppender(m_appender);
+    }
+
+    /** Removes the appender. */
+    @After
+    public void tearDown() {
+        m_appender.m_block.countDown();
+        m_logger.removeAllAppenders();
+    }
+
+    private LoggingEvent createEvent(final String message) {
+        return new LoggingEvent(AsyncLogDispatcherTest.class.getName(), m_logger, Level.INFO, message, null);
+    }
+
+    /**
+     * Events of one thread are written in the order they were logged, also if the buffer is much smaller than the
+     * number of events.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testOrdering() throws Exception {
+        final AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(16, OverflowPolicy.BLOCK);
+        final int threadCount = 4;
+        final int eventCount = 1000;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < eventCount; i++) {
+                    dispatcher.dispatch(createEvent(thread + ":" + i));
+                }
+            }, "Logging Thread " + t));
+        }
+        threads.forEach(Thread::start);
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertThat("Not flushed within timeout", dispatcher.flush(10000), is(true));
+        List<LoggingEvent> events = m_appender.getEvents();
+        assertThat("Unexpected number of events", events.size(), is(threadCount * eventCount));
+        int[] next = new int[threadCount];
+        for (LoggingEvent e : events) {
+            String[] split = ((String)e.getMessage()).split(":");
+            int thread = Integer.parseInt(split[0]);
+            assertThat("Event out of order", Integer.parseInt(split[1]), is(next[thread]++));
+            assertThat("Thread name not captured", e.getThreadName(), is("Logging Thread " + thread));
+        }
+        assertThat(dispatcher.getDroppedCount(), is(0L));
+    }
+
+    /**
+     * Flush waits for the events submitted before and times out if the appender doesn't return.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testFlush() throws Exception {
+        final AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(16, OverflowPolicy.BLOCK);
+        m_appender.m_block = new CountDownLatch(1);
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(createEvent("event " + i));
+        }
+        assertThat("Flush returned although appender is blocked", dispatcher.flush(200), is(false));
+        m_appender.m_block.countDown();
+        assertThat("Not flushed within timeout", dispatcher.flush(10000), is(true));
+        assertThat("Unexpected number of events", m_appender.getEvents().size(), is(5));
+        assertThat(dispatcher.getPendingCount(), is(0));
+    }
+
+    /**
+     * Shutdown writes pending events; later events are written on the logging thread.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testShutdown() throws Exception {
+        final AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(16, OverflowPolicy.BLOCK);
+        for (int i = 0; i < 100; i++) {
+            dispatcher.dispatch(createEvent("event " + i));
+        }
+        assertThat("Not flushed within timeout", dispatcher.shutdown(10000), is(true));
+        assertThat("Pending events not written", m_appender.getEvents().size(), is(100));
+        dispatcher.dispatch(createEvent("after shutdown"));
+        List<LoggingEvent> events = m_appender.getEvents();
+        assertThat("Event not written synchronously", events.size(), is(101));
+        assertThat(events.get(100).getMessage(), is("after shutdown"));
+        assertThat(m_appender.m_appendThreads.get(100), is(Thread.currentThread().getName()));
+    }
+
+    /**
+     * The location of the logging call is that of the caller, not of the writer thread.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testLocationInformation() throws Exception {
+        final AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(16, OverflowPolicy.BLOCK);
+        Caller.log(dispatcher, m_logger);
+        assertThat("Not flushed within timeout", dispatcher.flush(10000), is(true));
+        LoggingEvent event = m_appender.getEvents().get(0);
+        assertThat(event.getLocationInformation().getClassName(), is(AsyncLogDispatcherTest.class.getName()));
+        assertThat(event.getLocationInformation().getMethodName(), is("testLocationInformation"));
+    }
+
+    /**
+     * The location is only captured if one of the appenders outputs it.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testLocationInformationOnlyIfUsed() throws Exception {
+        m_appender.setLayout(new PatternLayout("%-5p %c{1} %m%n"));
+        assertThat(AsyncLogDispatcher.isLocationUsed(m_logger), is(false));
+        final AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(16, OverflowPolicy.BLOCK);
+        Caller.log(dispatcher, m_logger);
+        assertThat("Not flushed within timeout", dispatcher.flush(10000), is(true));
+        // computed on this thread now, where the logging call isn't on the stack anymore
+        assertThat(m_appender.getEvents().get(0).getLocationInformation().getMethodName(),
+            is(not("testLocationInformationOnlyIfUsed")));
+
+        for (String pattern : new String[]{"%l %m", "%-20C{1} %m", "%m (%F:%L)", "%M%n"}) {
+            m_appender.setLayout(new PatternLayout(pattern));
+            assertThat("Location not detected in " + pattern, AsyncLogDispatcher.isLocationUsed(m_logger), is(true));
+        }
+        m_appender.setLayout(new PatternLayout("%%L %m"));
+        assertThat("Escaped percent sign not detected", AsyncLogDispatcher.isLocationUsed(m_logger), is(false));
+    }
+
+    /** Logging "facade" whose caller is reported as location. */
+    private static final class Caller {
+        static void log(final AsyncLogDispatcher dispatcher, final Logger logger) {
+            dispatcher.dispatch(new LoggingEvent(Caller.class.getName(), logger, Level.INFO, "located", null));
+        }
+    }
+
+    /** Keeps all events; optionally blocks until released. */
+    private static final class CollectingAppender extends AppenderSkeleton {
+
+        private final List<LoggingEvent> m_events = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<String> m_appendThreads = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile CountDownLatch m_block = new CountDownLatch(0);
+
+        @Override
+        protected void append(final LoggingEvent event) {
+            try {
+                m_block.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            m_events.add(event);
+            m_appendThreads.add(Thread.currentThread().getName());
+        }
+
+        List<LoggingEvent> getEvents() {
+            synchronized (m_events) {
+                return new ArrayList<>(m_events);
+            }
+        }
+
+        @Override
+        public boolean requiresLayout() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
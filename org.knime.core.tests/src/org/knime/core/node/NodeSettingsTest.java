@@ -73,6 +73,7 @@
 import org.knime.core.data.def.IntCell;
 import org.knime.core.data.def.StringCell;
 import org.knime.core.node.config.Config;
+import org.knime.core.node.config.ConfigBinaryFormat;
 import org.knime.core.node.config.base.JSONConfig;
 import org.knime.core.node.config.base.JSONConfig.WriterConfig;
 
@@ -98,6 +99,7 @@ public void tearDown() throws Exception {
         testFile();
         testXML();
         testJSON();
+        testBinary();
     }
 
 //    /**
@@ -823,6 +825,30 @@ public void testJSON() throws Exception {
         assertTrue(copySettings.equals(m_settings));
     }
 
+    /**
+     * Test binary read/write, including that the XML of the restored settings is identical.
+     * @throws IOException
+     */
+    public void testBinary() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ConfigBinaryFormat.save(m_settings, os);
+        NodeSettings settings = new NodeSettings("test-settings");
+        ConfigBinaryFormat.loadXMLOrBinary(settings, new ByteArrayInputStream(os.toByteArray()));
+        assertTrue(settings.equals(m_settings));
+
+        ByteArrayOutputStream expectedXML = new ByteArrayOutputStream();
+        m_settings.saveToXML(expectedXML);
+        ByteArrayOutputStream actualXML = new ByteArrayOutputStream();
+        settings.saveToXML(actualXML);
+        Assert.assertArrayEquals(expectedXML.toByteArray(), actualXML.toByteArray());
+
+        os = new ByteArrayOutputStream();
+        ConfigBinaryFormat.save(m_settings, os);
+        NodeSettings keyed = ConfigBinaryFormat.load(new ByteArrayInputStream(os.toByteArray()), NodeSettings::new);
+        Assert.assertEquals("Root key not restored", m_settings.getKey(), keyed.getKey());
+        assertTrue(keyed.equals(m_settings));
+    }
+
     /**
      * Checks whether the add/getPassword methods work as expected.
      *
@@ -0,0 +1,407 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.port.flowvariable.FlowVariablePortObject;
+import org.knime.core.node.streamable.InputPortRole;
+import org.knime.core.node.streamable.MergeOperator;
+import org.knime.core.node.streamable.OutputPortRole;
+import org.knime.core.node.streamable.PartitionInfo;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortOutput;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.node.streamable.StreamableOperator;
+import org.knime.core.node.streamable.StreamableOperatorInternals;
+import org.knime.core.node.streamable.simple.SimpleStreamableOperatorInternals;
+import org.knime.core.node.workflow.ExecutionEnvironment;
+import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
+
+/**
+ * Tests {@link PartitionedStreamableExecutor}: the output of a partitioned execution must match the output of the
+ * sequential execution, errors and cancelation must be passed on.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PartitionedStreamableExecutorTest {
+
+    private static final int ROW_COUNT = 1003;
+
+    private static final DataTableSpec IN_SPEC =
+        new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec());
+
+    private static final DataTableSpec DOUBLED_SPEC =
+        new DataTableSpec(new DataColumnSpecCreator("doubled", IntCell.TYPE).createSpec());
+
+    private static final DataTableSpec SUM_SPEC =
+        new DataTableSpec(new DataColumnSpecCreator("sum", LongCell.TYPE).createSpec());
+
+    private DefaultNodeProgressMonitor m_monitor;
+
+    private ExecutionContext m_exec;
+
+    /** Creates the execution context. */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    @Before
+    public void setUp() {
+        m_monitor = new DefaultNodeProgressMonitor();
+        m_exec = new ExecutionContext(m_monitor,
+            new Node((NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(new PortType[0])),
+            SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, NotInWorkflowDataRepository.newInstance());
+    }
+
+    /** Clears the property enabling partitioned execution. */
+    @After
+    public void tearDown() {
+        System.clearProperty(KNIMEConstants.PROPERTY_PARTITIONED_EXECUTION);
+    }
+
+    private BufferedDataTable createTable() {
+        BufferedDataContainer cont = m_exec.createDataContainer(IN_SPEC);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            cont.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i)));
+        }
+        cont.close();
+        return cont.getTable();
+    }
+
+    private static List<String> getRows(final PortObject table) {
+        List<String> rows = new ArrayList<>();
+        try (CloseableRowIterator it = ((BufferedDataTable)table).iterator()) {
+            while (it.hasNext()) {
+                rows.add(it.next().toString());
+            }
+        }
+        return rows;
+    }
+
+    private static void assertSameOutput(final PortObject[] expected, final PortObject[] actual) {
+        assertEquals("Unexpected number of outputs", expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Different output at port " + i, getRows(expected[i]), getRows(actual[i]));
+        }
+    }
+
+    /**
+     * Partitioned execution, with and without hierarchical merging, yields the same output as the sequential one.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testSameAsSequential() throws Exception {
+        PortObject[] inObjects = {createTable()};
+        SumNodeModel model = new SumNodeModel(-1);
+        PortObject[] expected = model.execute(inObjects, m_exec);
+        assertEquals("Unexpected sum", (long)ROW_COUNT * (ROW_COUNT - 1) / 2,
+            ((LongValue)((BufferedDataTable)expected[1]).iterator().next().getCell(0)).getLongValue());
+        for (int partitions : new int[]{1, 2, 7, 16}) {
+            PortObject[] actual = new PartitionedStreamableExecutor(model, partitions, 2).execute(inObjects,
+                new PortObjectSpec[]{IN_SPEC}, m_exec);
+            assertSameOutput(expected, actual);
+        }
+    }
+
+    /**
+     * The node model uses the executor if the property is set.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testNodeModelExecution() throws Exception {
+        PortObject[] inObjects = {createTable()};
+        SumNodeModel model = new SumNodeModel(-1);
+        PortObject[] expected = model.execute(inObjects, m_exec);
+        PortObject[] rawInObjects = ArrayUtils.add(inObjects, 0, FlowVariablePortObject.INSTANCE);
+
+        PortObject[] actual = model.executeModel(rawInObjects, ExecutionEnvironment.DEFAULT, m_exec);
+        assertEquals("Partitioned execution used although not enabled", 0, model.m_operatorCount.get());
+        assertSameOutput(expected, ArrayUtils.remove(actual, 0));
+
+        System.setProperty(KNIMEConstants.PROPERTY_PARTITIONED_EXECUTION, "4");
+        assertEquals("Unexpected partition count", 4,
+            PartitionedStreamableExecutor.getPartitionCount(model, inObjects));
+        actual = model.executeModel(rawInObjects, ExecutionEnvironment.DEFAULT, m_exec);
+        assertEquals("Partitioned execution not used", 4, model.m_operatorCount.get());
+        assertSameOutput(expected, ArrayUtils.remove(actual, 0));
+    }
+
+    /**
+     * Nodes with a streamable input that is not distributable run in a single partition, which gets all rows.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testNonDistributedStreamableInput() throws Exception {
+        BufferedDataTable table = createTable();
+        PortObject[] inObjects = {table, table};
+        SumNodeModel model = new SumNodeModel(-1, true);
+        PortObject[] expected = model.execute(inObjects, m_exec);
+        System.setProperty(KNIMEConstants.PROPERTY_PARTITIONED_EXECUTION, "4");
+        assertEquals("Partitioned execution used", 0, PartitionedStreamableExecutor.getPartitionCount(model,
+            inObjects));
+        PortObject[] actual = new PartitionedStreamableExecutor(model, 4, 2).execute(inObjects,
+            new PortObjectSpec[]{IN_SPEC, IN_SPEC}, m_exec);
+        assertEquals("Not run in a single partition", 1, model.m_operatorCount.get());
+        assertSameOutput(expected, actual);
+    }
+
+    /**
+     * An exception thrown in one of the partitions is passed on to the caller.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testErrorInPartition() throws Exception {
+        PortObject[] inObjects = {createTable()};
+        try {
+            new PartitionedStreamableExecutor(new SumNodeModel(ROW_COUNT - 10), 4, 2).execute(inObjects,
+                new PortObjectSpec[]{IN_SPEC}, m_exec);
+            fail("Expected exception not thrown");
+        } catch (IllegalStateException e) {
+            assertTrue("Unexpected exception: " + e.getMessage(), e.getMessage().startsWith("Failing"));
+        }
+    }
+
+    /**
+     * Canceling the execution cancels the partitions.
+     *
+     * @throws Exception not expected
+     */
+    @Test(expected = CanceledExecutionException.class)
+    public void testCancelation() throws Exception {
+        PortObject[] inObjects = {createTable()};
+        m_monitor.setExecuteCanceled();
+        new PartitionedStreamableExecutor(new SumNodeModel(-1), 4, 2).execute(inObjects,
+            new PortObjectSpec[]{IN_SPEC}, m_exec);
+    }
+
+    /**
+     * Doubles the values of a distributable int column (first output, distributable) and sums up the values (second
+     * output, computed from the merged internals). Fails for the given value. Optionally has a second,
+     * streamable but not distributable input, which is ignored.
+     */
+    private static final class SumNodeModel extends NodeModel {
+
+        private static final String CFG_SUM = "sum";
+
+        private final int m_failValue;
+
+        private final boolean m_hasNonDistributedInput;
+
+        private final AtomicInteger m_operatorCount = new AtomicInteger();
+
+        SumNodeModel(final int failValue) {
+            this(failValue, false);
+        }
+
+        SumNodeModel(final int failValue, final boolean hasNonDistributedInput) {
+            super(hasNonDistributedInput ? 2 : 1, 2);
+            m_failValue = failValue;
+            m_hasNonDistributedInput = hasNonDistributedInput;
+        }
+
+        private int doubleValue(final DataRow row) {
+            int value = ((IntValue)row.getCell(0)).getIntValue();
+            if (value == m_failValue) {
+                throw new IllegalStateException("Failing for row " + row.getKey());
+            }
+            return 2 * value;
+        }
+
+        private static DataRow createSumRow(final long sum) {
+            return new DefaultRow(RowKey.createRowKey(0L), new LongCell(sum));
+        }
+
+        @Override
+        protected DataTableSpec[] configure(final DataTableSpec[] inSpecs) throws InvalidSettingsException {
+            return new DataTableSpec[]{DOUBLED_SPEC, SUM_SPEC};
+        }
+
+        @Override
+        protected BufferedDataTable[] execute(final BufferedDataTable[] inData, final ExecutionContext exec)
+            throws Exception {
+            BufferedDataContainer doubled = exec.createDataContainer(DOUBLED_SPEC);
+            long sum = 0;
+            for (DataRow row : inData[0]) {
+                doubled.addRowToTable(new DefaultRow(row.getKey(), new IntCell(doubleValue(row))));
+                sum += ((IntValue)row.getCell(0)).getIntValue();
+            }
+            doubled.close();
+            BufferedDataContainer sumCont = exec.createDataContainer(SUM_SPEC);
+            sumCont.addRowToTable(createSumRow(sum));
+            sumCont.close();
+            return new BufferedDataTable[]{doubled.getTable(), sumCont.getTable()};
+        }
+
+        @Override
+        public InputPortRole[] getInputPortRoles() {
+            return m_hasNonDistributedInput
+                ? new InputPortRole[]{InputPortRole.DISTRIBUTED_STREAMABLE, InputPortRole.NONDISTRIBUTED_STREAMABLE}
+                : new InputPortRole[]{InputPortRole.DISTRIBUTED_STREAMABLE};
+        }
+
+        @Override
+        public OutputPortRole[] getOutputPortRoles() {
+            return new OutputPortRole[]{OutputPortRole.DISTRIBUTED, OutputPortRole.NONDISTRIBUTED};
+        }
+
+        @Override
+        public StreamableOperator createStreamableOperator(final PartitionInfo partitionInfo,
+            final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+            m_operatorCount.incrementAndGet();
+            return new StreamableOperator() {
+                private long m_sum;
+
+                @Override
+                public void runFinal(final PortInput[] inputs, final PortOutput[] outputs,
+                    final ExecutionContext exec) throws Exception {
+                    RowInput in = (RowInput)inputs[0];
+                    RowOutput out = (RowOutput)outputs[0];
+                    DataRow row;
+                    while ((row = in.poll()) != null) {
+                        exec.checkCanceled();
+                        out.push(new DefaultRow(row.getKey(), new IntCell(doubleValue(row))));
+                        m_sum += ((IntValue)row.getCell(0)).getIntValue();
+                    }
+                    out.close();
+                }
+
+                @Override
+                public StreamableOperatorInternals saveInternals() {
+                    SimpleStreamableOperatorInternals internals = new SimpleStreamableOperatorInternals();
+                    internals.getConfig().addLong(CFG_SUM, m_sum);
+                    return internals;
+                }
+            };
+        }
+
+        @Override
+        public MergeOperator createMergeOperator() {
+            return new MergeOperator() {
+                @Override
+                public boolean isHierarchical() {
+                    return true;
+                }
+
+                @Override
+                public StreamableOperatorInternals mergeFinal(final StreamableOperatorInternals[] operators) {
+                    long sum = 0;
+                    for (StreamableOperatorInternals internals : operators) {
+                        sum += ((SimpleStreamableOperatorInternals)internals).getConfig().getLong(CFG_SUM, 0);
+                    }
+                    SimpleStreamableOperatorInternals merged = new SimpleStreamableOperatorInternals();
+                    merged.getConfig().addLong(CFG_SUM, sum);
+                    return merged;
+                }
+            };
+        }
+
+        @Override
+        public void finishStreamableExecution(final StreamableOperatorInternals internals,
+            final ExecutionContext exec, final PortOutput[] output) throws Exception {
+            RowOutput out = (RowOutput)output[1];
+            out.push(createSumRow(((SimpleStreamableOperatorInternals)internals).getConfig().getLong(CFG_SUM, 0)));
+            out.close();
+        }
+
+        @Override
+        protected void loadInternals(final File nodeInternDir, final ExecutionMonitor exec) {
+            // no internals
+        }
+
+        @Override
+        protected void saveInternals(final File nodeInternDir, final ExecutionMonitor exec) {
+            // no internals
+        }
+
+        @Override
+        protected void saveSettingsTo(final NodeSettingsWO settings) {
+            // no settings
+        }
+
+        @Override
+        protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
+            // no settings
+        }
+
+        @Override
+        protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
+            // no settings
+        }
+
+        @Override
+        protected void reset() {
+            m_operatorCount.set(0);
+        }
+    }
+}
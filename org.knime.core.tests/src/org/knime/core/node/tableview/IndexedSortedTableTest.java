@@ -0,0 +1,142 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node.tableview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.DataContainer;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DefaultTable;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.tableview.IndexedSortedTable.IndexedRowIterator;
+
+/**
+ * Tests {@link IndexedSortedTable}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class IndexedSortedTableTest {
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+        new DataColumnSpecCreator("int", IntCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("string", StringCell.TYPE).createSpec());
+
+    /** Number of rows, spans multiple blocks. */
+    private static final int ROW_COUNT = 3 * IndexedSortedTable.BLOCK_SIZE + 17;
+
+    private static DataContainer createTable() {
+        DataContainer container = new DataContainer(SPEC);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            // values are a permutation of 0..ROW_COUNT-1
+            int value = (int)((i * 7919L) % ROW_COUNT);
+            container.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(value),
+                new StringCell("s" + value)));
+        }
+        container.close();
+        return container;
+    }
+
+    /** Sorting on a column (descending first, as in the view) returns all rows in the expected order.
+     * @throws Exception if that fails */
+    @Test
+    public void testSortDescending() throws Exception {
+        DataContainer container = createTable();
+        IndexedSortedTable sorted =
+            IndexedSortedTable.sort(container.getTable(), new TableSortOrder(0), new ExecutionMonitor());
+        assertEquals("Unexpected size", ROW_COUNT, sorted.size());
+        int expected = ROW_COUNT - 1;
+        for (DataRow row : sorted) {
+            assertEquals("Unexpected value", expected, ((IntCell)row.getCell(0)).getIntValue());
+            assertEquals("Unexpected value", "s" + expected, ((StringCell)row.getCell(1)).getStringValue());
+            expected--;
+        }
+        assertEquals("Not all rows returned", -1, expected);
+    }
+
+    /** Rows can be skipped, keys can be accessed without reading the row.
+     * @throws Exception if that fails */
+    @Test
+    public void testSkipAndPeek() throws Exception {
+        DataContainer container = createTable();
+        IndexedSortedTable sorted = IndexedSortedTable.sort(container.getTable(),
+            new TableSortOrder(0).nextSortOrder(0), new ExecutionMonitor());
+        IndexedRowIterator it = sorted.iterator();
+        assertEquals("Unexpected first value", 0, ((IntCell)it.next().getCell(0)).getIntValue());
+        assertEquals("Unexpected skip count", 2 * IndexedSortedTable.BLOCK_SIZE,
+            it.skip(2 * IndexedSortedTable.BLOCK_SIZE));
+        final int position = 1 + 2 * IndexedSortedTable.BLOCK_SIZE;
+        RowKey key = it.peekKey();
+        DataRow row = it.next();
+        assertEquals("Key of index and row differ", key, row.getKey());
+        assertEquals("Unexpected value after skip", position, ((IntCell)row.getCell(0)).getIntValue());
+        assertEquals("Unexpected skip count at end", ROW_COUNT - position - 1, it.skip(Integer.MAX_VALUE));
+        assertFalse("Iterator not at end", it.hasNext());
+        it.close();
+    }
+
+    /** Tables of unknown size and tables on disk can't be sorted by index. */
+    @Test
+    public void testIsApplicable() {
+        TableSortOrder order = new TableSortOrder(0);
+        assertTrue("Container table not applicable",
+            IndexedSortedTable.isApplicable(createTable().getTable(), order));
+        assertFalse("Indexed table applicable", IndexedSortedTable.isApplicable(
+            new DefaultTable(new Object[0][], null, null), order));
+
+        DataContainer onDisk = new DataContainer(SPEC, false, 0);
+        onDisk.addRowToTable(new DefaultRow(RowKey.createRowKey(0L), new IntCell(0), new StringCell("s0")));
+        onDisk.close();
+        assertFalse("Table on disk applicable", IndexedSortedTable.isApplicable(onDisk.getTable(), order));
+    }
+}
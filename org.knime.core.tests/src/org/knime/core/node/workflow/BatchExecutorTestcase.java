@@ -61,6 +61,8 @@
 import java.io.FileReader;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.ZipFile;
@@ -512,6 +514,50 @@ public void testLoadCredentials() throws Exception {
         // does not need credentials and currently there is no node besides database nodes that uses credentials.
     }
 
+    /**
+     * Test if the server mode executes queued jobs and stops on request.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testServerMode() throws Exception {
+        File queueDir = FileUtil.createTempDir("BatchExecutorTest");
+        File[] csvFiles = new File[3];
+        for (int i = 0; i < csvFiles.length; i++) {
+            csvFiles[i] = new File(queueDir, "out" + i + ".csv");
+            Files.write(new File(queueDir, "job" + i + ".job").toPath(), Arrays.asList("# job " + i, "",
+                "-workflow.variable=destinationFile," + csvFiles[i].getAbsolutePath() + ",String"));
+        }
+        Files.write(new File(queueDir, "invalid.job").toPath(), Arrays.asList("-masterkey=secret"));
+
+        final AtomicReference<Integer> ret = new AtomicReference<>();
+        Thread server = new Thread(() -> ret.set(BatchExecutor.mainRun(new String[]{
+            "-workflowFile=" + standardTestWorkflowZip.getAbsolutePath(), "-nosave",
+            "-serverQueueDir=" + queueDir.getAbsolutePath(), "-serverThreads=2"})));
+        server.start();
+
+        String[] jobs = {"job0", "job1", "job2", "invalid"};
+        long timeout = System.currentTimeMillis() + 120000;
+        for (String job : jobs) {
+            while (!new File(queueDir, job + ".done").exists() && System.currentTimeMillis() < timeout) {
+                Thread.sleep(100);
+            }
+        }
+        new File(queueDir, ".shutdown").createNewFile();
+        server.join(60000);
+        assertFalse("Server did not stop", server.isAlive());
+        assertEquals("Non-zero return value", Integer.valueOf(0), ret.get());
+
+        for (int i = 0; i < csvFiles.length; i++) {
+            assertEquals("Wrong result of job " + i, "exitCode=0",
+                Files.readAllLines(new File(queueDir, "job" + i + ".result").toPath()).get(0));
+            assertEquals("Wrong number of lines in written CSV file", 1001, countWrittenLines(csvFiles[i]));
+        }
+        assertEquals("Wrong result of invalid job", "exitCode=" + BatchExecutor.EXIT_ERR_PRESTART,
+            Files.readAllLines(new File(queueDir, "invalid.result").toPath()).get(0));
+        FileUtil.deleteRecursively(queueDir);
+    }
+
     private int countWrittenLines(final File outputFile) throws IOException {
         BufferedReader in = new BufferedReader(new FileReader(outputFile));
         int count = 0;
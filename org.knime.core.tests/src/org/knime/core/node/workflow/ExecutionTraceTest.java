@@ -0,0 +1,181 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+
+import org.junit.Test;
+import org.knime.core.node.workflow.ExecutionTrace.Phase;
+
+/**
+ * Testcases for {@link ExecutionTrace}, in particular the recorded events and the trace event format.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ExecutionTraceTest {
+
+    private static final NodeID NODE_1 = NodeID.ROOTID.createChild(1);
+
+    private static final NodeID NODE_2 = NodeID.ROOTID.createChild(2);
+
+    private static JsonObject write(final ExecutionTrace trace) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trace.write(out);
+        try (JsonReader reader = Json.createReader(new ByteArrayInputStream(out.toByteArray()))) {
+            return reader.readObject();
+        }
+    }
+
+    /** @return the complete ("X") events in the order they are written */
+    private static List<JsonObject> getPhaseEvents(final JsonObject trace) {
+        List<JsonObject> result = new ArrayList<>();
+        for (JsonValue v : trace.getJsonArray("traceEvents")) {
+            JsonObject o = (JsonObject)v;
+            if ("X".equals(o.getString("ph"))) {
+                result.add(o);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Events are written in the trace event format: complete events with time stamp and duration in microseconds,
+     * node and phase, plus one metadata event per thread naming it.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testFormat() throws Exception {
+        ExecutionTrace trace = new ExecutionTrace(10);
+        trace.add(Phase.EXECUTE, NODE_1, System.nanoTime());
+        JsonObject json = write(trace);
+        assertThat(json.getString("displayTimeUnit"), is("ms"));
+        List<JsonObject> events = getPhaseEvents(json);
+        assertThat("Unexpected number of events", events.size(), is(1));
+        JsonObject e = events.get(0);
+        assertThat(e.getString("name"), is("execute " + NODE_1));
+        assertThat(e.getString("cat"), is(Phase.EXECUTE.getLabel()));
+        assertThat(e.getJsonObject("args").getString("node"), is(NODE_1.toString()));
+        assertThat(e.getJsonNumber("tid").longValue(), is(Thread.currentThread().getId()));
+        assertTrue("Negative time stamp", e.getJsonNumber("ts").longValue() >= 0);
+        assertTrue("Negative duration", e.getJsonNumber("dur").longValue() >= 0);
+
+        JsonObject threadName = null;
+        for (JsonValue v : json.getJsonArray("traceEvents")) {
+            if ("M".equals(((JsonObject)v).getString("ph"))) {
+                threadName = (JsonObject)v;
+            }
+        }
+        assertThat("No thread name", threadName != null, is(true));
+        assertThat(threadName.getString("name"), is("thread_name"));
+        assertThat(threadName.getJsonObject("args").getString("name"), is(Thread.currentThread().getName()));
+    }
+
+    /**
+     * A phase recorded while another one is in progress (e.g. lock wait during execution) is written inside the outer
+     * one, i.e. it starts later and ends earlier; events are sorted by start time.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testNesting() throws Exception {
+        ExecutionTrace trace = new ExecutionTrace(10);
+        long outerStart = System.nanoTime();
+        Thread.sleep(2);
+        long innerStart = System.nanoTime();
+        Thread.sleep(2);
+        trace.add(Phase.LOCK_WAIT, NODE_1, innerStart);
+        Thread.sleep(2);
+        trace.add(Phase.EXECUTE, NODE_1, outerStart);
+        List<JsonObject> events = getPhaseEvents(write(trace));
+        assertThat("Unexpected number of events", events.size(), is(2));
+        JsonObject outer = events.get(0);
+        JsonObject inner = events.get(1);
+        assertThat("Not sorted by start time", outer.getString("cat"), is(Phase.EXECUTE.getLabel()));
+        assertThat(inner.getString("cat"), is(Phase.LOCK_WAIT.getLabel()));
+        long outerTs = outer.getJsonNumber("ts").longValue();
+        long innerTs = inner.getJsonNumber("ts").longValue();
+        assertTrue("Inner event starts before outer", innerTs > outerTs);
+        assertTrue("Inner event ends after outer", innerTs + inner.getJsonNumber("dur").longValue()
+            <= outerTs + outer.getJsonNumber("dur").longValue());
+    }
+
+    /**
+     * Only the most recent events are kept; events of different threads are written with their thread ID.
+     *
+     * @throws Exception not expected
+     */
+    @Test
+    public void testRingBufferAndThreads() throws Exception {
+        ExecutionTrace trace = new ExecutionTrace(3);
+        for (int i = 0; i < 5; i++) {
+            trace.add(Phase.SAVE, NodeID.ROOTID.createChild(i), System.nanoTime());
+        }
+        Thread other = new Thread(() -> trace.add(Phase.LOAD, NODE_2, System.nanoTime()), "Trace Test Thread");
+        other.start();
+        other.join();
+        List<JsonObject> events = getPhaseEvents(write(trace));
+        assertThat("Unexpected number of events", events.size(), is(3));
+        assertThat(events.get(0).getString("name"), is("save " + NodeID.ROOTID.createChild(3)));
+        assertThat(events.get(1).getString("name"), is("save " + NodeID.ROOTID.createChild(4)));
+        assertThat(events.get(2).getString("name"), is("load " + NODE_2));
+        assertThat(events.get(2).getJsonNumber("tid").longValue(), is(other.getId()));
+
+        trace.clearEvents();
+        assertThat("Events not cleared", getPhaseEvents(write(trace)).size(), is(0));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+import org.knime.core.node.workflow.FlowVariable.Scope;
+import org.knime.core.node.workflow.FlowVariable.Type;
+
+/**
+ * Tests for {@link FlowObjectStack}, in particular the merging of stacks that share their elements.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class FlowObjectStackTest {
+
+    private static final NodeID ID1 = NodeID.fromString("0:1");
+    private static final NodeID ID2 = NodeID.fromString("0:2");
+    private static final NodeID ID3 = NodeID.fromString("0:3");
+
+    /** Variables of a single predecessor are passed on (by reference) and can be looked up by name and type. */
+    @Test
+    public void testSinglePredecessor() {
+        FlowObjectStack upstream = new FlowObjectStack(ID1);
+        FlowVariable a = new FlowVariable("a", 1);
+        FlowVariable b = new FlowVariable("b", "x");
+        upstream.push(a);
+        upstream.push(new FlowLoopContext());
+        upstream.push(b);
+
+        FlowObjectStack downstream = new FlowObjectStack(ID2, new FlowObjectStack[]{upstream});
+        assertThat("Unexpected size", downstream.size(), is(upstream.size()));
+        assertThat("Unexpected variable", downstream.peekFlowVariable("a", Type.INTEGER), sameInstance(a));
+        assertThat("Unexpected variable", downstream.peekFlowVariable("b", Type.STRING), sameInstance(b));
+
+        FlowVariable a2 = new FlowVariable("a", 2);
+        downstream.push(a2);
+        assertThat("Pushed variable not found", downstream.peekFlowVariable("a", Type.INTEGER), sameInstance(a2));
+        assertThat("Upstream stack modified", upstream.peekFlowVariable("a", Type.INTEGER), sameInstance(a));
+    }
+
+    /** Lookup of a variable that is not on the stack. */
+    @Test(expected = NoSuchElementException.class)
+    public void testPeekMissingVariable() {
+        FlowObjectStack stack = new FlowObjectStack(ID1);
+        stack.push(new FlowVariable("a", 1));
+        stack.peekFlowVariable("a", Type.STRING);
+    }
+
+    /** Popping the scope context removes the variables on top but leaves the stacks sharing the elements intact. */
+    @Test
+    public void testPopDoesNotAffectSharedStack() {
+        FlowObjectStack upstream = new FlowObjectStack(ID1);
+        upstream.push(new FlowVariable("a", 1));
+        upstream.push(new FlowLoopContext());
+        upstream.push(new FlowVariable("b", 2));
+        final int size = upstream.size();
+
+        FlowObjectStack downstream = new FlowObjectStack(ID2, new FlowObjectStack[]{upstream});
+        assertThat("No loop context popped", downstream.pop(FlowLoopContext.class) != null, is(true));
+        assertThat("Unexpected size after pop", downstream.size(), is(size - 2));
+        assertThat("Upstream stack modified", upstream.size(), is(size));
+        assertThat("Variable in popped scope still available",
+            downstream.getAvailableFlowVariables().containsKey("b"), is(false));
+        assertThat("Variable in popped scope not available in upstream stack",
+            upstream.peekFlowVariable("b", Type.INTEGER).getIntValue(), is(2));
+    }
+
+    /** Local variables and duplicates within a scope are removed the same way, no matter if a stack is merged with
+     * itself or with a stack with the same content. */
+    @Test
+    public void testMergeOfSameStacks() {
+        FlowObjectStack upstream = new FlowObjectStack(ID1);
+        upstream.push(new FlowVariable("a", 1));
+        upstream.push(new FlowVariable("b", 1));
+        upstream.push(new FlowVariable("local", 1, Scope.Local));
+        upstream.push(new FlowVariable("a", 1));
+        FlowLoopContext loopContext = new FlowLoopContext();
+        upstream.push(loopContext);
+        upstream.push(new FlowVariable("a", 1));
+
+        FlowObjectStack copy = new FlowObjectStack(ID1);
+        for (FlowObject o : reversed(upstream)) {
+            copy.pushWithOwner(o);
+        }
+
+        FlowObjectStack single = new FlowObjectStack(ID2, new FlowObjectStack[]{upstream});
+        FlowObjectStack merged = new FlowObjectStack(ID2, new FlowObjectStack[]{upstream, copy});
+        assertThat("Merge results differ", single, is(merged));
+        assertThat("Unexpected size", single.size(), is(4)); // b, a, loop context, a
+        assertThat("Local variable not removed",
+            single.getAvailableFlowVariables().containsKey("local"), is(false));
+        assertThat("Unexpected loop context", single.peek(FlowLoopContext.class), sameInstance(loopContext));
+
+        FlowObjectStack next = new FlowObjectStack(ID3, new FlowObjectStack[]{single, single});
+        assertThat("Merge results differ", next.size(), is(single.size()));
+    }
+
+    private static List<FlowObject> reversed(final FlowObjectStack stack) {
+        List<FlowObject> result = new ArrayList<FlowObject>();
+        for (FlowObject o : stack) {
+            result.add(0, o);
+        }
+        return result;
+    }
+}
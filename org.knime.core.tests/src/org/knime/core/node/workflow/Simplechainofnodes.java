@@ -44,10 +44,14 @@
  */
 package org.knime.core.node.workflow;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Map;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -219,4 +223,27 @@ public void testExecuteDeleteNode() throws Exception {
         assertFalse(m.canExecuteNode(m_tblView));
     }
 
+    @Test
+    public void testExecutionMetrics() throws Exception {
+        assertNull(getManager().getNodeContainer(m_dataGen).getNodeTimer().getLastExecutionMetrics());
+        executeAndWait(m_rowFilter);
+        NodeExecutionMetrics genMetrics =
+            getManager().getNodeContainer(m_dataGen).getNodeTimer().getLastExecutionMetrics();
+        assertNotNull(genMetrics);
+        assertTrue(genMetrics.isSuccess());
+        assertTrue("No rows written by data generator", genMetrics.getRowsWritten() > 0);
+        assertTrue(genMetrics.getWallTime() >= 0);
+        assertTrue(genMetrics.getCpuTime() == -1 || genMetrics.getCpuTime() >= 0);
+
+        Map<NodeID, NodeExecutionMetrics> all = NodeExecutionMetrics.collect(getManager());
+        assertEquals(3, all.size());
+        assertTrue(all.containsKey(m_rowFilter));
+        assertFalse(all.containsKey(m_tblView));
+        assertEquals(3, NodeExecutionMetrics.toJSON(getManager()).getJsonArray("nodes").size());
+
+        // metrics of the last execution are kept on reset
+        getManager().resetAndConfigureNode(m_dataGen);
+        assertNotNull(getManager().getNodeContainer(m_dataGen).getNodeTimer().getLastExecutionMetrics());
+    }
+
 }
@@ -0,0 +1,227 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.util.tokenizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Vector;
+
+import org.junit.Test;
+
+/**
+ * Compares the fast path of the {@link Tokenizer} (used for single character delimiters and quotes) with its general
+ * implementation on random input.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class TokenizerFastPathTest {
+
+    /** The characters the random input is made of. */
+    private static final char[] ALPHABET =
+        {'a', 'b', 'c', ' ', ' ', '\t', ',', ',', ';', '"', '"', '\'', '\\', '\n', '\n', '\r', '\u00fc', '\u012c'};
+
+    /** A comment pattern not contained in the input, forces the general implementation. */
+    private static final String NO_COMMENT = "#";
+
+    /** Returns at most 7 characters per read, so that tokens span multiple blocks. */
+    private static final class ChunkedReader extends FilterReader {
+        ChunkedReader(final Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            return super.read(cbuf, off, Math.min(len, 7));
+        }
+    }
+
+    private static String randomInput(final Random random, final int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(chars);
+    }
+
+    /** Reads all tokens and the tokenizer state after each one. */
+    private static List<String> tokenize(final String input, final TokenizerSettings settings,
+        final boolean general) {
+        TokenizerSettings s = new TokenizerSettings(settings);
+        if (general) {
+            s.addBlockCommentPattern(NO_COMMENT, NO_COMMENT, false, false);
+        }
+        Tokenizer tokenizer = new Tokenizer(new ChunkedReader(new StringReader(input)));
+        tokenizer.setSettings(s);
+        List<String> result = new ArrayList<>();
+        try {
+            String token;
+            do {
+                token = tokenizer.nextToken();
+                result.add(token + " quoted=" + tokenizer.lastTokenWasQuoted() + "/"
+                    + tokenizer.getLastQuoteBeginPattern() + " delimiter=" + tokenizer.lastTokenWasDelimiter()
+                    + " delimited=" + tokenizer.lastTokenWasDelimited() + " line=" + tokenizer.getLineNumber());
+            } while (token != null);
+        } catch (TokenizerException e) {
+            result.add(e.getMessage());
+        }
+        return result;
+    }
+
+    private static void compare(final TokenizerSettings settings, final long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < 500; i++) {
+            String input = randomInput(random, random.nextInt(60));
+            assertEquals("Different tokens for \"" + input + "\"", tokenize(input, settings, true),
+                tokenize(input, settings, false));
+        }
+    }
+
+    /** Typical CSV settings: returned row delimiter, double quotes with escape character, whitespaces. */
+    @Test
+    public void testCSV() {
+        TokenizerSettings settings = new TokenizerSettings();
+        settings.addDelimiterPattern(",", false, false, false);
+        settings.addDelimiterPattern("\n", true, true, false);
+        settings.addQuotePattern("\"", "\"", '\\');
+        settings.addWhiteSpaceCharacter(' ');
+        settings.addWhiteSpaceCharacter('\t');
+        compare(settings, 0);
+        settings.allowLFinQuotes(true);
+        compare(settings, 1);
+        settings.setSkipFirstLines(2);
+        compare(settings, 2);
+    }
+
+    /** Multiple quotes without escape character, whitespace delimiter, combined delimiters. */
+    @Test
+    public void testMixed() {
+        TokenizerSettings settings = new TokenizerSettings();
+        settings.addDelimiterPattern("\t", false, false, false);
+        settings.addDelimiterPattern(";", true, true, false);
+        settings.addDelimiterPattern("\r", false, true, false);
+        settings.addQuotePattern("\"", "\"");
+        settings.addQuotePattern("'", "\\", '\'');
+        settings.addWhiteSpaceCharacter('\t');
+        settings.addWhiteSpaceCharacter(' ');
+        compare(settings, 3);
+    }
+
+    /** Different begin and end quote, no delimiters at all. */
+    @Test
+    public void testNoDelimiters() {
+        TokenizerSettings settings = new TokenizerSettings();
+        settings.addQuotePattern("'", "\"", '\\');
+        compare(settings, 4);
+        compare(new TokenizerSettings(), 5);
+    }
+
+    /**
+     * Delimiters, quotes and whitespaces above {@link Tokenizer#MAX_CHAR} are left to the general implementation,
+     * chars with the same low byte are ordinary chars. {@link TokenizerSettings} rejects such patterns, so they are
+     * passed by overriding its getters.
+     *
+     * @throws TokenizerException not expected
+     */
+    @Test
+    public void testNonLatin1Chars() throws TokenizerException {
+        TokenizerSettings settings = new TokenizerSettings() {
+            @Override
+            public Vector<Delimiter> getAllDelimiters() {
+                return new Vector<>(Arrays.asList(new Delimiter("\u20ac", false, false, false),
+                    new Delimiter("\uff1b", false, false, false)));
+            }
+
+            @Override
+            public Vector<Quote> getAllQuotes() {
+                return new Vector<>(Arrays.asList(new Quote("\u300c", "\u300d")));
+            }
+
+            @Override
+            public Vector<String> getAllWhiteSpaces() {
+                return new Vector<>(Arrays.asList("\u3000", " "));
+            }
+        };
+        Tokenizer tokenizer = new Tokenizer(new ChunkedReader(
+            new StringReader("a\u20acb\u00ac\uff1b\u3000c \u20ac\u300cd\u20ace\u300d")));
+        tokenizer.setSettings(settings);
+        List<String> tokens = new ArrayList<>();
+        String token;
+        while ((token = tokenizer.nextToken()) != null) {
+            tokens.add(token);
+        }
+        assertEquals("Unexpected tokens", Arrays.asList("a", "b\u00ac", "c", "d\u20ace"), tokens);
+    }
+
+    /**
+     * Settings can't be changed after reading from the tokenizer, characters already buffered would be lost.
+     *
+     * @throws TokenizerException not expected
+     */
+    @Test
+    public void testChangeSettingsAfterReading() throws TokenizerException {
+        TokenizerSettings settings = new TokenizerSettings();
+        settings.addDelimiterPattern(",", false, false, false);
+        Tokenizer tokenizer = new Tokenizer(new StringReader("a,b,c"));
+        tokenizer.setSettings(settings);
+        assertEquals("Unexpected token", "a", tokenizer.nextToken());
+        settings.addBlockCommentPattern(NO_COMMENT, NO_COMMENT, false, false);
+        try {
+            tokenizer.setSettings(settings);
+            fail("Settings changed after reading");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals("Unexpected token", "b", tokenizer.nextToken());
+    }
+}
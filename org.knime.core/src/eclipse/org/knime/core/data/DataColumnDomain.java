@@ -49,6 +49,8 @@
 package org.knime.core.data;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -100,6 +102,14 @@ public final class DataColumnDomain {
     /** Set of possible values or <code>null</code>. */
     private final Set<DataCell> m_values;
 
+    /** Cached hash code, computed lazily (0 if not computed yet). */
+    private int m_hashCode;
+
+    /** Domains read via {@link #load(ConfigRO)} are interned as they are often large (nominal values) and
+     * repeated in many specs of a workflow. */
+    private static final WeakInterner<DataColumnDomain> INTERNER =
+        new WeakInterner<>(DataColumnDomain::hasSameValueOrder);
+
     /**
      * Create new column domain with lower and upper bounds, and set of possible
      * values. All arguments can be <code>null</code> in case none of these
@@ -240,6 +250,10 @@ public boolean equals(final Object obj) {
 
         // check if properties are available in both domains
         DataColumnDomain domain = (DataColumnDomain)obj;
+        // hash codes are cheap to compare if already computed
+        if (m_hashCode != 0 && domain.m_hashCode != 0 && m_hashCode != domain.m_hashCode) {
+            return false;
+        }
         // check if one or the other has possible values defined
         if (hasValues() ^ domain.hasValues()) {
             return false;
@@ -285,19 +299,42 @@ public boolean equals(final Object obj) {
      */
     @Override
     public int hashCode() {
-        int tempHash = 0;
-        if (hasLowerBound()) {
-            tempHash ^= m_lowerBound.hashCode();
+        int tempHash = m_hashCode;
+        if (tempHash == 0) {
+            if (hasLowerBound()) {
+                tempHash ^= m_lowerBound.hashCode();
+            }
+            if (hasUpperBound()) {
+                tempHash ^= m_upperBound.hashCode();
+            }
+            if (hasValues()) {
+                for (DataCell cell : m_values) {
+                    tempHash ^= cell.hashCode();
+                }
+            }
+            m_hashCode = tempHash;
         }
-        if (hasUpperBound()) {
-            tempHash ^= m_upperBound.hashCode();
+        return tempHash;
+    }
+
+    /**
+     * Equal domains may still list their possible values in a different order. This method checks whether the
+     * order is the same, i.e. whether the two domains are interchangeable.
+     *
+     * @param other an equal domain
+     * @return whether the possible values are iterated in the same order
+     */
+    boolean hasSameValueOrder(final DataColumnDomain other) {
+        if (!hasValues() || m_values == other.m_values) {
+            return true;
         }
-        if (hasValues()) {
-            for (DataCell cell : m_values) {
-                tempHash ^= cell.hashCode();
+        Iterator<DataCell> otherIt = other.m_values.iterator();
+        for (DataCell cell : m_values) {
+            if (!otherIt.hasNext() || !cell.equals(otherIt.next())) {
+                return false;
             }
         }
-        return tempHash;
+        return !otherIt.hasNext();
     }
 
     /**
@@ -357,11 +394,10 @@ public static DataColumnDomain load(final ConfigRO config) {
             DataCell[] valArray =
                     config.getDataCellArray(CFG_POSS_VALUES, (DataCell[])null);
             if (valArray != null) {
-                values = new LinkedHashSet<DataCell>();
-                values.addAll(Arrays.asList(valArray));
+                values = Collections.unmodifiableSet(new LinkedHashSet<DataCell>(Arrays.asList(valArray)));
             }
         }
-        return new DataColumnDomain(lower, upper, values);
+        return INTERNER.intern(new DataColumnDomain(lower, upper, values));
     }
 
 } // DataColumnDomain
@@ -143,6 +143,10 @@
     private static final NodeLogger LOGGER =
             NodeLogger.getLogger(DataTableSpec.class);
 
+    /** Specs read via {@link #load(ConfigRO)} are interned, identical specs are often saved by many nodes. */
+    private static final WeakInterner<DataTableSpec> INTERNER =
+        new WeakInterner<>(DataTableSpec::hasSameDomainValueOrder);
+
     /**
      * Serializer for {@link DataTableSpec}s.
      *
@@ -207,32 +211,36 @@ private static DataColumnSpec[] appendTableSpecs(final DataTableSpec spec1, fina
         // copy spec2
         for (; idx < columnSpecs.length; idx++) {
             DataColumnSpec cspec = spec2.getColumnSpec(idx - l1);
-            DataColumnSpecCreator cr = new DataColumnSpecCreator(cspec);
+            // creator only needed if handlers are to be removed, column specs are shared otherwise
+            DataColumnSpecCreator cr = null;
             // remove color handler from second spec, when also present in first
             if (spec1.m_colorHandlerColIndex >= 0
-                    && spec1.m_colorHandlerColIndex >= 0) {
+                    && cspec.getColorHandler() != null) {
                 LOGGER.warn("DataColumnSpec already contains a color "
                          + "handler, ignoring color handler from second spec.");
                 // reset second handler
+                cr = new DataColumnSpecCreator(cspec);
                 cr.setColorHandler(null);
             }
             // remove size handler from second spec, when also present in first
             if (spec1.m_sizeHandlerColIndex >= 0
-                    && spec1.m_sizeHandlerColIndex >= 0) {
+                    && cspec.getSizeHandler() != null) {
                 LOGGER.warn("DataColumnSpec already contains a size "
                          + "handler, ignoring size handler from second spec.");
                 // reset second handler
+                cr = cr == null ? new DataColumnSpecCreator(cspec) : cr;
                 cr.setSizeHandler(null);
             }
             // remove shape handler from second spec, when also present in first
             if (spec1.m_shapeHandlerColIndex >= 0
-                    && spec1.m_shapeHandlerColIndex >= 0) {
+                    && cspec.getShapeHandler() != null) {
                 LOGGER.warn("DataColumnSpec already contains a shape "
                          + "handler, ignoring shape handler from second spec.");
                 // reset second handler
-                cr.setSizeHandler(null);
+                cr = cr == null ? new DataColumnSpecCreator(cspec) : cr;
+                cr.setShapeHandler(null);
             }
-            columnSpecs[idx] = cr.createSpec();
+            columnSpecs[idx] = cr == null ? cspec : cr.createSpec();
         }
         return columnSpecs;
     }
@@ -338,7 +346,7 @@ public static DataTableSpec load(final ConfigRO config)
             map = Collections.emptyMap();
         }
 
-        return new DataTableSpec(name, specs, map);
+        return INTERNER.intern(new DataTableSpec(name, specs, map));
     }
 
     /**
@@ -364,8 +372,7 @@ public void verifyIndices(final int... indices) {
     }
 
     /** Keeps column name to column index mapping for faster access. */
-    private final Map<String, Integer> m_colIndexMap =
-            new HashMap<String, Integer>();
+    private final Map<String, Integer> m_colIndexMap;
 
     /** The index of the column holding the ColorHandler or -1 if not set. */
     private final int m_colorHandlerColIndex;
@@ -390,6 +397,9 @@ public void verifyIndices(final int... indices) {
     /** See {@link #getProperties()}. */
     private final Map<String, String> m_properties;
 
+    /** Cached hash code, computed lazily (0 if not computed yet). */
+    private int m_hashCode;
+
     /** Name used to create a new spec when no other name has been defined. */
     private static final String DFT_SPEC_NAME = "default";
 
@@ -466,6 +476,19 @@ public DataTableSpec(final String name, final DataColumnSpec... colSpecs) {
      * @param properties Properties.
      */
     DataTableSpec(final String name, final DataColumnSpec[] colSpecs, final Map<String, String> properties) {
+        this(name, colSpecs, properties, null);
+    }
+
+    /** Constructor used eventually also by other constructors and the creator.
+     * @param name Name of spec.
+     * @param colSpecs Columns.
+     * @param properties Properties.
+     * @param baseSpec A spec this spec is derived from or <code>null</code>. If all its columns are the leading
+     *            columns of <code>colSpecs</code> (same instances), the column index map and handler indices are
+     *            derived from it rather than being rebuilt.
+     */
+    DataTableSpec(final String name, final DataColumnSpec[] colSpecs, final Map<String, String> properties,
+        final DataTableSpec baseSpec) {
         m_name = (name == null ? DFT_SPEC_NAME : name);
         final int colCount = colSpecs.length;
         m_columnSpecs = new DataColumnSpec[colCount];
@@ -474,7 +497,23 @@ public DataTableSpec(final String name, final DataColumnSpec... colSpecs) {
         int shapeHdlIdx = -1;
         List<Integer> filterHandlerIndices = new ArrayList<>();
 
-        for (int i = 0; i < colCount; i++) {
+        int start = 0;
+        if (baseSpec != null && isLeadingColumns(baseSpec, colSpecs)) {
+            start = baseSpec.getNumColumns();
+            m_colIndexMap = new HashMap<String, Integer>(baseSpec.m_colIndexMap);
+            System.arraycopy(baseSpec.m_columnSpecs, 0, m_columnSpecs, 0, start);
+            colorHdlIdx = baseSpec.m_colorHandlerColIndex;
+            sizeHdlIdx = baseSpec.m_sizeHandlerColIndex;
+            shapeHdlIdx = baseSpec.m_shapeHandlerColIndex;
+            for (int i : baseSpec.m_filterHandlerColIndices) {
+                filterHandlerIndices.add(i);
+            }
+        } else {
+            // sized to avoid rehashing
+            m_colIndexMap = new HashMap<String, Integer>(Math.max(16, (int)(colCount / 0.75f) + 1));
+        }
+
+        for (int i = start; i < colCount; i++) {
             // disallow duplicates
             String currentName = colSpecs[i].getName();
             if (currentName == null) {
@@ -490,8 +529,9 @@ public DataTableSpec(final String name, final DataColumnSpec... colSpecs) {
                         + duplicateValue + " and " + i + ".");
             }
 
-            // creator used to remove handlers
-            DataColumnSpecCreator cr = new DataColumnSpecCreator(colSpecs[i]);
+            // creator used to remove handlers, only created if needed -- column specs are immutable and
+            // otherwise shared with the argument array
+            DataColumnSpecCreator cr = null;
 
             // check for multiple color handlers
             if (colSpecs[i].getColorHandler() != null) {
@@ -499,6 +539,7 @@ public DataTableSpec(final String name, final DataColumnSpec... colSpecs) {
                     LOGGER.warn("Found multiple color handler at columns "
                             + "index " + colorHdlIdx + " and "
                             + i + ", removed second one.");
+                    cr = new DataColumnSpecCreator(colSpecs[i]);
                     cr.setColorHandler(null);
                 } else {
                     colorHdlIdx = i;
@@ -511,6 +552,7 @@ public DataTableSpec(final String name, final DataColumnSpec... colSpecs) {
                     LOGGER.warn("Found multiple color handler at columns "
                             + "index " + colorHdlIdx + " and "
                             + i + ", removed second one.");
+                    cr = cr == null ? new DataColumnSpecCreator(colSpecs[i]) : cr;
                     cr.setSizeHandler(null);
                 } else {
                     sizeHdlIdx = i;
@@ -523,6 +565,7 @@ public DataTableSpec(final String name, final DataColumnSpec... colSpecs) {
                     LOGGER.warn("Found multiple color handler at columns "
                             + "index " + colorHdlIdx + " and "
                             + i + ", removed second one.");
+                    cr = cr == null ? new DataColumnSpecCreator(colSpecs[i]) : cr;
                     cr.setShapeHandler(null);
                 } else {
                     shapeHdlIdx = i;
@@ -533,7 +576,7 @@ public DataTableSpec(final String name, final DataColumnSpec... colSpecs) {
                 filterHandlerIndices.add(i);
             }
 
-            m_columnSpecs[i] = cr.createSpec();
+            m_columnSpecs[i] = cr == null ? colSpecs[i] : cr.createSpec();
         }
         m_sizeHandlerColIndex  = sizeHdlIdx;
         m_colorHandlerColIndex = colorHdlIdx;
@@ -544,6 +587,30 @@ public DataTableSpec(final String name, final DataColumnSpec... colSpecs) {
                 : new LinkedHashMap<String, String>(properties);
     }
 
+    /** Whether the (equal) argument spec lists possible values in the same order, see {@link WeakInterner}. */
+    private boolean hasSameDomainValueOrder(final DataTableSpec other) {
+        for (int i = 0; i < m_columnSpecs.length; i++) {
+            if (!m_columnSpecs[i].getDomain().hasSameValueOrder(other.m_columnSpecs[i].getDomain())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Whether all columns of the base spec are the leading elements of the argument array (identity check). */
+    private static boolean isLeadingColumns(final DataTableSpec baseSpec, final DataColumnSpec[] colSpecs) {
+        final DataColumnSpec[] baseColumns = baseSpec.m_columnSpecs;
+        if (baseColumns.length > colSpecs.length) {
+            return false;
+        }
+        for (int i = 0; i < baseColumns.length; i++) {
+            if (baseColumns[i] != colSpecs[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Constructor for a new <code>DataTableSpec</code> based on two existing
      * specifications that are to be concatenated.
@@ -558,7 +625,7 @@ public DataTableSpec(final String name, final DataColumnSpec... colSpecs) {
      */
     public DataTableSpec(final String name, final DataTableSpec spec1,
             final DataTableSpec spec2) {
-        this(name, appendTableSpecs(spec1, spec2));
+        this(name, appendTableSpecs(spec1, spec2), Collections.<String, String>emptyMap(), spec1);
     }
 
     /**
@@ -690,6 +757,9 @@ public boolean equals(final Object obj) {
             return false;
         }
         DataTableSpec spec = (DataTableSpec) obj;
+        if (m_hashCode != 0 && spec.m_hashCode != 0 && m_hashCode != spec.m_hashCode) {
+            return false;
+        }
         if (!m_name.equals(spec.m_name)) {
             return false;
         }
@@ -912,12 +982,15 @@ public int hashCode() {
          * having the same columns (but in different order) end up with the same
          * hash code. Hopefully, this is ok anyway.
          */
-        int tempHash = 0;
-        for (int i = 0; i < getNumColumns(); i++) {
-            int colHash = getColumnSpec(i).hashCode();
-            tempHash ^= colHash;
+        int tempHash = m_hashCode;
+        if (tempHash == 0) {
+            for (int i = 0; i < getNumColumns(); i++) {
+                int colHash = getColumnSpec(i).hashCode();
+                tempHash ^= colHash;
+            }
+            tempHash ^= m_properties.hashCode();
+            m_hashCode = tempHash;
         }
-        tempHash ^= m_properties.hashCode();
         return tempHash;
     }
 
@@ -74,12 +74,16 @@ public final class DataTableSpecCreator {
 
     private Map<String, String> m_properties = new LinkedHashMap<String, String>();
 
+    /** The spec passed in the constructor (or null), its column index map is reused if columns were only appended. */
+    private final DataTableSpec m_baseSpec;
+
     /**
      * Start with empty spec.
      *
      * @since 2.8
      */
     public DataTableSpecCreator() {
+        m_baseSpec = null;
     }
 
     /**
@@ -89,6 +93,7 @@ public DataTableSpecCreator() {
      * @since 2.8
      */
     public DataTableSpecCreator(final DataTableSpec spec) {
+        m_baseSpec = spec;
         addColumns(spec);
         setName(spec.getName());
         putProperties(spec.getProperties());
@@ -229,7 +234,8 @@ public DataTableSpecCreator dropAllColumns() {
      * @return A new table spec.
      */
     public DataTableSpec createSpec() {
-        return new DataTableSpec(m_name, m_columnSpecs.toArray(new DataColumnSpec[m_columnSpecs.size()]), m_properties);
+        return new DataTableSpec(m_name, m_columnSpecs.toArray(new DataColumnSpec[m_columnSpecs.size()]), m_properties,
+            m_baseSpec);
     }
 
 }
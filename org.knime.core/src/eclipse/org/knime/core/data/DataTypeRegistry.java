@@ -52,9 +52,11 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
@@ -65,6 +67,7 @@
 import org.eclipse.core.runtime.Platform;
 import org.knime.core.data.filestore.FileStoreFactory;
 import org.knime.core.eclipseUtil.GlobalClassCreator;
+import org.knime.core.internal.ExtensionRegistryCache;
 import org.knime.core.internal.SerializerMethodLoader;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.util.CheckUtils;
@@ -81,6 +84,9 @@ public final class DataTypeRegistry {
 
     private final Map<String, IConfigurationElement> m_factories = new HashMap<>();
 
+    /** Serializer elements by cell class name. */
+    private final Map<String, IConfigurationElement> m_serializerElements = new HashMap<>();
+
     private final Map<Class<? extends DataCell>, DataCellSerializer<? extends DataCell>> m_serializers =
         new ConcurrentHashMap<>();
 
@@ -89,6 +95,11 @@ public final class DataTypeRegistry {
 
     private Collection<DataType> m_allDataTypes;
 
+    /** Maps value class names to cell classes implementing them, lazily loaded. */
+    private ExtensionRegistryCache m_valueClassCache;
+
+    private boolean m_allSerializersRead;
+
     private static final DataTypeRegistry INSTANCE = new DataTypeRegistry();
 
     /**
@@ -110,6 +121,10 @@ private DataTypeRegistry() {
             .flatMap(ext -> Stream.of(ext.getConfigurationElements()))
             .filter(e -> (e.getAttribute("factoryClass") != null))
             .forEach(e -> m_factories.put(e.getAttribute("cellClass"), e));
+        Stream.of(point.getExtensions())
+            .flatMap(ext -> Stream.of(ext.getConfigurationElements()))
+            .flatMap(cfe -> Stream.of(cfe.getChildren("serializer")))
+            .forEach(e -> m_serializerElements.putIfAbsent(e.getAttribute("cellClass"), e));
 
         m_cellClassMap.put(DataCell.class.getName(), DataCell.class);
         m_cellClassMap.put(DataType.MissingCell.class.getName(), DataType.MissingCell.class);
@@ -267,8 +282,7 @@ public Optional<Class<? extends DataValue>> getValueClass(final String className
 
         if (valueClass == null) {
             // not found => scan extension point
-            scanExtensionPointForAllSerializers();
-            valueClass = m_valueClassMap.get(className);
+            valueClass = findValueClass(className);
         }
 
         if (valueClass != null) {
@@ -348,34 +362,62 @@ public Optional<DataCellSerializer<DataCell>> getSerializer(final Class<? extend
 
     private <T extends DataCell> Optional<DataCellSerializer<T>>
         scanExtensionPointForSerializer(final String cellClassName) {
-        // not found => scan extension point
-        IExtensionRegistry registry = Platform.getExtensionRegistry();
-        IExtensionPoint point = registry.getExtensionPoint(EXT_POINT_ID);
-
-        Optional<IConfigurationElement> o =
-            Stream.of(point.getExtensions()).flatMap(ext -> Stream.of(ext.getConfigurationElements()))
-                .flatMap(cfe -> Stream.of(cfe.getChildren("serializer")))
-                .filter(cfe -> cfe.getAttribute("cellClass").equals(cellClassName))
-                .findFirst();
-        if (o.isPresent()) {
-            IConfigurationElement configElement = o.get();
+        IConfigurationElement configElement = m_serializerElements.get(cellClassName);
+        if (configElement != null) {
             return createSerializer(configElement);
         } else {
             return Optional.empty();
         }
     }
 
-    private void scanExtensionPointForAllSerializers() {
-        IExtensionRegistry registry = Platform.getExtensionRegistry();
-        IExtensionPoint point = registry.getExtensionPoint(EXT_POINT_ID);
+    /**
+     * Loads the cell classes implementing the value class. Only the cell classes known to implement it from previous
+     * runs (see {@link ExtensionRegistryCache}) are loaded if possible, otherwise all registered cell classes.
+     */
+    private synchronized Class<? extends DataValue> findValueClass(final String className) {
+        if (m_valueClassCache == null) {
+            m_valueClassCache = ExtensionRegistryCache.load(EXT_POINT_ID);
+        }
+        for (String cellClassName : m_valueClassCache.get(className)) {
+            IConfigurationElement configElement = m_serializerElements.get(cellClassName);
+            if (configElement != null && !m_cellClassMap.containsKey(cellClassName)) {
+                createSerializer(configElement);
+            }
+        }
+        Class<? extends DataValue> valueClass = m_valueClassMap.get(className);
+        if (valueClass == null && !m_allSerializersRead) {
+            scanExtensionPointForAllSerializers();
+            m_allSerializersRead = true;
+            updateValueClassCache();
+            valueClass = m_valueClassMap.get(className);
+        }
+        return valueClass;
+    }
 
-        Stream.of(point.getExtensions())
-            .flatMap(ext -> Stream.of(ext.getConfigurationElements()))
-            .flatMap(cfe -> Stream.of(cfe.getChildren("serializer")))
+    private void scanExtensionPointForAllSerializers() {
+        m_serializerElements.values().stream()
             .filter(cfe -> !m_cellClassMap.containsKey(cfe.getAttribute("cellClass")))
             .forEach(cfe -> createSerializer(cfe));
     }
 
+    /** Records which registered cell classes implement which value classes. */
+    private void updateValueClassCache() {
+        Map<String, Set<String>> cellClassesByValueClass = new HashMap<>();
+        for (String cellClassName : m_serializerElements.keySet()) {
+            Class<? extends DataCell> cellClass = m_cellClassMap.get(cellClassName);
+            if (cellClass != null) {
+                Set<Class<? extends DataValue>> valueClasses = new HashSet<>();
+                collectValueInterfaces(cellClass, valueClasses);
+                for (Class<? extends DataValue> valueClass : valueClasses) {
+                    cellClassesByValueClass.computeIfAbsent(valueClass.getName(), k -> new HashSet<>())
+                        .add(cellClassName);
+                }
+            }
+        }
+        cellClassesByValueClass.forEach(m_valueClassCache::put);
+        m_valueClassCache.save();
+    }
+
 
     private <T extends DataCell> Optional<DataCellSerializer<T>>
         createSerializer(final IConfigurationElement configElement) {
@@ -407,16 +449,24 @@ private void scanExtensionPointForAllSerializers() {
         }
     }
 
-    @SuppressWarnings("unchecked")
     private void collectValueInterfaces(final Class<?> clazz) {
+        Set<Class<? extends DataValue>> valueClasses = new HashSet<>();
+        collectValueInterfaces(clazz, valueClasses);
+        for (Class<? extends DataValue> valueClass : valueClasses) {
+            m_valueClassMap.put(valueClass.getName(), valueClass);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectValueInterfaces(final Class<?> clazz, final Set<Class<? extends DataValue>> result) {
         if (clazz != null) {
             if (DataValue.class.isAssignableFrom(clazz) && clazz.isInterface()) {
-                m_valueClassMap.put(clazz.getName(), (Class<? extends DataValue>)clazz);
+                result.add((Class<? extends DataValue>)clazz);
             }
 
-            collectValueInterfaces(clazz.getSuperclass());
+            collectValueInterfaces(clazz.getSuperclass(), result);
             for (Class<?> c : clazz.getInterfaces()) {
-                collectValueInterfaces(c);
+                collectValueInterfaces(c, result);
             }
         }
     }
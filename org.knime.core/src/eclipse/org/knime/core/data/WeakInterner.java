@@ -0,0 +1,90 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.BiPredicate;
+
+/**
+ * Canonicalizes equal immutable objects (such as specs and domains read from a workflow) to a single instance so
+ * that duplicates can be garbage collected and later equality checks short-cut on identity. Instances are only
+ * weakly referenced. An additional predicate guards against replacing an object by an instance that is equal but
+ * distinguishable (for instance a domain with the same possible values in a different order).
+ *
+ * @param <T> the type of the (immutable) objects to intern
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class WeakInterner<T> {
+
+    private final Map<T, WeakReference<T>> m_map = new WeakHashMap<>();
+
+    private final BiPredicate<T, T> m_isInterchangeable;
+
+    /**
+     * @param isInterchangeable tests whether an object can be replaced by an equal canonical instance
+     */
+    WeakInterner(final BiPredicate<T, T> isInterchangeable) {
+        m_isInterchangeable = isInterchangeable;
+    }
+
+    /**
+     * Returns the canonical instance equal to the argument. The argument becomes the canonical instance if there is
+     * none yet; it is returned as is if the canonical instance is equal but not interchangeable.
+     *
+     * @param value the non-null object to intern
+     * @return the canonical instance
+     */
+    synchronized T intern(final T value) {
+        WeakReference<T> ref = m_map.get(value);
+        T existing = ref == null ? null : ref.get();
+        if (existing != null) {
+            return m_isInterchangeable.test(existing, value) ? existing : value;
+        }
+        m_map.put(value, new WeakReference<>(value));
+        return value;
+    }
+}
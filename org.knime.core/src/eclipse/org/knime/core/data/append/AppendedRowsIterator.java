@@ -45,11 +45,24 @@
  */
 package org.knime.core.data.append;
 
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataColumnSpec;
@@ -78,6 +91,16 @@ public class AppendedRowsIterator extends CloseableRowIterator {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(AppendedRowsIterator.class);
 
+    /** Number of rows buffered when reading the next table ahead. */
+    private static final int READ_AHEAD_BUFFER_SIZE = 1024;
+
+    /**
+     * Threads reading the next table ahead, shared by all iterators and bounded by the number of processors. Tasks
+     * are not queued: if all threads are busy, the next table is read in the consuming thread. A queue could
+     * deadlock, as read-ahead tasks may themselves iterate concatenated tables that read ahead.
+     */
+    private static final ThreadPoolExecutor READ_AHEAD_EXECUTOR = createReadAheadExecutor();
+
     /**
      * The spec of the underlying table.
      *
@@ -109,8 +132,20 @@ public class AppendedRowsIterator extends CloseableRowIterator {
     /** The next row to be returned. null if atEnd() */
     private DataRow m_nextRow;
 
-    /** Map to check for duplicates. */
-    private final Map<RowKey, RowKey> m_duplicateMap;
+    /** All keys in the output, used to check for duplicates. */
+    private final RowKeyIndex m_keyIndex;
+
+    /** Keys in the output that differ from the key in the input (as a suffix was appended) to the input key. */
+    private final Map<RowKey, RowKey> m_renamedKeyMap;
+
+    /** Copy of the duplicate name map taken when the iterator is closed (and the key index disposed), or null. */
+    private Map<RowKey, RowKey> m_closedNameMap;
+
+    /** Whether to read the next table in a separate thread while the current one is consumed. */
+    private final boolean m_isReadAhead;
+
+    /** Iterator reading ahead table m_curItIndex + 1 or <code>null</code>. */
+    private ReadAheadIterator m_readAheadIterator;
 
     /** has printed error message for duplicate entries? */
     private boolean m_hasPrintedError = false;
@@ -139,12 +174,28 @@ public class AppendedRowsIterator extends CloseableRowIterator {
      */
     AppendedRowsIterator(final PairSupplier[] tables, final DuplicatePolicy duplPolicy,
         final String suffix, final DataTableSpec spec, final ExecutionMonitor exec, final long totalRowCount) {
+        this(tables, duplPolicy, suffix, spec, exec, totalRowCount, false);
+    }
+
+    /**
+     * Creates new iterator of <code>tables</code> following <code>spec</code>.
+     * The iterator may throw an exception in next.
+     *
+     * @param exec for progress/cancel, may be <code>null</code>
+     * @param totalRowCount the total row count or negative if unknown
+     * @param readAhead whether to read the next table in a separate thread while the current one is consumed; only
+     *            to be used if the table iterators can be consumed concurrently (the output order is unaffected)
+     */
+    AppendedRowsIterator(final PairSupplier[] tables, final DuplicatePolicy duplPolicy, final String suffix,
+        final DataTableSpec spec, final ExecutionMonitor exec, final long totalRowCount, final boolean readAhead) {
         m_iteratorSuppliers = CheckUtils.checkArgumentNotNull(tables);
         m_suffix = suffix;
         m_spec = CheckUtils.checkArgumentNotNull(spec);
         m_duplPolicy = CheckUtils.checkArgumentNotNull(duplPolicy);
         m_curItIndex = -1;
-        m_duplicateMap = new HashMap<RowKey, RowKey>();
+        m_keyIndex = new RowKeyIndex();
+        m_renamedKeyMap = new HashMap<RowKey, RowKey>();
+        m_isReadAhead = readAhead && tables.length > 1;
         m_curMapping = new int[m_spec.getNumColumns()];
         m_exec = exec;
         m_totalRowCount = totalRowCount;
@@ -204,7 +255,7 @@ private void initNextRow() {
         boolean keyHasChanged = false;
         RowKey origKey = baseRow.getKey();
         RowKey key = origKey;
-        while (m_duplicateMap.containsKey(key)) {
+        while (m_keyIndex.contains(key)) {
             if (m_exec != null) {
                 try {
                     m_exec.checkCanceled();
@@ -274,7 +325,10 @@ private void initNextRow() {
             // to do a efficient duplicate checking
             break;
         default:
-            m_duplicateMap.put(key, origKey);
+            m_keyIndex.add(key);
+            if (keyHasChanged) {
+                m_renamedKeyMap.put(key, origKey);
+            }
         }
         if (m_exec != null) {
             try {
@@ -321,7 +375,16 @@ private void initNextTable() {
         assert (m_curItIndex < m_iteratorSuppliers.length - 1);
         m_curItIndex++;
         Pair<RowIterator, DataTableSpec> pair = m_iteratorSuppliers[m_curItIndex].get();
-        m_curIterator = pair.getFirst();
+        if (m_readAheadIterator != null) {
+            m_curIterator = m_readAheadIterator;
+            m_readAheadIterator = null;
+        } else {
+            m_curIterator = pair.getFirst();
+        }
+        if (m_isReadAhead && m_curItIndex < m_iteratorSuppliers.length - 1) {
+            // null if no thread is available, the table is then read when it's its turn
+            m_readAheadIterator = ReadAheadIterator.start(m_iteratorSuppliers[m_curItIndex + 1].get().getFirst());
+        }
         DataTableSpec spec = pair.getSecond();
         int missingNumber = m_spec.getNumColumns() - spec.getNumColumns();
         m_curMissingCells = new DataCell[missingNumber];
@@ -358,7 +421,7 @@ private void initNextTable() {
      */
     @Deprecated
     public Set<RowKey> getDuplicateHash() {
-        return Collections.unmodifiableSet(m_duplicateMap.keySet());
+        return getDuplicateNameMap().keySet();
     }
 
     /** Get a map of keys in the resulting table to the keys in (any of)
@@ -369,10 +432,14 @@ public Set<RowKey> getDuplicateHash() {
      * <tr><td>Row2</td><td>Row2</td></tr>
      * <tr><td>Row1_dup</td><td>Row1</td></tr>
      * </table>
+     * The map reflects the keys seen so far and remains valid after the iterator is {@link #close() closed}.
      * @return Such a map (unmodifiable)
      */
     public Map<RowKey, RowKey> getDuplicateNameMap() {
-        return Collections.unmodifiableMap(m_duplicateMap);
+        if (m_closedNameMap != null) {
+            return Collections.unmodifiableMap(m_closedNameMap);
+        }
+        return Collections.unmodifiableMap(new DuplicateNameMap());
     }
 
     /** {@inheritDoc} */
@@ -381,11 +448,240 @@ public void close() {
         if (m_curIterator instanceof CloseableRowIterator) {
             ((CloseableRowIterator)m_curIterator).close();
         }
+        if (m_readAheadIterator != null) {
+            m_readAheadIterator.close();
+            m_readAheadIterator = null;
+        }
+        if (m_closedNameMap == null) {
+            // the key index releases its temporary file, keep the duplicate name map valid in a copy
+            Map<RowKey, RowKey> nameMap = new LinkedHashMap<>();
+            nameMap.putAll(new DuplicateNameMap());
+            m_closedNameMap = nameMap;
+            m_keyIndex.dispose();
+            m_renamedKeyMap.clear();
+        }
         m_nextRow = null;
         m_curIterator = null;
         m_curItIndex = m_iteratorSuppliers.length - 1;
     }
 
+    private static ThreadPoolExecutor createReadAheadExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "KNIME-Concatenate-ReadAhead-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        final int maxThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        return new ThreadPoolExecutor(0, maxThreads, 30, TimeUnit.SECONDS, new SynchronousQueue<>(), factory);
+    }
+
+    /**
+     * View on the key index as map from output key to input key, the (few) renamed keys are looked up in
+     * {@link #m_renamedKeyMap}, all others map to themselves. Delegates to the copy taken on {@link #close()} once
+     * the iterator is closed.
+     */
+    private final class DuplicateNameMap extends AbstractMap<RowKey, RowKey> {
+
+        @Override
+        public boolean containsKey(final Object key) {
+            if (m_closedNameMap != null) {
+                return m_closedNameMap.containsKey(key);
+            }
+            return key instanceof RowKey && m_keyIndex.contains((RowKey)key);
+        }
+
+        @Override
+        public RowKey get(final Object key) {
+            if (m_closedNameMap != null) {
+                return m_closedNameMap.get(key);
+            }
+            RowKey origKey = m_renamedKeyMap.get(key);
+            if (origKey != null) {
+                return origKey;
+            }
+            return containsKey(key) ? (RowKey)key : null;
+        }
+
+        @Override
+        public int size() {
+            if (m_closedNameMap != null) {
+                return m_closedNameMap.size();
+            }
+            return (int)Math.min(Integer.MAX_VALUE, m_keyIndex.size());
+        }
+
+        @Override
+        public Set<Map.Entry<RowKey, RowKey>> entrySet() {
+            if (m_closedNameMap != null) {
+                return m_closedNameMap.entrySet();
+            }
+            return new AbstractSet<Map.Entry<RowKey, RowKey>>() {
+
+                @Override
+                public Iterator<Map.Entry<RowKey, RowKey>> iterator() {
+                    final Iterator<RowKey> keyIterator = m_keyIndex.iterator();
+                    return new Iterator<Map.Entry<RowKey, RowKey>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return keyIterator.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<RowKey, RowKey> next() {
+                            RowKey key = keyIterator.next();
+                            RowKey origKey = m_renamedKeyMap.get(key);
+                            return new SimpleImmutableEntry<>(key, origKey != null ? origKey : key);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return DuplicateNameMap.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Reads the rows of a table iterator in a separate thread into a bounded buffer. Exceptions in the reading thread
+     * are rethrown in {@link #next()}.
+     */
+    private static final class ReadAheadIterator extends CloseableRowIterator {
+
+        /** Put into the buffer after the last row. */
+        private static final DataRow END_OF_TABLE = new BlobSupportDataRow(new RowKey("<end>"), new DataCell[0]);
+
+        private final Reader m_reader;
+
+        private DataRow m_next;
+
+        private ReadAheadIterator(final RowIterator source) {
+            m_reader = new Reader(source, this);
+        }
+
+        /**
+         * Starts reading the source in a separate thread.
+         *
+         * @param source the iterator to read
+         * @return the iterator returning the rows of the source or <code>null</code> if all read-ahead threads are
+         *         busy
+         */
+        static ReadAheadIterator start(final RowIterator source) {
+            ReadAheadIterator iterator = new ReadAheadIterator(source);
+            try {
+                READ_AHEAD_EXECUTOR.execute(iterator.m_reader);
+            } catch (RejectedExecutionException e) {
+                return null;
+            }
+            return iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (m_next == null) {
+                try {
+                    m_next = m_reader.m_buffer.take();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for the table content", ie);
+                }
+            }
+            if (m_next == END_OF_TABLE) {
+                RuntimeException exception = m_reader.m_exception;
+                if (exception != null) {
+                    m_reader.m_exception = null;
+                    throw exception;
+                }
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public DataRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            DataRow next = m_next;
+            m_next = null;
+            return next;
+        }
+
+        @Override
+        public void close() {
+            m_reader.m_isClosed = true;
+            // unblock the reader (if waiting for space in the buffer)
+            m_reader.m_buffer.clear();
+            m_next = END_OF_TABLE;
+        }
+    }
+
+    /**
+     * The reading thread of a {@link ReadAheadIterator}. It only weakly references the iterator so that it also stops
+     * (and closes the source) if the iterator is abandoned without being closed.
+     */
+    private static final class Reader implements Runnable {
+
+        private final RowIterator m_source;
+
+        private final BlockingQueue<DataRow> m_buffer = new ArrayBlockingQueue<>(READ_AHEAD_BUFFER_SIZE);
+
+        private final WeakReference<ReadAheadIterator> m_consumer;
+
+        private volatile boolean m_isClosed;
+
+        private volatile RuntimeException m_exception;
+
+        private Reader(final RowIterator source, final ReadAheadIterator consumer) {
+            m_source = source;
+            m_consumer = new WeakReference<>(consumer);
+        }
+
+        /** @return whether the consumer was closed or garbage collected, i.e. no one reads the buffer any more */
+        private boolean isAbandoned() {
+            return m_isClosed || m_consumer.get() == null;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!isAbandoned() && m_source.hasNext()) {
+                    DataRow row = m_source.next();
+                    while (!m_buffer.offer(row, 100, TimeUnit.MILLISECONDS)) {
+                        if (isAbandoned()) {
+                            return;
+                        }
+                    }
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                m_exception = new RuntimeException("Interrupted while reading table", ie);
+            } catch (RuntimeException re) {
+                m_exception = re;
+            } finally {
+                if (isAbandoned() && m_source instanceof CloseableRowIterator) {
+                    ((CloseableRowIterator)m_source).close();
+                }
+                // blocks only if the buffer is full, i.e. the consumer is still reading
+                putEndMarker();
+            }
+        }
+
+        private void putEndMarker() {
+            try {
+                while (!m_buffer.offer(ReadAheadIterator.END_OF_TABLE, 100, TimeUnit.MILLISECONDS)) {
+                    if (isAbandoned()) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /** To be replaced by java 8 java.util.Supplier.
      * @deprecated ... */
     @Deprecated
@@ -61,6 +61,8 @@
 import org.knime.core.data.DataValueComparator;
 import org.knime.core.data.RowIterator;
 import org.knime.core.data.append.AppendedRowsIterator.PairSupplier;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.util.Pair;
@@ -196,6 +198,9 @@ public RowIterator iterator() {
      * {@link RowIterator#next()} method runs <b>very</b> long (scanning the
      * entire table to just figure out that there are only duplicates).
      *
+     * <p>If all tables are {@link BufferedDataTable} or {@link ContainerTable}, the next table is read in a separate
+     * thread while the rows of the current table are returned.
+     *
      * @param exec the execution monitor for cancel / progress
      * @param totalRowCount the total number rows or negative if unknown
      * @return an iterator which reacts on cancel events
@@ -204,11 +209,15 @@ public RowIterator iterator() {
     public AppendedRowsIterator iterator(final ExecutionMonitor exec,
             final int totalRowCount) {
         PairSupplier[] iteratorSuppliers = new PairSupplier[m_tables.length];
+        // other table implementations may not support concurrent iteration
+        boolean readAhead = true;
         for (int i = 0; i < iteratorSuppliers.length; i++) {
             iteratorSuppliers[i] = new PairSupplier(new Pair<RowIterator, DataTableSpec>(
                     m_tables[i].iterator(), m_tables[i].getDataTableSpec()));
+            readAhead &= m_tables[i] instanceof BufferedDataTable || m_tables[i] instanceof ContainerTable;
         }
-        return new AppendedRowsIterator(iteratorSuppliers, m_duplPolicy, m_suffix, m_spec, exec, totalRowCount);
+        return new AppendedRowsIterator(iteratorSuppliers, m_duplPolicy, m_suffix, m_spec, exec, totalRowCount,
+            readAhead);
     }
 
     /**
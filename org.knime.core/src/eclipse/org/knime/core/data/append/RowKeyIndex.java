@@ -0,0 +1,419 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.append;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.knime.core.data.RowKey;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Compact set of row keys used to detect duplicates when concatenating tables. Keys are stored as UTF-8 bytes in an
+ * append-only arena, the hash table only holds offsets into the arena (plus a hash fragment), which amounts to about
+ * 25 bytes plus the key length per key (compared to well over 100 bytes for a <code>HashMap&lt;RowKey, ..&gt;</code>).
+ *
+ * <p>Arena and hash table are split into chunks. Arena chunks start small and double in size up to 4MB. The first
+ * chunks are allocated on the heap; once {@link #SPILL_THRESHOLD} bytes (by default) are allocated, further chunks are
+ * memory mapped regions of a temporary file, i.e. they are paged to disk by the operating system instead of using
+ * heap space. File regions of hash tables replaced when growing are reused for later chunks.
+ *
+ * <p>The index is not thread-safe. Iteration returns the keys in insertion order.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class RowKeyIndex implements Iterable<RowKey> {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(RowKeyIndex.class);
+
+    /** Size of a chunk (4MB). */
+    private static final int CHUNK_BITS = 22;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    /** Size of the first arena chunk (4KB), the following ones double in size up to {@link #CHUNK_SIZE}. */
+    private static final int INITIAL_ARENA_CHUNK_SIZE = 1 << 12;
+
+    /** Default number of bytes allocated on the heap, further chunks are backed by a file. */
+    static final long SPILL_THRESHOLD = 64L << 20;
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private static final double MAX_LOAD_FACTOR = 0.6;
+
+    /** Arena offsets are stored in the lower bits of a slot, a fragment of the key hash in the upper bits. */
+    private static final int OFFSET_BITS = 40;
+
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+    /** Per entry in the arena: hash (long), length (int), UTF-8 bytes. */
+    private static final int ENTRY_HEADER_SIZE = 12;
+
+    private final List<ByteBuffer> m_arena = new ArrayList<>();
+
+    /** Bytes used in each of the arena chunks. */
+    private final List<Integer> m_arenaUsed = new ArrayList<>();
+
+    private ByteBuffer[] m_slots;
+
+    private long m_capacity;
+
+    private long m_size;
+
+    private long m_allocatedBytes;
+
+    private final long m_spillThreshold;
+
+    private File m_spillFile;
+
+    private FileChannel m_spillChannel;
+
+    private long m_spillFileSize;
+
+    /** Offsets of the chunks mapped from the temporary file. */
+    private final Map<ByteBuffer, Long> m_spillOffsets = new IdentityHashMap<>();
+
+    /** Offsets of unused regions in the temporary file, by region size. */
+    private final Map<Integer, Deque<Long>> m_freeSpillRegions = new HashMap<>();
+
+    RowKeyIndex() {
+        this(SPILL_THRESHOLD);
+    }
+
+    /** @param spillThreshold number of bytes allocated on the heap before using a temporary file */
+    RowKeyIndex(final long spillThreshold) {
+        m_spillThreshold = spillThreshold;
+        m_capacity = INITIAL_CAPACITY;
+        m_slots = allocateSlots(m_capacity);
+    }
+
+    /** @return number of keys */
+    long size() {
+        return m_size;
+    }
+
+    /** @return whether some of the chunks are backed by a temporary file */
+    boolean isSpilled() {
+        return m_spillChannel != null;
+    }
+
+    /**
+     * @param key the key to look up
+     * @return whether the key was {@link #add(RowKey) added}
+     */
+    boolean contains(final RowKey key) {
+        checkNotDisposed();
+        byte[] bytes = key.getString().getBytes(StandardCharsets.UTF_8);
+        return findSlot(bytes, hash(bytes)) < 0;
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param key the key to add
+     * @return <code>true</code> if the key was added, <code>false</code> if it is already contained
+     */
+    boolean add(final RowKey key) {
+        checkNotDisposed();
+        byte[] bytes = key.getString().getBytes(StandardCharsets.UTF_8);
+        long hash = hash(bytes);
+        long slot = findSlot(bytes, hash);
+        if (slot < 0) {
+            return false;
+        }
+        long offset = appendToArena(bytes, hash);
+        setSlot(m_slots, slot, (fragment(hash) << OFFSET_BITS) | (offset + 1));
+        m_size++;
+        if (m_size > m_capacity * MAX_LOAD_FACTOR) {
+            rehash();
+        }
+        return true;
+    }
+
+    private void checkNotDisposed() {
+        if (m_capacity == 0) {
+            throw new IllegalStateException("Row key index has been disposed");
+        }
+    }
+
+    /** Returns the index of the empty slot for the key, or <code>-(index + 1)</code> if the key is contained. */
+    private long findSlot(final byte[] bytes, final long hash) {
+        final long mask = m_capacity - 1;
+        final long fragment = fragment(hash);
+        for (long i = hash & mask;; i = (i + 1) & mask) {
+            long slotValue = getSlot(m_slots, i);
+            if (slotValue == 0) {
+                return i;
+            }
+            if ((slotValue >>> OFFSET_BITS) == fragment && equalsEntry((slotValue & OFFSET_MASK) - 1, bytes, hash)) {
+                return -(i + 1);
+            }
+        }
+    }
+
+    private boolean equalsEntry(final long offset, final byte[] bytes, final long hash) {
+        ByteBuffer chunk = m_arena.get((int)(offset >>> CHUNK_BITS));
+        int pos = (int)(offset & (CHUNK_SIZE - 1));
+        if (chunk.getLong(pos) != hash || chunk.getInt(pos + 8) != bytes.length) {
+            return false;
+        }
+        pos += ENTRY_HEADER_SIZE;
+        for (int i = 0; i < bytes.length; i++) {
+            if (chunk.get(pos + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long appendToArena(final byte[] bytes, final long hash) {
+        final int entrySize = ENTRY_HEADER_SIZE + bytes.length;
+        int chunkIndex = m_arena.size() - 1;
+        if (chunkIndex < 0 || m_arenaUsed.get(chunkIndex) + entrySize > m_arena.get(chunkIndex).capacity()) {
+            // entries don't span chunks; a key larger than a chunk gets its own chunk
+            int chunkSize = chunkIndex < 0 ? INITIAL_ARENA_CHUNK_SIZE
+                : (int)Math.min(CHUNK_SIZE, 2L * m_arena.get(chunkIndex).capacity());
+            m_arena.add(allocate(Math.max(chunkSize, entrySize)));
+            m_arenaUsed.add(0);
+            chunkIndex++;
+        }
+        ByteBuffer chunk = m_arena.get(chunkIndex);
+        int pos = m_arenaUsed.get(chunkIndex);
+        chunk.putLong(pos, hash);
+        chunk.putInt(pos + 8, bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            chunk.put(pos + ENTRY_HEADER_SIZE + i, bytes[i]);
+        }
+        m_arenaUsed.set(chunkIndex, pos + entrySize);
+        return ((long)chunkIndex << CHUNK_BITS) | pos;
+    }
+
+    private void rehash() {
+        final long newCapacity = m_capacity << 1;
+        final long mask = newCapacity - 1;
+        ByteBuffer[] newSlots = allocateSlots(newCapacity);
+        for (long i = 0; i < m_capacity; i++) {
+            long slotValue = getSlot(m_slots, i);
+            if (slotValue == 0) {
+                continue;
+            }
+            long offset = (slotValue & OFFSET_MASK) - 1;
+            long hash = m_arena.get((int)(offset >>> CHUNK_BITS)).getLong((int)(offset & (CHUNK_SIZE - 1)));
+            long j = hash & mask;
+            while (getSlot(newSlots, j) != 0) {
+                j = (j + 1) & mask;
+            }
+            setSlot(newSlots, j, slotValue);
+        }
+        for (ByteBuffer oldSlots : m_slots) {
+            release(oldSlots);
+        }
+        m_slots = newSlots;
+        m_capacity = newCapacity;
+    }
+
+    private ByteBuffer[] allocateSlots(final long capacity) {
+        final long bytes = capacity << 3;
+        ByteBuffer[] slots = new ByteBuffer[(int)((bytes + CHUNK_SIZE - 1) >>> CHUNK_BITS)];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = allocate((int)Math.min(CHUNK_SIZE, bytes - ((long)i << CHUNK_BITS)));
+        }
+        return slots;
+    }
+
+    private static long getSlot(final ByteBuffer[] slots, final long index) {
+        final long byteIndex = index << 3;
+        return slots[(int)(byteIndex >>> CHUNK_BITS)].getLong((int)(byteIndex & (CHUNK_SIZE - 1)));
+    }
+
+    private static void setSlot(final ByteBuffer[] slots, final long index, final long value) {
+        final long byteIndex = index << 3;
+        slots[(int)(byteIndex >>> CHUNK_BITS)].putLong((int)(byteIndex & (CHUNK_SIZE - 1)), value);
+    }
+
+    /** Allocates a zeroed chunk, on the heap or (after the spill threshold is reached) in the temporary file. */
+    private ByteBuffer allocate(final int size) {
+        m_allocatedBytes += size;
+        if (m_allocatedBytes <= m_spillThreshold) {
+            return ByteBuffer.allocate(size);
+        }
+        try {
+            if (m_spillChannel == null) {
+                m_spillFile = FileUtil.createTempFile("knime_rowkeys", ".bin", true);
+                m_spillChannel = new RandomAccessFile(m_spillFile, "rw").getChannel();
+                LOGGER.debug("Row key index exceeds " + (m_spillThreshold >> 20) + "MB, using file "
+                    + m_spillFile.getAbsolutePath());
+            }
+            Deque<Long> freeRegions = m_freeSpillRegions.get(size);
+            ByteBuffer buffer;
+            if (freeRegions != null && !freeRegions.isEmpty()) {
+                long offset = freeRegions.pop();
+                buffer = m_spillChannel.map(FileChannel.MapMode.READ_WRITE, offset, size);
+                int i = 0;
+                for (; i + 8 <= size; i += 8) {
+                    buffer.putLong(i, 0L);
+                }
+                for (; i < size; i++) {
+                    buffer.put(i, (byte)0);
+                }
+                m_spillOffsets.put(buffer, offset);
+            } else {
+                // regions beyond the end of the file read as zeros
+                buffer = m_spillChannel.map(FileChannel.MapMode.READ_WRITE, m_spillFileSize, size);
+                m_spillOffsets.put(buffer, m_spillFileSize);
+                m_spillFileSize += size;
+            }
+            return buffer;
+        } catch (IOException e) {
+            LOGGER.warn("Unable to use temporary file for row key index, keeping it in memory: " + e.getMessage(), e);
+            return ByteBuffer.allocate(size);
+        }
+    }
+
+    /** Releases a chunk that is no longer used, its file region (if any) is reused by later allocations. */
+    private void release(final ByteBuffer chunk) {
+        final int size = chunk.capacity();
+        Long offset = m_spillOffsets.remove(chunk);
+        if (offset != null) {
+            m_freeSpillRegions.computeIfAbsent(size, k -> new ArrayDeque<>()).push(offset);
+        } else {
+            m_allocatedBytes -= size;
+        }
+    }
+
+    /** @return size of the temporary file in bytes, 0 if none is used */
+    long getSpillFileSize() {
+        return m_spillFileSize;
+    }
+
+    /** Releases the temporary file (if any). The index must not be used afterwards. */
+    void dispose() {
+        m_spillOffsets.clear();
+        m_freeSpillRegions.clear();
+        m_arena.clear();
+        m_arenaUsed.clear();
+        m_slots = new ByteBuffer[0];
+        m_capacity = 0;
+        m_size = 0;
+        if (m_spillChannel != null) {
+            try {
+                m_spillChannel.close();
+            } catch (IOException e) {
+                LOGGER.debug("Unable to close row key index file: " + e.getMessage(), e);
+            }
+            m_spillChannel = null;
+            // may fail while the mapped regions aren't garbage collected, the file is deleted on exit then
+            m_spillFile.delete();
+        }
+    }
+
+    /** The upper hash bits stored in a slot to avoid most arena lookups for non-matching keys. */
+    private static long fragment(final long hash) {
+        return hash >>> OFFSET_BITS;
+    }
+
+    /** 64 bit FNV-1a hash with a final mixing step (as the lower bits determine the slot). */
+    private static long hash(final byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** {@inheritDoc} Iterates the keys in insertion order. */
+    @Override
+    public Iterator<RowKey> iterator() {
+        return new Iterator<RowKey>() {
+            private int m_chunk;
+
+            private int m_pos;
+
+            private long m_returned;
+
+            @Override
+            public boolean hasNext() {
+                return m_returned < m_size;
+            }
+
+            @Override
+            public RowKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                while (m_pos >= m_arenaUsed.get(m_chunk)) {
+                    m_chunk++;
+                    m_pos = 0;
+                }
+                ByteBuffer chunk = m_arena.get(m_chunk);
+                byte[] bytes = new byte[chunk.getInt(m_pos + 8)];
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] = chunk.get(m_pos + ENTRY_HEADER_SIZE + i);
+                }
+                m_pos += ENTRY_HEADER_SIZE + bytes.length;
+                m_returned++;
+                return new RowKey(new String(bytes, StandardCharsets.UTF_8));
+            }
+        };
+    }
+}
@@ -48,12 +48,16 @@
  */
 package org.knime.core.data.cache;
 
-import static org.knime.core.data.container.filter.TableFilter.materializeCols;
-
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.knime.core.data.DataRow;
@@ -67,12 +71,18 @@
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.NodeLogger;
 
 /**
  * Wrapper around a {@link DataTable} which supports caching a window of contiguous {@link DataRow}s in a ring buffer.
  * This functionality is mainly needed for table views which support scrolling or paging so that rows in the area of
  * currently visible rows can be accessed quickly.
  *
+ * <p>If the underlying table is a {@link BufferedDataTable} or {@link ContainerTable}, only the
+ * {@link #WindowCacheTable(DataTable, String...) included columns} are read and the iterator is started at the
+ * requested row (instead of the first row) when rows before the cache are requested. For these tables, rows in the
+ * scroll direction are also read in the background, see {@link #setPrefetchEnabled(boolean)}.
+ *
  * @author Christian Albrecht, KNIME GmbH, Konstanz, Germany
  * @since 3.8
  *
@@ -91,6 +101,14 @@ public class WindowCacheTable implements DirectAccessTable {
      */
     public static final int DEFAULT_LOOK_AHEAD = 50;
 
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(WindowCacheTable.class);
+
+    /** Number of rows read by a prefetch task before it releases the lock (and checks if it's still needed). */
+    private static final int PREFETCH_BATCH_SIZE = 16;
+
+    /** Executes the prefetch tasks of all tables, one at a time. */
+    private static final ThreadPoolExecutor PREFETCHER = createPrefetcher();
+
     /** Underlying iterable data table. May be null to indicate invalid status. */
     private final DataTable m_table;
 
@@ -141,12 +159,33 @@ public class WindowCacheTable implements DirectAccessTable {
      * exceptions to be thrown. An empty or uninitialized set indicates that all columns should be accessible. */
     private Set<String> m_includedColumnIndices;
 
+    /** Index of the first row returned by {@link #m_tableIterator} (non-zero if the iterator was started at an
+     * offset). Rows before that index are not in the cache. */
+    private long m_iteratorOffset;
+
+    /** See {@link #setPrefetchEnabled(boolean)}. */
+    private boolean m_isPrefetchEnabled;
+
+    /** Start index of the last call to {@link #getRows(long, int, ExecutionMonitor)}, to determine the scroll
+     * direction. */
+    private long m_lastRequestStart;
+
+    /** Scroll direction of the last call to {@link #getRows(long, int, ExecutionMonitor)}. */
+    private boolean m_isLastRequestForward = true;
+
+    /** Incremented when a running prefetch task is no longer needed (cache was modified or direction changed). */
+    private int m_prefetchGeneration;
+
+    /** Whether a prefetch task is scheduled or running; at most one per table. */
+    private boolean m_isPrefetchRunning;
+
     private WindowCacheTable(final DataTable table, final boolean init) {
         m_maxRowCount = 0;
         m_isMaxRowCountFinal = true; // no data seen, assume final row count
         m_lookAheadSize = DEFAULT_LOOK_AHEAD;
         m_cacheSize = DEFAULT_CACHE_SIZE;
         m_table = table;
+        m_isPrefetchEnabled = canSeek();
         if (init) {
             initCache();
         }
@@ -172,20 +211,46 @@ public WindowCacheTable(final DataTable table, final String... includedColumns)
     /**
      * Sets an array of column names of which columns from the underlying {@link DataTable} are of interest for the
      * purpose of this cache. By default all columns are included. Accessing cells from columns excluded after calling
-     * this method may lead to an exception.
+     * this method may lead to an exception. Changing the columns clears the cache, the rows read next start at the
+     * first row that was cached before (if the table supports it, see class description).
      *
-     * @param includedColumns the column names of the columns to include in the row cache
+     * @param includedColumns the column names of the columns to include in the row cache, <code>null</code> or empty
+     *            to include all columns
      */
-    private void setIncludedColumns(final String... includedColumns) {
-        if (includedColumns == null || includedColumns.length <= 0) {
+    public final synchronized void setIncludedColumns(final String... includedColumns) {
+        Set<String> colSet = includedColumns == null || includedColumns.length <= 0 ? null
+            : Arrays.stream(includedColumns).collect(Collectors.toSet());
+        if (Objects.equals(colSet, m_includedColumnIndices)) {
             return;
         }
-        Set<String> colSet = Arrays.stream(includedColumns).collect(Collectors.toSet());
-        if (!colSet.equals(m_includedColumnIndices)) {
-            m_includedColumnIndices = colSet;
+        m_includedColumnIndices = colSet;
+        if (m_cachedRows != null) {
+            m_prefetchGeneration++;
+            final long firstCachedRow = Math.max(m_iteratorOffset, m_rowCountOfInterestInIterator - getCacheSize());
+            clearCacheAndInitIterator(canSeek() ? firstCachedRow : 0);
         }
     }
 
+    /**
+     * Creates the executor shared by all tables to prefetch rows: a single daemon thread with low priority, which
+     * terminates when idle.
+     *
+     * @return a new executor
+     */
+    private static ThreadPoolExecutor createPrefetcher() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "KNIME-WindowCache-Prefetcher-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        };
+        ThreadPoolExecutor executor =
+            new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     private void initCache() {
         m_cachedRows = null;
         m_tableIterator = null;
@@ -211,7 +276,7 @@ private void initCache() {
             }
             int cacheSize = getCacheSize();
             m_cachedRows = new DataRow[cacheSize];
-            clearCacheAndInitIterator();  // will instantiate a new iterator.
+            clearCacheAndInitIterator(0);  // will instantiate a new iterator.
             // will also set m_isRowCountOfInterestFinal etc. accordingly
             cacheNextRow();
         }
@@ -289,7 +354,7 @@ public boolean hasRowCount() {
      * @return the new cache size (may differ from <code>size</code>, see above)
      * @throws IllegalArgumentException if <code>size</code> <= 0.
      */
-    public final int setCacheSize(final int size) {
+    public final synchronized int setCacheSize(final int size) {
         if (size == getCacheSize()) { // cool, nothing changed
             return size;
         }
@@ -298,7 +363,8 @@ public final int setCacheSize(final int size) {
         }
         m_cacheSize = Math.max(2 * getLookAheadSize(), size);
         m_cachedRows = new DataRow[m_cacheSize];
-        clearCacheAndInitIterator();
+        m_prefetchGeneration++;
+        clearCacheAndInitIterator(0);
         return m_cacheSize;
     }
 
@@ -321,7 +387,7 @@ public final int getCacheSize() {
      * @throws IllegalArgumentException if <code>newSize</code> is &lt;= 0.
      * @see #getCacheSize()
      */
-    public final int setLookAheadSize(final int newSize) {
+    public final synchronized int setLookAheadSize(final int newSize) {
         if (newSize <= 0) {
             throw new IllegalArgumentException(
                 "Chunks must not be <= 0: " + newSize);
@@ -340,11 +406,41 @@ public final int getLookAheadSize() {
         return m_lookAheadSize;
     }
 
+    /**
+     * Enables or disables prefetching. If enabled, each call to {@link #getRows(long, int, ExecutionMonitor)}
+     * triggers reading further rows in the scroll direction on a background thread, so that subsequent requests
+     * can be served from the cache:
+     * <ul>
+     * <li>when scrolling down, the cache is filled up with the rows following the requested rows, keeping
+     * {@link #getLookAheadSize()} rows before them;</li>
+     * <li>when scrolling up (only if the table supports starting the iteration at a row offset, see class
+     * description), the rows before the requested rows are read into a new window that replaces the cache.</li>
+     * </ul>
+     * Prefetching is enabled by default if the table supports starting the iteration at a row offset (it would
+     * otherwise mostly read rows that are dropped from the cache again when jumping backward).
+     *
+     * @param enabled whether to prefetch rows in the background
+     */
+    public final synchronized void setPrefetchEnabled(final boolean enabled) {
+        m_isPrefetchEnabled = enabled;
+        if (!enabled) {
+            m_prefetchGeneration++;
+        }
+    }
+
+    /**
+     * @return whether rows are prefetched in the background
+     * @see #setPrefetchEnabled(boolean)
+     */
+    public final synchronized boolean isPrefetchEnabled() {
+        return m_isPrefetchEnabled;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    public List<DataRow> getRows(final long start, final int length, final ExecutionMonitor exec)
+    public synchronized List<DataRow> getRows(final long start, final int length, final ExecutionMonitor exec)
             throws IndexOutOfBoundsException, CanceledExecutionException {
         checkRowIndex(start);
         if (length < 0 || start + length < 0) {
@@ -358,19 +454,33 @@ public List<DataRow> getRows(final long start, final int length, final Execution
         final int cacheSize = getCacheSize();
         final long oldRowCount = m_rowCountOfInterest;
         final long lastRow = start + length - 1;
+        final boolean isForward = start >= m_lastRequestStart;
+        if (isForward != m_isLastRequestForward) {
+            m_prefetchGeneration++; // changed direction, a running prefetch goes the wrong way
+        }
+        m_lastRequestStart = start;
+        m_isLastRequestForward = isForward;
 
         // the iterator goes further when the last known row is requested
         boolean pushIterator = !hasRowCount() && (lastRow >= oldRowCount - 1);
-        if (start >= (m_rowCountOfInterestInIterator - cacheSize)
-                && (lastRow < m_rowCountOfInterestInIterator) && !pushIterator) {
-            return getRowsFromCache(start, length, exec);
+        final long firstCachedRow = Math.max(m_iteratorOffset, m_rowCountOfInterestInIterator - cacheSize);
+        if (start >= firstCachedRow && (lastRow < m_rowCountOfInterestInIterator) && !pushIterator) {
+            List<DataRow> rows = getRowsFromCache(start, length, exec);
+            schedulePrefetch(start, length, isForward);
+            return rows;
         }
 
         /* not all rows in cache */
-        // some rows already released from cache
-        if (start < (m_rowCountOfInterestInIterator - cacheSize)) {
-            // clear cache, init new iterator
-            clearCacheAndInitIterator();
+        m_prefetchGeneration++;
+        // first row that ends up in the cache
+        final long newFirstCachedRow = Math.max(0, lastRow + m_lookAheadSize + 1 - cacheSize);
+        if (start < firstCachedRow) {
+            // some rows already released from cache: clear cache, init new iterator -- at the first row that ends
+            // up in the cache if the table allows it
+            clearCacheAndInitIterator(canSeek() ? newFirstCachedRow : 0);
+        } else if (canSeek() && newFirstCachedRow > m_rowCountOfInterestInIterator) {
+            // jump forward beyond the cache, don't read the rows in between
+            clearCacheAndInitIterator(newFirstCachedRow);
         }
         assert (start + length >= m_rowCountOfInterestInIterator - 1);
 
@@ -391,7 +501,117 @@ public List<DataRow> getRows(final long start, final int length, final Execution
         if (exec != null) {
             exec.setProgress(1.0);
         }
-        return getRowsFromCache(start, length, exec);
+        List<DataRow> rows = getRowsFromCache(start, length, exec);
+        schedulePrefetch(start, length, isForward);
+        return rows;
+    }
+
+    /** Schedules a prefetch task in scroll direction if enabled and there isn't one running already. */
+    private void schedulePrefetch(final long start, final int length, final boolean isForward) {
+        if (!m_isPrefetchEnabled || m_isPrefetchRunning) {
+            return;
+        }
+        final int generation = m_prefetchGeneration;
+        final int cacheSize = getCacheSize();
+        Runnable task = null;
+        if (isForward) {
+            final long target = start + cacheSize - m_lookAheadSize;
+            final boolean hasMoreRows = !m_isMaxRowCountFinal || m_rowCountOfInterestInIterator < m_rowCountOfInterest;
+            if (target > m_rowCountOfInterestInIterator && hasMoreRows) {
+                task = () -> prefetchForward(generation, target);
+            }
+        } else if (canSeek()) {
+            final long offset = Math.max(0, start + length + m_lookAheadSize - cacheSize);
+            if (offset < Math.max(m_iteratorOffset, m_rowCountOfInterestInIterator - cacheSize)) {
+                task = () -> prefetchBackward(generation, offset, cacheSize);
+            }
+        }
+        if (task != null) {
+            m_isPrefetchRunning = true;
+            PREFETCHER.execute(task);
+        }
+    }
+
+    /** Pushes the iterator forward until the row with index <code>target - 1</code> is cached, in batches, as long
+     * as the generation is current. */
+    private void prefetchForward(final int generation, final long target) {
+        try {
+            boolean mayHaveNext = true;
+            while (mayHaveNext) {
+                synchronized (this) {
+                    for (int i = 0; i < PREFETCH_BATCH_SIZE && mayHaveNext; i++) {
+                        mayHaveNext = generation == m_prefetchGeneration && m_rowCountOfInterestInIterator < target
+                            && cacheNextRow();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to prefetch rows: " + e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                m_isPrefetchRunning = false;
+            }
+        }
+    }
+
+    /** Reads the rows starting at <code>offset</code> with a new iterator (without holding the lock) and replaces
+     * the cache content with them if the generation is still current. */
+    private void prefetchBackward(final int generation, final long offset, final int cacheSize) {
+        RowIterator iterator = null;
+        boolean isInstalled = false;
+        try {
+            iterator = getNewDataIterator(offset);
+            final DataRow[] rows = new DataRow[cacheSize];
+            int count = 0;
+            while (count < cacheSize && iterator.hasNext()) {
+                rows[count++] = iterator.next();
+                if (count % PREFETCH_BATCH_SIZE == 0 && !isCurrentGeneration(generation)) {
+                    return;
+                }
+            }
+            synchronized (this) {
+                if (generation != m_prefetchGeneration || cacheSize != getCacheSize()) {
+                    return;
+                }
+                closeIterator();
+                m_tableIterator = iterator;
+                isInstalled = true;
+                Arrays.fill(m_cachedRows, null);
+                for (int i = 0; i < count; i++) {
+                    m_cachedRows[(int)((offset + i) % cacheSize)] = rows[i];
+                }
+                m_iteratorOffset = offset;
+                m_rowCountInIterator = offset + count;
+                m_rowCountOfInterestInIterator = offset + count;
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to prefetch rows: " + e.getMessage(), e);
+        } finally {
+            if (!isInstalled && iterator instanceof CloseableRowIterator) {
+                ((CloseableRowIterator)iterator).close();
+            }
+            synchronized (this) {
+                m_isPrefetchRunning = false;
+            }
+        }
+    }
+
+    private synchronized boolean isCurrentGeneration(final int generation) {
+        return generation == m_prefetchGeneration;
+    }
+
+    /** @return whether a prefetch task is scheduled or running, used in tests */
+    synchronized boolean isPrefetchRunning() {
+        return m_isPrefetchRunning;
+    }
+
+    /**
+     * @param row a row index
+     * @return whether the row is in the cache, used in tests
+     */
+    synchronized boolean isRowCached(final long row) {
+        return row >= Math.max(m_iteratorOffset, m_rowCountOfInterestInIterator - getCacheSize())
+            && row < m_rowCountOfInterestInIterator;
     }
 
     /**
@@ -432,35 +652,59 @@ private boolean cacheNextRow() {
         return true;
     }
 
+    /** @return whether the table supports filters, i.e. column projection and starting at a row offset. */
+    private boolean canSeek() {
+        return m_table instanceof BufferedDataTable || m_table instanceof ContainerTable;
+    }
+
     /**
      * Get new iterator, only to be called when data is set. If predicates are set those are tried to push down to
      * the iterator.
+     *
+     * @param offset index of the first row to return, only non-zero if {@link #canSeek()}
      */
-    private RowIterator getNewDataIterator() {
+    private RowIterator getNewDataIterator(final long offset) {
         assert hasData();
-        if (m_table instanceof BufferedDataTable && m_includedColumnIndices != null) {
-            BufferedDataTable bdt = (BufferedDataTable)m_table;
-            DataTableSpec spec = bdt.getSpec();
-            TableFilter filter = materializeCols(spec, m_includedColumnIndices.stream().toArray(String[]::new));
-            return bdt.filter(filter).iterator();
+        if (!canSeek() || (m_includedColumnIndices == null && offset == 0)) {
+            return m_table.iterator();
+        }
+        TableFilter.Builder filterBuilder = new TableFilter.Builder();
+        if (m_includedColumnIndices != null) {
+            DataTableSpec spec = m_table.getDataTableSpec();
+            filterBuilder.withMaterializeColumnIndices(
+                spec.columnsToIndices(m_includedColumnIndices.stream().toArray(String[]::new)));
+        }
+        if (offset > 0) {
+            filterBuilder.withFromRowIndex(offset);
+        }
+        TableFilter filter = filterBuilder.build();
+        if (m_table instanceof BufferedDataTable) {
+            return ((BufferedDataTable)m_table).filter(filter).iterator();
+        }
+        return ((ContainerTable)m_table).iteratorWithFilter(filter, null);
+    }
+
+    private void closeIterator() {
+        if (m_tableIterator instanceof CloseableRowIterator) {
+            ((CloseableRowIterator)m_tableIterator).close();
         }
-        return m_table.iterator();
     }
 
     /**
      * Clears cache, instantiates a new iterator.
+     *
+     * @param offset index of the first row returned by the new iterator, only non-zero if {@link #canSeek()}
      */
-    private void clearCacheAndInitIterator() {
+    private void clearCacheAndInitIterator(final long offset) {
         if (!hasData()) {
             return;
         }
-        if (m_tableIterator instanceof CloseableRowIterator) {
-            ((CloseableRowIterator)m_tableIterator).close();
-        }
-        m_tableIterator = getNewDataIterator();
-        m_rowCountInIterator = 0;
+        closeIterator();
+        m_tableIterator = getNewDataIterator(offset);
+        m_iteratorOffset = offset;
+        m_rowCountInIterator = offset;
         // all updated in nextBlock()
-        m_rowCountOfInterestInIterator = 0;
+        m_rowCountOfInterestInIterator = offset;
         // clear cache
         Arrays.fill(m_cachedRows, null);
     }
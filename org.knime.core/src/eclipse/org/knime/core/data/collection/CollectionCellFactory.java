@@ -90,6 +90,45 @@ public static ListCell createListCell(
         return new ListCell(l);
     }
 
+    /**
+     * Creates a list cell holding the argument values in a primitive array, which is more compact than a
+     * {@link ListCell} of {@link org.knime.core.data.def.DoubleCell DoubleCells}.
+     *
+     * @param values the values, copied
+     * @return a new {@link DoubleListCell}
+     * @throws NullPointerException If the argument is null.
+     * @since 3.8
+     */
+    public static DoubleListCell createDoubleListCell(final double[] values) {
+        return new DoubleListCell(values.clone());
+    }
+
+    /**
+     * Creates a list cell holding the argument values in a primitive array, which is more compact than a
+     * {@link ListCell} of {@link org.knime.core.data.def.IntCell IntCells}.
+     *
+     * @param values the values, copied
+     * @return a new {@link IntListCell}
+     * @throws NullPointerException If the argument is null.
+     * @since 3.8
+     */
+    public static IntListCell createIntListCell(final int[] values) {
+        return new IntListCell(values.clone());
+    }
+
+    /**
+     * Creates a list cell holding the argument values in a primitive array, which is more compact than a
+     * {@link ListCell} of {@link org.knime.core.data.def.LongCell LongCells}.
+     *
+     * @param values the values, copied
+     * @return a new {@link LongListCell}
+     * @throws NullPointerException If the argument is null.
+     * @since 3.8
+     */
+    public static LongListCell createLongListCell(final long[] values) {
+        return new LongListCell(values.clone());
+    }
+
     /**
      * Creates a new {@link ListCell} based on selected cells from a
      * {@link DataRow}. Using this method will check if the row is returned by
@@ -0,0 +1,205 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.collection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataInput;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.DataCellSerializer;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DataValue;
+import org.knime.core.data.def.DoubleCell;
+
+/**
+ * {@link ListDataValue} implementation backed by a <code>double[]</code>. Compared to a {@link ListCell} of
+ * {@link DoubleCell}s, it doesn't hold an object per element and is serialized as one block. Elements can't be
+ * missing. Cells are equal to {@link ListCell}s with the same elements.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ * @see CollectionCellFactory#createDoubleListCell(double[])
+ */
+public final class DoubleListCell extends DataCell implements ListDataValue, DoubleListDataValue {
+
+    /** Type of cells of this class. */
+    public static final DataType TYPE = DataType.getType(DoubleListCell.class, DoubleCell.TYPE);
+
+    private final double[] m_values;
+
+    /**
+     * @param values the elements, taken over (not copied)
+     */
+    DoubleListCell(final double[] values) {
+        m_values = values;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DataType getElementType() {
+        return DoubleCell.TYPE;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return m_values.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DataCell get(final int index) {
+        return new DoubleCell(m_values[index]);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getDouble(final int index) {
+        return m_values[index];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] getDoubleArray() {
+        return m_values.clone();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterator<DataCell> iterator() {
+        return new Iterator<DataCell>() {
+            private int m_index;
+
+            @Override
+            public boolean hasNext() {
+                return m_index < m_values.length;
+            }
+
+            @Override
+            public DataCell next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(m_index++);
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean containsBlobWrapperCells() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean equalsDataCell(final DataCell dc) {
+        double[] other = ((DoubleListCell)dc).m_values;
+        if (other.length != m_values.length) {
+            return false;
+        }
+        for (int i = 0; i < m_values.length; i++) {
+            // same semantics as DoubleCell
+            if (m_values[i] != other[i] && !(Double.isNaN(m_values[i]) && Double.isNaN(other[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean equalContent(final DataValue otherValue) {
+        return ListCell.equalContent(this, otherValue);
+    }
+
+    /** {@inheritDoc} Same as the hash code of a {@link ListCell} with the same elements. */
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for (double value : m_values) {
+            long bits = Double.doubleToLongBits(value);
+            hashCode = 31 * hashCode + (int)(bits ^ (bits >>> 32));
+        }
+        return hashCode;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return Arrays.toString(m_values);
+    }
+
+    /**
+     * Serializer for {@link DoubleListCell}s, writes all elements as one block.
+     *
+     * @noreference This class is not intended to be referenced by clients.
+     */
+    public static final class DoubleListCellSerializer implements DataCellSerializer<DoubleListCell> {
+        /** {@inheritDoc} */
+        @Override
+        public void serialize(final DoubleListCell cell, final DataCellDataOutput output) throws IOException {
+            output.writeInt(cell.m_values.length);
+            ByteBuffer buffer = ByteBuffer.allocate(cell.m_values.length * Double.BYTES);
+            buffer.asDoubleBuffer().put(cell.m_values);
+            output.write(buffer.array());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public DoubleListCell deserialize(final DataCellDataInput input) throws IOException {
+            double[] values = new double[input.readInt()];
+            byte[] bytes = new byte[values.length * Double.BYTES];
+            input.readFully(bytes);
+            ByteBuffer.wrap(bytes).asDoubleBuffer().get(values);
+            return new DoubleListCell(values);
+        }
+    }
+}
@@ -58,6 +58,7 @@
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataType;
 import org.knime.core.data.DataTypeRegistry;
+import org.knime.core.data.DataValue;
 
 /**
  * Default implementation of a {@link CollectionDataValue}, whereby the
@@ -143,6 +144,34 @@ protected boolean equalsDataCell(final DataCell dc) {
         return m_list.equals(((ListCell)dc).m_list);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected boolean equalContent(final DataValue otherValue) {
+        return equalContent(this, otherValue);
+    }
+
+    /**
+     * Compares the elements of list cells of different classes, used by {@link #equalContent(DataValue)} of this
+     * class and of the primitive list cells. Only the list cell classes in this package are considered equal to each
+     * other; other implementations (which may have a different notion of equality) never are.
+     */
+    static boolean equalContent(final ListDataValue list, final DataValue otherValue) {
+        if (!(otherValue instanceof ListCell || otherValue instanceof DoubleListCell
+            || otherValue instanceof IntListCell || otherValue instanceof LongListCell)) {
+            return false;
+        }
+        ListDataValue other = (ListDataValue)otherValue;
+        if (list.size() != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < list.size(); i++) {
+            if (!list.get(i).equals(other.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public int hashCode() {
@@ -73,6 +73,7 @@ public abstract class AbstractCellFactory implements CellFactory {
 
     private int m_maxParallelWorkers = -1;
     private int m_maxQueueSize = -1;
+    private boolean m_isChunkedProcessing;
 
     /** True if the deprecatd {@link #setProgress(int, int, RowKey, ExecutionMonitor)} method is overridden. If so,
      * it will be called by the default implementation of the (new) setProgress method. */
@@ -226,6 +227,28 @@ public final int getMaxQueueSize() {
         return m_maxQueueSize;
     }
 
+    /** Enables or disables chunked processing of the rows. If enabled (and parallel processing is enabled, see
+     * {@link #setParallelProcessing(boolean, int, int)}), the input table is split into ranges of consecutive rows,
+     * each of which is processed by one worker into its own (temporary) table; the results are then concatenated in
+     * order. This avoids passing each individual row from and to the workers and should be used for cheap per-row
+     * computations on large tables. The {@link #getMaxQueueSize() queue size} is not used in this mode and the
+     * progress is only updated as the processed ranges are concatenated. Large tables that are not held in memory
+     * are processed row by row as usual (reading a range of rows of such tables requires reading all rows before).
+     * @param value If to enable chunked processing (only has an effect if parallel processing is enabled).
+     * @since 3.8
+     */
+    public final void setChunkedProcessing(final boolean value) {
+        m_isChunkedProcessing = value;
+    }
+
+    /** Returns true if chunked processing is enabled, see {@link #setChunkedProcessing(boolean)}.
+     * @return true if the input is processed in chunks of rows, provided parallel processing is enabled.
+     * @since 3.8
+     */
+    public final boolean isChunkedProcessing() {
+        return m_isChunkedProcessing;
+    }
+
     /** {@inheritDoc} */
     @Override
     public DataColumnSpec[] getColumnSpecs() {
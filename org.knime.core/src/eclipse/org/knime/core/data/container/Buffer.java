@@ -83,6 +83,7 @@
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
@@ -137,6 +138,7 @@
 import org.knime.core.node.NodeSettingsWO;
 import org.knime.core.node.workflow.NodeContainer;
 import org.knime.core.node.workflow.NodeContext;
+import org.knime.core.node.workflow.NodeExecutionMetrics;
 import org.knime.core.util.FileUtil;
 import org.knime.core.util.LRUCache;
 import org.knime.core.util.MutableBoolean;
@@ -271,10 +273,10 @@ public class Buffer implements KNIMEStreamConstants {
     private static final String CFG_SIZE_L = "table.size.long";
 
     /** Current version string. */
-    public static final String VERSION = "container_12";
+    public static final String VERSION = "container_13";
 
     /** The version number corresponding to {@link #VERSION}. */
-    public static final int IVERSION = 12;
+    public static final int IVERSION = 13;
 
     private static final HashMap<String, Integer> COMPATIBILITY_MAP;
 
@@ -291,7 +293,8 @@ public class Buffer implements KNIMEStreamConstants {
         COMPATIBILITY_MAP.put("container_9", 9); // never released - some workflow tests contain it (BW used a nightly)
         COMPATIBILITY_MAP.put("container_10", 10); // version 3.6 (multiple table formats)
         COMPATIBILITY_MAP.put("container_11", 11); // version 3.7 - add FileStoreCell support for multiple FileStores
-        COMPATIBILITY_MAP.put(VERSION, IVERSION); // version 3.8 - changed default compression to Snappy
+        COMPATIBILITY_MAP.put("container_12", 12); // changed default compression to Snappy
+        COMPATIBILITY_MAP.put(VERSION, IVERSION); // version 3.8 - dictionary encoded string cells
         // NOTE consider to also
         // - increment the workflow.knime version number when updating this list
         // - update list in NoKeyBuffer
@@ -1024,7 +1027,10 @@ private DataCell handleIncomingBlob(final DataCell cell, final int col, final in
                     b = ownerBuffer;
                     m_copiedBlobsMap.put(ad, rewrite);
                 } else {
-                    ContainerTable tbl = m_localRepository.get(ad.getBufferID());
+                    ContainerTable tbl;
+                    synchronized (m_localRepository) {
+                        tbl = m_localRepository.get(ad.getBufferID());
+                    }
                     b = tbl == null ? null : tbl.getBuffer();
                 }
                 if (b != null && !isToCloneForVersionHop) {
@@ -1096,7 +1102,11 @@ private void writeBlobDataCell(final BlobDataCell cell, final BlobAddress a) thr
             if (tableOptional.isPresent()) {
                 originalBuffer = tableOptional.get().getBuffer();
             } else if (getLocalRepository() != null) {
-                ContainerTable t = getLocalRepository().get(originalBufferIndex);
+                final Map<Integer, ContainerTable> localRep = getLocalRepository();
+                ContainerTable t;
+                synchronized (localRep) {
+                    t = localRep.get(originalBufferIndex);
+                }
                 if (t != null) {
                     originalBuffer = t.getBuffer();
                 }
@@ -1180,6 +1190,7 @@ synchronized void close(final DataTableSpec spec) {
         assert spec != null : "Buffer is not open.";
         closeInternal();
         m_spec = spec;
+        NodeExecutionMetrics.recordTableWritten(m_size, 0L);
     }
 
     /** Closes by creating shortcut array for file access. */
@@ -1221,7 +1232,9 @@ private void closeWriterAndWriteMeta() {
             m_outputWriter.writeMetaInfoAfterWrite(formatSettings);
             m_formatSettings = formatSettings;
             if (m_hasTempFile) {
-                double sizeInMB = m_binFile.length() / (double)(1 << 20);
+                final long sizeInBytes = m_binFile.length();
+                NodeExecutionMetrics.recordTableWritten(0L, sizeInBytes);
+                double sizeInMB = sizeInBytes / (double)(1 << 20);
                 String size = NumberFormat.getInstance().format(sizeInMB);
                 LOGGER.debug("Buffer file (" + m_binFile.getAbsolutePath() + ") is " + size + "MB in size");
                 initOutputReader(formatSettings, IVERSION);
@@ -2009,6 +2022,10 @@ private static void logDebug(final String message, final Throwable t) {
 
     /** Write all rows from list into file. Used while rows are added and if low mem condition is met. */
     synchronized void flushBuffer() {
+        if (m_listWhileAddRow != null && !m_listWhileAddRow.isEmpty()) {
+            // rows held in memory so far are moved to disk
+            NodeExecutionMetrics.recordSpill();
+        }
         m_lifecycle.onFlush();
 
         writeList(m_listWhileAddRow);
@@ -2422,6 +2439,9 @@ private static boolean isZLIBSupportsLevelSwitchAP8083() {
      */
     private static final class BufferFlusher extends MemoryAlertListener {
 
+        /** Upper bound for the weight of the idle time (in minutes) in the priority. */
+        private static final long MAX_IDLE_MINUTES_WEIGHT = 60;
+
         private final WeakReference<Buffer> m_bufferRef;
 
         BufferFlusher(final Buffer buffer) {
@@ -2437,6 +2457,24 @@ protected boolean memoryAlert(final MemoryAlert alert) {
             }
             return true;
         }
+
+        /**
+         * Tables are written in the order of the number of cells they hold in memory, weighted by the time since
+         * their last access (large and long unused tables first). Tables already cleared for garbage collection can't
+         * release memory by being written.
+         */
+        @Override
+        protected long getReleasePriority() {
+            final Buffer buffer = m_bufferRef.get();
+            if (buffer == null || !CACHE.isHardReferenced(buffer)) {
+                return 0L;
+            }
+            final long cells = Math.max(1L, buffer.size()) * Math.max(1, buffer.getTableSpec().getNumColumns());
+            final long lastAccess = CACHE.getLastAccessTime(buffer);
+            final long idleMinutes =
+                lastAccess < 0 ? 0L : TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis() - lastAccess);
+            return cells * (1 + Math.min(idleMinutes, MAX_IDLE_MINUTES_WEIGHT));
+        }
     }
 
     /**
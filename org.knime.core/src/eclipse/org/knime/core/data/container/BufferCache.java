@@ -115,6 +115,9 @@ final class BufferCache {
      */
     private final ReferenceQueue<List<BlobSupportDataRow>> m_weakCacheRefQueue = new ReferenceQueue<>();
 
+    /** Time (in ms) of the last (non-silent) access to each table, used to prioritize flushing on memory pressure. */
+    private final Map<Long, Long> m_lastAccessTimes = new HashMap<>();
+
     /** Some counters for instrumentation / statistics. */
     private long m_nTables = 0;
 
@@ -186,6 +189,7 @@ synchronized void put(final Buffer buffer, final List<BlobSupportDataRow> list)
         m_LRUCache.put(uniqueId, new SoftReference<List<BlobSupportDataRow>>(undmodifiableList));
         final WeakReference<List<BlobSupportDataRow>> previousValue = m_weakCache.put(uniqueId,
             new WeakReference<List<BlobSupportDataRow>>(undmodifiableList, m_weakCacheRefQueue));
+        m_lastAccessTimes.put(uniqueId, System.currentTimeMillis());
 
         if (previousValue == null) {
             m_nTables++;
@@ -226,6 +230,29 @@ synchronized boolean contains(final Buffer buffer) {
         return false;
     }
 
+    /**
+     * Checks whether the cache holds a hard reference on the table associated with a given buffer, i.e. whether the
+     * table has not (yet) been cleared for garbage collection.
+     *
+     * @param buffer the buffer which the to-be-checked table is associated with
+     * @return <code>true</code> iff the associated table is hard-referenced by the cache
+     */
+    synchronized boolean isHardReferenced(final Buffer buffer) {
+        return m_hardMap.containsKey(buffer.getUniqueID());
+    }
+
+    /**
+     * Returns the time of the last access to the table associated with a given buffer (or of its insertion into the
+     * cache).
+     *
+     * @param buffer the buffer which the table is associated with
+     * @return the time in milliseconds or -1 if the table is not in the cache
+     */
+    synchronized long getLastAccessTime(final Buffer buffer) {
+        final Long time = m_lastAccessTimes.get(buffer.getUniqueID());
+        return time != null ? time : -1L;
+    }
+
     /**
      * Retrieve the table associated with a buffer from the cache.
      *
@@ -262,6 +289,7 @@ private Optional<List<BlobSupportDataRow>> getInternal(final Buffer buffer, fina
         }
 
         m_nAccesses++;
+        m_lastAccessTimes.put(uniqueId, System.currentTimeMillis());
         boolean hit = false;
 
         if (m_hardMap.get(uniqueId) != null) {
@@ -317,6 +345,7 @@ synchronized void invalidate(final Buffer buffer) {
 
         m_hardMap.remove(uniqueId);
         m_LRUCache.remove(uniqueId);
+        m_lastAccessTimes.remove(uniqueId);
         final WeakReference<List<BlobSupportDataRow>> previousValue = m_weakCache.remove(uniqueId);
 
         if (previousValue != null && previousValue.get() != null) {
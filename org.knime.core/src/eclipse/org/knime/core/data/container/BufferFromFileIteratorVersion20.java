@@ -121,6 +121,9 @@ public final class BufferFromFileIteratorVersion20 extends FromFileIterator {
 
         // open the input stream
         m_dataCellStreamReader = new DataCellStreamReader(tableFormatReader);
+        if (tableFormatReader.isStringDictionaryEncoded()) {
+            m_dataCellStreamReader.initStringDictionaries(tableFormatReader.getTableSpec().getNumColumns());
+        }
         m_inStream = new BlockableDCObjectInputVersion2(getInputStream(tableFormatReader), m_dataCellStreamReader);
     }
 
@@ -169,7 +172,7 @@ public synchronized BlobSupportDataRow next() {
             DataCell nextCell;
             try {
                 try {
-                    nextCell = m_dataCellStreamReader.readDataCell(m_inStream);
+                    nextCell = m_dataCellStreamReader.readDataCell(m_inStream, i);
                 } finally {
                     m_inStream.endBlock();
                 }
@@ -305,6 +308,12 @@ public static class DataCellStreamReader {
         /** Associated buffer. */
         private final AbstractTableStoreReader m_tableFormatReader;
 
+        /** Per type short cut (minus {@link #BYTE_TYPE_START}), the information derived from the cell class. */
+        private final ReadDispatch[] m_dispatch = new ReadDispatch[Byte.MAX_VALUE + 1];
+
+        /** Per column string dictionary or <code>null</code> if the table isn't dictionary encoded. */
+        private StringDictionaryCoding.Decoder[] m_stringDictionaries;
+
         /** Only memorizes the table reader.
          * @param tableFormatReader associated reader, possibly be null. */
         public DataCellStreamReader(final AbstractTableStoreReader tableFormatReader) {
@@ -319,6 +328,28 @@ public DataCellStreamReader(final AbstractTableStoreReader tableFormatReader) {
          * @throws IOException If exceptions occur.
          */
         public DataCell readDataCell(final DCObjectInputVersion2 inStream) throws IOException {
+            return readDataCell(inStream, -1);
+        }
+
+        /** Enables reading of dictionary encoded string cells, see {@link StringDictionaryCoding}.
+         * @param columnCount number of columns in the table */
+        void initStringDictionaries(final int columnCount) {
+            m_stringDictionaries = new StringDictionaryCoding.Decoder[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                m_stringDictionaries[i] = new StringDictionaryCoding.Decoder();
+            }
+        }
+
+        /**
+         * Reads a top-level data cell of a column from the argument stream. Does not exception handling, nor stream
+         * blocking.
+         *
+         * @param inStream To read from.
+         * @param column The column index or -1 if the cell is nested in another cell.
+         * @return the data cell being read
+         * @throws IOException If exceptions occur.
+         */
+        DataCell readDataCell(final DCObjectInputVersion2 inStream, final int column) throws IOException {
             inStream.setCurrentClassLoader(null);
 
             byte identifier = inStream.readControlByte();
@@ -331,10 +362,18 @@ public DataCell readDataCell(final DCObjectInputVersion2 inStream) throws IOExce
                 identifier = inStream.readControlByte();
             }
 
-            CellClassInfo type = m_tableFormatReader.getTypeForChar(identifier);
+            final ReadDispatch dispatch = getDispatch(identifier);
+            if (dispatch.m_primitive != null && !isJavaSerialization) {
+                if (dispatch.m_primitive == PrimitiveCellSerializer.STRING && column >= 0
+                    && m_stringDictionaries != null && m_stringDictionaries[column].isActive()) {
+                    return m_stringDictionaries[column].read(inStream);
+                }
+                return inStream.readDataCellPerPrimitiveSerializer(dispatch.m_primitive);
+            }
+            CellClassInfo type = dispatch.m_type;
             Class<? extends DataCell> cellClass = type.getCellClass();
-            boolean isBlob = BlobDataCell.class.isAssignableFrom(cellClass);
-            boolean isFileStore = FileStoreCell.class.isAssignableFrom(cellClass);
+            boolean isBlob = dispatch.m_isBlob;
+            boolean isFileStore = dispatch.m_isFileStore;
             // starting with table version 11 FileStoreCells support multiple FileStores
             final boolean multipleFileStoresSupported = m_tableFormatReader.getReadVersion() > 10;
             final FileStoreKey[] fileStoreKeys;
@@ -374,6 +413,33 @@ public DataCell readDataCell(final DCObjectInputVersion2 inStream) throws IOExce
 
             return result;
         }
+
+        private ReadDispatch getDispatch(final byte identifier) throws IOException {
+            final int index = identifier - BYTE_TYPE_START;
+            ReadDispatch dispatch = index >= 0 && index < m_dispatch.length ? m_dispatch[index] : null;
+            if (dispatch == null) {
+                // throws an exception for invalid identifiers
+                dispatch = new ReadDispatch(m_tableFormatReader.getTypeForChar(identifier));
+                m_dispatch[index] = dispatch;
+            }
+            return dispatch;
+        }
     } // class DataCellStreamReader
 
+    /** The cell class of a type short cut and what it implies for reading. */
+    private static final class ReadDispatch {
+        private final CellClassInfo m_type;
+        private final boolean m_isBlob;
+        private final boolean m_isFileStore;
+        private final PrimitiveCellSerializer m_primitive;
+
+        ReadDispatch(final CellClassInfo type) {
+            m_type = type;
+            Class<? extends DataCell> cellClass = type.getCellClass();
+            m_isBlob = BlobDataCell.class.isAssignableFrom(cellClass);
+            m_isFileStore = FileStoreCell.class.isAssignableFrom(cellClass);
+            m_primitive = PrimitiveCellSerializer.get(cellClass);
+        }
+    }
+
 }
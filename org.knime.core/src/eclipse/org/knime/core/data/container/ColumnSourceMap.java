@@ -0,0 +1,247 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.knime.core.data.container.filter.TableFilter.materializeCols;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.BufferedDataTable.KnowsRowCountTable;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Flat view on nested {@link RearrangeColumnsTable}, {@link JoinedTable} and {@link TableSpecReplacerTable}
+ * instances. Each column of the outermost table is resolved to a column of a source table, which is either the
+ * append table of a {@link RearrangeColumnsTable} or a table of any other kind (for instance a
+ * {@link ContainerTable}). The row keys are taken from the source table at the end of the chain of reference (or
+ * left) tables.
+ *
+ * <p>A chain of, e.g., 20 column appending nodes creates 20 nested tables, whose iterators join the rows level by
+ * level. An iterator of this class opens one iterator per distinct source table instead and assembles the output rows
+ * directly from the source rows. The resolution only depends on the (immutable) table structure and is done once per
+ * table.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ColumnSourceMap {
+
+    /** The distinct source tables, the first one provides the row keys. */
+    private final KnowsRowCountTable[] m_sources;
+
+    /** For each column the index of its source in {@link #m_sources}. */
+    private final int[] m_sourceIndices;
+
+    /** For each column its index in the source table. */
+    private final int[] m_sourceColumns;
+
+    /** Whether more than one level of nesting has been resolved. */
+    private final boolean m_isNested;
+
+    /**
+     * Resolves the columns of the argument table.
+     *
+     * @param table a {@link RearrangeColumnsTable}, {@link JoinedTable} or {@link TableSpecReplacerTable}
+     */
+    ColumnSourceMap(final KnowsRowCountTable table) {
+        final List<KnowsRowCountTable> sources = new ArrayList<>();
+        final Map<KnowsRowCountTable, Integer> sourceIndexMap = new IdentityHashMap<>();
+        boolean isNested = false;
+
+        // the table providing the row keys
+        KnowsRowCountTable keySource = table;
+        int levels = 0;
+        while (isResolvable(keySource)) {
+            keySource = keySource.getReferenceTables()[0].getDelegate();
+            levels++;
+        }
+        isNested |= levels > 1;
+        sources.add(keySource);
+        sourceIndexMap.put(keySource, 0);
+
+        final int columnCount = table.getDataTableSpec().getNumColumns();
+        m_sourceIndices = new int[columnCount];
+        m_sourceColumns = new int[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            KnowsRowCountTable source = table;
+            int column = c;
+            levels = 0;
+            while (isResolvable(source)) {
+                levels++;
+                if (source instanceof RearrangeColumnsTable) {
+                    RearrangeColumnsTable rearrangeTable = (RearrangeColumnsTable)source;
+                    boolean isFromRefTable = rearrangeTable.getIsFromRefTable()[column];
+                    column = rearrangeTable.getMap()[column];
+                    if (!isFromRefTable) {
+                        source = rearrangeTable.getAppendTable();
+                        break;
+                    }
+                    source = rearrangeTable.getReferenceTables()[0].getDelegate();
+                } else if (source instanceof JoinedTable) {
+                    JoinedTable joinedTable = (JoinedTable)source;
+                    BufferedDataTable[] references = joinedTable.getReferenceTables();
+                    boolean isFromLeftTable = joinedTable.getFlags()[column];
+                    column = joinedTable.getMap()[column];
+                    source = references[isFromLeftTable ? 0 : 1].getDelegate();
+                } else {
+                    source = source.getReferenceTables()[0].getDelegate();
+                }
+            }
+            isNested |= levels > 1;
+            Integer sourceIndex = sourceIndexMap.get(source);
+            if (sourceIndex == null) {
+                sourceIndex = sources.size();
+                sources.add(source);
+                sourceIndexMap.put(source, sourceIndex);
+            }
+            m_sourceIndices[c] = sourceIndex;
+            m_sourceColumns[c] = column;
+        }
+        m_sources = sources.toArray(new KnowsRowCountTable[sources.size()]);
+        m_isNested = isNested;
+    }
+
+    private static boolean isResolvable(final KnowsRowCountTable table) {
+        return table instanceof RearrangeColumnsTable || table instanceof JoinedTable
+            || table instanceof TableSpecReplacerTable;
+    }
+
+    /**
+     * @return whether more than one level of nesting is resolved, i.e. whether iterating this map is cheaper than
+     *         iterating the table itself
+     */
+    boolean isNested() {
+        return m_isNested;
+    }
+
+    /** @return number of distinct source tables (for testing) */
+    int getSourceCount() {
+        return m_sources.length;
+    }
+
+    /**
+     * Opens one iterator per source table, each of which only materializes the columns needed.
+     *
+     * @param filter the filter to apply (row range and materialized columns) or <code>null</code>
+     * @param exec to report progress to (passed on to the source providing the row keys), may be <code>null</code>
+     * @return a new iterator on the rows of the resolved table
+     */
+    CloseableRowIterator iterator(final TableFilter filter, final ExecutionMonitor exec) {
+        final Set<Integer> materializedColumns =
+            filter == null ? null : filter.getMaterializeColumnIndices().orElse(null);
+        final CloseableRowIterator[] iterators = new CloseableRowIterator[m_sources.length];
+        try {
+            for (int s = 0; s < m_sources.length; s++) {
+                final int sourceIndex = s;
+                final int[] columns = IntStream.range(0, m_sourceIndices.length)//
+                    .filter(c -> m_sourceIndices[c] == sourceIndex)//
+                    .filter(c -> materializedColumns == null || materializedColumns.contains(c))//
+                    .map(c -> m_sourceColumns[c])//
+                    .distinct().sorted().toArray();
+                final TableFilter sourceFilter = filter == null ? materializeCols(columns)
+                    : new TableFilter.Builder(filter).withMaterializeColumnIndices(columns).build();
+                iterators[s] = m_sources[s].iteratorWithFilter(sourceFilter, s == 0 ? exec : null);
+            }
+        } catch (RuntimeException e) {
+            for (CloseableRowIterator it : iterators) {
+                if (it != null) {
+                    it.close();
+                }
+            }
+            throw e;
+        }
+        return new FlatIterator(iterators);
+    }
+
+    /** Assembles the rows from the rows of the source iterators. */
+    private final class FlatIterator extends CloseableRowIterator {
+
+        private final CloseableRowIterator[] m_iterators;
+
+        private final DataRow[] m_rows;
+
+        FlatIterator(final CloseableRowIterator[] iterators) {
+            m_iterators = iterators;
+            m_rows = new DataRow[iterators.length];
+        }
+
+        @Override
+        public boolean hasNext() {
+            // call hasNext on all iterators, so that they can close resources if the end has been reached (AP-8055)
+            boolean hasNext = true;
+            for (CloseableRowIterator it : m_iterators) {
+                hasNext &= it.hasNext();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public DataRow next() {
+            for (int s = 0; s < m_iterators.length; s++) {
+                m_rows[s] = m_iterators[s].next();
+            }
+            final DataCell[] cells = new DataCell[m_sourceIndices.length];
+            for (int c = 0; c < cells.length; c++) {
+                cells[c] = JoinTableIterator.getUnwrappedCell(m_rows[m_sourceIndices[c]], m_sourceColumns[c]);
+            }
+            return new BlobSupportDataRow(m_rows[0].getKey(), cells);
+        }
+
+        @Override
+        public void close() {
+            for (CloseableRowIterator it : m_iterators) {
+                it.close();
+            }
+        }
+    }
+}
@@ -165,6 +165,18 @@ public Buffer getBuffer() {
         return m_buffer;
     }
 
+    /**
+     * Whether the rows of the table are currently held in memory, in which case iterations with a row range filter
+     * don't read from disk. The table may nevertheless be dropped from memory later on.
+     *
+     * @return true if the table is held in memory
+     * @since 3.8
+     * @noreference This method is not intended to be referenced by clients.
+     */
+    public boolean isHeldInMemory() {
+        return m_buffer != null && m_buffer.isHeldInMemory();
+    }
+
     /**
      * Delegates to buffer to get its ID.
      * @return the buffer ID
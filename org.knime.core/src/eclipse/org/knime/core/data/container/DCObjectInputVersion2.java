@@ -104,6 +104,15 @@ DataCell readDataCellPerKNIMESerializer(final DataCellSerializer<? extends DataC
         return serializer.deserialize(m_dataIn);
     }
 
+    /** Reads a data cell of one of the common standard types from the stream.
+     * @param serializer The serializer for the cell's class
+     * @return A new data cell instance.
+     * @throws IOException If reading fails.
+     */
+    DataCell readDataCellPerPrimitiveSerializer(final PrimitiveCellSerializer serializer) throws IOException {
+        return serializer.deserialize(m_dataIn);
+    }
+
 
     /** Reads a data cell from the stream using java de-serialization.
      * @return A new data cell instance.
@@ -158,6 +167,24 @@ RowKey readRowKey() throws IOException {
         return new RowKey(m_dataIn.readUTF());
     }
 
+    /** Reads the code of a string cell in a dictionary encoded column.
+     * @return The code.
+     * @throws IOException If IO problems occur.
+     * @see StringDictionaryCoding
+     */
+    short readDictionaryCode() throws IOException {
+        return m_dataIn.readShort();
+    }
+
+    /** Reads the string following a dictionary code.
+     * @return The string.
+     * @throws IOException If IO problems occur.
+     * @see StringDictionaryCoding
+     */
+    String readDictionaryValue() throws IOException {
+        return m_dataIn.readUTF();
+    }
+
     /** Reads a single byte from the stream.
      * @return That byte.
      * @throws IOException If IO problems occur. */
@@ -97,6 +97,31 @@ public void writeDataCellPerKNIMESerializer(
         serializer.serialize(cell, m_dataOut);
     }
 
+    /** Writes a data cell of one of the common standard types, producing the same content as
+     * {@link #writeDataCellPerKNIMESerializer(DataCellSerializer, DataCell)} with the cell's registered serializer.
+     * @param serializer The serializer for the cell's class.
+     * @param cell The cell to be written.
+     * @throws IOException If that fails.
+     * @since 3.8
+     */
+    public void writeDataCellPerPrimitiveSerializer(final PrimitiveCellSerializer serializer, final DataCell cell)
+        throws IOException {
+        serializer.serialize(cell, m_dataOut);
+    }
+
+    /** Writes a string cell of a dictionary encoded column (without type short cut).
+     * @param code The dictionary code.
+     * @param value The string value or <code>null</code> if only the code is written.
+     * @throws IOException If that fails.
+     * @see StringDictionaryCoding
+     */
+    void writeDictionaryEncodedString(final short code, final String value) throws IOException {
+        m_dataOut.writeShort(code);
+        if (value != null) {
+            m_dataOut.writeUTF(value);
+        }
+    }
+
     /**
      * Saves an array of file store keys
      * @since 3.7
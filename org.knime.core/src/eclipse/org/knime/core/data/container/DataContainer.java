@@ -587,7 +587,11 @@ public void close() {
             throw new DuplicateKeyException("Found duplicate row ID \"" + key + "\" (at unknown position)", key);
         }
         m_table = new ContainerTable(m_buffer);
-        getLocalTableRepository().put(m_table.getBufferID(), m_table);
+        final Map<Integer, ContainerTable> localTableRep = getLocalTableRepository();
+        // containers of one node may be closed concurrently, e.g. by a partitioned executor
+        synchronized (localTableRep) {
+            localTableRep.put(m_table.getBufferID(), m_table);
+        }
         m_buffer = null;
         m_spec = null;
         m_duplicateChecker.clear();
@@ -59,6 +59,7 @@
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.commons.lang3.text.WordUtils;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.IDataRepository;
@@ -70,6 +71,7 @@
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.workflow.NodeExecutionMetrics;
 import org.xerial.snappy.SnappyInputStream;
 import org.xerial.snappy.SnappyOutputStream;
 
@@ -200,7 +202,13 @@ OutputStream getOutputStream(final OutputStream out) throws IOException {
          */
         @SuppressWarnings("resource")
         InputStream getInputStream(final File file) throws IOException {
-            final FileInputStream fis = new FileInputStream(file);
+            final CountingInputStream fis = new CountingInputStream(new FileInputStream(file)) {
+                @Override
+                public void close() throws IOException {
+                    NodeExecutionMetrics.recordTableBytesRead(getByteCount());
+                    super.close();
+                }
+            };
             try {
                 return m_inFunc.apply(fis);
             } catch (final IOException e) {
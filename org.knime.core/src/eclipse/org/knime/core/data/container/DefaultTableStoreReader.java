@@ -72,6 +72,8 @@ final class DefaultTableStoreReader extends AbstractTableStoreReader {
 
     private final boolean m_isReadRowKey;
 
+    private final boolean m_isStringDictionaryEncoded;
+
     /**
      * Constructs a reader for materializing serialized KNIME tables.
      *
@@ -97,6 +99,8 @@ final class DefaultTableStoreReader extends AbstractTableStoreReader {
         m_binFile = binFile;
         m_spec = spec;
         m_isReadRowKey = isReadRowKey;
+        // dictionary encoding added in version 13, tables written by an earlier version are never encoded
+        m_isStringDictionaryEncoded = version >= 13 && StringDictionaryCoding.isEncoded(settings);
 
         final CompressionFormat cF;
         if (version < 3) { // stream was not zipped in KNIME 1.1.x
@@ -146,6 +150,11 @@ boolean isReadRowKey() {
         return m_isReadRowKey;
     }
 
+    /** @return whether the string cells in the columns are dictionary encoded, see {@link StringDictionaryCoding} */
+    boolean isStringDictionaryEncoded() {
+        return m_isStringDictionaryEncoded;
+    }
+
     /**
      * @return number of records
      * @see org.knime.core.data.container.Buffer#size()
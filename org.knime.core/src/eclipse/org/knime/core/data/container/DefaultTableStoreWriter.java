@@ -58,6 +58,7 @@
 import org.knime.core.data.container.DCObjectOutputVersion2.BlockableDCObjectOutputVersion2;
 import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
 import org.knime.core.data.container.storage.AbstractTableStoreWriter;
+import org.knime.core.data.def.StringCell;
 import org.knime.core.node.NodeSettingsWO;
 
 /**
@@ -75,6 +76,12 @@ final class DefaultTableStoreWriter extends AbstractTableStoreWriter implements
     /** The compression format. */
     private final CompressionFormat m_compFormat;
 
+    /** Per column dictionary for string cells or <code>null</code> if dictionary encoding is disabled. */
+    private final StringDictionaryCoding.Encoder[] m_stringDictionaries;
+
+    /** Type short cut of {@link StringCell}, determined with the first dictionary encoded cell. */
+    private byte m_stringCellShortCut;
+
     /**
      * Constructs a writer for writing KNIME tables to disk using the given compression format.
      *
@@ -88,6 +95,14 @@ public DefaultTableStoreWriter(final DataTableSpec spec, final OutputStream outp
         final CompressionFormat compFormat) throws IOException {
         super(spec, writeRowKey);
         m_compFormat = compFormat;
+        if (StringDictionaryCoding.isEnabled()) {
+            m_stringDictionaries = new StringDictionaryCoding.Encoder[spec.getNumColumns()];
+            for (int i = 0; i < m_stringDictionaries.length; i++) {
+                m_stringDictionaries[i] = new StringDictionaryCoding.Encoder();
+            }
+        } else {
+            m_stringDictionaries = null;
+        }
         m_outStream = initOutFile(new BufferedOutputStream(outputStream));
     }
 
@@ -103,12 +118,25 @@ public void writeRow(final DataRow row) throws IOException {
         for (int i = 0; i < row.getNumCells(); i++) {
             DataCell cell =
                 row instanceof BlobSupportDataRow ? ((BlobSupportDataRow)row).getRawCell(i) : row.getCell(i);
-            writeDataCell(cell, m_outStream);
+            if (m_stringDictionaries != null && cell.getClass() == StringCell.class
+                && m_stringDictionaries[i].isActive()) {
+                writeDictionaryEncodedStringCell((StringCell)cell, i);
+            } else {
+                writeDataCell(cell, i, m_outStream);
+            }
             m_outStream.endBlock();
         }
         m_outStream.endRow();
     }
 
+    private void writeDictionaryEncodedStringCell(final StringCell cell, final int column) throws IOException {
+        if (m_stringCellShortCut == 0) {
+            m_stringCellShortCut = getTypeShortCut(CellClassInfo.get(cell));
+        }
+        m_outStream.writeControlByte(m_stringCellShortCut);
+        m_stringDictionaries[column].write(cell, m_outStream);
+    }
+
     /**
      * Writes the row key to the out stream. This method is overridden in {@link NoKeyBuffer} in order to skip the row
      * key.
@@ -137,6 +165,9 @@ private BlockableDCObjectOutputVersion2 initOutFile(final OutputStream outStream
     @Override
     public void writeMetaInfoAfterWrite(final NodeSettingsWO settings) {
         m_compFormat.saveSettings(settings);
+        if (m_stringDictionaries != null) {
+            StringDictionaryCoding.saveSettings(settings);
+        }
         super.writeMetaInfoAfterWrite(settings);
     }
 
@@ -86,6 +86,9 @@ public final class JoinedTable implements KnowsRowCountTable {
     private final int[] m_map;
     private final boolean[] m_flags;
 
+    /** Flat view on nested tables, created on first iteration, see {@link #getColumnSourceMap()}. */
+    private ColumnSourceMap m_columnSourceMap;
+
     /**
      * Creates new object. No checks are done.
      * @param left The left table.
@@ -111,6 +114,24 @@ private JoinedTable(final BufferedDataTable left,
         m_spec = spec;
     }
 
+    /** @return for each column the index in the left or right table, see {@link #getFlags()} */
+    int[] getMap() {
+        return m_map;
+    }
+
+    /** @return for each column whether it is taken from the left table (or the right table) */
+    boolean[] getFlags() {
+        return m_flags;
+    }
+
+    /** @return the (lazily created) flat view on this table and the nested tables it references */
+    private synchronized ColumnSourceMap getColumnSourceMap() {
+        if (m_columnSourceMap == null) {
+            m_columnSourceMap = new ColumnSourceMap(this);
+        }
+        return m_columnSourceMap;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -124,12 +145,22 @@ public DataTableSpec getDataTableSpec() {
      */
     @Override
     public CloseableRowIterator iterator() {
+        // iterate the underlying tables directly if this table is part of a chain of rearranged/joined tables
+        final ColumnSourceMap columnSourceMap = getColumnSourceMap();
+        if (columnSourceMap.isNested()) {
+            return columnSourceMap.iterator(null, null);
+        }
         return new JoinTableIterator(m_leftTable.iterator(),
                 m_rightTable.iterator(), m_map, m_flags);
     }
 
     @Override
     public CloseableRowIterator iteratorWithFilter(final TableFilter filter, final ExecutionMonitor exec) {
+        final ColumnSourceMap columnSourceMap = getColumnSourceMap();
+        if (columnSourceMap.isNested()) {
+            return columnSourceMap.iterator(filter, exec);
+        }
+
         // apply row index filter to left and right tables
         final TableFilter.Builder leftFilterBuilder = new TableFilter.Builder(filter);
         final TableFilter.Builder rightFilterBuilder = new TableFilter.Builder(filter);
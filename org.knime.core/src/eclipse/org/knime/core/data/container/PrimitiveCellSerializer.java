@@ -0,0 +1,173 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.IOException;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataInput;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Direct (de)serialization of the most common cells in {@link org.knime.core.data.def}, used by the table writer and
+ * reader instead of dispatching to the cells' registered {@link org.knime.core.data.DataCellSerializer}. The stream
+ * content is identical to what the registered serializers read and write, so this is purely a shortcut that avoids
+ * the megamorphic serializer call per cell.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ * @noreference This enum is not intended to be referenced by clients.
+ */
+public enum PrimitiveCellSerializer {
+
+    /** {@link DoubleCell}. */
+    DOUBLE(DoubleCell.class) {
+        @Override
+        void serialize(final DataCell cell, final DataCellDataOutput output) throws IOException {
+            output.writeDouble(((DoubleCell)cell).getDoubleValue());
+        }
+
+        @Override
+        DataCell deserialize(final DataCellDataInput input) throws IOException {
+            return new DoubleCell(input.readDouble());
+        }
+    },
+
+    /** {@link IntCell}. */
+    INT(IntCell.class) {
+        @Override
+        void serialize(final DataCell cell, final DataCellDataOutput output) throws IOException {
+            output.writeInt(((IntCell)cell).getIntValue());
+        }
+
+        @Override
+        DataCell deserialize(final DataCellDataInput input) throws IOException {
+            return new IntCell(input.readInt());
+        }
+    },
+
+    /** {@link LongCell}. */
+    LONG(LongCell.class) {
+        @Override
+        void serialize(final DataCell cell, final DataCellDataOutput output) throws IOException {
+            output.writeLong(((LongCell)cell).getLongValue());
+        }
+
+        @Override
+        DataCell deserialize(final DataCellDataInput input) throws IOException {
+            return new LongCell(input.readLong());
+        }
+    },
+
+    /** {@link StringCell}. */
+    STRING(StringCell.class) {
+        @Override
+        void serialize(final DataCell cell, final DataCellDataOutput output) throws IOException {
+            output.writeUTF(((StringCell)cell).getStringValue());
+        }
+
+        @Override
+        DataCell deserialize(final DataCellDataInput input) throws IOException {
+            return new StringCell(input.readUTF());
+        }
+    },
+
+    /** {@link BooleanCell}. */
+    BOOLEAN(BooleanCell.class) {
+        @Override
+        void serialize(final DataCell cell, final DataCellDataOutput output) throws IOException {
+            output.writeBoolean(((BooleanCell)cell).getBooleanValue());
+        }
+
+        @Override
+        DataCell deserialize(final DataCellDataInput input) throws IOException {
+            return BooleanCell.get(input.readBoolean());
+        }
+    };
+
+    private final Class<? extends DataCell> m_cellClass;
+
+    PrimitiveCellSerializer(final Class<? extends DataCell> cellClass) {
+        m_cellClass = cellClass;
+    }
+
+    /**
+     * Returns the serializer for exactly the given class (subclasses may have their own serializer).
+     *
+     * @param cellClass the cell class
+     * @return the serializer or <code>null</code> if the class is not one of the supported cell classes
+     */
+    public static PrimitiveCellSerializer get(final Class<?> cellClass) {
+        for (PrimitiveCellSerializer s : values()) {
+            if (s.m_cellClass == cellClass) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the cell, which must be of the class of this serializer.
+     *
+     * @param cell the cell to write
+     * @param output to write to
+     * @throws IOException if writing fails
+     */
+    abstract void serialize(DataCell cell, DataCellDataOutput output) throws IOException;
+
+    /**
+     * Reads a cell of the class of this serializer.
+     *
+     * @param input to read from
+     * @return a new cell
+     * @throws IOException if reading fails
+     */
+    abstract DataCell deserialize(DataCellDataInput input) throws IOException;
+}
@@ -52,16 +52,21 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
@@ -79,18 +84,21 @@
 import org.knime.core.data.filestore.FileStoreFactory;
 import org.knime.core.data.filestore.internal.IWriteFileStoreHandler;
 import org.knime.core.internal.ReferencedFile;
+import org.knime.core.node.BufferedDataContainer;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.BufferedDataTable.KnowsRowCountTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
 import org.knime.core.node.workflow.WorkflowDataRepository;
 import org.knime.core.util.MultiThreadWorker;
 import org.knime.core.util.Pair;
+import org.knime.core.util.ThreadPool;
 
 /**
  * Table implementation that is created based on a ColumnRearranger. This class is not intended for subclassing or to be
@@ -138,6 +146,11 @@ public void close() {
 
     private static final String CFG_FLAGS = "table_internal_flags";
 
+    /** Minimum number of rows per chunk if the input is processed in chunks, see
+     * {@link AbstractCellFactory#setChunkedProcessing(boolean)}. Tables with fewer rows than two chunks are
+     * processed as if chunked processing was disabled. */
+    static final int MIN_CHUNK_SIZE = 10000;
+
     private final DataTableSpec m_spec;
 
     private final BufferedDataTable m_reference;
@@ -148,6 +161,9 @@ public void close() {
 
     private final ContainerTable m_appendTable;
 
+    /** Flat view on nested tables, created on first iteration, see {@link #getColumnSourceMap()}. */
+    private ColumnSourceMap m_columnSourceMap;
+
     /*
      * Used from the factory method, see below.
      * @see #create(ColumnRearranger, BufferedDataTable, ExecutionMonitor)
@@ -261,6 +277,24 @@ public ContainerTable getAppendTable() {
         return m_appendTable;
     }
 
+    /** @return for each column the index in the reference or append table, see {@link #getIsFromRefTable()} */
+    int[] getMap() {
+        return m_map;
+    }
+
+    /** @return for each column whether it is taken from the reference table (or the append table) */
+    boolean[] getIsFromRefTable() {
+        return m_isFromRefTable;
+    }
+
+    /** @return the (lazily created) flat view on this table and the nested tables it references */
+    private synchronized ColumnSourceMap getColumnSourceMap() {
+        if (m_columnSourceMap == null) {
+            m_columnSourceMap = new ColumnSourceMap(this);
+        }
+        return m_columnSourceMap;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -275,6 +309,12 @@ public DataTableSpec getDataTableSpec() {
     @Override
     @SuppressWarnings("resource")
     public CloseableRowIterator iterator() {
+        // iterate the underlying tables directly if this table is part of a chain of rearranged/joined tables
+        final ColumnSourceMap columnSourceMap = getColumnSourceMap();
+        if (columnSourceMap.isNested()) {
+            return columnSourceMap.iterator(null, null);
+        }
+
         // determine iterator for appended table
         CloseableRowIterator appendIt = EMPTY_ITERATOR;
         if (m_appendTable != null) {
@@ -299,6 +339,10 @@ public CloseableRowIterator iterator() {
     @Override
     @SuppressWarnings("resource")
     public CloseableRowIterator iteratorWithFilter(final TableFilter filter, final ExecutionMonitor exec) {
+        final ColumnSourceMap columnSourceMap = getColumnSourceMap();
+        if (columnSourceMap.isNested()) {
+            return columnSourceMap.iterator(filter, exec);
+        }
 
         final Supplier<IntStream> indicesSup = () -> filter.getMaterializeColumnIndices()
             .map(o -> o.stream().mapToInt(i -> i)).orElse(IntStream.range(0, m_map.length));
@@ -352,11 +396,14 @@ public static RearrangeColumnsTable create(final ColumnRearranger rearranger, fi
         // this field has the minimum worker count for all used factories
         // (or negative for sequential processing)
         int workerCount = Integer.MAX_VALUE;
+        // with v3.8 the input can also be processed in chunks of rows (if all factories agree)
+        boolean isChunked = true;
         for (SpecAndFactoryObject s : newColumnFactoryList) {
             CellFactory factory = s.getFactory();
             if (factory instanceof AbstractCellFactory) {
                 AbstractCellFactory acf = (AbstractCellFactory)factory;
                 workerCount = Math.min(workerCount, acf.getMaxParallelWorkers());
+                isChunked &= acf.isChunkedProcessing();
             } else {
                 // unknown factory - process sequentially
                 workerCount = -1;
@@ -378,6 +425,8 @@ public static RearrangeColumnsTable create(final ColumnRearranger rearranger, fi
             try {
                 if (workerCount <= 0) {
                     calcNewColsSynchronously(table, subProgress, newColsProducerMapping, container);
+                } else if (isChunked && table.size() >= 2L * MIN_CHUNK_SIZE && isHeldInMemory(table)) {
+                    calcNewColsInChunks(table, subProgress, newColsProducerMapping, container, workerCount, context);
                 } else {
                     calcNewColsASynchronously(table, subProgress, newColsProducerMapping, container);
                 }
@@ -519,6 +568,125 @@ private static void calcNewColsASynchronously(final BufferedDataTable table, fin
         }
     }
 
+    /**
+     * Processes input concurrently in chunks of consecutive rows, see
+     * {@link AbstractCellFactory#setChunkedProcessing(boolean)}. Each chunk is read with a row range filter and
+     * processed by a worker of the global thread pool into a temporary container. The containers are closed in the
+     * calling thread, copied into the container in order and cleared thereafter; at most <code>workerCount</code>
+     * chunks are processed or waiting to be copied at any time. Only used for tables held in memory as the range
+     * filter skips to the first row of the chunk only for those (otherwise all preceding rows are read).
+     */
+    private static void calcNewColsInChunks(final BufferedDataTable table, final ExecutionMonitor subProgress,
+        final NewColumnsProducerMapping newColsProducerMapping, final DataContainer container, final int workerCount,
+        final ExecutionContext context) throws CanceledExecutionException {
+        final long finalRowCount = table.size();
+        // a few chunks per worker so that workers finishing early don't need to wait for the slowest chunk
+        final long chunkSize = Math.max(MIN_CHUNK_SIZE, (finalRowCount + 4L * workerCount - 1) / (4L * workerCount));
+        final long chunkCount = (finalRowCount + chunkSize - 1) / chunkSize;
+        final DataTableSpec newColsSpec = container.getTableSpec();
+        final CellFactory facForProgress = newColsProducerMapping.getUniqueCellFactoryMap().keySet().iterator().next();
+        final AtomicBoolean isAborted = new AtomicBoolean();
+        final Deque<Pair<BufferedDataContainer, Future<Void>>> pendingChunks = new ArrayDeque<>();
+        Callable<Void> chunkProcessor = new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                long nextChunk = 0;
+                long r = 0;
+                while (nextChunk < chunkCount || !pendingChunks.isEmpty()) {
+                    while (nextChunk < chunkCount && pendingChunks.size() < workerCount) {
+                        final long from = nextChunk * chunkSize;
+                        final long to = Math.min(finalRowCount, from + chunkSize) - 1;
+                        final BufferedDataContainer chunkContainer = context.createDataContainer(newColsSpec, false);
+                        pendingChunks.add(new Pair<>(chunkContainer, KNIMEConstants.GLOBAL_THREAD_POOL.enqueue(
+                            () -> calcNewColsForChunk(table, from, to, newColsProducerMapping, chunkContainer,
+                                subProgress, isAborted))));
+                        nextChunk++;
+                    }
+                    Pair<BufferedDataContainer, Future<Void>> chunk = pendingChunks.peek();
+                    chunk.getSecond().get(); // exception falls through
+                    pendingChunks.poll();
+                    chunk.getFirst().close();
+                    BufferedDataTable chunkTable = chunk.getFirst().getTable();
+                    try (CloseableRowIterator it = chunkTable.iterator()) {
+                        while (it.hasNext()) {
+                            DataRow append = it.next();
+                            container.addRowToTable(append);
+                            facForProgress.setProgress(++r, finalRowCount, append.getKey(), subProgress);
+                            subProgress.checkCanceled();
+                        }
+                    } finally {
+                        context.clearTable(chunkTable);
+                    }
+                }
+                return null;
+            }
+        };
+        try {
+            ThreadPool currentPool = ThreadPool.currentPool();
+            if (currentPool != null) {
+                // wait invisibly in the calling thread's pool so that the workers get the free slots
+                currentPool.runInvisible(chunkProcessor);
+            } else {
+                chunkProcessor.call();
+            }
+        } catch (Exception e) {
+            isAborted.set(true);
+            for (Pair<BufferedDataContainer, Future<Void>> chunk : pendingChunks) {
+                try {
+                    chunk.getSecond().get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    // ignore, the first problem is reported
+                }
+                // the worker may still write to the container if waiting for it was interrupted
+                if (chunk.getSecond().isDone()) {
+                    chunk.getFirst().close();
+                    context.clearTable(chunk.getFirst().getTable());
+                }
+            }
+            Throwable cause = e;
+            while (cause instanceof ExecutionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof CanceledExecutionException) {
+                throw (CanceledExecutionException)cause;
+            } else if (cause instanceof InterruptedException) {
+                CanceledExecutionException cee = new CanceledExecutionException(cause.getMessage());
+                cee.initCause(cause);
+                throw cee;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /** Calculates the new cells for the rows <code>from</code> to <code>to</code> (inclusive) of the table into the
+     * argument container, which is closed by the caller. Executed by a worker thread, see
+     * {@link #calcNewColsInChunks(BufferedDataTable, ExecutionMonitor, NewColumnsProducerMapping, DataContainer, int,
+     * ExecutionContext)}. */
+    private static Void calcNewColsForChunk(final BufferedDataTable table, final long from, final long to,
+        final NewColumnsProducerMapping newColsProducerMapping, final BufferedDataContainer chunkContainer,
+        final ExecutionMonitor subProgress, final AtomicBoolean isAborted) throws CanceledExecutionException {
+        try (CloseableRowIterator it = table.filter(TableFilter.filterRangeOfRows(from, to)).iterator()) {
+            while (it.hasNext()) {
+                if (isAborted.get()) {
+                    throw new CanceledExecutionException();
+                }
+                chunkContainer.addRowToTable(calcNewCellsForRow(it.next(), newColsProducerMapping));
+                subProgress.checkCanceled();
+            }
+        }
+        return null;
+    }
+
+    /** @return whether the table is a container table held in memory, i.e. row range filters seek to the first row */
+    private static boolean isHeldInMemory(final BufferedDataTable table) {
+        KnowsRowCountTable delegate = table.getDelegate();
+        return delegate instanceof ContainerTable && ((ContainerTable)delegate).isHeldInMemory();
+    }
+
     private static Set<Class<? extends CellFactory>> codingProblemsCellFactoryClasses;
 
     /**
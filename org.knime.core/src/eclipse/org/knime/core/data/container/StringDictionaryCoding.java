@@ -0,0 +1,234 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+
+/**
+ * Dictionary encoding of {@link StringCell StringCells} in the columns of tables written by the
+ * {@link DefaultTableStoreWriter}. Each column has its own dictionary, which is built while the table is written (and
+ * rebuilt while it is read), so that repeated values are written as a (short) code and read as one shared
+ * {@link StringCell} instance.
+ *
+ * <p>A string cell in a dictionary encoded column is written as the type short cut of {@link StringCell} followed
+ * by a code:
+ * <ul>
+ * <li>code &gt;= 0 refers to a dictionary entry,</li>
+ * <li>{@link #CODE_NEW_ENTRY} is followed by the string, which is then added to the dictionary,</li>
+ * <li>{@link #CODE_PLAIN} is followed by the string, which isn't added (too long),</li>
+ * <li>{@link #CODE_DISABLE} is followed by the string; the column contains too many distinct values, the dictionary
+ * isn't used for the remaining cells of the column, which are written as usual (without code).</li>
+ * </ul>
+ * Whether a table is encoded this way is recorded in its meta information, tables without the flag are read as
+ * before.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class StringDictionaryCoding {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(StringDictionaryCoding.class);
+
+    /** Meta info flag, set if the table's string cells are dictionary encoded. */
+    private static final String CFG_STRING_DICTIONARY = "container.string.dictionary";
+
+    /** Default maximum number of distinct values per column. */
+    static final int DEF_MAX_DICTIONARY_SIZE = 1024;
+
+    /** Strings longer than this are never added to a dictionary. */
+    static final int MAX_ENTRY_LENGTH = 256;
+
+    static final short CODE_NEW_ENTRY = -1;
+
+    static final short CODE_PLAIN = -2;
+
+    static final short CODE_DISABLE = -3;
+
+    /** Maximum number of distinct values per column, 0 if dictionary encoding is disabled. */
+    private static final int MAX_DICTIONARY_SIZE = readMaxDictionarySize();
+
+    private StringDictionaryCoding() {
+    }
+
+    private static int readMaxDictionarySize() {
+        final String value = System.getProperty(KNIMEConstants.PROPERTY_TABLE_STRING_DICTIONARY_SIZE);
+        if (value != null) {
+            try {
+                int size = Integer.parseInt(value.trim());
+                if (size >= 0 && size <= Short.MAX_VALUE) {
+                    LOGGER.debug("Setting maximum string dictionary size per column to " + size);
+                    return size;
+                }
+            } catch (NumberFormatException nfe) {
+                // fall through
+            }
+            LOGGER.warn("Unable to read property " + KNIMEConstants.PROPERTY_TABLE_STRING_DICTIONARY_SIZE + " (\""
+                + value + "\"), must be in [0, " + Short.MAX_VALUE + "]; defaulting to " + DEF_MAX_DICTIONARY_SIZE);
+        }
+        return DEF_MAX_DICTIONARY_SIZE;
+    }
+
+    /** @return whether newly written tables are dictionary encoded */
+    static boolean isEnabled() {
+        return MAX_DICTIONARY_SIZE > 0;
+    }
+
+    /** @param settings the meta info to mark as dictionary encoded */
+    static void saveSettings(final NodeSettingsWO settings) {
+        settings.addBoolean(CFG_STRING_DICTIONARY, true);
+    }
+
+    /**
+     * @param settings the table's meta info
+     * @return whether the table's string cells are dictionary encoded
+     */
+    static boolean isEncoded(final NodeSettingsRO settings) {
+        return settings.getBoolean(CFG_STRING_DICTIONARY, false);
+    }
+
+    /** Dictionary of a column used while writing. */
+    static final class Encoder {
+
+        private final int m_maxSize;
+
+        private final Map<String, Short> m_codes = new HashMap<>();
+
+        private boolean m_isDisabled;
+
+        Encoder() {
+            this(MAX_DICTIONARY_SIZE);
+        }
+
+        /** @param maxSize maximum number of distinct values */
+        Encoder(final int maxSize) {
+            m_maxSize = maxSize;
+        }
+
+        /** @return whether string cells are still to be written by this encoder */
+        boolean isActive() {
+            return !m_isDisabled;
+        }
+
+        /**
+         * Writes the code (and string, if not in the dictionary) of the cell, the type short cut has been written.
+         *
+         * @param cell the cell to write
+         * @param out the stream to write to
+         * @throws IOException if writing fails
+         */
+        void write(final StringCell cell, final DCObjectOutputVersion2 out) throws IOException {
+            final String value = cell.getStringValue();
+            final Short code = m_codes.get(value);
+            if (code != null) {
+                out.writeDictionaryEncodedString(code, null);
+            } else if (value.length() > MAX_ENTRY_LENGTH) {
+                out.writeDictionaryEncodedString(CODE_PLAIN, value);
+            } else if (m_codes.size() < m_maxSize) {
+                m_codes.put(value, (short)m_codes.size());
+                out.writeDictionaryEncodedString(CODE_NEW_ENTRY, value);
+            } else {
+                m_isDisabled = true;
+                m_codes.clear();
+                out.writeDictionaryEncodedString(CODE_DISABLE, value);
+            }
+        }
+    }
+
+    /** Dictionary of a column used while reading. */
+    static final class Decoder {
+
+        private final List<StringCell> m_entries = new ArrayList<>();
+
+        private boolean m_isDisabled;
+
+        /** @return whether string cells are to be read by {@link #read(DCObjectInputVersion2)} */
+        boolean isActive() {
+            return !m_isDisabled;
+        }
+
+        /**
+         * Reads a string cell written by {@link Encoder#write(StringCell, DCObjectOutputVersion2)}.
+         *
+         * @param in to read from
+         * @return the cell, shared with other rows if the value is in the dictionary
+         * @throws IOException if reading fails or the content is invalid
+         */
+        DataCell read(final DCObjectInputVersion2 in) throws IOException {
+            final short code = in.readDictionaryCode();
+            if (code >= 0) {
+                if (code >= m_entries.size()) {
+                    throw new IOException("Invalid string dictionary code " + code + " (dictionary size is "
+                        + m_entries.size() + ")");
+                }
+                return m_entries.get(code);
+            }
+            final StringCell cell = new StringCell(in.readDictionaryValue());
+            switch (code) {
+                case CODE_NEW_ENTRY:
+                    m_entries.add(cell);
+                    break;
+                case CODE_PLAIN:
+                    break;
+                case CODE_DISABLE:
+                    m_isDisabled = true;
+                    m_entries.clear();
+                    break;
+                default:
+                    throw new IOException("Invalid string dictionary code " + code);
+            }
+            return cell;
+        }
+    }
+}
@@ -50,6 +50,8 @@
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataCellSerializer;
@@ -61,13 +63,17 @@
 import org.knime.core.data.container.CellClassInfo;
 import org.knime.core.data.container.DCObjectOutputVersion2;
 import org.knime.core.data.container.KNIMEStreamConstants;
+import org.knime.core.data.container.PrimitiveCellSerializer;
 import org.knime.core.data.filestore.FileStore;
 import org.knime.core.data.filestore.FileStoreCell;
 import org.knime.core.data.filestore.FileStoreKey;
 import org.knime.core.data.filestore.FileStoreUtil;
 import org.knime.core.data.filestore.internal.IWriteFileStoreHandler;
+import org.knime.core.data.collection.CollectionDataValue;
+import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeSettingsWO;
 import org.knime.core.node.util.CheckUtils;
+import org.knime.core.node.workflow.NodeExecutionMetrics;
 
 /**
  * The abstract writer for writing specialized table formats.
@@ -79,6 +85,11 @@
  */
 public abstract class AbstractTableStoreWriter implements AutoCloseable, KNIMEStreamConstants {
 
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(AbstractTableStoreWriter.class);
+
+    /** Cell classes for which the use of Java serialization has already been reported. */
+    private static final Set<Class<?>> JAVA_SERIALIZED_CLASSES = ConcurrentHashMap.newKeySet();
+
     /**
      * Map for all DataCells' type, which have been added to this buffer, they will be separately written to to the
      * meta.xml in a zip file.
@@ -94,6 +105,12 @@ public abstract class AbstractTableStoreWriter implements AutoCloseable, KNIMESt
 
     private final DataTableSpec m_spec;
 
+    /**
+     * Per column, how cells of the class last written to that column are written. Columns mostly contain cells of a
+     * single class, for which this saves looking up class info, serializer and type short cut per cell.
+     */
+    private final CellDispatch[] m_columnDispatch;
+
     /**
      * Constructs an abstract table store writer.
      *
@@ -103,6 +120,7 @@ public abstract class AbstractTableStoreWriter implements AutoCloseable, KNIMESt
     protected AbstractTableStoreWriter(final DataTableSpec spec, final boolean writeRowKey) {
         m_spec = CheckUtils.checkArgumentNotNull(spec);
         m_writeRowKey = writeRowKey;
+        m_columnDispatch = new CellDispatch[spec.getNumColumns()];
     }
 
     public final void setFileStoreHandler(final IWriteFileStoreHandler writeFileStoreHandler) {
@@ -254,6 +272,9 @@ public void writeDataCell(final DataCell cell, final DCObjectOutputVersion2 outS
         final DataCellSerializer<DataCell> ser = getSerializerForDataCell(cellClass);
         final Byte identifier = getTypeShortCut(cellClass);
         final FileStoreKey[] fileStoreKeys = getFileStoreKeysAndFlush(cell);
+        if (ser == null && !isBlob) {
+            reportJavaSerialization(cellClass);
+        }
 
         if (ser == null && !isBlob) {
             outStream.writeControlByte(BYTE_TYPE_SERIALIZATION);
@@ -269,10 +290,98 @@ public void writeDataCell(final DataCell cell, final DCObjectOutputVersion2 outS
             outStream.writeBlobAddress(bc.getAddress());
         } else if (ser == null) {
             // serialize using Java serialization
+            NodeExecutionMetrics.recordJavaSerializedCell();
             outStream.writeDataCellPerJavaSerialization(cell);
         } else {
             // serialize using KNIME serialization
             outStream.writeDataCellPerKNIMESerializer(ser, cell);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes a data cell of the given column to the outStream, equivalent to
+     * {@link #writeDataCell(DataCell, DCObjectOutputVersion2)}. The information how to write cells is remembered per
+     * column, which makes writing cheaper if the column contains only cells of one class (or few cells of other
+     * classes).
+     *
+     * @param cell The cell to write.
+     * @param column The column index in the table spec.
+     * @param outStream To write to.
+     * @throws IOException If stream corruption happens.
+     * @since 3.8
+     */
+    protected final void writeDataCell(final DataCell cell, final int column, final DCObjectOutputVersion2 outStream)
+        throws IOException {
+        if (cell == DataType.getMissingCell() || cell instanceof BlobWrapperDataCell) {
+            writeDataCell(cell, outStream);
+            return;
+        }
+        CellDispatch dispatch = m_columnDispatch[column];
+        if (dispatch == null || !dispatch.matches(cell)) {
+            final CellClassInfo cellClass = CellClassInfo.get(cell);
+            final DataCellSerializer<DataCell> ser = getSerializerForDataCell(cellClass);
+            if (ser == null) {
+                reportJavaSerialization(cellClass);
+            }
+            dispatch = new CellDispatch(cellClass, ser, getTypeShortCut(cellClass));
+            m_columnDispatch[column] = dispatch;
+        }
+
+        final FileStoreKey[] fileStoreKeys = getFileStoreKeysAndFlush(cell);
+        if (dispatch.m_serializer == null) {
+            outStream.writeControlByte(BYTE_TYPE_SERIALIZATION);
+        }
+        outStream.writeControlByte(dispatch.m_identifier);
+        if (fileStoreKeys != null) {
+            outStream.writeFileStoreKeys(fileStoreKeys);
+        }
+        if (dispatch.m_primitive != null) {
+            outStream.writeDataCellPerPrimitiveSerializer(dispatch.m_primitive, cell);
+        } else if (dispatch.m_serializer == null) {
+            NodeExecutionMetrics.recordJavaSerializedCell();
+            outStream.writeDataCellPerJavaSerialization(cell);
+        } else {
+            outStream.writeDataCellPerKNIMESerializer(dispatch.m_serializer, cell);
+        }
+    }
+
+    /**
+     * Called whenever a cell needs to be written using (slow and version dependent) Java serialization. The first
+     * occurrence per cell class is logged as warning.
+     */
+    private static void reportJavaSerialization(final CellClassInfo cellClass) {
+        if (JAVA_SERIALIZED_CLASSES.add(cellClass.getCellClass())) {
+            LOGGER.warn("Cells of class " + cellClass.getCellClass().getName() + " are written using Java "
+                + "serialization as there is no DataCellSerializer registered for them; this is slow and may not be "
+                + "readable by other versions of the class");
+        }
+    }
+
+    /** How to write cells of a cell class (and collection element type), as determined for a column. */
+    private static final class CellDispatch {
+
+        private final Class<? extends DataCell> m_cellClass;
+
+        private final DataType m_elementType;
+
+        private final DataCellSerializer<DataCell> m_serializer;
+
+        private final PrimitiveCellSerializer m_primitive;
+
+        private final byte m_identifier;
+
+        CellDispatch(final CellClassInfo cellClass, final DataCellSerializer<DataCell> serializer,
+            final byte identifier) {
+            m_cellClass = cellClass.getCellClass();
+            m_elementType = cellClass.getCollectionElementType();
+            m_serializer = serializer;
+            m_primitive = serializer == null ? null : PrimitiveCellSerializer.get(m_cellClass);
+            m_identifier = identifier;
+        }
+
+        boolean matches(final DataCell cell) {
+            return cell.getClass() == m_cellClass && (m_elementType == null
+                || m_elementType.equals(((CollectionDataValue)cell).getElementType()));
+        }
+    }
+}
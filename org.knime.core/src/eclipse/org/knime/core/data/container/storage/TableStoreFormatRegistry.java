@@ -99,11 +99,11 @@ private static TableStoreFormatRegistry createInstance() {
         IExtensionRegistry registry = Platform.getExtensionRegistry();
         IExtensionPoint point = registry.getExtensionPoint(EXT_POINT_ID);
 
-        List<TableStoreFormat> formatList = Stream.of(point.getExtensions())
+        // formats are only instantiated when needed as some of them pull in large libraries
+        List<FormatEntry> formatList = Stream.of(point.getExtensions())
                 .flatMap(ext -> Stream.of(ext.getConfigurationElements()))
-                .map(cfe -> readFormat(cfe))
-                .filter(f -> f != null)
-                .sorted(Comparator.comparing(f -> f.getClass().getSimpleName(), (a, b) -> {
+                .map(FormatEntry::new)
+                .sorted(Comparator.comparing(f -> f.m_className, (a, b) -> {
                     // sort formats so that the "KNIME standard" format comes first.
                     if (Objects.equals(a, b)) {
                         return 0;
@@ -116,10 +116,12 @@ private static TableStoreFormatRegistry createInstance() {
                     }
                 })).collect(Collectors.toList());
 
-        boolean hasFallback= formatList.stream().anyMatch(f -> f.getClass().equals(DefaultTableStoreFormat.class));
+        boolean hasFallback = !formatList.isEmpty()
+            && formatList.get(0).m_className.equals(DefaultTableStoreFormat.class.getName())
+            && formatList.get(0).get().isPresent();
         CheckUtils.checkState(hasFallback, "No fallback table format registered, expected '%s' but not present in '%s'",
             DefaultTableStoreFormat.class.getName(),
-            StringUtils.join(formatList.stream().map(f -> f.getClass().getName()).iterator(), ", "));
+            StringUtils.join(formatList.stream().map(f -> f.m_className).iterator(), ", "));
 
         return new TableStoreFormatRegistry(formatList);
     }
@@ -142,12 +144,23 @@ public static TableStoreFormatRegistry getInstance() {
         return INSTANCE;
     }
 
-    private final List<TableStoreFormat> m_tableStoreFormats;
+    private final List<FormatEntry> m_tableStoreFormats;
 
-    private TableStoreFormatRegistry(final List<TableStoreFormat> tableStoreFormats) {
+    private TableStoreFormatRegistry(final List<FormatEntry> tableStoreFormats) {
         m_tableStoreFormats = Collections.unmodifiableList(tableStoreFormats);
     }
 
+    /** @return the format with the given class name if registered and instantiable. */
+    private Optional<TableStoreFormat> findFormat(final String className) {
+        return m_tableStoreFormats.stream().filter(f -> f.m_className.equals(className)).findFirst()
+            .flatMap(FormatEntry::get);
+    }
+
+    /** @return the standard KNIME format, always the first entry. */
+    private TableStoreFormat getFallbackFormat() {
+        return m_tableStoreFormats.get(0).get().get();
+    }
+
     /** The 'default' format as defined by the default preference scope, or the standard KNIME format if unset. This
      * method is used by the preference page and should not be used by clients otherwise.
      * @return non-null 'default' format.
@@ -164,12 +177,11 @@ public TableStoreFormat getDefaultTableStoreFormat() {
             defaultFormatClassName = DefaultTableStoreFormat.class.getName();
         }
         String defaultID = CORE_DEFAULT_PREFS.get(PREF_KEY_STORAGE_FORMAT, defaultFormatClassName);
-        Optional<TableStoreFormat> defaultFormat = m_tableStoreFormats.stream()
-                .filter(f -> f.getClass().getName().equals(defaultID)).findFirst();
+        Optional<TableStoreFormat> defaultFormat = findFormat(defaultID);
         if (!defaultFormat.isPresent()) {
             LOGGER.warnWithFormat("Invalid table store format '%s' -- using KNIME standard as default", defaultID);
         }
-        return defaultFormat.orElse(m_tableStoreFormats.get(0));
+        return defaultFormat.orElseGet(this::getFallbackFormat);
     }
 
     /** @return the format as defined by the KNIME preferences or the default instead. This is is what is actually
@@ -179,19 +191,18 @@ public TableStoreFormat getInstanceTableStoreFormat() {
         if (result == null) {
             return getDefaultTableStoreFormat();
         }
-        final String resultFinal = result;
-        Optional<TableStoreFormat> match =
-                m_tableStoreFormats.stream().filter(f -> f.getClass().getName().equals(resultFinal)).findFirst();
+        Optional<TableStoreFormat> match = findFormat(result);
         if (!match.isPresent()) {
             LOGGER.warnWithFormat("Invalid storage format '%s' -- using standard KNIME table format instead", result);
-            return m_tableStoreFormats.get(0);
+            return getFallbackFormat();
         }
         return match.get();
     }
 
     /** @return the tableStoreFormats in an unmodifiable list. */
     public List<TableStoreFormat> getTableStoreFormats() {
-        return m_tableStoreFormats;
+        return Collections.unmodifiableList(m_tableStoreFormats.stream().map(FormatEntry::get)
+            .filter(Optional::isPresent).map(Optional::get).collect(Collectors.toList()));
     }
 
     /** @param spec the spec of the table to write.
@@ -202,7 +213,8 @@ public TableStoreFormat getFormatFor(final DataTableSpec spec) {
         if (instanceTableStoreFormat.accepts(spec)) {
             return instanceTableStoreFormat;
         }
-        return m_tableStoreFormats.stream().filter(f -> f.accepts(spec)).findFirst().orElseThrow(
+        return m_tableStoreFormats.stream().map(FormatEntry::get).filter(Optional::isPresent).map(Optional::get)
+                .filter(f -> f.accepts(spec)).findFirst().orElseThrow(
             () -> new InternalError("No registered format accepts the current table schema"));
     }
 
@@ -211,9 +223,7 @@ public TableStoreFormat getFormatFor(final DataTableSpec spec) {
      * @throws TableStoreFormatUnknownException If the format is unknown (usually means: not installed) */
     public TableStoreFormat getTableStoreFormat(final String fullyQualifiedClassName)
         throws TableStoreFormatUnknownException {
-        return m_tableStoreFormats.stream()//
-                .filter(f -> f.getClass().getName().equals(fullyQualifiedClassName))//
-                .findFirst()//
+        return findFormat(fullyQualifiedClassName)//
                 .orElseThrow(() -> new TableStoreFormatUnknownException(fullyQualifiedClassName));
     }
 
@@ -222,8 +232,34 @@ public TableStoreFormat getTableStoreFormat(final String fullyQualifiedClassName
     public String toString() {
         StringBuilder b = new StringBuilder("Table Formats: [");
         b.append(String.join(", ", m_tableStoreFormats.stream().map(
-            s -> s.getClass().getName()).collect(Collectors.toList()))).append("]");
+            s -> s.m_className).collect(Collectors.toList()))).append("]");
         return b.toString();
     }
 
+    /** A registered format, instantiated on first access. */
+    private static final class FormatEntry {
+
+        private final IConfigurationElement m_element;
+
+        private final String m_className;
+
+        private Optional<TableStoreFormat> m_format;
+
+        FormatEntry(final IConfigurationElement element) {
+            m_element = element;
+            m_className = element.getAttribute("formatDefinition");
+        }
+
+        synchronized Optional<TableStoreFormat> get() {
+            if (m_format == null) {
+                m_format = Optional.ofNullable(readFormat(m_element));
+                if (m_format.isPresent() && !m_format.get().getClass().getName().equals(m_className)) {
+                    LOGGER.coding("Table store format '" + m_format.get().getClass().getName()
+                        + "' is registered as '" + m_className + "'");
+                }
+            }
+            return m_format;
+        }
+    }
+
 }
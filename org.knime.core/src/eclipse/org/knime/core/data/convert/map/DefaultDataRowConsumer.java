@@ -68,7 +68,8 @@
  * {@link ConsumptionPath consumption paths}.
  * <P>
  * Internally, each consumption path is translated to an executable mapper. There are mapper implementations for all
- * Java primitive types (to avoid autoboxing) as well as a common one for all object types.
+ * Java primitive types (to avoid autoboxing) as well as a common one for all object types. Converters and consumers
+ * are created once per mapper, i.e. once per column, and reused for all rows.
  *
  * @param <D> Type of the {@link Destination} to which to write the data rows.
  * @param <CP> Subtype of {@link ConsumerParameters} that can be used to configure the consumers per call to
@@ -194,23 +195,27 @@ private final class DoubleMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToDoubleConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, DoubleCellValueConsumer<D, CP>>> {
 
+        @SuppressWarnings("rawtypes")
+        private final DataCellToDoubleConverter m_converter;
+
+        private final DoubleCellValueConsumer<D, CP> m_consumer;
+
         private DoubleMapper(
             final TypedDataCellToJavaConverterFactory<?, ?, DataCellToDoubleConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, DoubleCellValueConsumer<D, CP>> consumerFactory) {
             super(converterFactory, consumerFactory);
+            m_converter = converterFactory.create();
+            m_consumer = consumerFactory.create();
         }
 
         @Override
         protected void map(final DataCell cell, final CP params) throws Exception {
-            @SuppressWarnings("rawtypes")
-            final DataCellToDoubleConverter converter = m_converterFactory.create();
-            final DoubleCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
             if (cell.isMissing()) {
-                consumer.consumeMissingCellValue(m_destination, params);
+                m_consumer.consumeMissingCellValue(m_destination, params);
             } else {
                 @SuppressWarnings("unchecked")
-                final double value = converter.convertIntoDouble(cell);
-                consumer.consumeDoubleCellValue(m_destination, value, params);
+                final double value = m_converter.convertIntoDouble(cell);
+                m_consumer.consumeDoubleCellValue(m_destination, value, params);
             }
         }
     }
@@ -219,22 +224,26 @@ private final class IntMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToIntConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, IntCellValueConsumer<D, CP>>> {
 
+        @SuppressWarnings("rawtypes")
+        private final DataCellToIntConverter m_converter;
+
+        private final IntCellValueConsumer<D, CP> m_consumer;
+
         private IntMapper(final TypedDataCellToJavaConverterFactory<?, ?, DataCellToIntConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, IntCellValueConsumer<D, CP>> consumerFactory) {
             super(converterFactory, consumerFactory);
+            m_converter = converterFactory.create();
+            m_consumer = consumerFactory.create();
         }
 
         @Override
         protected void map(final DataCell cell, final CP params) throws Exception {
-            @SuppressWarnings("rawtypes")
-            final DataCellToIntConverter converter = m_converterFactory.create();
-            final IntCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
             if (cell.isMissing()) {
-                consumer.consumeMissingCellValue(m_destination, params);
+                m_consumer.consumeMissingCellValue(m_destination, params);
             } else {
                 @SuppressWarnings("unchecked")
-                final int value = converter.convertIntoInt(cell);
-                consumer.consumeIntCellValue(m_destination, value, params);
+                final int value = m_converter.convertIntoInt(cell);
+                m_consumer.consumeIntCellValue(m_destination, value, params);
             }
         }
     }
@@ -243,22 +252,26 @@ private final class LongMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToLongConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, LongCellValueConsumer<D, CP>>> {
 
+        @SuppressWarnings("rawtypes")
+        private final DataCellToLongConverter m_converter;
+
+        private final LongCellValueConsumer<D, CP> m_consumer;
+
         private LongMapper(final TypedDataCellToJavaConverterFactory<?, ?, DataCellToLongConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, LongCellValueConsumer<D, CP>> consumerFactory) {
             super(converterFactory, consumerFactory);
+            m_converter = converterFactory.create();
+            m_consumer = consumerFactory.create();
         }
 
         @Override
         protected void map(final DataCell cell, final CP params) throws Exception {
-            @SuppressWarnings("rawtypes")
-            final DataCellToLongConverter converter = m_converterFactory.create();
-            final LongCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
             if (cell.isMissing()) {
-                consumer.consumeMissingCellValue(m_destination, params);
+                m_consumer.consumeMissingCellValue(m_destination, params);
             } else {
                 @SuppressWarnings("unchecked")
-                final long value = converter.convertIntoLong(cell);
-                consumer.consumeLongCellValue(m_destination, value, params);
+                final long value = m_converter.convertIntoLong(cell);
+                m_consumer.consumeLongCellValue(m_destination, value, params);
             }
         }
     }
@@ -267,23 +280,27 @@ private final class BooleanMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToBooleanConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, BooleanCellValueConsumer<D, CP>>> {
 
+        @SuppressWarnings("rawtypes")
+        private final DataCellToBooleanConverter m_converter;
+
+        private final BooleanCellValueConsumer<D, CP> m_consumer;
+
         private BooleanMapper(
             final TypedDataCellToJavaConverterFactory<?, ?, DataCellToBooleanConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, BooleanCellValueConsumer<D, CP>> consumerFactory) {
             super(converterFactory, consumerFactory);
+            m_converter = converterFactory.create();
+            m_consumer = consumerFactory.create();
         }
 
         @Override
         protected void map(final DataCell cell, final CP params) throws Exception {
-            @SuppressWarnings("rawtypes")
-            final DataCellToBooleanConverter converter = m_converterFactory.create();
-            final BooleanCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
             if (cell.isMissing()) {
-                consumer.consumeMissingCellValue(m_destination, params);
+                m_consumer.consumeMissingCellValue(m_destination, params);
             } else {
                 @SuppressWarnings("unchecked")
-                final boolean value = converter.convertIntoBoolean(cell);
-                consumer.consumeBooleanCellValue(m_destination, value, params);
+                final boolean value = m_converter.convertIntoBoolean(cell);
+                m_consumer.consumeBooleanCellValue(m_destination, value, params);
             }
         }
     }
@@ -292,23 +309,27 @@ private final class FloatMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToFloatConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, FloatCellValueConsumer<D, CP>>> {
 
+        @SuppressWarnings("rawtypes")
+        private final DataCellToFloatConverter m_converter;
+
+        private final FloatCellValueConsumer<D, CP> m_consumer;
+
         private FloatMapper(
             final TypedDataCellToJavaConverterFactory<?, ?, DataCellToFloatConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, FloatCellValueConsumer<D, CP>> consumerFactory) {
             super(converterFactory, consumerFactory);
+            m_converter = converterFactory.create();
+            m_consumer = consumerFactory.create();
         }
 
         @Override
         protected void map(final DataCell cell, final CP params) throws Exception {
-            @SuppressWarnings("rawtypes")
-            final DataCellToFloatConverter converter = m_converterFactory.create();
-            final FloatCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
             if (cell.isMissing()) {
-                consumer.consumeMissingCellValue(m_destination, params);
+                m_consumer.consumeMissingCellValue(m_destination, params);
             } else {
                 @SuppressWarnings("unchecked")
-                final float value = converter.convertIntoFloat(cell);
-                consumer.consumeFloatCellValue(m_destination, value, params);
+                final float value = m_converter.convertIntoFloat(cell);
+                m_consumer.consumeFloatCellValue(m_destination, value, params);
             }
         }
     }
@@ -317,22 +338,26 @@ private final class ByteMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToByteConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, ByteCellValueConsumer<D, CP>>> {
 
+        @SuppressWarnings("rawtypes")
+        private final DataCellToByteConverter m_converter;
+
+        private final ByteCellValueConsumer<D, CP> m_consumer;
+
         private ByteMapper(final TypedDataCellToJavaConverterFactory<?, ?, DataCellToByteConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, ByteCellValueConsumer<D, CP>> consumerFactory) {
             super(converterFactory, consumerFactory);
+            m_converter = converterFactory.create();
+            m_consumer = consumerFactory.create();
         }
 
         @Override
         protected void map(final DataCell cell, final CP params) throws Exception {
-            @SuppressWarnings("rawtypes")
-            final DataCellToByteConverter converter = m_converterFactory.create();
-            final ByteCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
             if (cell.isMissing()) {
-                consumer.consumeMissingCellValue(m_destination, params);
+                m_consumer.consumeMissingCellValue(m_destination, params);
             } else {
                 @SuppressWarnings("unchecked")
-                final byte value = converter.convertIntoByte(cell);
-                consumer.consumeByteCellValue(m_destination, value, params);
+                final byte value = m_converter.convertIntoByte(cell);
+                m_consumer.consumeByteCellValue(m_destination, value, params);
             }
         }
     }
@@ -341,23 +366,27 @@ private final class ShortMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToShortConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, ShortCellValueConsumer<D, CP>>> {
 
+        @SuppressWarnings("rawtypes")
+        private final DataCellToShortConverter m_converter;
+
+        private final ShortCellValueConsumer<D, CP> m_consumer;
+
         private ShortMapper(
             final TypedDataCellToJavaConverterFactory<?, ?, DataCellToShortConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, ShortCellValueConsumer<D, CP>> consumerFactory) {
             super(converterFactory, consumerFactory);
+            m_converter = converterFactory.create();
+            m_consumer = consumerFactory.create();
         }
 
         @Override
         protected void map(final DataCell cell, final CP params) throws Exception {
-            @SuppressWarnings("rawtypes")
-            final DataCellToShortConverter converter = m_converterFactory.create();
-            final ShortCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
             if (cell.isMissing()) {
-                consumer.consumeMissingCellValue(m_destination, params);
+                m_consumer.consumeMissingCellValue(m_destination, params);
             } else {
                 @SuppressWarnings("unchecked")
-                final short value = converter.convertIntoShort(cell);
-                consumer.consumeShortCellValue(m_destination, value, params);
+                final short value = m_converter.convertIntoShort(cell);
+                m_consumer.consumeShortCellValue(m_destination, value, params);
             }
         }
     }
@@ -366,22 +395,26 @@ private final class CharMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToCharConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, CharCellValueConsumer<D, CP>>> {
 
+        @SuppressWarnings("rawtypes")
+        private final DataCellToCharConverter m_converter;
+
+        private final CharCellValueConsumer<D, CP> m_consumer;
+
         private CharMapper(final TypedDataCellToJavaConverterFactory<?, ?, DataCellToCharConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, CharCellValueConsumer<D, CP>> consumerFactory) {
             super(converterFactory, consumerFactory);
+            m_converter = converterFactory.create();
+            m_consumer = consumerFactory.create();
         }
 
         @Override
         protected void map(final DataCell cell, final CP params) throws Exception {
-            @SuppressWarnings("rawtypes")
-            final DataCellToCharConverter converter = m_converterFactory.create();
-            final CharCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
             if (cell.isMissing()) {
-                consumer.consumeMissingCellValue(m_destination, params);
+                m_consumer.consumeMissingCellValue(m_destination, params);
             } else {
                 @SuppressWarnings("unchecked")
-                final char value = converter.convertIntoChar(cell);
-                consumer.consumeCharCellValue(m_destination, value, params);
+                final char value = m_converter.convertIntoChar(cell);
+                m_consumer.consumeCharCellValue(m_destination, value, params);
             }
         }
     }
@@ -390,19 +423,22 @@ private final class ObjectMapper extends Mapper<CP, //
             DataCellToJavaConverterFactory<?, ?>, //
             CellValueConsumerFactory<D, ?, ?, CP>> {
 
+        private final DataCellToJavaConverter<?, ?> m_converter;
+
+        private final CellValueConsumer<D, Object, CP> m_consumer;
+
+        @SuppressWarnings("unchecked")
         private ObjectMapper(final DataCellToJavaConverterFactory<?, ?> converterFactory,
             final CellValueConsumerFactory<D, ?, ?, CP> consumerFactory) {
             super(converterFactory, consumerFactory);
+            m_converter = converterFactory.create();
+            m_consumer = (CellValueConsumer<D, Object, CP>)consumerFactory.create();
         }
 
         @Override
         protected void map(final DataCell cell, final CP params) throws Exception {
-            final DataCellToJavaConverter<?, ?> converter = m_converterFactory.create();
-            @SuppressWarnings("unchecked")
-            final CellValueConsumer<D, Object, CP> consumer =
-                (CellValueConsumer<D, Object, CP>)m_consumerFactory.create();
-            final Object cellValue = cell.isMissing() ? null : converter.convertUnsafe(cell);
-            consumer.consumeCellValue(m_destination, cellValue, params);
+            final Object cellValue = cell.isMissing() ? null : m_converter.convertUnsafe(cell);
+            m_consumer.consumeCellValue(m_destination, cellValue, params);
         }
     }
 
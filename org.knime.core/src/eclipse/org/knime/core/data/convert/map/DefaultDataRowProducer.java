@@ -50,7 +50,7 @@
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataRow;
-import org.knime.core.data.MissingCell;
+import org.knime.core.data.DataType;
 import org.knime.core.data.RowKey;
 import org.knime.core.data.container.CellFactory;
 import org.knime.core.data.convert.datacell.BooleanToDataCellConverter;
@@ -74,7 +74,8 @@
  * {@link ProductionPath production paths}.
  * <P>
  * Internally, each production path is translated to an executable mapper. There are mapper implementations for all Java
- * primitive types (to avoid autoboxing) as well as a common one for all object types.
+ * primitive types (to avoid autoboxing) as well as a common one for all object types. Producers and converters are
+ * created once per mapper, i.e. once per column, and reused for all rows.
  *
  * @param <S> Type of the {@link Source} from which to create data rows.
  * @param <PP> Subtype of {@link Source.ProducerParameters} that can be used to configure the producers per call to
@@ -227,20 +228,24 @@ private final class DoubleMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, DoubleCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, DoubleToDataCellConverter>> {
 
+        private final DoubleCellValueProducer<S, PP> m_producer;
+
+        private final DoubleToDataCellConverter m_converter;
+
         private DoubleMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, DoubleCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, DoubleToDataCellConverter> converterFactory) {
             super(producerFactory, converterFactory);
+            m_producer = producerFactory.create();
+            m_converter = converterFactory.create(m_fileStoreFactory);
         }
 
         @Override
         protected final DataCell map(final PP params) throws Exception {
-            final DoubleCellValueProducer<S, PP> producer = m_producerFactory.create();
-            final DoubleToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
-            if (producer.producesMissingCellValue(m_source, params)) {
-                return new MissingCell(null);
+            if (m_producer.producesMissingCellValue(m_source, params)) {
+                return DataType.getMissingCell();
             } else {
-                return converter.convertDouble(producer.produceDoubleCellValue(m_source, params));
+                return m_converter.convertDouble(m_producer.produceDoubleCellValue(m_source, params));
             }
         }
     }
@@ -249,19 +254,23 @@ private final class IntMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, IntCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, IntToDataCellConverter>> {
 
+        private final IntCellValueProducer<S, PP> m_producer;
+
+        private final IntToDataCellConverter m_converter;
+
         private IntMapper(final TypedCellValueProducerFactory<S, ?, ?, PP, IntCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, IntToDataCellConverter> converterFactory) {
             super(producerFactory, converterFactory);
+            m_producer = producerFactory.create();
+            m_converter = converterFactory.create(m_fileStoreFactory);
         }
 
         @Override
         protected final DataCell map(final PP params) throws Exception {
-            final IntCellValueProducer<S, PP> producer = m_producerFactory.create();
-            final IntToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
-            if (producer.producesMissingCellValue(m_source, params)) {
-                return new MissingCell(null);
+            if (m_producer.producesMissingCellValue(m_source, params)) {
+                return DataType.getMissingCell();
             } else {
-                return converter.convertInt(producer.produceIntCellValue(m_source, params));
+                return m_converter.convertInt(m_producer.produceIntCellValue(m_source, params));
             }
         }
     }
@@ -270,20 +279,24 @@ private final class LongMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, LongCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, LongToDataCellConverter>> {
 
+        private final LongCellValueProducer<S, PP> m_producer;
+
+        private final LongToDataCellConverter m_converter;
+
         private LongMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, LongCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, LongToDataCellConverter> converterFactory) {
             super(producerFactory, converterFactory);
+            m_producer = producerFactory.create();
+            m_converter = converterFactory.create(m_fileStoreFactory);
         }
 
         @Override
         protected final DataCell map(final PP params) throws Exception {
-            final LongCellValueProducer<S, PP> producer = m_producerFactory.create();
-            final LongToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
-            if (producer.producesMissingCellValue(m_source, params)) {
-                return new MissingCell(null);
+            if (m_producer.producesMissingCellValue(m_source, params)) {
+                return DataType.getMissingCell();
             } else {
-                return converter.convertLong(producer.produceLongCellValue(m_source, params));
+                return m_converter.convertLong(m_producer.produceLongCellValue(m_source, params));
             }
         }
     }
@@ -292,20 +305,24 @@ private final class BooleanMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, BooleanCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, BooleanToDataCellConverter>> {
 
+        private final BooleanCellValueProducer<S, PP> m_producer;
+
+        private final BooleanToDataCellConverter m_converter;
+
         private BooleanMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, BooleanCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, BooleanToDataCellConverter> converterFactory) {
             super(producerFactory, converterFactory);
+            m_producer = producerFactory.create();
+            m_converter = converterFactory.create(m_fileStoreFactory);
         }
 
         @Override
         protected final DataCell map(final PP params) throws Exception {
-            final BooleanCellValueProducer<S, PP> producer = m_producerFactory.create();
-            final BooleanToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
-            if (producer.producesMissingCellValue(m_source, params)) {
-                return new MissingCell(null);
+            if (m_producer.producesMissingCellValue(m_source, params)) {
+                return DataType.getMissingCell();
             } else {
-                return converter.convertBoolean(producer.produceBooleanCellValue(m_source, params));
+                return m_converter.convertBoolean(m_producer.produceBooleanCellValue(m_source, params));
             }
         }
     }
@@ -314,20 +331,24 @@ private final class FloatMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, FloatCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, FloatToDataCellConverter>> {
 
+        private final FloatCellValueProducer<S, PP> m_producer;
+
+        private final FloatToDataCellConverter m_converter;
+
         private FloatMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, FloatCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, FloatToDataCellConverter> converterFactory) {
             super(producerFactory, converterFactory);
+            m_producer = producerFactory.create();
+            m_converter = converterFactory.create(m_fileStoreFactory);
         }
 
         @Override
         protected final DataCell map(final PP params) throws Exception {
-            final FloatCellValueProducer<S, PP> producer = m_producerFactory.create();
-            final FloatToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
-            if (producer.producesMissingCellValue(m_source, params)) {
-                return new MissingCell(null);
+            if (m_producer.producesMissingCellValue(m_source, params)) {
+                return DataType.getMissingCell();
             } else {
-                return converter.convertFloat(producer.produceFloatCellValue(m_source, params));
+                return m_converter.convertFloat(m_producer.produceFloatCellValue(m_source, params));
             }
         }
     }
@@ -336,20 +357,24 @@ private final class ByteMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, ByteCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, ByteToDataCellConverter>> {
 
+        private final ByteCellValueProducer<S, PP> m_producer;
+
+        private final ByteToDataCellConverter m_converter;
+
         private ByteMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, ByteCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, ByteToDataCellConverter> converterFactory) {
             super(producerFactory, converterFactory);
+            m_producer = producerFactory.create();
+            m_converter = converterFactory.create(m_fileStoreFactory);
         }
 
         @Override
         protected final DataCell map(final PP params) throws Exception {
-            final ByteCellValueProducer<S, PP> producer = m_producerFactory.create();
-            final ByteToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
-            if (producer.producesMissingCellValue(m_source, params)) {
-                return new MissingCell(null);
+            if (m_producer.producesMissingCellValue(m_source, params)) {
+                return DataType.getMissingCell();
             } else {
-                return converter.convertByte(producer.produceByteCellValue(m_source, params));
+                return m_converter.convertByte(m_producer.produceByteCellValue(m_source, params));
             }
         }
     }
@@ -358,20 +383,24 @@ private final class ShortMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, ShortCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, ShortToDataCellConverter>> {
 
+        private final ShortCellValueProducer<S, PP> m_producer;
+
+        private final ShortToDataCellConverter m_converter;
+
         private ShortMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, ShortCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, ShortToDataCellConverter> converterFactory) {
             super(producerFactory, converterFactory);
+            m_producer = producerFactory.create();
+            m_converter = converterFactory.create(m_fileStoreFactory);
         }
 
         @Override
         protected final DataCell map(final PP params) throws Exception {
-            final ShortCellValueProducer<S, PP> producer = m_producerFactory.create();
-            final ShortToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
-            if (producer.producesMissingCellValue(m_source, params)) {
-                return new MissingCell(null);
+            if (m_producer.producesMissingCellValue(m_source, params)) {
+                return DataType.getMissingCell();
             } else {
-                return converter.convertShort(producer.produceShortCellValue(m_source, params));
+                return m_converter.convertShort(m_producer.produceShortCellValue(m_source, params));
             }
         }
     }
@@ -380,20 +409,24 @@ private final class CharMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, CharCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, CharToDataCellConverter>> {
 
+        private final CharCellValueProducer<S, PP> m_producer;
+
+        private final CharToDataCellConverter m_converter;
+
         private CharMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, CharCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, CharToDataCellConverter> converterFactory) {
             super(producerFactory, converterFactory);
+            m_producer = producerFactory.create();
+            m_converter = converterFactory.create(m_fileStoreFactory);
         }
 
         @Override
         protected final DataCell map(final PP params) throws Exception {
-            final CharCellValueProducer<S, PP> producer = m_producerFactory.create();
-            final CharToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
-            if (producer.producesMissingCellValue(m_source, params)) {
-                return new MissingCell(null);
+            if (m_producer.producesMissingCellValue(m_source, params)) {
+                return DataType.getMissingCell();
             } else {
-                return converter.convertChar(producer.produceCharCellValue(m_source, params));
+                return m_converter.convertChar(m_producer.produceCharCellValue(m_source, params));
             }
         }
     }
@@ -402,20 +435,24 @@ private final class ObjectMapper extends Mapper<PP, //
             CellValueProducerFactory<S, ?, ?, PP>, //
             JavaToDataCellConverterFactory<?>> {
 
+        private final CellValueProducer<S, ?, PP> m_producer;
+
+        private final JavaToDataCellConverter<?> m_converter;
+
         private ObjectMapper(final CellValueProducerFactory<S, ?, ?, PP> producerFactory,
             final JavaToDataCellConverterFactory<?> converterFactory) {
             super(producerFactory, converterFactory);
+            m_producer = producerFactory.create();
+            m_converter = converterFactory.create(m_fileStoreFactory);
         }
 
         @Override
         protected final DataCell map(final PP params) throws Exception {
-            final CellValueProducer<S, ?, PP> producer = m_producerFactory.create();
-            final JavaToDataCellConverter<?> converter = m_converterFactory.create(m_fileStoreFactory);
-            final Object value = producer.produceCellValue(m_source, params);
+            final Object value = m_producer.produceCellValue(m_source, params);
             if (value == null) {
-                return new MissingCell(null);
+                return DataType.getMissingCell();
             } else {
-                return converter.convertUnsafe(value);
+                return m_converter.convertUnsafe(value);
             }
         }
     }
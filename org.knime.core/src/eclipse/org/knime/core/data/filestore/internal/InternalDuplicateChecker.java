@@ -53,38 +53,63 @@
 import org.knime.core.util.DuplicateKeyException;
 
 /**
+ * Checks file store names for duplicates. Names are distributed over a fixed number of shards by their hash code, each
+ * with its own lock, so that concurrent file store creation doesn't serialize on a single monitor (duplicates always
+ * end up in the same shard).
  *
  * @author Bernd Wiswedel, KNIME AG, Zurich, Switzerland
  */
 class InternalDuplicateChecker {
 
-    private DuplicateChecker m_duplicateChecker = new DuplicateChecker();
+    /** Number of shards, a power of two. */
+    private static final int SHARD_COUNT = 16;
+
+    private final DuplicateChecker[] m_shards;
+
+    private volatile boolean m_isClosed;
+
+    InternalDuplicateChecker() {
+        m_shards = new DuplicateChecker[SHARD_COUNT];
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            // same total number of keys in memory as a single checker
+            m_shards[i] = new DuplicateChecker(DuplicateChecker.MAX_CHUNK_SIZE / SHARD_COUNT);
+        }
+    }
 
     void add(final String key) {
-        if (m_duplicateChecker == null) {
+        if (m_isClosed) {
             throw new IllegalStateException("No add permitted (open not called)");
         }
+        // spread the bits as in HashMap, DuplicateChecker#addKey locks the shard only
+        final int h = key.hashCode();
+        final DuplicateChecker shard = m_shards[(h ^ (h >>> 16)) & (SHARD_COUNT - 1)];
         try {
-            m_duplicateChecker.addKey(key);
+            shard.addKey(key);
         } catch (IOException e) {
             throw new IllegalStateException(e.getClass().getSimpleName()
                     + " while checking for duplicate names", e);
         }
     }
 
-    void close() {
-        if (m_duplicateChecker == null) {
+    synchronized void close() {
+        if (m_isClosed) {
             return;
         }
+        m_isClosed = true;
         try {
-            m_duplicateChecker.checkForDuplicates();
+            for (DuplicateChecker shard : m_shards) {
+                shard.checkForDuplicates();
+            }
         } catch (DuplicateKeyException e) {
             throw new IllegalArgumentException("Duplicate file store " + e.getMessage(), e);
         } catch (IOException e) {
             throw new IllegalStateException(e.getClass().getSimpleName()
                     + " while checking for duplicate names", e);
+        } finally {
+            for (DuplicateChecker shard : m_shards) {
+                shard.clear();
+            }
         }
-        m_duplicateChecker = null;
     }
 
 }
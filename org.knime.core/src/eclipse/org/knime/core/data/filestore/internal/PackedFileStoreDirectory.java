@@ -0,0 +1,328 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.filestore.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Copies file store directories into and out of the workflow folder, whereby small files are appended into a few
+ * large segment files (&lt;dir&gt;/.segments/segment_0.bin, ...) with an offset index (&lt;dir&gt;/.segments/index.bin)
+ * rather than being copied individually. Directories written by older versions (or with packing disabled) contain
+ * no index and are copied as is.
+ *
+ * <p>File store names must not start with a dot, hence the segment folder can't clash with file store content.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @noreference This class is not intended to be referenced by clients.
+ * @since 3.8
+ */
+public final class PackedFileStoreDirectory {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(PackedFileStoreDirectory.class);
+
+    /** Name of the folder containing the segment files and the index. */
+    static final String SEGMENT_FOLDER = ".segments";
+
+    private static final String INDEX_FILE = "index.bin";
+
+    private static final int INDEX_MAGIC = 0x4B465350; // "KFSP"
+
+    private static final int INDEX_VERSION = 1;
+
+    /** Segment files are rolled over once they exceed this size. */
+    private static final long MAX_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private static final long PACK_THRESHOLD = initPackThreshold();
+
+    private PackedFileStoreDirectory() {
+    }
+
+    /** @return the threshold as per {@link KNIMEConstants#PROPERTY_FILESTORE_PACK_THRESHOLD}, 0 if disabled. */
+    static long getPackThreshold() {
+        return PACK_THRESHOLD;
+    }
+
+    private static long initPackThreshold() {
+        long threshold = 0L;
+        final String prop = KNIMEConstants.PROPERTY_FILESTORE_PACK_THRESHOLD;
+        final String val = System.getProperty(prop);
+        if (val != null) {
+            try {
+                threshold = Long.parseLong(val.trim());
+                if (threshold < 0) {
+                    throw new IllegalArgumentException("threshold must not be negative");
+                }
+                LOGGER.debug("Packing file stores not larger than " + threshold + " bytes when saving");
+            } catch (final IllegalArgumentException e) {
+                LOGGER.warn("Unable to parse property " + prop + ", file store packing is disabled");
+                threshold = 0L;
+            }
+        }
+        return threshold;
+    }
+
+    /**
+     * Copies the source directory into the target directory, packing all files not larger than the threshold.
+     *
+     * @param sourceDir the file store base directory
+     * @param targetDir the directory to write to (created if needed)
+     * @param threshold maximum size of files to pack, in bytes
+     * @throws IOException if reading or writing fails
+     */
+    static void pack(final File sourceDir, final File targetDir, final long threshold) throws IOException {
+        if (!sourceDir.isDirectory()) {
+            throw new IOException("Source directory \"" + sourceDir + "\" does not exist.");
+        }
+        File segmentDir = new File(targetDir, SEGMENT_FOLDER);
+        if (!segmentDir.isDirectory() && !segmentDir.mkdirs()) {
+            throw new IOException("Unable to create directory \"" + segmentDir.getAbsolutePath() + "\"");
+        }
+        List<Entry> entries = new ArrayList<>();
+        try (SegmentWriter writer = new SegmentWriter(segmentDir)) {
+            packRecursively(sourceDir, targetDir, "", threshold, writer, entries);
+        }
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(new File(segmentDir, INDEX_FILE))))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(entries.size());
+            for (Entry e : entries) {
+                out.writeUTF(e.m_path);
+                out.writeInt(e.m_segment);
+                out.writeLong(e.m_offset);
+                out.writeLong(e.m_length);
+            }
+        }
+        LOGGER.debugWithFormat("Packed %d file(s) from \"%s\" into segment files", entries.size(), sourceDir);
+    }
+
+    private static void packRecursively(final File dir, final File targetDir, final String relPath,
+        final long threshold, final SegmentWriter writer, final List<Entry> entries) throws IOException {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            throw new IOException("Unable to list content of \"" + dir.getAbsolutePath() + "\"");
+        }
+        for (File child : children) {
+            String childPath = relPath.isEmpty() ? child.getName() : relPath + "/" + child.getName();
+            File target = new File(targetDir, childPath);
+            if (child.isDirectory()) {
+                if (!target.isDirectory() && !target.mkdirs()) {
+                    throw new IOException("Unable to create directory \"" + target.getAbsolutePath() + "\"");
+                }
+                packRecursively(child, targetDir, childPath, threshold, writer, entries);
+            } else if (child.length() <= threshold && !child.getName().startsWith(".")) {
+                entries.add(writer.append(child, childPath));
+            } else {
+                Files.copy(child.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Copies the source directory into the target directory and restores all packed files (if any). Packed files are
+     * extracted from the segment files in the source directory directly, the segment folder itself isn't copied.
+     *
+     * @param sourceDir the directory in the workflow folder
+     * @param targetDir the new file store base directory
+     * @throws IOException if reading or writing fails
+     */
+    static void unpack(final File sourceDir, final File targetDir) throws IOException {
+        if (!sourceDir.isDirectory()) {
+            throw new IOException("Source directory \"" + sourceDir + "\" does not exist.");
+        }
+        copyRecursively(sourceDir, targetDir, true);
+        File segmentDir = new File(sourceDir, SEGMENT_FOLDER);
+        File indexFile = new File(segmentDir, INDEX_FILE);
+        if (!indexFile.isFile()) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                throw new IOException("Invalid file store segment index \"" + indexFile.getAbsolutePath() + "\"");
+            }
+            int version = in.readInt();
+            if (version > INDEX_VERSION) {
+                throw new IOException("Unsupported file store segment index version " + version
+                    + " (written by a newer version?)");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                entries.add(new Entry(in.readUTF(), in.readInt(), in.readLong(), in.readLong()));
+            }
+        }
+        byte[] buffer = new byte[8192];
+        RandomAccessFile segment = null;
+        int openSegment = -1;
+        try {
+            for (Entry e : entries) {
+                if (e.m_segment != openSegment) {
+                    if (segment != null) {
+                        segment.close();
+                    }
+                    segment = new RandomAccessFile(new File(segmentDir, segmentName(e.m_segment)), "r");
+                    openSegment = e.m_segment;
+                }
+                segment.seek(e.m_offset);
+                File target = new File(targetDir, e.m_path);
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(target))) {
+                    long remaining = e.m_length;
+                    while (remaining > 0) {
+                        int read = segment.read(buffer, 0, (int)Math.min(buffer.length, remaining));
+                        if (read < 0) {
+                            throw new IOException("Premature end of segment file for \"" + e.m_path + "\"");
+                        }
+                        out.write(buffer, 0, read);
+                        remaining -= read;
+                    }
+                }
+            }
+        } finally {
+            if (segment != null) {
+                segment.close();
+            }
+        }
+        LOGGER.debugWithFormat("Unpacked %d file(s) from \"%s\"", entries.size(), sourceDir);
+    }
+
+    /** Copies the directory content, omitting the segment folder in the top level directory. */
+    private static void copyRecursively(final File dir, final File targetDir, final boolean isTopLevel)
+        throws IOException {
+        if (!targetDir.isDirectory() && !targetDir.mkdirs()) {
+            throw new IOException("Unable to create directory \"" + targetDir.getAbsolutePath() + "\"");
+        }
+        File[] children = dir.listFiles();
+        if (children == null) {
+            throw new IOException("Unable to list content of \"" + dir.getAbsolutePath() + "\"");
+        }
+        for (File child : children) {
+            File target = new File(targetDir, child.getName());
+            if (child.isDirectory()) {
+                if (!(isTopLevel && SEGMENT_FOLDER.equals(child.getName()))) {
+                    copyRecursively(child, target, false);
+                }
+            } else {
+                Files.copy(child.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private static String segmentName(final int index) {
+        return "segment_" + index + ".bin";
+    }
+
+    /** Index entry: relative path (always using '/') of a packed file and its location in the segments. */
+    private static final class Entry {
+        private final String m_path;
+        private final int m_segment;
+        private final long m_offset;
+        private final long m_length;
+
+        Entry(final String path, final int segment, final long offset, final long length) {
+            m_path = path;
+            m_segment = segment;
+            m_offset = offset;
+            m_length = length;
+        }
+    }
+
+    /** Appends files to the current segment file, rolling over to a new one when it grows too large. */
+    private static final class SegmentWriter implements AutoCloseable {
+
+        private final File m_segmentDir;
+        private final byte[] m_buffer = new byte[8192];
+        private OutputStream m_out;
+        private int m_segment = -1;
+        private long m_offset;
+
+        SegmentWriter(final File segmentDir) {
+            m_segmentDir = segmentDir;
+        }
+
+        Entry append(final File file, final String relPath) throws IOException {
+            if (m_out == null || m_offset >= MAX_SEGMENT_SIZE) {
+                close();
+                m_segment += 1;
+                m_offset = 0L;
+                m_out = new BufferedOutputStream(new FileOutputStream(new File(m_segmentDir,
+                    segmentName(m_segment))));
+            }
+            long start = m_offset;
+            try (InputStream in = new FileInputStream(file)) {
+                int read;
+                while ((read = in.read(m_buffer)) >= 0) {
+                    m_out.write(m_buffer, 0, read);
+                    m_offset += read;
+                }
+            }
+            return new Entry(relPath, m_segment, start, m_offset - start);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (m_out != null) {
+                m_out.close();
+                m_out = null;
+            }
+        }
+    }
+}
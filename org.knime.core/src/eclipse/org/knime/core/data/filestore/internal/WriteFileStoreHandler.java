@@ -50,6 +50,7 @@
 import java.io.File;
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.knime.core.data.IDataRepository;
 import org.knime.core.data.filestore.FileStore;
@@ -57,8 +58,10 @@
 import org.knime.core.data.filestore.FileStoreUtil;
 import org.knime.core.data.filestore.internal.FileStoreProxy.FlushCallback;
 import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.util.CheckUtils;
+import org.knime.core.node.workflow.NodeExecutionMetrics;
 import org.knime.core.node.workflow.WorkflowDataRepository;
 import org.knime.core.util.FileUtil;
 import org.knime.core.util.LRUCache;
@@ -82,14 +85,36 @@ public class WriteFileStoreHandler implements IWriteFileStoreHandler {
 
     private static final int MAX_NR_FILES = (int)Math.pow(FILES_PER_FOLDER, FOLDER_LEVEL + 1);
 
+    /** File organization of file stores in the hashed layout (see {@link KNIMEConstants#PROPERTY_FILESTORE_LAYOUT}).
+     * Each leaf folder contains at most {@value #HASHED_FILES_PER_FOLDER} files, the leaf folders are spread over
+     * {@value #HASHED_FOLDER_LEVEL} levels of (at most) {@value #HASHED_FILES_PER_FOLDER} sub folders each, e.g.
+     * &lt;filestore_dir&gt;/3a/c4/07/file1.bin. Consecutive leaf folders are scattered across the tree so that
+     * concurrent writers don't compete for the same directory.
+     * @since 3.8 */
+    public static final int HASHED_FILES_PER_FOLDER = 256;
+    /** See {@link #HASHED_FILES_PER_FOLDER}.
+     * @since 3.8 */
+    public static final int HASHED_FOLDER_LEVEL = 3;
+
+    /** Name of the (hidden) file in the base directory marking the hashed layout. */
+    private static final String HASHED_LAYOUT_MARKER = ".layout_hashed";
+
+    /** Odd multiplier used to scatter leaf folder indices (bijective on the lower 24 bits). */
+    private static final int HASHED_SCATTER_MULTIPLIER = 0x9E3779B1;
+
+    /** Layout used for new file store directories, see {@link KNIMEConstants#PROPERTY_FILESTORE_LAYOUT}. */
+    private static final boolean USE_HASHED_LAYOUT =
+        "hashed".equalsIgnoreCase(System.getProperty(KNIMEConstants.PROPERTY_FILESTORE_LAYOUT));
+
     private final String m_name;
     private final UUID m_storeUUID;
-    private File m_baseDirInWorkflowFolder;
-    private File m_baseDir;
-    private InternalDuplicateChecker m_duplicateChecker;
+    private volatile File m_baseDirInWorkflowFolder;
+    /** Base directory and its layout, published together as they are read without lock. */
+    private volatile BaseDirectory m_baseDir;
+    private volatile InternalDuplicateChecker m_duplicateChecker;
     private IDataRepository m_dataRepository;
     private LRUCache<FileStoreKey, FileStoreKey> m_createdFileStoreKeys;
-    private int m_nextIndex = 0;
+    private final AtomicInteger m_nextIndex = new AtomicInteger();
 
 
     /**
@@ -110,7 +135,7 @@ public void addToRepository(final IDataRepository dataRepository) {
     public void setBaseDir(final File baseDir) {
         CheckUtils.checkState(baseDir.isDirectory(), "Base directory of file store to node %s does not exist: %s",
             m_name, baseDir.getAbsolutePath());
-        m_baseDir = baseDir;
+        m_baseDir = new BaseDirectory(baseDir, new File(baseDir, HASHED_LAYOUT_MARKER).exists());
     }
 
     /** {@inheritDoc} */
@@ -126,13 +151,14 @@ public void clearAndDispose() {
             m_dataRepository.removeFileStoreHandler(this);
             m_dataRepository = null;
         }
-        if (m_baseDir != null) {
+        final File baseDir = getBaseDir();
+        if (baseDir != null) {
             StringBuilder b = new StringBuilder("Disposing file store \"");
             b.append(toString()).append("\"");
-            if (!m_baseDir.exists()) { // possibly deleted as workflow cleanup (job folder gone)
+            if (!baseDir.exists()) { // possibly deleted as workflow cleanup (job folder gone)
                 b.append(" - associated folder already deleted");
                 LOGGER.debug(b.toString());
-            } else if (FileUtil.deleteRecursively(m_baseDir)) {
+            } else if (FileUtil.deleteRecursively(baseDir)) {
                 b.append(" - folder successfully deleted");
                 LOGGER.debug(b.toString());
             } else {
@@ -144,7 +170,8 @@ public void clearAndDispose() {
 
     /** @return the baseDir */
     public File getBaseDir() {
-        return m_baseDir;
+        final BaseDirectory baseDir = m_baseDir;
+        return baseDir == null ? null : baseDir.m_dir;
     }
 
     /** @return the storeUUID */
@@ -172,18 +199,21 @@ public boolean mustBeFlushedPriorSave(final FileStore fs) {
         return getOwnerHandler(key) == null;
     }
 
-    private synchronized FileStoreKey copyFileStore(final FileStore fs, final FlushCallback flushCallback) {
+    private FileStoreKey copyFileStore(final FileStore fs, final FlushCallback flushCallback) {
         FileStoreKey key = FileStoreUtil.getFileStoreKey(fs);
-        if (m_createdFileStoreKeys == null) {
-            LOGGER.debug("Duplicating file store objects - file store handler id "
-                    + key.getStoreUUID() + " is unknown to " + m_dataRepository.getClass().getName());
-            LOGGER.debug("Dump of valid file store handlers follows, omitting further log output");
-            m_dataRepository.printValidFileStoreHandlersToLogDebug();
-            m_createdFileStoreKeys = new LRUCache<FileStoreKey, FileStoreKey>(10000);
-        }
-        FileStoreKey local = m_createdFileStoreKeys.get(key);
-        if (local != null) {
-            return local;
+        // the copy itself is done outside the lock; concurrent copies of the very same store are rare and harmless
+        synchronized (this) {
+            if (m_createdFileStoreKeys == null) {
+                LOGGER.debug("Duplicating file store objects - file store handler id "
+                        + key.getStoreUUID() + " is unknown to " + m_dataRepository.getClass().getName());
+                LOGGER.debug("Dump of valid file store handlers follows, omitting further log output");
+                m_dataRepository.printValidFileStoreHandlersToLogDebug();
+                m_createdFileStoreKeys = new LRUCache<FileStoreKey, FileStoreKey>(10000);
+            }
+            FileStoreKey local = m_createdFileStoreKeys.get(key);
+            if (local != null) {
+                return local;
+            }
         }
         FileStore newStore;
         try {
@@ -196,7 +226,9 @@ private synchronized FileStoreKey copyFileStore(final FileStore fs, final FlushC
             throw new RuntimeException("Failed copying file stores to local handler", e);
         }
         final FileStoreKey newKey = FileStoreUtil.getFileStoreKey(newStore);
-        m_createdFileStoreKeys.put(key, newKey);
+        synchronized (this) {
+            m_createdFileStoreKeys.put(key, newKey);
+        }
         return newKey;
     }
 
@@ -232,7 +264,7 @@ IFileStoreHandler getOwnerHandler(final FileStoreKey key) {
         return ownerHandler;
     }
 
-    private synchronized FileStore getFileStoreInternal(final FileStoreKey key)
+    private FileStore getFileStoreInternal(final FileStoreKey key)
         throws IOException {
         assert key.getStoreUUID().equals(getStoreUUID());
         CheckUtils.checkState(getBaseDir() != null || m_baseDirInWorkflowFolder != null,
@@ -246,17 +278,21 @@ private synchronized FileStore getFileStoreInternal(final FileStoreKey key)
     public String toString() {
         StringBuilder b = new StringBuilder(m_storeUUID.toString());
         b.append(" (").append(m_name).append(": ");
-        if (m_baseDir == null) {
+        final File baseDir = getBaseDir();
+        if (baseDir == null) {
             b.append("<no directory>");
         } else {
-            b.append(m_baseDir.getAbsolutePath());
+            b.append(baseDir.getAbsolutePath());
         }
         b.append(")");
         return b.toString();
     }
 
+    /** {@inheritDoc}
+     * <p>This method is thread-safe and does not block concurrent callers (other than for the very first file
+     * store, which initializes the directory). */
     @Override
-    public synchronized FileStore createFileStore(final String name) throws IOException {
+    public FileStore createFileStore(final String name) throws IOException {
         addToDuplicateChecker(name);
         return createFileStoreInternal(name, null, -1);
     }
@@ -265,13 +301,13 @@ public synchronized FileStore createFileStore(final String name) throws IOExcept
      * @param name
      * @throws IOException */
     void addToDuplicateChecker(final String name) throws IOException {
-        CheckUtils.checkState(m_duplicateChecker != null, "File store on node %s is read only/closed", m_name);
-        m_duplicateChecker.add(name);
+        final InternalDuplicateChecker duplicateChecker = m_duplicateChecker;
+        CheckUtils.checkState(duplicateChecker != null, "File store on node %s is read only/closed", m_name);
+        duplicateChecker.add(name);
     }
 
     FileStore createFileStoreInternal(final String name,
             final byte[] nestedLoopPath, final int iterationIndex) throws IOException {
-        assert Thread.holdsLock(this);
         CheckUtils.checkArgumentNotNull(name, "Argument must not be null.");
         if (name.startsWith(".")) {
             throw new IOException("Name must not start with a dot: \"" + name + "\"");
@@ -279,62 +315,116 @@ FileStore createFileStoreInternal(final String name,
         if (name.contains("/") || name.contains("\\")) {
             throw new IOException("Invalid file name, must not contain (back) slash: \"" + name + "\"");
         }
-        FileStoreKey key = new FileStoreKey(m_storeUUID, m_nextIndex, nestedLoopPath, iterationIndex, name);
-        ensureInitBaseDirectory();
-        if (m_nextIndex > MAX_NR_FILES) {
-            throw new IOException("Maximum number of files stores reached: " + MAX_NR_FILES);
+        final boolean isHashedLayout = ensureInitBaseDirectory().m_isHashedLayout;
+        final int index = m_nextIndex.getAndIncrement();
+        if (index < 0 || (!isHashedLayout && index > MAX_NR_FILES)) {
+            m_nextIndex.decrementAndGet();
+            throw new IOException("Maximum number of files stores reached: "
+                + (isHashedLayout ? Integer.MAX_VALUE : MAX_NR_FILES));
         }
-        getParentDir(m_nextIndex, true);
-        m_nextIndex++;
+        FileStoreKey key = new FileStoreKey(m_storeUUID, index, nestedLoopPath, iterationIndex, name);
+        getParentDir(index, true);
         FileStore fs = FileStoreUtil.createFileStore(this, key);
+        NodeExecutionMetrics.recordFileStoreCreated(fs.getFile());
         return fs;
     }
 
     /** @return the nextIndex */
     public int getNextIndex() {
-        return m_nextIndex;
+        return m_nextIndex.get();
     }
 
     public File getParentDir(final int indexArg, final boolean create) {
-        int index = indexArg / FILES_PER_FOLDER; // bottom most dir also contains many files
-        File parentDir = m_baseDir;
-        String[] subFolderNames = new String[FOLDER_LEVEL];
-        for (int level = 0; level < FOLDER_LEVEL; level++) {
-            int modulo = index % FILES_PER_FOLDER;
-            subFolderNames[FOLDER_LEVEL - level - 1] = String.format("%03d", modulo);
-            index = index / FILES_PER_FOLDER;
-        }
-        for (int level = 0; level < FOLDER_LEVEL; level++) {
-            parentDir = new File(parentDir, subFolderNames[level]);
+        final BaseDirectory baseDir = m_baseDir;
+        File parentDir = baseDir.m_dir;
+        if (baseDir.m_isHashedLayout) {
+            // bijective scatter of the leaf folder index, split into one byte per level
+            int leaf = (indexArg / HASHED_FILES_PER_FOLDER) * HASHED_SCATTER_MULTIPLIER;
+            for (int level = HASHED_FOLDER_LEVEL - 1; level >= 0; level--) {
+                parentDir = new File(parentDir, String.format("%02x", (leaf >>> (8 * level)) & 0xFF));
+            }
+        } else {
+            int index = indexArg / FILES_PER_FOLDER; // bottom most dir also contains many files
+            String[] subFolderNames = new String[FOLDER_LEVEL];
+            for (int level = 0; level < FOLDER_LEVEL; level++) {
+                int modulo = index % FILES_PER_FOLDER;
+                subFolderNames[FOLDER_LEVEL - level - 1] = String.format("%03d", modulo);
+                index = index / FILES_PER_FOLDER;
+            }
+            for (int level = 0; level < FOLDER_LEVEL; level++) {
+                parentDir = new File(parentDir, subFolderNames[level]);
+            }
         }
         if (create && !parentDir.isDirectory()) {
-            if (!parentDir.mkdirs()) {
+            // another thread may create the same folder concurrently
+            if (!parentDir.mkdirs() && !parentDir.isDirectory()) {
                 LOGGER.error("Failed to create directory \"" + parentDir.getAbsolutePath() + "\"");
             }
         }
         return parentDir;
     }
 
+    /** @return whether this handler organizes its files in the hashed layout, see {@link #HASHED_FILES_PER_FOLDER}.
+     * @since 3.8 */
+    public boolean isHashedLayout() {
+        final BaseDirectory baseDir = m_baseDir;
+        return baseDir == null ? USE_HASHED_LAYOUT : baseDir.m_isHashedLayout;
+    }
+
+    /**
+     * Copies the content of the base directory into the argument directory (usually the node's folder in the
+     * workflow). File stores not larger than the threshold defined by
+     * {@link KNIMEConstants#PROPERTY_FILESTORE_PACK_THRESHOLD} are appended to segment files rather than copied
+     * individually; they are restored transparently on load.
+     *
+     * @param targetDir the directory to copy to
+     * @throws IOException if copying fails
+     * @since 3.8
+     */
+    public void copyBaseDirTo(final File targetDir) throws IOException {
+        final File baseDir = getBaseDir();
+        CheckUtils.checkState(baseDir != null, "No file stores in \"%s\"", toString());
+        long packThreshold = PackedFileStoreDirectory.getPackThreshold();
+        if (packThreshold > 0) {
+            PackedFileStoreDirectory.pack(baseDir, targetDir, packThreshold);
+        } else {
+            FileUtil.copyDir(baseDir, targetDir);
+        }
+    }
 
-    private void ensureInitBaseDirectory() throws IOException {
-        assert Thread.holdsLock(this);
-        if (m_baseDir == null) {
-            StringBuilder baseDirName = new StringBuilder("fs-");
-            String nodeName = m_name;
-            // delete special chars
-            nodeName = nodeName.replaceAll("[()-]", "");
-            nodeName = nodeName.replaceAll(":", "-");
-            // non-word chars by '_'
-            nodeName = nodeName.replaceAll("[^\\w-]", "_");
-            // make the name shorter -- see AP-10260 (long path issue on Windows)
-            // this will cut "Create FileStore Column 0-6-4" to "Creat0-6-4" ("0-6-4" is the node id)
-            nodeName = nodeName.replaceAll("^(.{5}).*?(\\d+(?:-\\d+)+)", "$1_$2");
-            baseDirName.append(nodeName).append("-");
-            m_baseDir = FileUtil.createTempDir(baseDirName.toString());
-            LOGGER.debug("Assigning temp directory to file store \"" + toString() + "\"");
+    private BaseDirectory ensureInitBaseDirectory() throws IOException {
+        BaseDirectory baseDir = m_baseDir;
+        if (baseDir != null) {
+            return baseDir;
+        }
+        synchronized (this) {
+            if (m_baseDir == null) {
+                final File dir = createBaseDirectory();
+                if (USE_HASHED_LAYOUT && !new File(dir, HASHED_LAYOUT_MARKER).createNewFile()) {
+                    throw new IOException("Unable to create layout marker in \"" + dir.getAbsolutePath() + "\"");
+                }
+                m_baseDir = new BaseDirectory(dir, USE_HASHED_LAYOUT);
+                LOGGER.debug("Assigning temp directory to file store \"" + toString() + "\"");
+            }
+            return m_baseDir;
         }
     }
 
+    private File createBaseDirectory() throws IOException {
+        StringBuilder baseDirName = new StringBuilder("fs-");
+        String nodeName = m_name;
+        // delete special chars
+        nodeName = nodeName.replaceAll("[()-]", "");
+        nodeName = nodeName.replaceAll(":", "-");
+        // non-word chars by '_'
+        nodeName = nodeName.replaceAll("[^\\w-]", "_");
+        // make the name shorter -- see AP-10260 (long path issue on Windows)
+        // this will cut "Create FileStore Column 0-6-4" to "Creat0-6-4" ("0-6-4" is the node id)
+        nodeName = nodeName.replaceAll("^(.{5}).*?(\\d+(?:-\\d+)+)", "$1_$2");
+        baseDirName.append(nodeName).append("-");
+        return FileUtil.createTempDir(baseDirName.toString());
+    }
+
     /** {@inheritDoc} */
     @Override
     public void open(final ExecutionContext exec) {
@@ -359,15 +449,21 @@ public void close() {
 
     /** {@inheritDoc} */
     @Override
-    public synchronized void ensureOpenAfterLoad() throws IOException {
-        if (m_baseDirInWorkflowFolder != null) {
-            assert m_baseDir == null;
-            ensureInitBaseDirectory();
-            LOGGER.debugWithFormat("Restoring file store directory \"%s\" from \"%s\"",
-                toString(), m_baseDirInWorkflowFolder);
-            File source = m_baseDirInWorkflowFolder;
-            m_baseDirInWorkflowFolder = null;
-            FileUtil.copyDir(source, m_baseDir);
+    public void ensureOpenAfterLoad() throws IOException {
+        if (m_baseDirInWorkflowFolder == null) {
+            return;
+        }
+        synchronized (this) {
+            if (m_baseDirInWorkflowFolder != null) {
+                assert m_baseDir == null;
+                final File source = m_baseDirInWorkflowFolder;
+                final File dir = createBaseDirectory();
+                LOGGER.debugWithFormat("Restoring file store directory \"%s\" from \"%s\"", dir, source);
+                PackedFileStoreDirectory.unpack(source, dir);
+                // only publish the directory once it's complete
+                m_baseDir = new BaseDirectory(dir, new File(dir, HASHED_LAYOUT_MARKER).exists());
+                m_baseDirInWorkflowFolder = null;
+            }
         }
     }
 
@@ -382,4 +478,15 @@ public static final IFileStoreHandler restore(final String name,
         return fileStoreHandler;
     }
 
+    /** Immutable pair of base directory and its layout. */
+    private static final class BaseDirectory {
+        private final File m_dir;
+        private final boolean m_isHashedLayout;
+
+        BaseDirectory(final File dir, final boolean isHashedLayout) {
+            m_dir = dir;
+            m_isHashedLayout = isHashedLayout;
+        }
+    }
+
 }
@@ -76,6 +76,22 @@ public interface ImageContent {
     public void paint(final Graphics2D g, final int maxWidth,
             final int maxHeight);
 
+    /** Render image into argument graphics object, like {@link #paint(Graphics2D, int, int)}. Implementations may
+     * decode the image in the background if it is not readily available, in which case they paint a placeholder
+     * and run the callback in the AWT event dispatch thread once the image can be painted. The default
+     * implementation paints synchronously.
+     *
+     * @param g To paint to.
+     * @param maxWidth image maximum width
+     * @param maxHeight image maximum height
+     * @param repaintCallback to run once the image is available after a placeholder was painted, not null
+     * @since 3.8
+     */
+    public default void paint(final Graphics2D g, final int maxWidth,
+            final int maxHeight, final Runnable repaintCallback) {
+        paint(g, maxWidth, maxHeight);
+    }
+
     /** Preferred dimension, width and height, for the given image to be
      * rendered.
      * @return preferred dimension
@@ -45,10 +45,14 @@
  */
 package org.knime.core.data.image;
 
+import java.awt.Component;
+import java.awt.Container;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 
+import javax.swing.CellRendererPane;
+
 import org.knime.core.data.renderer.AbstractPainterDataValueRenderer;
 
 /** Renderer for image content.
@@ -89,8 +93,24 @@ protected void paintComponent(final Graphics g) {
         super.paintComponent(g);
         if (m_content != null) {
             Graphics2D g2d = (Graphics2D)g;
-            m_content.paint(g2d, getWidth(), getHeight());
+            final Component owner = getRepaintTarget();
+            if (owner != null) {
+                m_content.paint(g2d, getWidth(), getHeight(), () -> owner.repaint());
+            } else {
+                m_content.paint(g2d, getWidth(), getHeight());
+            }
+        }
+    }
+
+    /** The component to repaint once an image is decoded in the background: the table (or list) this renderer is
+     * used in rather than the renderer itself, which is only a stamp.
+     * @return the component or null if this renderer is not shown */
+    private Component getRepaintTarget() {
+        Container parent = getParent();
+        if (parent instanceof CellRendererPane) {
+            return parent.getParent();
         }
+        return parent;
     }
 
     /** {@inheritDoc} */
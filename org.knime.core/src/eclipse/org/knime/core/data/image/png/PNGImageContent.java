@@ -49,6 +49,7 @@
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Rectangle;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -57,14 +58,21 @@
 import java.io.OutputStream;
 import java.lang.ref.SoftReference;
 import java.util.Arrays;
+import java.util.Iterator;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataCellDataInput;
 import org.knime.core.data.DataCellDataOutput;
 import org.knime.core.data.DataType;
 import org.knime.core.data.image.ImageContent;
+import org.knime.core.data.image.png.PNGThumbnailCache.Key;
+import org.knime.core.data.image.png.PNGThumbnailCache.Thumbnail;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
 import org.knime.core.node.util.ConvenienceMethods;
 import org.knime.core.node.util.ImageViewPanel;
 import org.knime.core.node.util.ImageViewPanel.ScaleType;
@@ -74,6 +82,13 @@
  * Content of a PNG image. It only wraps a byte[] which is supposed to be
  * PNG content. The rendering methods will delegate all work to
  * {@link BufferedImage}.
+ *
+ * <p>The image is only decoded when needed; rendering uses images scaled to
+ * the target size, which are kept in a cache shared by all instances (and
+ * decoded in the background if possible, see
+ * {@link #paint(Graphics2D, int, int, Runnable)}). Optionally, a thumbnail is
+ * stored along with the image, see
+ * {@link KNIMEConstants#PROPERTY_PNG_THUMBNAIL_SIZE}.
  * @author Thomas Gabriel, KNIME AG, Zurich, Switzerland
  */
 public class PNGImageContent implements ImageContent {
@@ -81,10 +96,28 @@ public class PNGImageContent implements ImageContent {
     /** Type for PNG cells. */
     public static final DataType TYPE = DataType.getType(PNGImageCell.class);
 
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(PNGImageContent.class);
+
+    /** Written instead of the image length if a thumbnail precedes the
+     * image bytes (image lengths are never negative). */
+    private static final int THUMBNAIL_MARKER = -1;
+
+    /** Size of the larger side of stored thumbnails, 0 if disabled. */
+    private static final int STORED_THUMBNAIL_SIZE = initStoredThumbnailSize();
+
     /** PNG image content as byte array. */
     private byte[] m_imageBytes;
 
-    private SoftReference<Image> m_imageRef;
+    /** Precomputed, downscaled image (PNG encoded), null if none. */
+    private byte[] m_thumbnailBytes;
+
+    private SoftReference<Image> m_imageRef = new SoftReference<Image>(null);
+
+    /** Image dimension, read from the image header on first access. */
+    private Dimension m_size;
+
+    /** Hash of the image bytes, 0 if not yet computed. */
+    private int m_hashCode;
 
     /** Framework constructor for restoring content. <b>Do not use!</b> */
     public PNGImageContent() {
@@ -95,14 +128,21 @@ public PNGImageContent() {
      * @param imageBytes The image bytes.
      * @throws NullPointerException If the argument is null.
      * @throws IllegalArgumentException If the argument does not represent a
-     * valid png byte stream (according to {@link ImageIO#read(InputStream)}.
+     * valid png byte stream (according to the image header, the image data is
+     * only read when needed).
      */
     public PNGImageContent(final byte[] imageBytes) {
         if (imageBytes == null) {
             throw new NullPointerException("Argument must not be null.");
         }
         m_imageBytes = imageBytes;
-        m_imageRef = new SoftReference<Image>(getImageInternal(imageBytes));
+        m_size = readSize(imageBytes);
+    }
+
+    /** Creates content from previously validated bytes, see {@link #deserialize(DataCellDataInput)}. */
+    private PNGImageContent(final byte[] imageBytes, final byte[] thumbnailBytes) {
+        m_imageBytes = imageBytes;
+        m_thumbnailBytes = thumbnailBytes;
     }
 
     /** Reads image content from a stream. The reader will read content
@@ -112,7 +152,7 @@ public PNGImageContent(final byte[] imageBytes) {
      * @throws IOException If reading from the stream fails.
      * @throws NullPointerException If the argument is null;
      * @throws IllegalArgumentException If the argument does not represent a
-     * valid png byte stream (according to {@link ImageIO#read(InputStream)}.
+     * valid png byte stream (according to the image header).
      */
     public PNGImageContent(final InputStream is) throws IOException {
         this(toByteArray(is));
@@ -127,6 +167,25 @@ private static final byte[] toByteArray(final InputStream in)
         return out.toByteArray();
     }
 
+    private static int initStoredThumbnailSize() {
+        final String prop = KNIMEConstants.PROPERTY_PNG_THUMBNAIL_SIZE;
+        final String val = System.getProperty(prop);
+        if (val == null) {
+            return 0;
+        }
+        try {
+            int size = Integer.parseInt(val.trim());
+            if (size < 0) {
+                throw new NumberFormatException("size must not be negative");
+            }
+            LOGGER.debug("Storing thumbnails of at most " + size + " pixels with PNG images");
+            return size;
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Unable to parse property " + prop + ", no thumbnails are stored with PNG images");
+            return 0;
+        }
+    }
+
     /** Get a reference to the underlying byte array. The caller must not
      * modify the returned array but should use the {@link #getByteArray()}
      * if necessary.
@@ -167,7 +226,7 @@ public Image getImage() {
     /** Read image from byte[] array.
      * @return A new image
      */
-    private static Image getImageInternal(final byte[] array) {
+    private static BufferedImage getImageInternal(final byte[] array) {
         try {
             BufferedImage bufImage =
                 ImageIO.read(new ByteArrayInputStream(array));
@@ -182,28 +241,135 @@ private static Image getImageInternal(final byte[] array) {
         }
     }
 
+    /** Read the image dimension from the header, without decoding the image.
+     * @return The dimension
+     * @throws IllegalArgumentException If the header can't be read
+     */
+    private static Dimension readSize(final byte[] array) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(array))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("No image reader found for image bytes");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Image can't be read", e);
+        }
+    }
+
+    /** @return the image dimension or null if the image can't be read. */
+    private Dimension getSize() {
+        if (m_size == null) {
+            try {
+                m_size = readSize(m_imageBytes);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return m_size;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void paint(final Graphics2D g, final int width, final int height) {
-        BufferedImage image = null;
-        String error = null;
-        try {
-            image = ImageIO.read(new ByteArrayInputStream(m_imageBytes));
-            if (image == null) {
-                error = "ImageIO returned null";
+        paint(g, width, height, null);
+    }
+
+    /** {@inheritDoc}
+     * <p>Images scaled to the target size are taken from a cache shared by
+     * all PNG images. If the scaled image is not in the cache and a callback
+     * is given, it is created in a background thread and nothing is painted
+     * in the meantime. */
+    @Override
+    public void paint(final Graphics2D g, final int width, final int height,
+        final Runnable repaintCallback) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        Dimension size = getSize();
+        if (size == null) {
+            g.drawString("Image can't be read", 0, 0);
+            return;
+        }
+        // same scaling as ImageViewPanel#drawInto with ShrinkAsNeeded
+        double scale = Math.max(1.0,
+            Math.max(size.width / (double)width, size.height / (double)height));
+        int targetWidth = Math.max(1, (int)(size.width / scale));
+        int targetHeight = Math.max(1, (int)(size.height / scale));
+        Key key = new Key(m_imageBytes, hashCode(), targetWidth, targetHeight);
+        Thumbnail thumbnail = PNGThumbnailCache.get(key);
+        if (thumbnail == null) {
+            if (repaintCallback != null) {
+                PNGThumbnailCache.computeAsync(this, key, repaintCallback);
+                return;
             }
-        } catch (IOException e) {
-            error = e.getMessage();
+            thumbnail = PNGThumbnailCache.compute(this, key);
         }
-        if (error != null) {
-            g.drawString(error, 0, 0);
+        if (thumbnail.getError() != null) {
+            g.drawString(thumbnail.getError(), 0, 0);
         } else {
-            ImageViewPanel.drawInto(g, image, image.getWidth(), image.getHeight(),
+            ImageViewPanel.drawInto(g, thumbnail.getImage(), targetWidth, targetHeight,
                 new Rectangle(width, height), ScaleType.ShrinkAsNeeded);
-//            g.drawImage(image, 0, 0, width, height, null);
         }
     }
 
+    /** Creates the image scaled to the given size, using the stored
+     * thumbnail if it is large enough.
+     * @param width target width
+     * @param height target height
+     * @return the scaled image (or the error if it can't be read)
+     */
+    Thumbnail createThumbnail(final int width, final int height) {
+        try {
+            BufferedImage source = null;
+            if (m_thumbnailBytes != null) {
+                Dimension thumbnailSize = readSize(m_thumbnailBytes);
+                if (thumbnailSize.width >= width && thumbnailSize.height >= height) {
+                    source = getImageInternal(m_thumbnailBytes);
+                }
+            }
+            if (source == null) {
+                Image image = m_imageRef.get();
+                // don't keep the full image (via getImage()) if it's only used for scaling
+                source = image instanceof BufferedImage ? (BufferedImage)image : getImageInternal(m_imageBytes);
+            }
+            return new Thumbnail(scale(source, width, height), null);
+        } catch (IllegalArgumentException e) {
+            String error = e.getMessage();
+            return new Thumbnail(null, error != null ? error : "Image can't be read");
+        }
+    }
+
+    /** Scales the image down in steps of at most a factor of 2, which
+     * results in much better quality than a single bilinear step. */
+    private static BufferedImage scale(final BufferedImage image, final int width, final int height) {
+        BufferedImage result = image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        while (w != width || h != height) {
+            w = w > width ? Math.max(width, w / 2) : width;
+            h = h > height ? Math.max(height, h / 2) : height;
+            BufferedImage scaled = new BufferedImage(w, h, type);
+            Graphics2D g = scaled.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(result, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            result = scaled;
+        }
+        return result;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void save(final OutputStream output) throws IOException {
@@ -218,9 +384,15 @@ public void save(final OutputStream output) throws IOException {
     static PNGImageContent deserialize(final DataCellDataInput input)
         throws IOException {
         int length = input.readInt();
+        byte[] thumbnailBytes = null;
+        if (length == THUMBNAIL_MARKER) {
+            thumbnailBytes = new byte[input.readInt()];
+            input.readFully(thumbnailBytes);
+            length = input.readInt();
+        }
         byte[] bytes = new byte[length];
         input.readFully(bytes);
-        return new PNGImageContent(bytes);
+        return new PNGImageContent(bytes, thumbnailBytes);
     }
 
     /** Serialize method for image content.
@@ -228,10 +400,40 @@ static PNGImageContent deserialize(final DataCellDataInput input)
      * @throws IOException If that fails for any reason.
      */
     public void serialize(final DataCellDataOutput output) throws IOException {
+        byte[] thumbnailBytes = getThumbnailBytes();
+        if (thumbnailBytes != null) {
+            output.writeInt(THUMBNAIL_MARKER);
+            output.writeInt(thumbnailBytes.length);
+            output.write(thumbnailBytes);
+        }
         output.writeInt(m_imageBytes.length);
         output.write(m_imageBytes);
     }
 
+    /** @return the thumbnail to store with the image, created if enabled
+     * (see {@link KNIMEConstants#PROPERTY_PNG_THUMBNAIL_SIZE}) and the image
+     * is larger than the thumbnail size; null if none. */
+    private byte[] getThumbnailBytes() {
+        if (m_thumbnailBytes != null || STORED_THUMBNAIL_SIZE <= 0) {
+            return m_thumbnailBytes;
+        }
+        Dimension size = getSize();
+        if (size == null || Math.max(size.width, size.height) <= STORED_THUMBNAIL_SIZE) {
+            return null;
+        }
+        double scale = Math.max(size.width, size.height) / (double)STORED_THUMBNAIL_SIZE;
+        try {
+            BufferedImage thumbnail = scale(getImageInternal(m_imageBytes),
+                Math.max(1, (int)(size.width / scale)), Math.max(1, (int)(size.height / scale)));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(thumbnail, "png", out);
+            m_thumbnailBytes = out.toByteArray();
+        } catch (IllegalArgumentException | IOException e) {
+            LOGGER.debug("Unable to create thumbnail for PNG image: " + e.getMessage(), e);
+        }
+        return m_thumbnailBytes;
+    }
+
     /** Minimum size for blobs in bytes. That is, if a given byte[] is at least
      * as large as this value, it will be represented by a blob cell */
     private static final long BLOB_SIZE_THRESHOLD =
@@ -251,13 +453,11 @@ public DataCell toImageCell() {
     /** {@inheritDoc} */
     @Override
     public Dimension getPreferredSize() {
-        Image image;
-        try {
-            image = getImage();
-        } catch (IllegalStateException ise) {
+        Dimension size = getSize();
+        if (size == null) {
             return new Dimension(16, 16);
         }
-        return new Dimension(image.getWidth(null), image.getHeight(null));
+        return new Dimension(size);
     }
 
     /** {@inheritDoc} */
@@ -278,6 +478,11 @@ public String getSummary() {
      */
     @Override
     public int hashCode() {
-        return Arrays.hashCode(m_imageBytes);
+        int hash = m_hashCode;
+        if (hash == 0) {
+            hash = Arrays.hashCode(m_imageBytes);
+            m_hashCode = hash;
+        }
+        return hash;
     }
 }
@@ -0,0 +1,321 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.image.png;
+
+import java.awt.image.BufferedImage;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Cache of images scaled to the size they are rendered in, shared by all {@link PNGImageContent} objects. The cache
+ * is bounded by the total number of pixels of the cached images; least recently used images are evicted first.
+ * Images can be decoded on background threads so that rendering (e.g. in a table view) isn't blocked by decoding.
+ * The number of queued decoding tasks is bounded, when exceeded the oldest tasks are dropped as their images are most
+ * likely not visible any more.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class PNGThumbnailCache {
+
+    /** Maximum number of pixels of all cached images (4 bytes each), at least 1M pixels. */
+    private static final long MAX_TOTAL_PIXELS =
+        Math.max(1L << 20, Runtime.getRuntime().maxMemory() / 32 / 4);
+
+    /** Maximum number of decoding tasks waiting for a thread. */
+    static final int MAX_QUEUED_TASKS = 128;
+
+    private static final Map<Key, Thumbnail> CACHE = new LinkedHashMap<>(64, 0.75f, true);
+
+    /** Keys currently decoded in the background, with the callbacks to run when done. */
+    private static final Map<Key, List<Runnable>> PENDING = new HashMap<>();
+
+    private static final ThreadPoolExecutor DECODER = createDecoder();
+
+    private static long totalPixels;
+
+    private PNGThumbnailCache() {
+    }
+
+    private static ThreadPoolExecutor createDecoder() {
+        final int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        final AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "KNIME-PNG-Decoder-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        };
+        ThreadPoolExecutor executor =
+            new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LifoQueue(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @param key the key
+     * @return the cached image or <code>null</code> if not in the cache
+     */
+    static synchronized Thumbnail get(final Key key) {
+        return CACHE.get(key);
+    }
+
+    /**
+     * Creates the scaled image in the calling thread and adds it to the cache.
+     *
+     * @param content the content to scale
+     * @param key the key, denoting the target size
+     * @return the new image
+     */
+    static Thumbnail compute(final PNGImageContent content, final Key key) {
+        Thumbnail thumbnail = content.createThumbnail(key.m_width, key.m_height);
+        synchronized (PNGThumbnailCache.class) {
+            put(key, thumbnail);
+        }
+        return thumbnail;
+    }
+
+    /**
+     * Creates the scaled image in a background thread, adds it to the cache and then runs the callback in the AWT
+     * event dispatch thread. Only one task per key is scheduled; callbacks of concurrent requests are all run.
+     *
+     * @param content the content to scale
+     * @param key the key, denoting the target size
+     * @param callback to run when done
+     */
+    static synchronized void computeAsync(final PNGImageContent content, final Key key, final Runnable callback) {
+        List<Runnable> callbacks = PENDING.get(key);
+        if (callbacks != null) {
+            callbacks.add(callback);
+            return;
+        }
+        callbacks = new ArrayList<>(2);
+        callbacks.add(callback);
+        PENDING.put(key, callbacks);
+        LifoQueue queue = (LifoQueue)DECODER.getQueue();
+        while (queue.size() >= MAX_QUEUED_TASKS) {
+            // drop the oldest task (and the reference to its content), its callbacks are not run
+            DecodeTask dropped = (DecodeTask)queue.pollLast();
+            if (dropped == null) {
+                break;
+            }
+            PENDING.remove(dropped.m_key);
+        }
+        DECODER.execute(new DecodeTask(content, key));
+    }
+
+    /** Decodes and scales an image in the background, then runs the callbacks registered for its key. */
+    private static final class DecodeTask implements Runnable {
+
+        private final PNGImageContent m_content;
+
+        private final Key m_key;
+
+        DecodeTask(final PNGImageContent content, final Key key) {
+            m_content = content;
+            m_key = key;
+        }
+
+        @Override
+        public void run() {
+            Thumbnail thumbnail = null;
+            try {
+                try {
+                    thumbnail = m_content.createThumbnail(m_key.m_width, m_key.m_height);
+                } catch (RuntimeException e) {
+                    String error = e.getMessage();
+                    thumbnail = new Thumbnail(null, error != null ? error : "Image can't be read");
+                }
+            } finally {
+                // also clean up on errors, otherwise the key is never decoded again
+                List<Runnable> toRun;
+                synchronized (PNGThumbnailCache.class) {
+                    if (thumbnail != null) {
+                        put(m_key, thumbnail);
+                    }
+                    toRun = PENDING.remove(m_key);
+                }
+                if (thumbnail != null && toRun != null) {
+                    toRun.forEach(SwingUtilities::invokeLater);
+                }
+            }
+        }
+    }
+
+    /** Adds the image and evicts least recently used images if the cache is full. Caller must hold the lock. */
+    private static void put(final Key key, final Thumbnail thumbnail) {
+        Thumbnail old = CACHE.put(key, thumbnail);
+        if (old != null) {
+            totalPixels -= old.getPixelCount();
+        }
+        totalPixels += thumbnail.getPixelCount();
+        for (Iterator<Thumbnail> it = CACHE.values().iterator(); totalPixels > MAX_TOTAL_PIXELS && it.hasNext();) {
+            Thumbnail t = it.next();
+            if (t != thumbnail) {
+                totalPixels -= t.getPixelCount();
+                it.remove();
+            }
+        }
+    }
+
+    /** Removes all entries, used in tests. */
+    static synchronized void clear() {
+        CACHE.clear();
+        totalPixels = 0L;
+    }
+
+    /** @return number of cached images, used in tests */
+    static synchronized int size() {
+        return CACHE.size();
+    }
+
+    /** @return number of images currently decoded or waiting to be decoded, used in tests */
+    static synchronized int pendingCount() {
+        return PENDING.size();
+    }
+
+    /**
+     * Key of a cached image: the image content and the size it is scaled to. Equal content (e.g. from cells read
+     * twice from disk) maps to the same entry. The content is only weakly referenced so that the cache doesn't keep
+     * the (possibly large) bytes of an image alive; entries of collected content are evicted over time.
+     */
+    static final class Key {
+
+        private final WeakReference<byte[]> m_bytesRef;
+
+        private final int m_contentHash;
+
+        private final int m_width;
+
+        private final int m_height;
+
+        /**
+         * @param bytes the image bytes
+         * @param contentHash hash of the bytes (as per {@link Arrays#hashCode(byte[])})
+         * @param width target width
+         * @param height target height
+         */
+        Key(final byte[] bytes, final int contentHash, final int width, final int height) {
+            m_bytesRef = new WeakReference<>(bytes);
+            m_contentHash = contentHash;
+            m_width = width;
+            m_height = height;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * m_contentHash + m_width) + m_height;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key)obj;
+            if (other.m_contentHash != m_contentHash || other.m_width != m_width || other.m_height != m_height) {
+                return false;
+            }
+            byte[] bytes = m_bytesRef.get();
+            byte[] otherBytes = other.m_bytesRef.get();
+            return bytes != null && otherBytes != null && (bytes == otherBytes || Arrays.equals(bytes, otherBytes));
+        }
+    }
+
+    /** A scaled image or the error message if the image can't be read. */
+    static final class Thumbnail {
+
+        private final BufferedImage m_image;
+
+        private final String m_error;
+
+        /**
+         * @param image the scaled image or <code>null</code> if it can't be read
+         * @param error the error message if the image can't be read
+         */
+        Thumbnail(final BufferedImage image, final String error) {
+            m_image = image;
+            m_error = error;
+        }
+
+        /** @return the image or <code>null</code> if it can't be read */
+        BufferedImage getImage() {
+            return m_image;
+        }
+
+        /** @return the error message if the image can't be read */
+        String getError() {
+            return m_error;
+        }
+
+        private long getPixelCount() {
+            return m_image == null ? 1L : (long)m_image.getWidth() * m_image.getHeight();
+        }
+    }
+
+    /** Queue handing out the most recently scheduled image first, which is most likely still visible. */
+    @SuppressWarnings("serial")
+    private static final class LifoQueue extends LinkedBlockingDeque<Runnable> {
+        @Override
+        public boolean offer(final Runnable r) {
+            return offerFirst(r);
+        }
+    }
+}
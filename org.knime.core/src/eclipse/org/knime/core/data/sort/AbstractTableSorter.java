@@ -79,6 +79,7 @@
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.NodeLogger;
+import org.knime.core.node.workflow.NodeExecutionMetrics;
 
 /**
  * Class to sort a table. See <a href="package.html">package description</a> for details.
@@ -629,6 +630,7 @@ private long createInitialChunks(final ExecutionMonitor exec, final DataTable da
                 }
                 buffer.clear();
                 closeChunk();
+                NodeExecutionMetrics.recordSpill();
 
                 LOGGER.debug("Wrote chunk [" + chunkStartRow + ":" + counter + "] - mem usage: " + getMemUsage());
                 chunkStartRow = counter + 1;
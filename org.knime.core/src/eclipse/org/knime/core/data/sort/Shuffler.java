@@ -49,6 +49,7 @@
 package org.knime.core.data.sort;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -57,12 +58,17 @@
 import org.knime.core.data.DataColumnSpecCreator;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.container.CloseableRowIterator;
 import org.knime.core.data.container.ColumnRearranger;
 import org.knime.core.data.container.SingleCellFactory;
 import org.knime.core.data.def.IntCell;
+import org.knime.core.data.util.memory.MemoryAlertSystem;
+import org.knime.core.data.util.memory.MemoryAlertSystem.MemoryActionIndicator;
+import org.knime.core.node.BufferedDataContainer;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.util.CheckUtils;
 
 /**
@@ -71,11 +77,20 @@
  * requires only linear runtime. For further details see "Fisher-Yates shuffle",
  * from Dictionary of Algorithms and Data Structures, Paul E. Black, ed., NIST.
  *
+ * <p>As of 3.8 tables can also be shuffled without sorting them, see
+ * {@link #shuffleInBlocks(BufferedDataTable, ExecutionContext, long)}, and
+ * random samples of a fixed size can be drawn in a single pass, see
+ * {@link #sample(BufferedDataTable, long, ExecutionContext, long)}.
+ *
  * @author Adrian Nembach, KNIME GmbH, Konstanz, Germany
  * @since 3.6
  */
 public final class Shuffler {
 
+    /** Maximum number of rows shuffled in memory by
+     * {@link #shuffleInBlocks(BufferedDataTable, ExecutionContext, long)}, larger tables are split into blocks. */
+    static final int DEF_BLOCK_SIZE = 100000;
+
     private Shuffler() {
         // static utility class
     }
@@ -89,6 +104,7 @@ private Shuffler() {
      * @param seed random seed for permutation generation
      * @return the shuffled table
      * @throws CanceledExecutionException
+     * @see #shuffleInBlocks(BufferedDataTable, ExecutionContext, long)
      *
      * @since 3.6
      */
@@ -116,6 +132,268 @@ public static BufferedDataTable shuffle(final BufferedDataTable table, final Exe
     }
 
 
+    /**
+     * Shuffles the <b>table</b> without sorting it. Each row is assigned to one of (at most
+     * {@link AbstractTableSorter#DEF_MAX_OPENCONTAINER}) blocks chosen uniformly at random; each block is then
+     * shuffled in memory (or, if it has more than 100,000 rows, recursively in the same way) and the blocks are
+     * concatenated. If memory runs low while a block is read (as indicated by the {@link MemoryAlertSystem}), its
+     * rows are sorted by their position in the block's permutation instead of being held in memory. As with
+     * {@link #shuffle(BufferedDataTable, ExecutionContext, long)} all possible permutations are equally likely and
+     * the result only depends on the table and the <b>seed</b> (also if memory runs low), though the two methods
+     * produce different permutations for the same seed. The table is written twice for tables with more than 100,000
+     * rows (once into the blocks, once into the result) and once for smaller tables.
+     *
+     * @param table the table to shuffle
+     * @param exec execution context use for creating tables and reporting progress
+     * @param seed random seed for permutation generation
+     * @return the shuffled table
+     * @throws CanceledExecutionException if canceled
+     * @since 3.8
+     */
+    public static BufferedDataTable shuffleInBlocks(final BufferedDataTable table, final ExecutionContext exec,
+        final long seed) throws CanceledExecutionException {
+        return shuffleInBlocks(table, exec, seed, DEF_BLOCK_SIZE);
+    }
+
+    /**
+     * See {@link #shuffleInBlocks(BufferedDataTable, ExecutionContext, long)}.
+     *
+     * @param blockSize maximum number of rows shuffled in memory
+     */
+    static BufferedDataTable shuffleInBlocks(final BufferedDataTable table, final ExecutionContext exec,
+        final long seed, final int blockSize) throws CanceledExecutionException {
+        return shuffleInBlocks(table, exec, seed, blockSize, MemoryAlertSystem.getInstance().newIndicator());
+    }
+
+    /**
+     * See {@link #shuffleInBlocks(BufferedDataTable, ExecutionContext, long)}, used in tests.
+     *
+     * @param blockSize maximum number of rows shuffled in memory
+     * @param memIndicator indicates whether a block must be sorted instead of held in memory as memory runs low
+     */
+    static BufferedDataTable shuffleInBlocks(final BufferedDataTable table, final ExecutionContext exec,
+        final long seed, final int blockSize, final MemoryActionIndicator memIndicator)
+        throws CanceledExecutionException {
+        CheckUtils.checkArgument(blockSize > 0, "Block size must be positive: %d", blockSize);
+        BufferedDataContainer out = exec.createDataContainer(table.getDataTableSpec());
+        try {
+            final BlockShuffler shuffler =
+                new BlockShuffler(exec, out, new Random(seed), blockSize, memIndicator, table.size());
+            shuffler.shuffle(table, true);
+        } finally {
+            out.close();
+        }
+        return out.getTable();
+    }
+
+    /**
+     * Draws a random sample of <b>sampleSize</b> rows from the <b>table</b>. The sample is drawn in a single pass
+     * over the table without any temporary copies (selection sampling, see D. Knuth, The Art of Computer
+     * Programming, Vol. 2, Algorithm S), all samples of the given size are equally likely. The rows keep their
+     * order, use {@link #shuffleInBlocks(BufferedDataTable, ExecutionContext, long)} on the sample to also randomize
+     * the order. The result only depends on the table and the <b>seed</b>.
+     *
+     * @param table the table to draw the sample from
+     * @param sampleSize the number of rows to draw; if it exceeds the size of the table, all rows are returned
+     * @param exec execution context use for creating tables and reporting progress
+     * @param seed random seed for the sample selection
+     * @return the sample
+     * @throws CanceledExecutionException if canceled
+     * @since 3.8
+     */
+    public static BufferedDataTable sample(final BufferedDataTable table, final long sampleSize,
+        final ExecutionContext exec, final long seed) throws CanceledExecutionException {
+        CheckUtils.checkArgument(sampleSize >= 0, "Sample size must not be negative: %d", sampleSize);
+        final Random random = new Random(seed);
+        final long rowCount = table.size();
+        final long size = Math.min(sampleSize, rowCount);
+        BufferedDataContainer out = exec.createDataContainer(table.getDataTableSpec());
+        try (CloseableRowIterator it = table.iterator()) {
+            long selected = 0;
+            for (long r = 0; selected < size && it.hasNext(); r++) {
+                DataRow row = it.next();
+                // select with probability (rows still needed) / (rows remaining)
+                if (random.nextDouble() * (rowCount - r) < size - selected) {
+                    out.addRowToTable(row);
+                    selected++;
+                }
+                exec.setProgress(r / (double)rowCount);
+                exec.checkCanceled();
+            }
+        } finally {
+            out.close();
+        }
+        return out.getTable();
+    }
+
+    /**
+     * Recursive shuffling in blocks, see {@link Shuffler#shuffleInBlocks(BufferedDataTable, ExecutionContext, long)}.
+     */
+    private static final class BlockShuffler {
+
+        private final ExecutionContext m_exec;
+
+        private final BufferedDataContainer m_out;
+
+        private final Random m_random;
+
+        private final int m_blockSize;
+
+        private final MemoryActionIndicator m_memIndicator;
+
+        private final long m_rowCount;
+
+        private long m_scatteredCount;
+
+        private long m_writtenCount;
+
+        BlockShuffler(final ExecutionContext exec, final BufferedDataContainer out, final Random random,
+            final int blockSize, final MemoryActionIndicator memIndicator, final long rowCount) {
+            m_exec = exec;
+            m_out = out;
+            m_random = random;
+            m_blockSize = blockSize;
+            m_memIndicator = memIndicator;
+            m_rowCount = rowCount;
+        }
+
+        /**
+         * Shuffles the table into the output.
+         *
+         * @param table to shuffle
+         * @param isInput whether the table is the input table (progress is reported while scattering it) or a block
+         */
+        void shuffle(final BufferedDataTable table, final boolean isInput) throws CanceledExecutionException {
+            final long size = table.size();
+            if (size <= m_blockSize) {
+                shuffleBlock(table, (int)size);
+                return;
+            }
+            // the number of blocks only depends on the size so that the random draws don't depend on the memory
+            final int blockCount = (int)Math.min(AbstractTableSorter.DEF_MAX_OPENCONTAINER,
+                (size + m_blockSize - 1) / m_blockSize);
+            final BufferedDataContainer[] blocks = new BufferedDataContainer[blockCount];
+            try {
+                for (int b = 0; b < blockCount; b++) {
+                    blocks[b] = m_exec.createDataContainer(table.getDataTableSpec(), false);
+                }
+                try (CloseableRowIterator it = table.iterator()) {
+                    while (it.hasNext()) {
+                        blocks[m_random.nextInt(blockCount)].addRowToTable(it.next());
+                        if (isInput) {
+                            m_scatteredCount++;
+                            reportProgress();
+                        } else {
+                            m_exec.checkCanceled();
+                        }
+                    }
+                }
+                for (BufferedDataContainer block : blocks) {
+                    block.close();
+                }
+                for (int b = 0; b < blockCount; b++) {
+                    BufferedDataTable blockTable = blocks[b].getTable();
+                    blocks[b] = null;
+                    try {
+                        shuffle(blockTable, false);
+                    } finally {
+                        m_exec.clearTable(blockTable);
+                    }
+                }
+            } finally {
+                // clear the blocks not processed (only in case of an exception)
+                for (int b = 0; b < blockCount; b++) {
+                    if (blocks[b] != null) {
+                        blocks[b].close();
+                        m_exec.clearTable(blocks[b].getTable());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Shuffles a block of at most {@link #m_blockSize} rows into the output. The permutation is drawn before the
+         * rows are read, the rows are then held in memory or, if memory runs low, sorted by their position.
+         */
+        private void shuffleBlock(final BufferedDataTable table, final int size) throws CanceledExecutionException {
+            // same random draws as Collections.shuffle(rows, m_random)
+            final int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            for (int i = size; i > 1; i--) {
+                int r = m_random.nextInt(i);
+                int swap = order[i - 1];
+                order[i - 1] = order[r];
+                order[r] = swap;
+            }
+            DataRow[] rows = new DataRow[size];
+            try (CloseableRowIterator it = table.iterator()) {
+                for (int i = 0; it.hasNext(); i++) {
+                    rows[i] = it.next();
+                    if (m_memIndicator.lowMemoryActionRequired()) {
+                        rows = null;
+                        break;
+                    }
+                }
+            }
+            if (rows != null) {
+                for (int index : order) {
+                    m_out.addRowToTable(rows[index]);
+                    m_writtenCount++;
+                    reportProgress();
+                }
+            } else {
+                sortBlock(table, order);
+            }
+        }
+
+        /** Writes the rows of the table into the output in the argument order without holding them in memory. */
+        private void sortBlock(final BufferedDataTable table, final int[] order) throws CanceledExecutionException {
+            final int[] positions = new int[order.length];
+            for (int p = 0; p < order.length; p++) {
+                positions[order[p]] = p;
+            }
+            final DataTableSpec spec = table.getDataTableSpec();
+            final RandomNumberAppendFactory positionFactory = RandomNumberAppendFactory.create(positions, spec);
+            final String positionColumn = positionFactory.getColumnSpecs()[0].getName();
+            final ExecutionContext silentExec = m_exec.createSilentSubExecutionContext(0);
+            final List<BufferedDataTable> tempTables = new ArrayList<>();
+            try {
+                ColumnRearranger rearranger = new ColumnRearranger(spec);
+                rearranger.append(positionFactory);
+                BufferedDataTable withPositions = m_exec.createColumnRearrangeTable(table, rearranger, silentExec);
+                tempTables.add(withPositions);
+                BufferedDataTable sorted = new BufferedDataTableSorter(withPositions,
+                    Collections.singletonList(positionColumn), new boolean[]{true}).sort(silentExec);
+                tempTables.add(sorted);
+                rearranger = new ColumnRearranger(sorted.getDataTableSpec());
+                rearranger.remove(positionColumn);
+                BufferedDataTable filtered = m_exec.createColumnRearrangeTable(sorted, rearranger, silentExec);
+                tempTables.add(filtered);
+                try (CloseableRowIterator it = filtered.iterator()) {
+                    while (it.hasNext()) {
+                        m_out.addRowToTable(it.next());
+                        m_writtenCount++;
+                        reportProgress();
+                    }
+                }
+            } finally {
+                for (int i = tempTables.size() - 1; i >= 0; i--) {
+                    m_exec.clearTable(tempTables.get(i));
+                }
+            }
+        }
+
+        /** Scattering the input accounts for the first half of the progress, writing the output for the second. */
+        private void reportProgress() throws CanceledExecutionException {
+            final long count = m_scatteredCount + m_writtenCount;
+            final long total = m_scatteredCount > 0 ? 2 * m_rowCount : m_rowCount;
+            m_exec.setProgress(count / (double)total);
+            m_exec.checkCanceled();
+        }
+    }
+
     /*
      * The CellFactory adds a shuffled number to each input DataRow.
      */
@@ -128,6 +406,12 @@ public static BufferedDataTable shuffle(final BufferedDataTable table, final Exe
         /** Position in array. */
         private int m_pos = 0;
 
+        /** Constructor for predefined numbers, one per row. */
+        private RandomNumberAppendFactory(final int[] numbers, final DataColumnSpec appendSpec) {
+            super(appendSpec);
+            m_shuffle = numbers;
+        }
+
         /** Constructor. */
         private RandomNumberAppendFactory(final Long seed,
                 final int rowCount, final DataColumnSpec appendSpec) {
@@ -172,14 +456,22 @@ private static RandomNumberAppendFactory create(final Long seed,
             CheckUtils.checkArgument(tableSize < Integer.MAX_VALUE,
                 "It's currently not possible to shuffle tables with more than Integer.MAX_VALUE rows.");
             final int rowCount = (int) tableSize;
+            return new RandomNumberAppendFactory(seed, rowCount, createColumnSpec(spec));
+        }
+
+        /** Factory method to create a factory appending the argument numbers (one per row, in order). */
+        private static RandomNumberAppendFactory create(final int[] numbers, final DataTableSpec spec) {
+            return new RandomNumberAppendFactory(numbers, createColumnSpec(spec));
+        }
+
+        private static DataColumnSpec createColumnSpec(final DataTableSpec spec) {
             String appendName = "random_row_number";
             int uniquifier = 1;
             while (spec.containsName(appendName)) {
                 appendName = "random_row_number_#" + uniquifier++;
             }
-            DataColumnSpec s = new DataColumnSpecCreator(
+            return new DataColumnSpecCreator(
                     appendName, IntCell.TYPE).createSpec();
-            return new RandomNumberAppendFactory(seed, rowCount, s);
         }
 
     }
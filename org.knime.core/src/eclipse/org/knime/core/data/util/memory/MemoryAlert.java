@@ -46,6 +46,8 @@
  */
 package org.knime.core.data.util.memory;
 
+import org.knime.core.data.util.memory.MemoryAlertSystem.MemoryPressure;
+
 /**
  * Object that carries information about a memory alert.
  *
@@ -56,16 +58,19 @@
 public final class MemoryAlert {
     private final long m_usedMemory;
     private final long m_maxMemory;
+    private final MemoryPressure m_pressure;
 
     /**
      * Create a new memory alter.
      *
      * @param usedMemory the amount of currently used memory (in bytes)
      * @param maxMemory the maximum amount of available memory (in bytes)
+     * @param pressure the current memory pressure level
      */
-    MemoryAlert(final long usedMemory, final long maxMemory) {
+    MemoryAlert(final long usedMemory, final long maxMemory, final MemoryPressure pressure) {
         m_usedMemory = usedMemory;
         m_maxMemory = maxMemory;
+        m_pressure = pressure;
     }
 
 
@@ -86,4 +91,14 @@ public long getUsedMemory() {
     public long getMaxMemory() {
         return m_maxMemory;
     }
+
+    /**
+     * Returns the memory pressure level at the time of the alert.
+     *
+     * @return the pressure level, never <code>null</code>
+     * @since 3.8
+     */
+    public MemoryPressure getPressure() {
+        return m_pressure;
+    }
 }
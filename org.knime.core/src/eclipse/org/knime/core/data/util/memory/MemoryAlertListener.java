@@ -75,6 +75,22 @@ protected MemoryAlertListener() {
      */
     protected abstract boolean memoryAlert(MemoryAlert alert);
 
+    /**
+     * Returns the priority of this listener for gradual release of memory. Listeners with a positive priority are
+     * already notified when memory usage reaches the {@link MemoryAlertSystem.MemoryPressure#SOFT soft} level, a few
+     * at a time and in order of decreasing priority, rather than all together when memory is low. This is meant for
+     * listeners that release memory by writing data to disk, such as tables held in memory; a good priority is the
+     * amount of memory that can be released. The method is called while listeners are notified, so it should return
+     * quickly.
+     *
+     * @return the priority, the default implementation returns 0, which means that the listener is only notified once
+     *         memory is low
+     * @since 3.8
+     */
+    protected long getReleasePriority() {
+        return 0L;
+    }
+
     /**
      * Returns the node context for this listener.
      *
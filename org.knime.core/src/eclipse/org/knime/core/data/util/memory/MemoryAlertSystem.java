@@ -57,11 +57,16 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -78,6 +83,11 @@
  * {@link #addListener(MemoryAlertListener)} that get notified if free memory gets low. This is useful for cases where
  * memory is kept in some kind of cache. Or you can check {@link #isMemoryLow()} while processing data.
  *
+ * <p>Besides the low memory condition, the system keeps track of graded {@link MemoryPressure pressure levels}.
+ * Listeners with a {@link MemoryAlertListener#getReleasePriority() release priority} are notified gradually as
+ * pressure increases (at most one batch per garbage collection), so that memory is released in the background before
+ * it gets low, rather than by all listeners at once.
+ *
  * @author Christian Dietz, University of Konstanz
  * @author Thorsten Meinl, KNIME AG, Zurich, Switzerland
  * @since 2.12
@@ -115,8 +125,41 @@ public boolean lowMemoryActionRequired() {
     }
 
 
+    /**
+     * Graded levels of memory pressure, determined after garbage collection runs of the old generation.
+     *
+     * @since 3.8
+     */
+    public enum MemoryPressure {
+        /** Memory usage is uncritical. */
+        NONE,
+        /**
+         * Memory usage approaches the usage threshold; listeners with a release priority are notified one at a time.
+         */
+        SOFT,
+        /**
+         * Memory usage is above the usage threshold, i.e. {@link MemoryAlertSystem#isMemoryLow() memory is low}; all
+         * listeners without release priority are notified, the others a few at a time.
+         */
+        HARD,
+        /** Memory is almost exhausted; all listeners are notified. */
+        CRITICAL;
+    }
+
     private static final MemoryPoolMXBean OLD_GEN_POOL = findTenuredGenPool();
 
+    /** Distance of the soft pressure level below the usage threshold, as a fraction of the maximum memory. */
+    private static final double SOFT_MARGIN = 0.1;
+
+    /** A pressure level is only left if usage drops by this fraction below the level's threshold. */
+    private static final double HYSTERESIS = 0.05;
+
+    /** Interval in which the distributor thread checks whether to notify more listeners, in milliseconds. */
+    private static final long RELEASE_INTERVAL = 500;
+
+    /** Number of listeners with release priority notified at once at the hard pressure level. */
+    private static final int HARD_BATCH_SIZE = 4;
+
     /**
      * The threshold of medium memory usage that triggers a memory event. The threshold is set to
      * 90% of the total memory minus 128MB.
@@ -146,6 +189,20 @@ public boolean lowMemoryActionRequired() {
 
     private final AtomicLong m_lastGcTimestamp = new AtomicLong();
 
+    private volatile MemoryPressure m_pressure = MemoryPressure.NONE;
+
+    /** Number of times each pressure level has been reached. */
+    private final AtomicLongArray m_pressureCounts = new AtomicLongArray(MemoryPressure.values().length);
+
+    /** Set if all listeners without release priority should be notified (threshold exceeded). */
+    private final AtomicBoolean m_alertPending = new AtomicBoolean();
+
+    /** Set if all listeners should be notified at once. */
+    private final AtomicBoolean m_fullAlertPending = new AtomicBoolean();
+
+    /** Timestamp of the GC event before the last gradual release, only accessed by the distributor thread. */
+    private long m_lastReleaseGcTimestamp = -1;
+
     /**
      * Creates a new memory alert system. <b>In almost all cases you should use the singleton instance via
      * {@link #getInstance()} instead of creating your own instance.</b>
@@ -194,7 +251,12 @@ private void usageThresholdEvent(final double usageThreshold, final Notification
 
         if (prev < not.getTimeStamp()) {
             m_lowMemory.set(true);
-            sendMemoryAlert();
+            updatePressure(getCollectionUsage(), MemoryPressure.HARD);
+            if (m_pressure == MemoryPressure.CRITICAL) {
+                m_fullAlertPending.set(true);
+            }
+            m_alertPending.set(true);
+            signalDistributor();
         }
     }
 
@@ -219,6 +281,7 @@ private void gcEvent(final double usageThreshold, final Notification not) {
                 usageThreshold * 100.0, currentUsagePercent, (double)used / FileUtils.ONE_GB,
                 (double)max / FileUtils.ONE_GB);
             m_lowMemory.set(false);
+            updatePressure(used / (double)max, MemoryPressure.NONE);
         }
 
         m_gcEventLock.lock();
@@ -229,10 +292,66 @@ private void gcEvent(final double usageThreshold, final Notification not) {
         }
     }
 
+    private static double getCollectionUsage() {
+        MemoryUsage collectionUsage = OLD_GEN_POOL.getCollectionUsage();
+        return collectionUsage.getUsed() / (double)collectionUsage.getMax();
+    }
+
+    /** @return the usage fraction above which the given pressure level is reached */
+    private double getThreshold(final MemoryPressure level) {
+        double hard = m_memPool.getCollectionUsageThreshold() / (double)getMaximumMemory();
+        switch (level) {
+            case SOFT:
+                return Math.max(0.0, hard - SOFT_MARGIN);
+            case HARD:
+                return hard;
+            case CRITICAL:
+                return hard + (1.0 - hard) / 2;
+            default:
+                return 0.0;
+        }
+    }
+
+    /**
+     * Determines the pressure level for the given usage. Levels up to the current one are only left if usage drops
+     * below their threshold minus the hysteresis, so that the level doesn't toggle with every GC run.
+     */
+    private synchronized void updatePressure(final double usage, final MemoryPressure minimum) {
+        final MemoryPressure current = m_pressure;
+        MemoryPressure next = minimum;
+        for (MemoryPressure level : MemoryPressure.values()) {
+            if (level.compareTo(next) > 0) {
+                double threshold = getThreshold(level);
+                if (level.compareTo(current) <= 0) {
+                    threshold -= HYSTERESIS;
+                }
+                if (usage >= threshold) {
+                    next = level;
+                }
+            }
+        }
+        if (next != current) {
+            LOGGER.debugWithFormat("Memory pressure changed from %s to %s, usage after GC %.0f%%", current, next,
+                usage * 100.0);
+            for (int i = current.ordinal() + 1; i <= next.ordinal(); i++) {
+                m_pressureCounts.incrementAndGet(i);
+            }
+            m_pressure = next;
+            if (next.compareTo(current) > 0) {
+                signalDistributor();
+            }
+        }
+    }
+
     /**
      * Send a memory alert events to all registered listeners. Should only be used for testing purposes.
      */
     public void sendMemoryAlert() {
+        m_fullAlertPending.set(true);
+        signalDistributor();
+    }
+
+    private void signalDistributor() {
         m_aboveThresholdLock.lock();
         try {
             m_aboveThresholdEvent.signalAll();
@@ -289,13 +408,19 @@ public void run() {
                 while (!isInterrupted()) {
                     m_aboveThresholdLock.lock();
                     try {
-                        m_aboveThresholdEvent.await();
+                        if (!m_alertPending.get() && !m_fullAlertPending.get()) {
+                            if (m_pressure == MemoryPressure.NONE) {
+                                m_aboveThresholdEvent.await();
+                            } else {
+                                m_aboveThresholdEvent.await(RELEASE_INTERVAL, TimeUnit.MILLISECONDS);
+                            }
+                        }
                     } catch (InterruptedException ex) {
                         break;
                     } finally {
                         m_aboveThresholdLock.unlock();
                     }
-                    notifyListeners();
+                    distribute();
                 }
             }
         };
@@ -331,19 +456,65 @@ public static double getUsage() {
         return getUsedMemory() / (double)getMaximumMemory();
     }
 
-    private void notifyListeners() {
-        MemoryAlert alert = new MemoryAlert(getUsedMemory(), getMaximumMemory());
+    /** Called by the distributor thread, notifies the listeners according to pending alerts and pressure level. */
+    private void distribute() {
+        final MemoryPressure pressure = m_pressure;
+        if (m_fullAlertPending.getAndSet(false)) {
+            m_alertPending.set(false);
+            notifyListeners(true, Integer.MAX_VALUE);
+        } else if (m_alertPending.getAndSet(false)) {
+            m_lastReleaseGcTimestamp = m_lastGcTimestamp.get();
+            notifyListeners(true, HARD_BATCH_SIZE);
+        } else if (pressure != MemoryPressure.NONE && m_lastGcTimestamp.get() > m_lastReleaseGcTimestamp) {
+            // only release more memory once a GC run has shown the effect of the previous release
+            m_lastReleaseGcTimestamp = m_lastGcTimestamp.get();
+            switch (pressure) {
+                case SOFT:
+                    notifyListeners(false, 1);
+                    break;
+                case HARD:
+                    notifyListeners(false, HARD_BATCH_SIZE);
+                    break;
+                default:
+                    notifyListeners(true, Integer.MAX_VALUE);
+            }
+        }
+    }
+
+    /**
+     * Notifies listeners.
+     *
+     * @param notifyAll whether to notify all listeners without release priority
+     * @param batchSize the number of listeners with release priority to notify (those with highest priority)
+     */
+    private void notifyListeners(final boolean notifyAll, final int batchSize) {
+        MemoryAlert alert = new MemoryAlert(getUsedMemory(), getMaximumMemory(), m_pressure);
 
         synchronized (m_listeners) {
-            int initialSize = m_listeners.size();
-            int removeCount = 0;
-            for (Iterator<MemoryAlertListener> it = m_listeners.iterator(); it.hasNext();) {
-                MemoryAlertListener listener = it.next();
+            final int initialSize = m_listeners.size();
+            final List<MemoryAlertListener> toNotify = new ArrayList<>();
+            final Map<MemoryAlertListener, Long> priorities = new IdentityHashMap<>();
+            for (MemoryAlertListener listener : m_listeners) {
+                long priority = getReleasePriority(listener);
+                if (priority > 0) {
+                    priorities.put(listener, priority);
+                } else if (notifyAll) {
+                    toNotify.add(listener);
+                }
+            }
+            final List<MemoryAlertListener> prioritized = new ArrayList<>(priorities.keySet());
+            prioritized.sort(Comparator.comparing(priorities::get, Comparator.reverseOrder()));
+            toNotify.addAll(prioritized.subList(0, Math.min(batchSize, prioritized.size())));
+            if (toNotify.isEmpty()) {
+                return;
+            }
+
+            final Set<MemoryAlertListener> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (MemoryAlertListener listener : toNotify) {
                 NodeContext.pushContext(listener.getNodeContext());
                 try {
                     if (listener.memoryAlert(alert)) {
-                        removeCount++;
-                        it.remove();
+                        removed.add(listener);
                     }
                 } catch (Exception ex) {
                     LOGGER
@@ -352,12 +523,24 @@ private void notifyListeners() {
                     NodeContext.removeLastContext();
                 }
             }
+            m_listeners.removeIf(removed::contains);
 
-            LOGGER.debug(removeCount + "/" + initialSize + " listeners have been removed,  " + m_listeners.size()
+            LOGGER.debug(toNotify.size() + "/" + initialSize + " listeners have been notified at pressure level "
+                + alert.getPressure() + ", " + removed.size() + " have been removed, " + m_listeners.size()
                 + " are remaining");
         }
     }
 
+    private static long getReleasePriority(final MemoryAlertListener listener) {
+        try {
+            return listener.getReleasePriority();
+        } catch (Exception ex) {
+            LOGGER.error("Error while determining priority of memory alert listener " + listener + ": "
+                + ex.getMessage(), ex);
+            return 0L;
+        }
+    }
+
     /**
      * Tenured Space Pool can be determined by it being of type HEAP and by it being possible to set the usage
      * threshold.
@@ -388,6 +571,27 @@ public boolean isMemoryLow() {
         return m_lowMemory.get();
     }
 
+    /**
+     * Returns the current memory pressure level, as determined after the last garbage collector run.
+     *
+     * @return the pressure level, never <code>null</code>
+     * @since 3.8
+     */
+    public MemoryPressure getPressure() {
+        return m_pressure;
+    }
+
+    /**
+     * Returns how often the given pressure level has been reached since startup.
+     *
+     * @param level the pressure level
+     * @return the number of times the level has been reached
+     * @since 3.8
+     */
+    public long getPressureCount(final MemoryPressure level) {
+        return m_pressureCounts.get(level.ordinal());
+    }
+
     /**
      * Calling this method will hold the current thread in case a low memory condition is present. It will sleep until
      * enough memory is available again. You can specify a timeout after which the method returns even if memory is
@@ -59,6 +59,7 @@
 import javax.xml.stream.XMLStreamException;
 
 import org.knime.core.data.util.LockedSupplier;
+import org.knime.core.data.xml.XMLDocumentCache.ParsedDocument;
 import org.knime.core.data.xml.io.XMLCellReaderFactory;
 import org.knime.core.data.xml.io.XMLCellWriter;
 import org.knime.core.data.xml.io.XMLCellWriterFactory;
@@ -79,9 +80,8 @@ public class XMLCellContent implements XMLValue<Document> {
 
     private final String m_xmlString;
 
-    private SoftReference<Document> m_content;
-
-    private final ReentrantLock m_lock = new ReentrantLock();
+    /** The parsed document, possibly shared with other instances with the same content via the cache. */
+    private SoftReference<ParsedDocument> m_content;
 
     /**
      * Creates a {@link Document} by parsing the passed string. It must contain
@@ -103,7 +103,7 @@ public class XMLCellContent implements XMLValue<Document> {
                 Document doc = parse(xmlString);
                 // store the normalized string as cell content
                 m_xmlString = serialize(doc);
-                m_content = new SoftReference<Document>(doc);
+                m_content = new SoftReference<>(XMLDocumentCache.put(m_xmlString, doc));
             } catch (IOException ex) {
                 Throwable cause = ex;
                 while ((cause.getCause() != cause) && (cause.getCause() != null)) {
@@ -117,7 +117,7 @@ public class XMLCellContent implements XMLValue<Document> {
             }
         } else {
             m_xmlString = xmlString;
-            m_content = new SoftReference<Document>(null);
+            m_content = new SoftReference<>(null);
         }
     }
 
@@ -135,8 +135,8 @@ public class XMLCellContent implements XMLValue<Document> {
             ParserConfigurationException, SAXException, XMLStreamException {
         try {
             Document doc = parse(is);
-            m_content = new SoftReference<Document>(doc);
             m_xmlString = serialize(doc);
+            m_content = new SoftReference<>(XMLDocumentCache.put(m_xmlString, doc));
         } catch (IOException ex) {
             Throwable cause = ex;
             while ((cause.getCause() != cause) && (cause.getCause() != null)) {
@@ -156,7 +156,8 @@ public class XMLCellContent implements XMLValue<Document> {
      * @param doc an XML document
      */
     XMLCellContent(final Document doc) {
-        m_content = new SoftReference<Document>(doc);
+        // not cached, the document is owned by the caller
+        m_content = new SoftReference<>(new ParsedDocument(doc, false));
         // Transform CDATA to text
         DOMConfiguration domConfig = doc.getDomConfig();
         domConfig.setParameter("cdata-sections", Boolean.FALSE);
@@ -194,7 +195,7 @@ public XMLCellContent(final LockedSupplier<Document> documentSupplier) {
             doc.normalizeDocument();
 
             s = serialize(documentSupplier.get());
-            m_content = new SoftReference<Document>(null);
+            m_content = new SoftReference<>(null);
         } catch (IOException ex) {
             // should not happen
         }
@@ -204,7 +205,8 @@ public XMLCellContent(final LockedSupplier<Document> documentSupplier) {
     }
 
     /**
-     * Return the document. The returned document must not be changed!
+     * Return the document. If the parsed document is shared with other cells via the {@link XMLDocumentCache}, a copy
+     * is returned as callers of this method neither lock the document nor reliably leave it unchanged.
      *
      * @return The document.
      *
@@ -214,14 +216,39 @@ public XMLCellContent(final LockedSupplier<Document> documentSupplier) {
     @Deprecated
     @Override
     public Document getDocument() {
-        Document doc = m_content.get();
+        ParsedDocument doc = getParsedDocument();
         if (doc == null) {
-            try {
-                doc = parse(m_xmlString);
-                m_content = new SoftReference<Document>(doc);
-            } catch (Exception ex) {
-                LOGGER.error("Error while parsing XML in XML Cell", ex);
+            return null;
+        } else if (!doc.isShared()) {
+            return doc.getDocument();
+        }
+        doc.getLock().lock();
+        try {
+            return (Document)doc.getDocument().cloneNode(true);
+        } finally {
+            doc.getLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the parsed document, from the {@link XMLDocumentCache} if another cell with the same content has been
+     * parsed recently.
+     *
+     * @return the parsed document or <code>null</code> if the content can't be parsed
+     */
+    private ParsedDocument getParsedDocument() {
+        ParsedDocument doc = m_content.get();
+        if (doc == null) {
+            doc = XMLDocumentCache.get(m_xmlString);
+            if (doc == null) {
+                try {
+                    doc = XMLDocumentCache.put(m_xmlString, parse(m_xmlString));
+                } catch (Exception ex) {
+                    LOGGER.error("Error while parsing XML in XML Cell", ex);
+                    return null;
+                }
             }
+            m_content = new SoftReference<>(doc);
         }
         return doc;
     }
@@ -303,6 +330,10 @@ public int hashCode() {
      */
     @Override
     public LockedSupplier<Document> getDocumentSupplier() {
-        return new LockedSupplier<Document>(getDocument(), m_lock);
+        ParsedDocument doc = getParsedDocument();
+        if (doc == null) {
+            return new LockedSupplier<Document>(null, new ReentrantLock());
+        }
+        return new LockedSupplier<Document>(doc.getDocument(), doc.getLock());
     }
 }
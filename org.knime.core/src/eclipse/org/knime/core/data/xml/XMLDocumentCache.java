@@ -0,0 +1,167 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.data.xml;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.w3c.dom.Document;
+
+/**
+ * Cache of parsed XML documents shared by all {@link XMLCellContent} instances, keyed by the (normalized) XML string.
+ * Cells read from a table are new instances on every iteration; without the cache each of them would parse its
+ * content again on first access.
+ *
+ * <p>The cache is bounded by the total length of the cached XML strings (relative to the maximum heap size), evicts
+ * least recently used entries first and only holds the documents softly so that the garbage collector can reclaim
+ * them under memory pressure. Since DOM documents are not thread-safe, each cached document comes with the lock that
+ * all users of the document must hold while accessing it.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class XMLDocumentCache {
+
+    /** Upper bound for the summed length of all cached XML strings. */
+    private static final long MAX_TOTAL_LENGTH = Runtime.getRuntime().maxMemory() / 64;
+
+    /** Larger documents are not cached at all, they would evict too many other entries. */
+    private static final long MAX_ENTRY_LENGTH = MAX_TOTAL_LENGTH / 16;
+
+    private static final Map<String, SoftReference<ParsedDocument>> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long totalLength;
+
+    private XMLDocumentCache() {
+    }
+
+    /** A parsed document along with the lock protecting it. */
+    static final class ParsedDocument {
+        private final Document m_document;
+
+        private final boolean m_isShared;
+
+        private final ReentrantLock m_lock = new ReentrantLock();
+
+        ParsedDocument(final Document document, final boolean isShared) {
+            m_document = document;
+            m_isShared = isShared;
+        }
+
+        /** @return the document, must not be modified */
+        Document getDocument() {
+            return m_document;
+        }
+
+        /** @return the lock to hold while accessing the document */
+        ReentrantLock getLock() {
+            return m_lock;
+        }
+
+        /** @return whether the document may be used by other cells, i.e. it was handed out by the cache */
+        boolean isShared() {
+            return m_isShared;
+        }
+    }
+
+    /**
+     * Returns the cached document for the XML string.
+     *
+     * @param xmlString the XML string
+     * @return the parsed document or <code>null</code> if not cached
+     */
+    static synchronized ParsedDocument get(final String xmlString) {
+        SoftReference<ParsedDocument> ref = CACHE.get(xmlString);
+        if (ref == null) {
+            return null;
+        }
+        ParsedDocument doc = ref.get();
+        if (doc == null) {
+            CACHE.remove(xmlString);
+            totalLength -= xmlString.length();
+        }
+        return doc;
+    }
+
+    /**
+     * Adds a document parsed from the XML string to the cache (unless it is too large). If another document for the
+     * same string is already cached, that one is returned instead so that all users share the same lock.
+     *
+     * @param xmlString the XML string the document was parsed from
+     * @param document the parsed document, must not be modified afterwards
+     * @return the document to use
+     */
+    static synchronized ParsedDocument put(final String xmlString, final Document document) {
+        ParsedDocument existing = get(xmlString);
+        if (existing != null) {
+            return existing;
+        }
+        ParsedDocument doc = new ParsedDocument(document, true);
+        if (xmlString.length() > MAX_ENTRY_LENGTH) {
+            return doc;
+        }
+        CACHE.put(xmlString, new SoftReference<>(doc));
+        totalLength += xmlString.length();
+        for (Iterator<String> it = CACHE.keySet().iterator(); totalLength > MAX_TOTAL_LENGTH && it.hasNext();) {
+            String key = it.next();
+            it.remove();
+            totalLength -= key.length();
+        }
+        return doc;
+    }
+
+    /** Removes all entries, used in tests. */
+    static synchronized void clear() {
+        CACHE.clear();
+        totalLength = 0L;
+    }
+
+    /** @return the number of cached entries (including cleared soft references), used in tests */
+    static synchronized int size() {
+        return CACHE.size();
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.Platform;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.EclipseUtil;
+import org.osgi.framework.Bundle;
+
+/**
+ * Persistent cache for resolved contents of extension point based registries, stored as properties file in the KNIME
+ * home directory. Each entry maps a key to a set of class names, e.g. a data value interface to the cell classes
+ * implementing it, so that registries only need to load the classes actually requested instead of all contributed
+ * classes. The cache is bound to the names and versions of the plug-ins contributing to the extension point and is
+ * discarded if they change.
+ *
+ * <p>Registries must treat entries as hints only: if a cached entry does not lead to the expected result they fall
+ * back to scanning the extension point (and update the cache).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class ExtensionRegistryCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ExtensionRegistryCache.class);
+
+    private static final String CACHE_DIR = "registry-cache";
+
+    private static final String FINGERPRINT_KEY = ".fingerprint";
+
+    private final File m_file;
+
+    private final String m_fingerprint;
+
+    private final Properties m_entries = new Properties();
+
+    private boolean m_dirty;
+
+    private ExtensionRegistryCache(final File file, final String fingerprint) {
+        m_file = file;
+        m_fingerprint = fingerprint;
+    }
+
+    /**
+     * Loads the cache for the given extension point. If the cache is disabled (see
+     * {@link KNIMEConstants#PROPERTY_DISABLE_REGISTRY_CACHE}), doesn't exist yet or is outdated, an empty cache is
+     * returned.
+     *
+     * @param extPointId the id of the extension point
+     * @return a (possibly empty) cache, never <code>null</code>
+     */
+    public static ExtensionRegistryCache load(final String extPointId) {
+        IExtensionPoint point = Platform.getExtensionRegistry().getExtensionPoint(extPointId);
+        if (point == null || isDisabled()) {
+            return new ExtensionRegistryCache(null, null);
+        }
+        String fingerprint = createFingerprint(point.getExtensions());
+        File file = new File(new File(KNIMEConstants.getKNIMEHomeDir(), CACHE_DIR), extPointId + ".properties");
+        return load(file, fingerprint);
+    }
+
+    /**
+     * Loads the cache from the given file, ignoring its content if the fingerprint doesn't match.
+     *
+     * @param file the cache file, needs not exist
+     * @param fingerprint identifies the contributing plug-ins
+     * @return a (possibly empty) cache, never <code>null</code>
+     */
+    static ExtensionRegistryCache load(final File file, final String fingerprint) {
+        ExtensionRegistryCache cache = new ExtensionRegistryCache(file, fingerprint);
+        if (file.isFile()) {
+            Properties props = new Properties();
+            try (InputStream in = new FileInputStream(file)) {
+                props.load(in);
+            } catch (IOException ex) {
+                LOGGER.debug("Unable to read registry cache \"" + file.getAbsolutePath() + "\": " + ex.getMessage(),
+                    ex);
+                return cache;
+            }
+            if (fingerprint.equals(props.getProperty(FINGERPRINT_KEY))) {
+                props.remove(FINGERPRINT_KEY);
+                cache.m_entries.putAll(props);
+            } else {
+                LOGGER.debug("Registry cache \"" + file.getAbsolutePath() + "\" is outdated, ignoring it");
+            }
+        }
+        return cache;
+    }
+
+    private static boolean isDisabled() {
+        return EclipseUtil.isRunFromSDK() || Boolean.getBoolean(KNIMEConstants.PROPERTY_DISABLE_REGISTRY_CACHE);
+    }
+
+    /** Sorted names and versions of all contributing plug-ins. */
+    private static String createFingerprint(final IExtension[] extensions) {
+        return Stream.of(extensions).map(IExtension::getNamespaceIdentifier).distinct().sorted().map(ns -> {
+            Bundle bundle = Platform.getBundle(ns);
+            return ns + "@" + (bundle == null ? "?" : bundle.getVersion().toString());
+        }).collect(Collectors.joining(";"));
+    }
+
+    /**
+     * Returns the class names stored for the key.
+     *
+     * @param key the key
+     * @return the (possibly empty) set of class names
+     */
+    public synchronized Set<String> get(final String key) {
+        String value = m_entries.getProperty(key);
+        if (value == null || value.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new TreeSet<>(Arrays.asList(value.split(",")));
+    }
+
+    /**
+     * Stores the class names for the key, replacing any previous entry. Changes are only persisted by
+     * {@link #save()}.
+     *
+     * @param key the key
+     * @param classNames the class names
+     */
+    public synchronized void put(final String key, final Collection<String> classNames) {
+        String value = String.join(",", new TreeSet<>(classNames));
+        if (!value.equals(m_entries.getProperty(key))) {
+            m_entries.setProperty(key, value);
+            m_dirty = true;
+        }
+    }
+
+    /**
+     * Writes the cache to disc if it has been modified. Errors are only logged as the cache is an optimization.
+     */
+    public synchronized void save() {
+        if (m_file == null || !m_dirty) {
+            return;
+        }
+        Properties props = new Properties();
+        props.putAll(m_entries);
+        props.setProperty(FINGERPRINT_KEY, m_fingerprint);
+        Path tempFile = null;
+        try {
+            m_file.getParentFile().mkdirs();
+            // unique name, other KNIME instances may write the cache concurrently
+            tempFile = Files.createTempFile(m_file.getParentFile().toPath(), m_file.getName(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                props.store(out, "Cached registry contents, may be deleted at any time");
+            }
+            // replace atomically, other KNIME instances may read the file concurrently
+            Files.move(tempFile, m_file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+            m_dirty = false;
+        } catch (IOException ex) {
+            LOGGER.debug("Unable to write registry cache \"" + m_file.getAbsolutePath() + "\": " + ex.getMessage(),
+                ex);
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // ignore, temp file is left behind
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.Category;
+import org.apache.log4j.HTMLLayout;
+import org.apache.log4j.Layout;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.SimpleLayout;
+import org.apache.log4j.TTCCLayout;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.varia.NullAppender;
+import org.apache.log4j.xml.XMLLayout;
+
+/**
+ * Hands log events from the logging threads to a dedicated writer thread, which calls the log4j appenders. Events
+ * are buffered in a bounded queue; what happens if it is full is defined by the {@link OverflowPolicy}. Used by
+ * {@link NodeLogger} if {@link KNIMEConstants#PROPERTY_ASYNC_LOGGING} is set.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class AsyncLogDispatcher {
+
+    /** What to do with a new event if the buffer is full. */
+    enum OverflowPolicy {
+        /** Block the logging thread until there is space in the buffer. */
+        BLOCK,
+        /** Discard debug (and trace) events, block for all more severe events. */
+        DROP_DEBUG;
+
+        /**
+         * @param value the property value
+         * @return the policy or <code>null</code> if the value doesn't denote a policy
+         */
+        static OverflowPolicy fromPropertyValue(final String value) {
+            if ("block".equalsIgnoreCase(value)) {
+                return BLOCK;
+            } else if ("drop-debug".equalsIgnoreCase(value)) {
+                return DROP_DEBUG;
+            }
+            return null;
+        }
+    }
+
+    /** Default number of events buffered. */
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /** Events are drained in batches of (at most) this size. */
+    private static final int BATCH_SIZE = 256;
+
+    /** Conversion characters of a pattern layout that output the location of the logging call. */
+    private static final Pattern LOCATION_CONVERSION = Pattern.compile("(?<!%)%[-.0-9]*[CFLMl]");
+
+    /** Whether a conversion pattern outputs the location, by pattern. */
+    private static final Map<String, Boolean> PATTERN_USES_LOCATION = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<LoggingEvent> m_buffer;
+
+    private final OverflowPolicy m_overflowPolicy;
+
+    private final AtomicLong m_droppedCount = new AtomicLong();
+
+    private final AtomicLong m_submittedCount = new AtomicLong();
+
+    private final AtomicLong m_writtenCount = new AtomicLong();
+
+    private final Thread m_writerThread;
+
+    private volatile boolean m_isShutdown;
+
+    /**
+     * @param bufferSize capacity of the buffer, at least 1
+     * @param overflowPolicy the non-null overflow policy
+     */
+    AsyncLogDispatcher(final int bufferSize, final OverflowPolicy overflowPolicy) {
+        m_buffer = new ArrayBlockingQueue<>(bufferSize);
+        m_overflowPolicy = overflowPolicy;
+        m_writerThread = new Thread(this::writeLoop, "KNIME Log Writer");
+        m_writerThread.setDaemon(true);
+        m_writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(5000), "KNIME Log Writer Shutdown"));
+    }
+
+    /**
+     * Queues the event for the writer thread. Thread specific information (thread name, NDC, MDC) and the rendered
+     * message are captured first as they are not available on the writer thread. The location of the logging call is
+     * captured as well if one of the appenders outputs it, see {@link #isLocationUsed(Category)}. After
+     * {@link #shutdown(long)} the event is passed to the appenders directly.
+     *
+     * @param event the event to log
+     */
+    void dispatch(final LoggingEvent event) {
+        event.getThreadName();
+        event.getNDC();
+        event.getMDCCopy();
+        event.getRenderedMessage();
+        event.getThrowableStrRep();
+        if (m_isShutdown) {
+            event.getLogger().callAppenders(event);
+            return;
+        }
+        if (isLocationUsed(event.getLogger())) {
+            // evaluated lazily from the current stack trace, which would be the one of the writer thread otherwise
+            event.getLocationInformation();
+        }
+        if (m_buffer.offer(event)) {
+            m_submittedCount.incrementAndGet();
+            return;
+        }
+        if (m_overflowPolicy == OverflowPolicy.DROP_DEBUG && !event.getLevel().isGreaterOrEqual(Level.INFO)) {
+            m_droppedCount.incrementAndGet();
+            return;
+        }
+        if (Thread.currentThread() == m_writerThread) {
+            // an appender logging itself -- must not block
+            m_droppedCount.incrementAndGet();
+            return;
+        }
+        try {
+            m_buffer.put(event);
+            m_submittedCount.incrementAndGet();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            m_droppedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Determines whether one of the appenders the logger's events are passed to outputs the location of the logging
+     * call. Computing the location is expensive (it walks the stack trace), so it is only done if required. Appenders
+     * whose layout is unknown are assumed to output the location.
+     *
+     * @param logger the logger of an event
+     * @return whether the location of the logging call needs to be captured
+     */
+    static boolean isLocationUsed(final Category logger) {
+        for (Category c = logger; c != null; c = c.getParent()) {
+            for (Enumeration<?> e = c.getAllAppenders(); e.hasMoreElements();) {
+                if (isLocationUsed((Appender)e.nextElement())) {
+                    return true;
+                }
+            }
+            if (!c.getAdditivity()) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLocationUsed(final Appender appender) {
+        final Layout layout = appender.getLayout();
+        if (layout == null) {
+            return !(appender instanceof NullAppender);
+        } else if (layout instanceof PatternLayout) {
+            return isLocationUsed(((PatternLayout)layout).getConversionPattern());
+        } else if (layout instanceof XMLLayout) {
+            return ((XMLLayout)layout).getLocationInfo();
+        } else if (layout instanceof HTMLLayout) {
+            return ((HTMLLayout)layout).getLocationInfo();
+        } else {
+            return !(layout instanceof SimpleLayout || layout instanceof TTCCLayout);
+        }
+    }
+
+    private static boolean isLocationUsed(final String conversionPattern) {
+        return conversionPattern != null && PATTERN_USES_LOCATION.computeIfAbsent(conversionPattern,
+            p -> LOCATION_CONVERSION.matcher(p).find());
+    }
+
+    /** @return number of events discarded because of a full buffer since startup. */
+    long getDroppedCount() {
+        return m_droppedCount.get();
+    }
+
+    /** @return number of events currently waiting to be written. */
+    int getPendingCount() {
+        return m_buffer.size();
+    }
+
+    /**
+     * Waits until all events submitted so far are passed to the appenders.
+     *
+     * @param timeoutMillis maximum time to wait
+     * @return whether all events were written within the timeout
+     */
+    boolean flush(final long timeoutMillis) {
+        final long target = m_submittedCount.get();
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (m_writtenCount) {
+            while (m_writtenCount.get() < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || Thread.currentThread() == m_writerThread) {
+                    return false;
+                }
+                try {
+                    m_writtenCount.wait(remaining);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes all pending events and passes all further events to the appenders on the logging thread. Called when the
+     * JVM shuts down.
+     *
+     * @param timeoutMillis maximum time to wait for pending events
+     * @return whether all pending events were written within the timeout
+     */
+    boolean shutdown(final long timeoutMillis) {
+        m_isShutdown = true;
+        return flush(timeoutMillis);
+    }
+
+    private void writeLoop() {
+        final List<LoggingEvent> batch = new ArrayList<>(BATCH_SIZE);
+        long reportedDropCount = 0L;
+        while (true) {
+            try {
+                batch.add(m_buffer.take());
+            } catch (InterruptedException ie) {
+                // writer thread is never interrupted on purpose; keep going
+                continue;
+            }
+            m_buffer.drainTo(batch, BATCH_SIZE - 1);
+            for (LoggingEvent event : batch) {
+                try {
+                    event.getLogger().callAppenders(event);
+                } catch (RuntimeException re) {
+                    LogLog.error("Unable to write log event", re);
+                }
+            }
+            final long dropCount = m_droppedCount.get();
+            if (dropCount > reportedDropCount && m_buffer.isEmpty()) {
+                Logger.getLogger(NodeLogger.class).warn("Log buffer overflow: " + (dropCount - reportedDropCount)
+                    + " event(s) discarded (" + dropCount + " in total)");
+                reportedDropCount = dropCount;
+            }
+            synchronized (m_writtenCount) {
+                m_writtenCount.addAndGet(batch.size());
+                m_writtenCount.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+}
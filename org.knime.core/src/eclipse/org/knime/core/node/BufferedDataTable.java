@@ -277,12 +277,14 @@ private BufferedDataTable(final KnowsRowCountTable table, final int id,
         m_tableID = id;
     }
 
-    /** Package scope getter for underlying table implementation. Only needed
+    /** Getter for underlying table implementation. Only needed
      * if underlying table is of special kind and can be treated differently/
      * more efficiently by individual node implementations.
      * @return underlying table.
+     * @since 3.8
+     * @noreference This method is not intended to be referenced by clients.
      */
-    /*package*/ KnowsRowCountTable getDelegate() {
+    public KnowsRowCountTable getDelegate() {
         return m_delegate;
     }
 
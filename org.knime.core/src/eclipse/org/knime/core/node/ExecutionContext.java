@@ -612,7 +612,9 @@ public void clearTable(final BufferedDataTable table) {
         // maybe never will). The arg table is added to the local rep during
         // DataContainer#close but it can remove itself during clear()...
         // that's why we do it here.
-        m_localTableRepository.remove(id);
+        synchronized (m_localTableRepository) {
+            m_localTableRepository.remove(id);
+        }
     }
 
     /**
@@ -669,7 +671,8 @@ IDataRepository getDataRepository() {
      * Get reference to the local table repository. It contains
      * <code>ContainerTable</code> objects that have been created during the
      * execution of a node. Some of which will be put into the global
-     * repository after execution.
+     * repository after execution. Tables may be added and removed concurrently
+     * during execution, access must therefore be synchronized on the map.
      * @return The local table repository.
      */
     HashMap<Integer, ContainerTable> getLocalTableRepository() {
@@ -1420,7 +1420,7 @@ private static void saveFileStoreObjects(final Node node, final ReferencedFile n
             dirNameInFlow = baseDir == null ? null : FILESTORE_FOLDER_PREFIX;
             if (dirNameInFlow != null) {
                 File saveLocation = new File(nodeDirRef.getFile(), dirNameInFlow);
-                FileUtil.copyDir(baseDir, saveLocation);
+                defFileStoreHandler.copyBaseDirTo(saveLocation);
             }
             uuidS = defFileStoreHandler.getStoreUUID().toString();
         } else {
@@ -203,6 +203,17 @@ public final class KNIMEConstants {
      */
     public static final String PROPERTY_TABLE_COMPRESSION = "knime.compress.io";
 
+    /**
+     * Java property to set the maximum number of distinct values per column for which string cells are dictionary
+     * encoded when tables are written to disk; columns with more distinct values are written as usual. A value of 0
+     * disables dictionary encoding. The default is 1024.
+     * <p>
+     * <strong>Warning:</strong> Tables are written in table format version 13 (introduced with 3.8), whether
+     * dictionary encoding is used or not. Versions prior to 3.8 can't read these tables.
+     * @since 3.8
+     */
+    public static final String PROPERTY_TABLE_STRING_DICTIONARY_SIZE = "knime.table.dictionary.size";
+
     /**
      * @see #PROPERTY_TABLE_COMPRESSION
      * @deprecated replaced by {@link #PROPERTY_TABLE_COMPRESSION}
@@ -210,6 +221,101 @@ public final class KNIMEConstants {
     @Deprecated
     public static final String PROPERTY_TABLE_GZIP_COMPRESSION = PROPERTY_TABLE_COMPRESSION;
 
+    /**
+     * Java property to select the directory layout of newly created file stores. The value <code>hashed</code> uses a
+     * deeper tree of hashed folders with at most 256 entries each, which suits nodes creating millions of file
+     * stores; any other value (or none) selects the default layout of three levels with 1000 entries each. Existing
+     * file stores are always read in the layout they were written in.
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_FILESTORE_LAYOUT = "knime.filestore.layout";
+
+    /**
+     * Java property to enable packing of small file stores when a workflow is saved. File stores whose files are not
+     * larger than the given number of bytes are appended to a few segment files instead of being copied one by one
+     * into the workflow folder, which greatly reduces the number of files for nodes creating many small file stores.
+     * The default is 0 (disabled).
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_FILESTORE_PACK_THRESHOLD = "knime.filestore.pack.threshold";
+
+    /**
+     * Java property to execute nodes with distributable inputs (see {@link NodeModel#getInputPortRoles()}) by means of
+     * their streamable operators on the given number of partitions of the input, which are processed in parallel. The
+     * internals of the partitions are merged by the node's merge operator. A value of 0 (the default) disables
+     * partitioned execution.
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_PARTITIONED_EXECUTION = "knime.execution.partitions";
+
+    /**
+     * Java property to enable asynchronous logging. If set, log messages are passed to the log appenders (log file,
+     * console, workflow log files) by a dedicated thread so that threads executing nodes never block on logging I/O.
+     * The value defines what happens if the bounded message buffer is full: <code>block</code> waits for free space,
+     * <code>drop-debug</code> discards debug messages (and waits for free space for all other messages). If not set,
+     * messages are written synchronously.
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_ASYNC_LOGGING = "knime.logging.async";
+
+    /**
+     * Java property to set the number of log messages buffered for asynchronous logging (see
+     * {@link #PROPERTY_ASYNC_LOGGING}), default is 8192.
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_ASYNC_LOGGING_BUFFER_SIZE = "knime.logging.async.buffersize";
+
+    /**
+     * Java property to save the node settings of newly created workflows in a compact binary format (settings.bin)
+     * rather than as XML (settings.xml). The format is stored with each workflow and can be changed via
+     * {@link org.knime.core.node.workflow.WorkflowManager#setBinaryNodeSettings(boolean)}; this property is only the
+     * default for new workflows. Binary settings are recognized when loading, independent of this property; they
+     * can't be read by versions prior 3.8.
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_BINARY_NODE_SETTINGS = "knime.settings.binary";
+
+    /**
+     * Java property to enable recording of an execution trace (node queueing and execution, workflow lock waits,
+     * node save and load). The value is the number of events kept in memory; older events are overwritten. See
+     * {@link org.knime.core.node.workflow.ExecutionTrace}.
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_EXECUTION_TRACE = "knime.execution.trace";
+
+    /**
+     * Java property pointing to a file to which the execution trace (see {@link #PROPERTY_EXECUTION_TRACE}) is
+     * written when the application shuts down.
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_EXECUTION_TRACE_FILE = "knime.execution.trace.file";
+
+    /**
+     * Java property to disable the persistent cache of resolved extension point registry contents (kept in the
+     * KNIME home directory), which lets registries load contributed classes on demand at startup. The cache is
+     * validated against the versions of the contributing plug-ins and is never used when running from the SDK.
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_DISABLE_REGISTRY_CACHE = "knime.registry.cache.disable";
+
+    /**
+     * Java property to store a precomputed thumbnail with PNG image cells, whose larger side is (at most) the given
+     * number of pixels. Table views then render such images without decoding the full image. Cells with thumbnail
+     * can't be read by versions prior 3.8. Disabled by default.
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_PNG_THUMBNAIL_SIZE = "knime.png.thumbnail.size";
+
     /** Java property to enable/disable row ID duplicate checks on tables.
      * Tables in KNIME are supposed to have unique IDs, whereby the uniqueness
      * is asserted using a duplicate checker. This property will disable this
@@ -61,6 +61,7 @@
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Appender;
 import org.apache.log4j.FileAppender;
@@ -268,14 +269,20 @@ public void workflowChanged(final WorkflowEvent event) {
     public static final String LOG_FILE = "knime.log";
 
     /** Keeps set of <code>NodeLogger</code> elements by class name as key. */
-    private static final Map<String, NodeLogger> LOGGERS =
-            new HashMap<String, NodeLogger>();
+    private static final Map<String, NodeLogger> LOGGERS = new ConcurrentHashMap<String, NodeLogger>();
 
     /** Map of additionally added writers: Writer -> Appender. */
     private static final Map<Writer, WriterAppender> WRITER =
             new HashMap<Writer, WriterAppender>();
 
-    private static final Map<String, Appender> WF_APPENDER = new HashMap<>();
+    private static final Map<String, Appender> WF_APPENDER = new ConcurrentHashMap<>();
+
+    /** Fully qualified name of this class, used by log4j to determine the location of the logging call. */
+    private static final String FQCN = NodeLogger.class.getName();
+
+    /** Hands log events to a dedicated writer thread, <code>null</code> if logging is synchronous (the default).
+     * See {@link KNIMEConstants#PROPERTY_ASYNC_LOGGING}. */
+    private static final AsyncLogDispatcher ASYNC_DISPATCHER;
 
     /**
      * Maximum number of chars (10000) printed on <code>System.out</code> and
@@ -327,9 +334,40 @@ public void workflowChanged(final WorkflowEvent event) {
         } else {
             LOG_FILE_APPENDER = new NullAppender();
         }
+        ASYNC_DISPATCHER = initAsyncDispatcher();
         startMessage();
     }
 
+    private static AsyncLogDispatcher initAsyncDispatcher() {
+        final String policyValue = System.getProperty(KNIMEConstants.PROPERTY_ASYNC_LOGGING);
+        if (policyValue == null) {
+            return null;
+        }
+        final AsyncLogDispatcher.OverflowPolicy policy =
+            AsyncLogDispatcher.OverflowPolicy.fromPropertyValue(policyValue.trim());
+        if (policy == null) {
+            LogLog.warn("Invalid value for property " + KNIMEConstants.PROPERTY_ASYNC_LOGGING + " (\"" + policyValue
+                + "\"), using synchronous logging");
+            return null;
+        }
+        int bufferSize = AsyncLogDispatcher.DEFAULT_BUFFER_SIZE;
+        final String bufferSizeValue = System.getProperty(KNIMEConstants.PROPERTY_ASYNC_LOGGING_BUFFER_SIZE);
+        if (bufferSizeValue != null) {
+            try {
+                bufferSize = Integer.parseInt(bufferSizeValue.trim());
+                if (bufferSize <= 0) {
+                    throw new NumberFormatException("buffer size must be positive");
+                }
+            } catch (NumberFormatException nfe) {
+                LogLog.warn("Invalid value for property " + KNIMEConstants.PROPERTY_ASYNC_LOGGING_BUFFER_SIZE
+                    + " (\"" + bufferSizeValue + "\"), using default (" + AsyncLogDispatcher.DEFAULT_BUFFER_SIZE + ")");
+                bufferSize = AsyncLogDispatcher.DEFAULT_BUFFER_SIZE;
+            }
+        }
+        LogLog.debug("Asynchronous logging enabled (" + policy + ", buffer size " + bufferSize + ")");
+        return new AsyncLogDispatcher(bufferSize, policy);
+    }
+
 
     private static void initLog4J() throws IOException {
         final String file = System.getProperty("log4j.configuration");
@@ -587,14 +625,51 @@ public static NodeLogger getLogger(final Class<?> c) {
      * @return A new logger for the given name.
      */
     public static NodeLogger getLogger(final String s) {
-        synchronized (LOGGERS) {
-            if (LOGGERS.containsKey(s)) {
-                return LOGGERS.get(s);
-            } else {
-                NodeLogger logger = new NodeLogger(s);
-                LOGGERS.put(s, logger);
-                return logger;
-            }
+        NodeLogger logger = LOGGERS.get(s);
+        if (logger == null) {
+            logger = LOGGERS.computeIfAbsent(s, name -> new NodeLogger(name));
+        }
+        return logger;
+    }
+
+    /**
+     * Number of log messages that were discarded since startup because the buffer of the asynchronous logging was full
+     * (only debug messages are discarded and only if configured so, see
+     * {@link KNIMEConstants#PROPERTY_ASYNC_LOGGING}).
+     *
+     * @return the number of discarded messages, 0 if logging is synchronous
+     * @since 3.8
+     */
+    public static long getDroppedMessageCount() {
+        return ASYNC_DISPATCHER == null ? 0L : ASYNC_DISPATCHER.getDroppedCount();
+    }
+
+    /**
+     * Waits until all messages logged so far are passed to the appenders. Returns immediately if logging is
+     * synchronous.
+     *
+     * @param timeoutMillis the maximum time to wait in milliseconds
+     * @return <code>true</code> if all pending messages were written within the timeout
+     * @since 3.8
+     */
+    public static boolean flush(final long timeoutMillis) {
+        return ASYNC_DISPATCHER == null || ASYNC_DISPATCHER.flush(timeoutMillis);
+    }
+
+    /**
+     * Passes the message to the log4j logger, either directly or via the asynchronous dispatcher.
+     *
+     * @param level the level
+     * @param message the message (possibly wrapped in a {@link KNIMELogMessage})
+     * @param t an optional throwable
+     */
+    private void log(final Level level, final Object message, final Throwable t) {
+        final Logger logger = getLoggerInternal();
+        if (ASYNC_DISPATCHER == null) {
+            logger.log(FQCN, level, message, t);
+        } else if (!logger.getLoggerRepository().isDisabled(level.toInt())
+                && level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            ASYNC_DISPATCHER.dispatch(new LoggingEvent(FQCN, logger, level, message, t));
         }
     }
 
@@ -604,7 +679,7 @@ public static NodeLogger getLogger(final String s) {
      * @param o The object to print.
      */
     public void warn(final Object o) {
-        getLoggerInternal().warn(getLogObject(o));
+        log(Level.WARN, getLogObject(o), null);
     }
 
     /**
@@ -613,7 +688,7 @@ public void warn(final Object o) {
      * @param o The object to print.
      */
     public void debug(final Object o) {
-        getLoggerInternal().debug(getLogObject(o));
+        log(Level.DEBUG, getLogObject(o), null);
     }
 
 
@@ -791,11 +866,16 @@ private void removeWorkflowDirAppender(final File workflowDir) {
         }
         final String workflowDirPath = workflowDir.getPath();
         if (workflowDirPath != null) {
+            if (WF_APPENDER.containsKey(workflowDirPath)) {
+                // write out pending events before the appender is detached; not holding the lock as this may block
+                flush(1000);
+            }
+            final Appender appender;
             synchronized (WF_APPENDER) {
-                final Appender appender = WF_APPENDER.remove(workflowDirPath);
+                appender = WF_APPENDER.remove(workflowDirPath);
                 if (appender != null) {
-                    appender.close();
-                    //Remove the appender from all open node loggers
+                    //Remove the appender from all open node loggers, events still pending in the asynchronous
+                    //dispatcher then no longer reach it
                     @SuppressWarnings("unchecked")
                     final Enumeration<Logger> allLoggers = Logger.getRootLogger().getLoggerRepository().getCurrentLoggers();
                     while (allLoggers.hasMoreElements()) {
@@ -803,6 +883,9 @@ private void removeWorkflowDirAppender(final File workflowDir) {
                     }
                 }
             }
+            if (appender != null) {
+                appender.close();
+            }
         }
     }
 
@@ -812,7 +895,7 @@ private void removeWorkflowDirAppender(final File workflowDir) {
      * @param o The object to print.
      */
     public void info(final Object o) {
-        getLoggerInternal().info(getLogObject(o));
+        log(Level.INFO, getLogObject(o), null);
     }
 
     /**
@@ -821,7 +904,7 @@ public void info(final Object o) {
      * @param o The object to print.
      */
     public void error(final Object o) {
-        getLoggerInternal().error(getLogObject(o));
+        log(Level.ERROR, getLogObject(o), null);
     }
 
     /**
@@ -830,7 +913,7 @@ public void error(final Object o) {
      * @param o The object to print.
      */
     public void fatal(final Object o) {
-        getLoggerInternal().fatal(getLogObject(o));
+        log(Level.FATAL, getLogObject(o), null);
     }
 
     /**
@@ -840,7 +923,7 @@ public void fatal(final Object o) {
      * @param t The exception to log at debug level, including its stack trace.
      */
     public void warn(final Object o, final Throwable t) {
-        getLoggerInternal().warn(getLogObject(o), t);
+        log(Level.WARN, getLogObject(o), t);
     }
 
     /**
@@ -850,7 +933,7 @@ public void warn(final Object o, final Throwable t) {
      * @param t The exception to log, including its stack trace.
      */
     public void debug(final Object o, final Throwable t) {
-        getLoggerInternal().debug(getLogObject(o), t);
+        log(Level.DEBUG, getLogObject(o), t);
     }
 
     /**
@@ -860,7 +943,7 @@ public void debug(final Object o, final Throwable t) {
      * @param t The exception to log at debug level, including its stack trace.
      */
     public void info(final Object o, final Throwable t) {
-        getLoggerInternal().info(getLogObject(o), t);
+        log(Level.INFO, getLogObject(o), t);
     }
 
     /**
@@ -870,7 +953,7 @@ public void info(final Object o, final Throwable t) {
      * @param t The exception to log at debug level, including its stack trace.
      */
     public void error(final Object o, final Throwable t) {
-        getLoggerInternal().error(getLogObject(o), t);
+        log(Level.ERROR, getLogObject(o), t);
     }
 
     /**
@@ -881,7 +964,7 @@ public void error(final Object o, final Throwable t) {
      */
     public void assertLog(final boolean b, final String m) {
         if (KNIMEConstants.ASSERTIONS_ENABLED && !b) {
-            getLoggerInternal().error("ASSERT " + m, new AssertionError(m));
+            log(Level.ERROR, "ASSERT " + m, new AssertionError(m));
         }
     }
 
@@ -895,10 +978,12 @@ public void assertLog(final boolean b, final String m) {
     public void assertLog(final boolean b, final String m,
             final AssertionError e) {
         if (KNIMEConstants.ASSERTIONS_ENABLED) {
-            getLoggerInternal().assertLog(b, "ASSERT " + m);
+            if (!b) {
+                log(Level.ERROR, "ASSERT " + m, null);
+            }
             // for stacktrace
             if (!b & e != null) {
-                getLoggerInternal().debug("ASSERT\t " + m, e);
+                log(Level.DEBUG, "ASSERT\t " + m, e);
             }
         }
     }
@@ -911,7 +996,7 @@ public void assertLog(final boolean b, final String m,
      */
     public void coding(final Object o) {
         if (KNIMEConstants.ASSERTIONS_ENABLED || EclipseUtil.isRunFromSDK()) {
-            getLoggerInternal().error(getLogObject("CODING PROBLEM\t" + o));
+            log(Level.ERROR, getLogObject("CODING PROBLEM\t" + o), null);
         }
     }
 
@@ -924,7 +1009,7 @@ public void coding(final Object o) {
      */
     public void coding(final Object o, final Throwable t) {
         if (KNIMEConstants.ASSERTIONS_ENABLED || EclipseUtil.isRunFromSDK()) {
-            getLoggerInternal().error(getLogObject("CODING PROBLEM\t" + o), t);
+            log(Level.ERROR, getLogObject("CODING PROBLEM\t" + o), t);
         }
     }
 
@@ -935,7 +1020,7 @@ public void coding(final Object o, final Throwable t) {
      * @param t The exception to log at debug level, including its stack trace.
      */
     public void fatal(final Object o, final Throwable t) {
-        getLoggerInternal().fatal(getLogObject(o), t);
+        log(Level.FATAL, getLogObject(o), t);
     }
 
     /**
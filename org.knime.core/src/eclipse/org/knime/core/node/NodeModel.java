@@ -564,7 +564,13 @@ PortObject[] executeModel(final PortObject[] rawData, final ExecutionEnvironment
         // EXECUTE DERIVED MODEL
         PortObject[] outData;
         if (!exEnv.reExecute()) {
-            outData = execute(data, exec);
+            final int partitionCount = PartitionedStreamableExecutor.getPartitionCount(this, data);
+            if (partitionCount > 0) {
+                outData = new PartitionedStreamableExecutor(this, partitionCount,
+                    PartitionedStreamableExecutor.DEFAULT_MERGE_FAN_IN).execute(data, exec);
+            } else {
+                outData = execute(data, exec);
+            }
         } else {
             //FIXME: implement reexecution with loading view content and execute
             if (this instanceof InteractiveNode) {
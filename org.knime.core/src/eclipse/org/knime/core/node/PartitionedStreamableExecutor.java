@@ -0,0 +1,631 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.node.interactive.InteractiveNode;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.port.inactive.InactiveBranchPortObject;
+import org.knime.core.node.streamable.InputPortRole;
+import org.knime.core.node.streamable.MergeOperator;
+import org.knime.core.node.streamable.OutputPortRole;
+import org.knime.core.node.streamable.PartitionInfo;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortObjectInput;
+import org.knime.core.node.streamable.PortObjectOutput;
+import org.knime.core.node.streamable.PortOutput;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.node.streamable.StreamableOperator;
+import org.knime.core.node.streamable.StreamableOperatorInternals;
+import org.knime.core.node.util.CheckUtils;
+import org.knime.core.node.workflow.LoopEndNode;
+import org.knime.core.node.workflow.LoopStartNode;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Executes a {@link NodeModel} by means of its
+ * {@link NodeModel#createStreamableOperator(PartitionInfo, PortObjectSpec[]) streamable operators}. Distributable
+ * data inputs are split into contiguous row ranges (one per partition), each partition is processed by its own
+ * {@link StreamableOperator} in a sub pool of the {@link KNIMEConstants#GLOBAL_THREAD_POOL global thread pool}, and
+ * the operator internals are merged using the node's {@link MergeOperator} -- hierarchically in a tree of fixed
+ * fan-in if {@link MergeOperator#isHierarchical()} permits, otherwise in one single call.
+ *
+ * <p>
+ * Although all partitions run in the current JVM, the internals of each operator are passed back through
+ * {@link StreamableOperatorInternals#save(DataOutputStream)} and
+ * {@link StreamableOperatorInternals#load(DataInputStream)}, just as if they had been computed remotely. Nodes that
+ * pass here are therefore also ready for execution in separate processes.
+ *
+ * <p>
+ * Iterative nodes are supported: as long as {@link NodeModel#iterate(StreamableOperatorInternals)} returns
+ * <code>true</code> all partitions run {@link StreamableOperator#runIntermediate(PortInput[], ExecutionContext)} and
+ * their internals are merged via {@link MergeOperator#mergeIntermediate(StreamableOperatorInternals[])}.
+ *
+ * <p>
+ * {@link NodeModel} uses this executor instead of {@link NodeModel#execute(PortObject[], ExecutionContext)} if the
+ * {@link KNIMEConstants#PROPERTY_PARTITIONED_EXECUTION} property is set and the node supports it, see
+ * {@link #getPartitionCount(NodeModel, PortObject[])}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ * @noreference This class is not intended to be referenced by clients (pending API).
+ */
+public final class PartitionedStreamableExecutor {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(PartitionedStreamableExecutor.class);
+
+    /** Default number of internals that are merged in one step of a hierarchical merge. */
+    public static final int DEFAULT_MERGE_FAN_IN = 4;
+
+    private final NodeModel m_model;
+
+    private final int m_partitionCount;
+
+    private final int m_mergeFanIn;
+
+    private final ThreadPool m_pool;
+
+    /**
+     * Creates a new executor using as many partitions as there are available processors.
+     *
+     * @param model the node model to execute, not <code>null</code>
+     */
+    public PartitionedStreamableExecutor(final NodeModel model) {
+        this(model, Runtime.getRuntime().availableProcessors(), DEFAULT_MERGE_FAN_IN);
+    }
+
+    /**
+     * Creates a new executor.
+     *
+     * @param model the node model to execute, not <code>null</code>
+     * @param partitionCount the number of partitions distributable inputs are split into, at least 1
+     * @param mergeFanIn the number of internals merged in one step of a hierarchical merge, at least 2
+     */
+    public PartitionedStreamableExecutor(final NodeModel model, final int partitionCount, final int mergeFanIn) {
+        CheckUtils.checkArgument(model != null, "Node model must not be null");
+        CheckUtils.checkArgument(partitionCount >= 1, "Partition count must be at least 1: " + partitionCount);
+        CheckUtils.checkArgument(mergeFanIn >= 2, "Merge fan-in must be at least 2: " + mergeFanIn);
+        m_model = model;
+        m_partitionCount = partitionCount;
+        m_mergeFanIn = mergeFanIn;
+        m_pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(partitionCount);
+    }
+
+    /**
+     * Determines whether a node is executed by this executor, which is the case if the
+     * {@link KNIMEConstants#PROPERTY_PARTITIONED_EXECUTION} property is set and the node
+     * <ul>
+     * <li>has at least one distributable data input (and neither an inactive input nor a data input that is
+     * streamable but not distributable),</li>
+     * <li>provides its own streamable operator,</li>
+     * <li>provides a merge operator or only has distributable outputs, and</li>
+     * <li>is neither part of a loop nor an interactive node.</li>
+     * </ul>
+     *
+     * @param model the node model about to be executed
+     * @param inObjects its input objects (without the flow variable port)
+     * @return the number of partitions to use or 0 if the node is to be executed as usual
+     */
+    static int getPartitionCount(final NodeModel model, final PortObject[] inObjects) {
+        final int partitionCount = Integer.getInteger(KNIMEConstants.PROPERTY_PARTITIONED_EXECUTION, 0);
+        if (partitionCount <= 0 || model instanceof LoopStartNode || model instanceof LoopEndNode
+            || model instanceof InteractiveNode) {
+            return 0;
+        }
+        try {
+            if (model.getClass().getMethod("createStreamableOperator", PartitionInfo.class, PortObjectSpec[].class)
+                .getDeclaringClass() == NodeModel.class) {
+                // the default operator delegates to execute, it can't be distributed
+                return 0;
+            }
+        } catch (NoSuchMethodException e) {
+            return 0;
+        }
+        final InputPortRole[] inRoles = model.getInputPortRoles();
+        boolean hasDistributableInput = false;
+        for (int i = 0; i < inRoles.length; i++) {
+            if (inObjects[i] instanceof InactiveBranchPortObject) {
+                return 0;
+            }
+            if (!inRoles[i].isDistributable() && inRoles[i].isStreamable() && inObjects[i] != null) {
+                // all its rows must go to a single operator
+                return 0;
+            }
+            hasDistributableInput |= inRoles[i].isDistributable() && inObjects[i] instanceof BufferedDataTable;
+        }
+        if (!hasDistributableInput
+            || (hasNonDistributedOutput(model.getOutputPortRoles()) && model.createMergeOperator() == null)) {
+            return 0;
+        }
+        return partitionCount;
+    }
+
+    /**
+     * Runs the node on the given input, using the specs of the input objects.
+     *
+     * @param inObjects the input objects (without the flow variable port), not <code>null</code>
+     * @param exec the context for progress, cancelation and table creation
+     * @return the output objects (without the flow variable port)
+     * @throws Exception as thrown by the streamable operators or the node model
+     */
+    PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
+        final PortObjectSpec[] inSpecs = new PortObjectSpec[inObjects.length];
+        for (int i = 0; i < inObjects.length; i++) {
+            inSpecs[i] = inObjects[i] == null ? null : inObjects[i].getSpec();
+        }
+        return execute(inObjects, inSpecs, exec);
+    }
+
+    /** @return the number of partitions distributable inputs are split into. */
+    public int getPartitionCount() {
+        return m_partitionCount;
+    }
+
+    /**
+     * Runs the node on the given input.
+     *
+     * @param inObjects the input objects (without the flow variable port), not <code>null</code>
+     * @param inSpecs the specs the node was last configured with
+     * @param exec the context for progress, cancelation and table creation
+     * @return the output objects (without the flow variable port)
+     * @throws Exception as thrown by the streamable operators or the node model
+     */
+    public PortObject[] execute(final PortObject[] inObjects, final PortObjectSpec[] inSpecs,
+        final ExecutionContext exec) throws Exception {
+        final InputPortRole[] inRoles = m_model.getInputPortRoles();
+        final OutputPortRole[] outRoles = m_model.getOutputPortRoles();
+        boolean isDistributed = false;
+        boolean hasNonDistributedStream = false;
+        for (int i = 0; i < inRoles.length; i++) {
+            if (inRoles[i].isDistributable()) {
+                if (!(inObjects[i] instanceof BufferedDataTable)) {
+                    throw new IllegalStateException("Distributable input " + i + " is not a data table");
+                }
+                isDistributed = true;
+            } else if (inRoles[i].isStreamable() && inObjects[i] != null) {
+                hasNonDistributedStream = true;
+            }
+        }
+        if (isDistributed && hasNonDistributedStream) {
+            // the rows of a streamable, non-distributable input must all go to one operator
+            LOGGER.debug("Node \"" + m_model.getClass().getSimpleName() + "\" has a streamable input that is not "
+                + "distributable, running a single partition");
+        }
+        final int nrPartitions = isDistributed && !hasNonDistributedStream ? m_partitionCount : 1;
+        final MergeOperator mergeOperator = m_model.createMergeOperator();
+        if (isDistributed && mergeOperator == null && hasNonDistributedOutput(outRoles)) {
+            throw new IllegalStateException("Node has distributable input and non-distributable output but does "
+                + "not provide a merge operator");
+        }
+
+        StreamableOperatorInternals internals = m_model.createInitialStreamableOperatorInternals();
+        int iteration = 0;
+        while (m_model.iterate(internals)) {
+            exec.checkCanceled();
+            exec.setMessage("Iteration " + (++iteration));
+            StreamableOperatorInternals[] partInternals = runPartitions(inObjects, inSpecs, inRoles, null, internals,
+                nrPartitions, isDistributed, exec.createSilentSubExecutionContext(0.0));
+            exec.checkCanceled();
+            internals = merge(mergeOperator, partInternals, false);
+        }
+
+        exec.setMessage("Processing " + nrPartitions + " partition(s)");
+        final PortObjectSpec[] outSpecs = m_model.computeFinalOutputSpecs(internals, inSpecs);
+        final ExecutionContext partsExec = exec.createSubExecutionContext(0.9);
+        PartitionOutputs[] partOutputs = new PartitionOutputs[nrPartitions];
+        for (int p = 0; p < nrPartitions; p++) {
+            partOutputs[p] = new PartitionOutputs(outSpecs, outRoles, true, !isDistributed);
+        }
+        StreamableOperatorInternals[] finalInternals =
+            runPartitions(inObjects, inSpecs, inRoles, partOutputs, internals, nrPartitions, isDistributed, partsExec);
+        partsExec.setProgress(1.0);
+        exec.checkCanceled();
+
+        final ExecutionContext finishExec = exec.createSubExecutionContext(0.1);
+        PortObject[] result = new PortObject[outRoles.length];
+        if (isDistributed) {
+            PartitionOutputs finishOutputs = new PartitionOutputs(outSpecs, outRoles, false, true);
+            if (mergeOperator != null) {
+                StreamableOperatorInternals merged = merge(mergeOperator, finalInternals, true);
+                finishOutputs.initialize(finishExec);
+                m_model.finishStreamableExecution(merged, finishExec, finishOutputs.m_outputs);
+            }
+            for (int o = 0; o < outRoles.length; o++) {
+                if (outRoles[o].isDistributable()) {
+                    BufferedDataTable[] tables = new BufferedDataTable[nrPartitions];
+                    for (int p = 0; p < nrPartitions; p++) {
+                        tables[p] = partOutputs[p].getTable(o);
+                    }
+                    result[o] = finishExec.createConcatenateTable(finishExec, tables);
+                } else {
+                    result[o] = finishOutputs.getPortObject(o);
+                }
+            }
+        } else {
+            for (int o = 0; o < outRoles.length; o++) {
+                result[o] = partOutputs[0].getPortObject(o);
+            }
+        }
+        finishExec.setProgress(1.0);
+        return result;
+    }
+
+    private static boolean hasNonDistributedOutput(final OutputPortRole[] outRoles) {
+        return Arrays.stream(outRoles).anyMatch(r -> !r.isDistributable());
+    }
+
+    /**
+     * Runs one pass over all partitions, either the final one (<code>outputs</code> non-null) or an intermediate one.
+     * Returns the (shipped) internals of each partition, elements may be <code>null</code>.
+     */
+    private StreamableOperatorInternals[] runPartitions(final PortObject[] inObjects,
+        final PortObjectSpec[] inSpecs, final InputPortRole[] inRoles, final PartitionOutputs[] outputs,
+        final StreamableOperatorInternals internals, final int nrPartitions, final boolean ship,
+        final ExecutionContext exec) throws Exception {
+        final byte[] shippedInternals = ship && internals != null ? toBytes(internals) : null;
+        final List<Future<StreamableOperatorInternals>> futures = new ArrayList<>(nrPartitions);
+        try {
+            for (int p = 0; p < nrPartitions; p++) {
+                final PartitionInfo partitionInfo = new PartitionInfo(p, nrPartitions);
+                final ExecutionContext partExec = exec.createSubExecutionContext(1.0 / nrPartitions);
+                final PartitionOutputs partOutputs = outputs == null ? null : outputs[p];
+                futures.add(m_pool.enqueue(new Callable<StreamableOperatorInternals>() {
+                    @Override
+                    public StreamableOperatorInternals call() throws Exception {
+                        StreamableOperator operator = m_model.createStreamableOperator(partitionInfo, inSpecs);
+                        if (internals != null) {
+                            operator.loadInternals(shippedInternals == null ? internals
+                                : fromBytes(internals.getClass(), shippedInternals));
+                        }
+                        PortInput[] inputs = createInputs(inObjects, inRoles, partitionInfo);
+                        try {
+                            if (partOutputs == null) {
+                                operator.runIntermediate(inputs, partExec);
+                            } else {
+                                partOutputs.initialize(partExec);
+                                operator.runFinal(inputs, partOutputs.m_outputs, partExec);
+                            }
+                        } finally {
+                            for (PortInput in : inputs) {
+                                if (in instanceof RowInput) {
+                                    ((RowInput)in).close();
+                                }
+                            }
+                        }
+                        partExec.setProgress(1.0);
+                        StreamableOperatorInternals result = operator.saveInternals();
+                        return ship && result != null ? fromBytes(result.getClass(), toBytes(result))
+                            : result;
+                    }
+                }));
+            }
+            return waitForAll(futures);
+        } catch (Exception e) {
+            futures.stream().forEach(f -> f.cancel(true));
+            throw e;
+        }
+    }
+
+    /** Waits for the futures; invisible in the calling thread's pool so that the partitions get the free slots. */
+    private static StreamableOperatorInternals[] waitForAll(final List<Future<StreamableOperatorInternals>> futures)
+        throws Exception {
+        Callable<StreamableOperatorInternals[]> waiter = new Callable<StreamableOperatorInternals[]>() {
+            @Override
+            public StreamableOperatorInternals[] call() throws Exception {
+                StreamableOperatorInternals[] results = new StreamableOperatorInternals[futures.size()];
+                for (int i = 0; i < results.length; i++) {
+                    results[i] = futures.get(i).get();
+                }
+                return results;
+            }
+        };
+        ThreadPool currentPool = ThreadPool.currentPool();
+        try {
+            return currentPool != null ? currentPool.runInvisible(waiter) : waiter.call();
+        } catch (ExecutionException ee) {
+            Throwable cause = ee;
+            while (cause instanceof ExecutionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof Exception) {
+                throw (Exception)cause;
+            }
+            throw ee;
+        }
+    }
+
+    private static PortInput[] createInputs(final PortObject[] inObjects, final InputPortRole[] inRoles,
+        final PartitionInfo partitionInfo) {
+        PortInput[] inputs = new PortInput[inObjects.length];
+        for (int i = 0; i < inObjects.length; i++) {
+            if (inObjects[i] == null) {
+                continue; // optional input
+            }
+            if (inRoles[i].isDistributable()) {
+                inputs[i] = new RowRangeInput((BufferedDataTable)inObjects[i], partitionInfo);
+            } else if (inRoles[i].isStreamable()) {
+                // only with a single partition, see execute
+                inputs[i] = new RowRangeInput((BufferedDataTable)inObjects[i], new PartitionInfo(0, 1));
+            } else {
+                inputs[i] = new PortObjectInput(inObjects[i]);
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * Merges the argument internals, hierarchically if supported by the merge operator. Null elements (operators
+     * without internals) are ignored.
+     */
+    private StreamableOperatorInternals merge(final MergeOperator mergeOperator,
+        final StreamableOperatorInternals[] internals, final boolean isFinal) throws Exception {
+        List<StreamableOperatorInternals> level = new ArrayList<>(internals.length);
+        for (StreamableOperatorInternals i : internals) {
+            if (i != null) {
+                level.add(i);
+            }
+        }
+        if (mergeOperator == null) {
+            if (level.size() > 1) {
+                LOGGER.coding("Node \"" + m_model.getClass().getSimpleName() + "\" creates operator internals "
+                    + "but no merge operator; using internals of first partition");
+            }
+            return level.isEmpty() ? null : level.get(0);
+        }
+        if (mergeOperator.isHierarchical()) {
+            while (level.size() > m_mergeFanIn) {
+                List<Future<StreamableOperatorInternals>> futures = new ArrayList<>();
+                for (int start = 0; start < level.size(); start += m_mergeFanIn) {
+                    final StreamableOperatorInternals[] group = level
+                        .subList(start, Math.min(start + m_mergeFanIn, level.size()))
+                        .toArray(new StreamableOperatorInternals[0]);
+                    futures.add(m_pool.enqueue(() -> group.length == 1 ? group[0] : mergeStep(mergeOperator, group,
+                        isFinal)));
+                }
+                level = new ArrayList<>(Arrays.asList(waitForAll(futures)));
+            }
+        }
+        return mergeStep(mergeOperator, level.toArray(new StreamableOperatorInternals[0]), isFinal);
+    }
+
+    private static StreamableOperatorInternals mergeStep(final MergeOperator mergeOperator,
+        final StreamableOperatorInternals[] group, final boolean isFinal) {
+        return isFinal ? mergeOperator.mergeFinal(group) : mergeOperator.mergeIntermediate(group);
+    }
+
+    /** Persists the internals using their own serialization. */
+    private static byte[] toBytes(final StreamableOperatorInternals internals) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            internals.save(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Restores internals from their serialized form via the mandatory no-arg constructor. */
+    private static StreamableOperatorInternals fromBytes(final Class<? extends StreamableOperatorInternals> cl,
+        final byte[] bytes) throws IOException {
+        StreamableOperatorInternals result;
+        try {
+            result = cl.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Unable to instantiate internals class \"" + cl.getName()
+                + "\" (public no-arg constructor required): " + e.getMessage(), e);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            result.load(in);
+        }
+        return result;
+    }
+
+    /** Row input on a contiguous range of rows of a table, determined by the partition info. */
+    private static final class RowRangeInput extends RowInput {
+
+        private final DataTableSpec m_spec;
+
+        private final CloseableRowIterator m_iterator;
+
+        RowRangeInput(final BufferedDataTable table, final PartitionInfo partitionInfo) {
+            m_spec = table.getDataTableSpec();
+            final long size = table.size();
+            final long from = size * partitionInfo.getPartitionIndex() / partitionInfo.getPartitionCount();
+            final long to = size * (partitionInfo.getPartitionIndex() + 1) / partitionInfo.getPartitionCount() - 1;
+            if (partitionInfo.getPartitionCount() == 1) {
+                m_iterator = table.iterator();
+            } else if (from > to) {
+                m_iterator = null;
+            } else {
+                m_iterator = table.filter(TableFilter.filterRangeOfRows(from, to)).iterator();
+            }
+        }
+
+        @Override
+        public DataTableSpec getDataTableSpec() {
+            return m_spec;
+        }
+
+        @Override
+        public DataRow poll() throws InterruptedException {
+            if (m_iterator != null && m_iterator.hasNext()) {
+                return m_iterator.next();
+            }
+            return null;
+        }
+
+        @Override
+        public void close() {
+            if (m_iterator != null) {
+                m_iterator.close();
+            }
+        }
+    }
+
+    /** The output handles of one partition (or of the final merge step). */
+    private final class PartitionOutputs {
+
+        private final PortObjectSpec[] m_specs;
+
+        private final OutputPortRole[] m_roles;
+
+        private final boolean m_includeDistributed;
+
+        private final boolean m_includeNonDistributed;
+
+        private final PortOutput[] m_outputs;
+
+        PartitionOutputs(final PortObjectSpec[] specs, final OutputPortRole[] roles,
+            final boolean includeDistributed, final boolean includeNonDistributed) {
+            m_specs = specs;
+            m_roles = roles;
+            m_includeDistributed = includeDistributed;
+            m_includeNonDistributed = includeNonDistributed;
+            m_outputs = new PortOutput[roles.length];
+        }
+
+        void initialize(final ExecutionContext exec) {
+            for (int o = 0; o < m_outputs.length; o++) {
+                if (m_roles[o].isDistributable() ? m_includeDistributed : m_includeNonDistributed) {
+                    if (m_model.getOutPortType(o).equals(BufferedDataTable.TYPE)) {
+                        m_outputs[o] = new TableRowOutput((DataTableSpec)m_specs[o], exec);
+                    } else {
+                        m_outputs[o] = new PortObjectOutput();
+                    }
+                }
+            }
+        }
+
+        BufferedDataTable getTable(final int port) {
+            return ((TableRowOutput)m_outputs[port]).getTable();
+        }
+
+        PortObject getPortObject(final int port) {
+            PortOutput out = m_outputs[port];
+            if (out instanceof TableRowOutput) {
+                return ((TableRowOutput)out).getTable();
+            } else if (out instanceof PortObjectOutput) {
+                return ((PortObjectOutput)out).getPortObject();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Row output writing into a table. The container is created lazily so that operators can also
+     * {@link #setFully(BufferedDataTable) set} a table whose spec wasn't known upfront.
+     */
+    private static final class TableRowOutput extends RowOutput {
+
+        private final DataTableSpec m_spec;
+
+        private final ExecutionContext m_exec;
+
+        private BufferedDataContainer m_container;
+
+        private BufferedDataTable m_table;
+
+        TableRowOutput(final DataTableSpec spec, final ExecutionContext exec) {
+            m_spec = spec;
+            m_exec = exec;
+        }
+
+        @Override
+        public void push(final DataRow row) throws InterruptedException {
+            if (m_container == null) {
+                if (m_spec == null) {
+                    throw new IllegalStateException("Output spec not known, use setFully instead");
+                }
+                m_container = m_exec.createDataContainer(m_spec);
+            }
+            m_container.addRowToTable(row);
+        }
+
+        @Override
+        public void setFully(final BufferedDataTable table) throws InterruptedException {
+            if (m_container != null) {
+                throw new IllegalStateException("Rows were added previously");
+            }
+            m_table = table;
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            if (m_table == null) {
+                if (m_container == null) {
+                    m_container = m_exec.createDataContainer(m_spec);
+                }
+                m_container.close();
+                m_table = m_container.getTable();
+            }
+        }
+
+        BufferedDataTable getTable() {
+            if (m_table == null) {
+                try {
+                    close();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return m_table;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+import org.knime.core.node.config.base.AbstractConfigEntry;
+import org.knime.core.node.config.base.ConfigBase;
+import org.knime.core.node.config.base.ConfigBooleanEntry;
+import org.knime.core.node.config.base.ConfigByteEntry;
+import org.knime.core.node.config.base.ConfigCharEntry;
+import org.knime.core.node.config.base.ConfigDoubleEntry;
+import org.knime.core.node.config.base.ConfigEntries;
+import org.knime.core.node.config.base.ConfigFloatEntry;
+import org.knime.core.node.config.base.ConfigIntEntry;
+import org.knime.core.node.config.base.ConfigLongEntry;
+import org.knime.core.node.config.base.ConfigPasswordEntry;
+import org.knime.core.node.config.base.ConfigShortEntry;
+import org.knime.core.node.config.base.ConfigStringEntry;
+import org.knime.core.node.config.base.ConfigTransientStringEntry;
+
+/**
+ * Compact binary encoding of a {@link Config} tree, an alternative to the XML representation for cases where no
+ * human-readable file is needed. Entries are written in their natural order along with their type, so that a config
+ * read from the binary form saves into exactly the same XML as the original config.
+ *
+ * <p>Like the XML representation, transient strings are not persisted; they are restored with a <code>null</code>
+ * value. Passwords are written as they are held in memory, i.e. not encrypted.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class ConfigBinaryFormat {
+
+    /** First bytes of each binary config, "KCFB". XML content can't start with these bytes. */
+    private static final int MAGIC = 0x4B434642;
+
+    private static final int VERSION = 1;
+
+    private static final byte TYPE_CONFIG = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_DOUBLE = 2;
+    private static final byte TYPE_STRING = 3;
+    private static final byte TYPE_CHAR = 4;
+    private static final byte TYPE_SHORT = 5;
+    private static final byte TYPE_LONG = 6;
+    private static final byte TYPE_BYTE = 7;
+    private static final byte TYPE_BOOLEAN = 8;
+    private static final byte TYPE_FLOAT = 9;
+    private static final byte TYPE_TRANSIENT_STRING = 10;
+    private static final byte TYPE_PASSWORD = 11;
+
+    private ConfigBinaryFormat() {
+    }
+
+    /**
+     * Writes the config in binary form to the stream. The stream will be closed by this call (consistent with
+     * {@link Config#saveToXML(OutputStream)}).
+     *
+     * @param config the config to write
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public static void save(final ConfigBase config, final OutputStream out) throws IOException {
+        try (DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out))) {
+            dataOut.writeInt(MAGIC);
+            dataOut.writeByte(VERSION);
+            writeString(dataOut, config.getKey());
+            writeChildren(dataOut, config);
+        }
+    }
+
+    /**
+     * Reads config entries in binary form (as written by {@link #save(ConfigBase, OutputStream)}) into the argument
+     * config. The stream will be closed by this call.
+     *
+     * @param config the config to add the entries to
+     * @param in the stream to read from
+     * @throws IOException if reading fails or the content is not a binary config
+     */
+    public static void load(final Config config, final InputStream in) throws IOException {
+        try (DataInputStream dataIn = new DataInputStream(in)) {
+            readHeader(dataIn); // key of the root, determined by the argument config
+            readChildren(dataIn, config);
+        }
+    }
+
+    /**
+     * Reads a config in binary form (as written by {@link #save(ConfigBase, OutputStream)}), whereby the root config
+     * is created with the key it was saved with. The stream will be closed by this call.
+     *
+     * @param <C> the type of the config
+     * @param in the stream to read from
+     * @param configFactory creates the (empty) root config for a given key, e.g. <code>NodeSettings::new</code>
+     * @return the config created by the factory, filled with the entries read
+     * @throws IOException if reading fails or the content is not a binary config
+     */
+    public static <C extends Config> C load(final InputStream in, final Function<String, C> configFactory)
+        throws IOException {
+        try (DataInputStream dataIn = new DataInputStream(in)) {
+            final C config = configFactory.apply(readHeader(dataIn));
+            readChildren(dataIn, config);
+            return config;
+        }
+    }
+
+    /** Checks magic number and version and returns the key of the root config. */
+    private static String readHeader(final DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Content is not a binary config");
+        }
+        int version = in.readUnsignedByte();
+        if (version > VERSION) {
+            throw new IOException("Unsupported binary config version " + version + " (written by a newer version?)");
+        }
+        return readString(in);
+    }
+
+    /**
+     * Determines whether the stream contains a config in binary form (as opposed to XML). The stream is reset to its
+     * current position afterwards.
+     *
+     * @param in the stream to check
+     * @return <code>true</code> if the content starts with the binary config header
+     * @throws IOException if reading fails
+     */
+    public static boolean isBinary(final BufferedInputStream in) throws IOException {
+        in.mark(4);
+        try {
+            int header = 0;
+            for (int i = 0; i < 4; i++) {
+                int b = in.read();
+                if (b < 0) {
+                    return false;
+                }
+                header = (header << 8) | b;
+            }
+            return header == MAGIC;
+        } finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * Loads a config from a stream that contains either XML or the binary form. The stream will be closed by this
+     * call.
+     *
+     * @param config the config to add the entries to
+     * @param in the stream to read from
+     * @throws IOException if reading fails
+     */
+    public static void loadXMLOrBinary(final Config config, final InputStream in) throws IOException {
+        BufferedInputStream bufIn = in instanceof BufferedInputStream ? (BufferedInputStream)in
+            : new BufferedInputStream(in);
+        if (isBinary(bufIn)) {
+            load(config, bufIn);
+        } else {
+            config.load(bufIn);
+        }
+    }
+
+    private static void writeChildren(final DataOutputStream out, final ConfigBase config) throws IOException {
+        out.writeInt(config.keySet().size());
+        for (String key : config.keySet()) {
+            AbstractConfigEntry entry = config.getEntry(key);
+            ConfigEntries type = entry.getType();
+            switch (type) {
+                case config:
+                    out.writeByte(TYPE_CONFIG);
+                    writeString(out, key);
+                    writeChildren(out, (ConfigBase)entry);
+                    break;
+                case xint:
+                    out.writeByte(TYPE_INT);
+                    writeString(out, key);
+                    out.writeInt(((ConfigIntEntry)entry).getInt());
+                    break;
+                case xdouble:
+                    out.writeByte(TYPE_DOUBLE);
+                    writeString(out, key);
+                    out.writeDouble(((ConfigDoubleEntry)entry).getDouble());
+                    break;
+                case xstring:
+                    out.writeByte(TYPE_STRING);
+                    writeString(out, key);
+                    writeString(out, ((ConfigStringEntry)entry).getString());
+                    break;
+                case xchar:
+                    out.writeByte(TYPE_CHAR);
+                    writeString(out, key);
+                    out.writeChar(((ConfigCharEntry)entry).getChar());
+                    break;
+                case xshort:
+                    out.writeByte(TYPE_SHORT);
+                    writeString(out, key);
+                    out.writeShort(((ConfigShortEntry)entry).getShort());
+                    break;
+                case xlong:
+                    out.writeByte(TYPE_LONG);
+                    writeString(out, key);
+                    out.writeLong(((ConfigLongEntry)entry).getLong());
+                    break;
+                case xbyte:
+                    out.writeByte(TYPE_BYTE);
+                    writeString(out, key);
+                    out.writeByte(((ConfigByteEntry)entry).getByte());
+                    break;
+                case xboolean:
+                    out.writeByte(TYPE_BOOLEAN);
+                    writeString(out, key);
+                    out.writeBoolean(((ConfigBooleanEntry)entry).getBoolean());
+                    break;
+                case xfloat:
+                    out.writeByte(TYPE_FLOAT);
+                    writeString(out, key);
+                    out.writeFloat(((ConfigFloatEntry)entry).getFloat());
+                    break;
+                case xtransientstring:
+                    out.writeByte(TYPE_TRANSIENT_STRING);
+                    writeString(out, key);
+                    break;
+                case xpassword:
+                    out.writeByte(TYPE_PASSWORD);
+                    writeString(out, key);
+                    writeString(out, ((ConfigPasswordEntry)entry).getPassword());
+                    break;
+                default:
+                    throw new IOException("Unsupported config entry type " + type + " (key \"" + key + "\")");
+            }
+        }
+    }
+
+    private static void readChildren(final DataInputStream in, final Config config) throws IOException {
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            byte type = in.readByte();
+            String key = readString(in);
+            switch (type) {
+                case TYPE_CONFIG:
+                    readChildren(in, config.addConfig(key));
+                    break;
+                case TYPE_INT:
+                    config.addInt(key, in.readInt());
+                    break;
+                case TYPE_DOUBLE:
+                    config.addDouble(key, in.readDouble());
+                    break;
+                case TYPE_STRING:
+                    config.addString(key, readString(in));
+                    break;
+                case TYPE_CHAR:
+                    config.addChar(key, in.readChar());
+                    break;
+                case TYPE_SHORT:
+                    config.addShort(key, in.readShort());
+                    break;
+                case TYPE_LONG:
+                    config.addLong(key, in.readLong());
+                    break;
+                case TYPE_BYTE:
+                    config.addByte(key, in.readByte());
+                    break;
+                case TYPE_BOOLEAN:
+                    config.addBoolean(key, in.readBoolean());
+                    break;
+                case TYPE_FLOAT:
+                    config.addFloat(key, in.readFloat());
+                    break;
+                case TYPE_TRANSIENT_STRING:
+                    config.addEntry(new ConfigTransientStringEntry(key, null));
+                    break;
+                case TYPE_PASSWORD:
+                    config.addEntry(new ConfigPasswordEntry(key, readString(in)));
+                    break;
+                default:
+                    throw new IOException("Invalid entry type " + type + " in binary config (key \"" + key + "\")");
+            }
+        }
+    }
+
+    /** Writes a nullable string as length (-1 for null) followed by its UTF-8 bytes. */
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        try {
+            in.readFully(bytes);
+        } catch (EOFException e) {
+            throw new IOException("Premature end of binary config", e);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -50,6 +50,7 @@
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -90,6 +91,12 @@ public final class PortTypeRegistry {
 
     private final Map<Class<? extends PortObject>, PortType> m_allOptionalPortTypes = new HashMap<>();
 
+    /** Extension elements by port object class name, in the order of the extension point. */
+    private final Map<String, IConfigurationElement> m_objectElements = new LinkedHashMap<>();
+
+    /** Extension elements by port object spec class name, in the order of the extension point. */
+    private final Map<String, IConfigurationElement> m_specElements = new LinkedHashMap<>();
+
     private static final PortTypeRegistry INSTANCE = new PortTypeRegistry();
 
     /**
@@ -107,6 +114,11 @@ private PortTypeRegistry() {
         IExtensionPoint point = registry.getExtensionPoint(EXT_POINT_ID);
         assert point != null : "Invalid extension point id: " + EXT_POINT_ID;
 
+        Stream.of(point.getExtensions()).flatMap(ext -> Stream.of(ext.getConfigurationElements())).forEach(e -> {
+            m_objectElements.putIfAbsent(e.getAttribute("objectClass"), e);
+            m_specElements.putIfAbsent(e.getAttribute("specClass"), e);
+        });
+
         m_objectClassMap.put(PortObject.class.getName(), PortObject.class);
         m_specClassMap.put(PortObjectSpec.class.getName(), PortObjectSpec.class);
 
@@ -135,9 +147,7 @@ private PortTypeRegistry() {
     public synchronized Collection<PortType> availablePortTypes() {
         // perform lazy initialization
         if (!m_allPortTypesRead) {
-            IExtensionRegistry registry = Platform.getExtensionRegistry();
-            IExtensionPoint point = registry.getExtensionPoint(EXT_POINT_ID);
-            Stream.of(point.getExtensions()).flatMap(ext -> Stream.of(ext.getConfigurationElements()))
+            m_objectElements.values().stream()
                 .filter(e -> getObjectClass(e.getAttribute("objectClass")).isPresent())
                 .forEach(e -> createPortTypes(e));
             m_allPortTypesRead = true;
@@ -189,13 +199,9 @@ public synchronized PortType getPortType(final Class<? extends PortObject> portC
 
         PortType pt = map.get(portClass);
         if (pt == null) {
-            IExtensionRegistry registry = Platform.getExtensionRegistry();
-            IExtensionPoint point = registry.getExtensionPoint(EXT_POINT_ID);
-            Optional<IConfigurationElement> configElement =
-                Stream.of(point.getExtensions()).flatMap(ext -> Stream.of(ext.getConfigurationElements()))
-                    .filter(e -> portClass.getName().equals(e.getAttribute("objectClass"))).findFirst();
-            if (configElement.isPresent()) {
-                createPortTypes(configElement.get());
+            IConfigurationElement configElement = m_objectElements.get(portClass.getName());
+            if (configElement != null) {
+                createPortTypes(configElement);
                 pt = map.get(portClass);
             } else {
                 if (!portClass.isInterface()) {
@@ -425,15 +431,8 @@ Class<? extends PortObjectSpec> getSpecClass() {
 
     private <T extends PortObject> Optional<PortObjectSerializer<T>>
         scanExtensionPointForObjectSerializer(final String objectClassName) {
-        // not found => scan extension point
-        IExtensionRegistry registry = Platform.getExtensionRegistry();
-        IExtensionPoint point = registry.getExtensionPoint(EXT_POINT_ID);
-
-        Optional<IConfigurationElement> o =
-            Stream.of(point.getExtensions()).flatMap(ext -> Stream.of(ext.getConfigurationElements()))
-                .filter(cfe -> cfe.getAttribute("objectClass").equals(objectClassName)).findFirst();
-        if (o.isPresent()) {
-            IConfigurationElement configElement = o.get();
+        IConfigurationElement configElement = m_objectElements.get(objectClassName);
+        if (configElement != null) {
             return createObjectSerializer(configElement);
         } else {
             return Optional.empty();
@@ -442,15 +441,8 @@ Class<? extends PortObjectSpec> getSpecClass() {
 
     private <T extends PortObjectSpec> Optional<PortObjectSpecSerializer<T>>
         scanExtensionPointForSpecSerializer(final String specClassName) {
-        // not found => scan extension point
-        IExtensionRegistry registry = Platform.getExtensionRegistry();
-        IExtensionPoint point = registry.getExtensionPoint(EXT_POINT_ID);
-
-        Optional<IConfigurationElement> o =
-            Stream.of(point.getExtensions()).flatMap(ext -> Stream.of(ext.getConfigurationElements()))
-                .filter(cfe -> cfe.getAttribute("specClass").equals(specClassName)).findFirst();
-        if (o.isPresent()) {
-            IConfigurationElement configElement = o.get();
+        IConfigurationElement configElement = m_specElements.get(specClassName);
+        if (configElement != null) {
             return createSpecSerializer(configElement);
         } else {
             return Optional.empty();
@@ -0,0 +1,139 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node.port.pmml;
+
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.dmg.pmml.PMMLDocument;
+
+/**
+ * Cache of parsed PMML documents, keyed by the raw content they were read from. Workflows that load the same model
+ * several times (e.g. in loops or in many branches) then only parse it once.
+ *
+ * <p>Like the cache for XML cells it is bounded by the total size of the cached content (relative to the maximum heap
+ * size), evicts least recently used entries first and only holds the documents softly. As {@link PMMLPortObject}s
+ * modify their documents, only copies of the cached documents are handed out.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class PMMLDocumentCache {
+
+    /** Upper bound for the summed size of all cached contents. */
+    private static final long MAX_TOTAL_SIZE = Runtime.getRuntime().maxMemory() / 64;
+
+    /** Larger documents are not cached at all, they would evict too many other entries. */
+    private static final long MAX_ENTRY_SIZE = MAX_TOTAL_SIZE / 16;
+
+    private static final Map<ByteBuffer, SoftReference<PMMLDocument>> CACHE =
+        new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long totalSize;
+
+    private PMMLDocumentCache() {
+    }
+
+    /**
+     * Returns a copy of the document read from the given content.
+     *
+     * @param content the raw content, must not be modified afterwards
+     * @return a copy of the cached document or <code>null</code> if not cached
+     */
+    static PMMLDocument get(final byte[] content) {
+        PMMLDocument doc;
+        synchronized (PMMLDocumentCache.class) {
+            ByteBuffer key = ByteBuffer.wrap(content);
+            SoftReference<PMMLDocument> ref = CACHE.get(key);
+            if (ref == null) {
+                return null;
+            }
+            doc = ref.get();
+            if (doc == null) {
+                CACHE.remove(key);
+                totalSize -= content.length;
+                return null;
+            }
+        }
+        return (PMMLDocument)doc.copy();
+    }
+
+    /**
+     * Adds a copy of the document read from the given content to the cache (unless it is too large).
+     *
+     * @param content the raw content, must not be modified afterwards
+     * @param document the document read from the content, may be modified afterwards
+     */
+    static void put(final byte[] content, final PMMLDocument document) {
+        if (content.length > MAX_ENTRY_SIZE) {
+            return;
+        }
+        PMMLDocument copy = (PMMLDocument)document.copy();
+        synchronized (PMMLDocumentCache.class) {
+            SoftReference<PMMLDocument> old = CACHE.put(ByteBuffer.wrap(content), new SoftReference<>(copy));
+            if (old == null) {
+                totalSize += content.length;
+            }
+            for (Iterator<ByteBuffer> it = CACHE.keySet().iterator(); totalSize > MAX_TOTAL_SIZE && it.hasNext();) {
+                ByteBuffer key = it.next();
+                it.remove();
+                totalSize -= key.capacity();
+            }
+        }
+    }
+
+    /** Removes all entries, used in tests. */
+    static synchronized void clear() {
+        CACHE.clear();
+        totalSize = 0L;
+    }
+
+    /** @return the number of cached entries (including cleared soft references), used in tests */
+    static synchronized int size() {
+        return CACHE.size();
+    }
+}
@@ -44,6 +44,7 @@
  */
 package org.knime.core.node.port.pmml;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -61,6 +62,7 @@
 import javax.xml.namespace.QName;
 import javax.xml.parsers.ParserConfigurationException;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.xmlbeans.SchemaType;
 import org.apache.xmlbeans.XmlCursor;
 import org.apache.xmlbeans.XmlException;
@@ -92,7 +94,6 @@
 import org.dmg.pmml.TransformationDictionaryDocument.TransformationDictionary;
 import org.dmg.pmml.TreeModelDocument.TreeModel;
 import org.knime.core.data.DataTableSpec;
-import org.knime.core.data.util.LockedSupplier;
 import org.knime.core.data.util.NonClosableInputStream;
 import org.knime.core.data.xml.PMMLCellFactory;
 import org.knime.core.data.xml.PMMLValue;
@@ -105,7 +106,6 @@
 import org.knime.core.pmml.PMMLModelType;
 import org.knime.core.pmml.PMMLUtils;
 import org.knime.core.pmml.PMMLValidator;
-import org.w3c.dom.Document;
 import org.w3c.dom.DocumentFragment;
 import org.xml.sax.SAXException;
 
@@ -268,9 +268,8 @@ public PMMLPortObject(final PMMLPortObjectSpec spec,
             final PMMLPortObject port, final DataTableSpec inData) {
         m_spec = spec;
         if (port != null) {
-            try (LockedSupplier<Document> supplier = port.getPMMLValue().getDocumentSupplier()) {
-                parse(supplier.get());
-            }
+            // deep copy, much cheaper than serializing and parsing the document again
+            m_pmmlDoc = (PMMLDocument)port.m_pmmlDoc.copy();
         } else if (inData != null) {
             initializePMMLDocument(inData);
         } else {
@@ -278,19 +277,6 @@ public PMMLPortObject(final PMMLPortObjectSpec spec,
         }
     }
 
-    /**
-     * @param doc
-     */
-    private void parse(final Document doc) {
-        try {
-            m_pmmlDoc = PMMLDocument.Factory.parse(doc);
-            // no validation needed here as the input is already validated
-        } catch (XmlException e) {
-            throw new IllegalArgumentException("An error occurred while "
-                    + "parsing the PMML document.", e);
-        }
-    }
-
     /* Just added temporary for models still using SAX. Will be removed soon.*/
     /**
      * @param spec the port object spec
@@ -653,9 +639,15 @@ public void loadFrom(final PMMLPortObjectSpec spec, final InputStream is)
         // close to closeEntry(), we have to make sure that close is only
         // called once.
         // TODO: The document is read twice here. Could we "probe" into the file to check the version?
-        XmlObject xmlDoc = XmlObject.Factory.parse(
-                new NonClosableInputStream(is));
+        byte[] content = IOUtils.toByteArray(new NonClosableInputStream(is));
         is.close();
+        PMMLDocument cached = PMMLDocumentCache.get(content);
+        if (cached != null) {
+            m_pmmlDoc = cached;
+            m_spec = spec;
+            return;
+        }
+        XmlObject xmlDoc = XmlObject.Factory.parse(new ByteArrayInputStream(content));
         if (xmlDoc instanceof PMMLDocument) {
             m_pmmlDoc = (PMMLDocument)xmlDoc;
         } else {
@@ -680,6 +672,7 @@ public void loadFrom(final PMMLPortObjectSpec spec, final InputStream is)
                         "Parsing of PMML v 3.x/4.0 document failed.");
             }
         }
+        PMMLDocumentCache.put(content, m_pmmlDoc);
         m_spec = spec;
     }
 
@@ -53,7 +53,10 @@
 
 import org.knime.core.node.NodeSettings;
 import org.knime.core.node.config.Config;
+import org.knime.core.node.config.ConfigBinaryFormat;
 import org.knime.core.node.streamable.StreamableOperatorInternals;
+import org.knime.core.node.workflow.NodeContext;
+import org.knime.core.node.workflow.WorkflowManager;
 
 /** Simple internals that uses a {@link Config} object to represent the
  * internal state. Main purpose is to persist very simple information such as
@@ -81,13 +84,26 @@ public Config getConfig() {
     /** {@inheritDoc} */
     @Override
     public void load(final DataInputStream input) throws IOException {
-        m_config.load(input);
+        ConfigBinaryFormat.loadXMLOrBinary(m_config, input);
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc} The config is written in binary format if the workflow of the current node saves its node settings
+     * in binary format (see {@link WorkflowManager#isBinaryNodeSettings()}), otherwise as XML.
+     */
     @Override
     public void save(final DataOutputStream output) throws IOException {
-        m_config.saveToXML(output);
+        if (isBinaryNodeSettings()) {
+            ConfigBinaryFormat.save(m_config, output);
+        } else {
+            m_config.saveToXML(output);
+        }
+    }
+
+    private static boolean isBinaryNodeSettings() {
+        final NodeContext context = NodeContext.getContext();
+        final WorkflowManager wfm = context == null ? null : context.getWorkflowManager();
+        return wfm != null && wfm.isBinaryNodeSettings();
     }
 
 }
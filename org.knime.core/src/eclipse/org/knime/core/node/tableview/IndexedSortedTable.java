@@ -0,0 +1,347 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node.tableview;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTable;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataValueComparator;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Sorted view on a table that is shown in a {@link TableContentModel}. Only the sorted permutation of the row indices
+ * and the row keys are kept in memory, the rows themselves are read from the original table on demand, a block of
+ * consecutive (sorted) positions at a time, using the row range filter of {@link BufferedDataTable} and
+ * {@link ContainerTable}. Compared to a sorted copy of the table, sorting reads only the sort columns and doesn't
+ * write any data.
+ *
+ * <p>Only tables held in memory are sorted by index: a block of rows may be spread over the whole table, reading it
+ * from disk would mean a pass over the entire file for each block. As the rows are in memory anyway, the index only
+ * adds references to the row keys and sort cells; it is used if these fit into a fraction of the free heap.
+ *
+ * <p>The iterator on this table allows the content model to skip rows without reading them (when scrolling) and to
+ * determine the hilite status of rows by their key (when filtering for hilited rows).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class IndexedSortedTable implements DataTable {
+
+    /** Number of rows read from the original table at a time. */
+    static final int BLOCK_SIZE = TableContentModel.CACHE_SIZE;
+
+    /** Bytes per row of the index: two int arrays (order and sort buffer) and two arrays of row keys. */
+    private static final long BYTES_PER_ROW = 4 + 4 + 8 + 8;
+
+    /** Bytes per row and sort column of the index (reference to the cell). */
+    private static final long BYTES_PER_SORT_CELL = 8;
+
+    private final DataTable m_table;
+
+    /** Index of the row in the original table, by sorted position. */
+    private final int[] m_order;
+
+    /** Key of the row, by sorted position. */
+    private final RowKey[] m_keys;
+
+    private IndexedSortedTable(final DataTable table, final int[] order, final RowKey[] keys) {
+        m_table = table;
+        m_order = order;
+        m_keys = keys;
+    }
+
+    /**
+     * @param table a table to sort
+     * @param order the sort order
+     * @return whether the table can be sorted by index, i.e. allows row range filtering, is held in memory and the
+     *         index fits into half of the free heap.
+     */
+    static boolean isApplicable(final DataTable table, final TableSortOrder order) {
+        long rowCount = getRowCount(table);
+        if (rowCount < 0 || rowCount > Integer.MAX_VALUE - 8 || !isHeldInMemory(table)) {
+            return false;
+        }
+        long indexBytes = rowCount * (BYTES_PER_ROW + BYTES_PER_SORT_CELL * order.getSortColumnIndices().length);
+        Runtime runtime = Runtime.getRuntime();
+        long freeBytes = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        return indexBytes <= freeBytes / 2;
+    }
+
+    private static boolean isHeldInMemory(final DataTable table) {
+        DataTable delegate = table instanceof BufferedDataTable ? ((BufferedDataTable)table).getDelegate() : table;
+        return delegate instanceof ContainerTable && ((ContainerTable)delegate).isHeldInMemory();
+    }
+
+    /**
+     * Sorts the argument table, reading only the sort columns.
+     *
+     * @param table the table to sort, must be {@link #isApplicable(DataTable, TableSortOrder) applicable}
+     * @param order the sort order
+     * @param exec for progress and cancelation
+     * @return the sorted view on the table
+     * @throws CanceledExecutionException if canceled
+     */
+    static IndexedSortedTable sort(final DataTable table, final TableSortOrder order, final ExecutionMonitor exec)
+        throws CanceledExecutionException {
+        final int rowCount = (int)getRowCount(table);
+        final int[] sortColumns = order.getSortColumnIndices();
+        final boolean[] sortAscending = order.getSortColumnOrder();
+        final DataTableSpec spec = table.getDataTableSpec();
+        final DataValueComparator[] comparators = new DataValueComparator[sortColumns.length];
+        final DataCell[][] cells = new DataCell[sortColumns.length][];
+        for (int c = 0; c < sortColumns.length; c++) {
+            if (sortColumns[c] >= 0) { // -1 is the row key
+                comparators[c] = spec.getColumnSpec(sortColumns[c]).getType().getComparator();
+                cells[c] = new DataCell[rowCount];
+            }
+        }
+        final RowKey[] keys = new RowKey[rowCount];
+
+        ExecutionMonitor readExec = exec.createSubProgress(0.7);
+        int[] materialized = Arrays.stream(sortColumns).filter(i -> i >= 0).distinct().toArray();
+        try (CloseableRowIterator it = iterator(table, TableFilter.materializeCols(materialized))) {
+            for (int i = 0; i < rowCount && it.hasNext(); i++) {
+                DataRow row = it.next();
+                keys[i] = row.getKey();
+                for (int c = 0; c < sortColumns.length; c++) {
+                    if (cells[c] != null) {
+                        cells[c][i] = row.getCell(sortColumns[c]);
+                    }
+                }
+                final int index = i;
+                readExec.setProgress(i / (double)rowCount, () -> "Reading row " + (index + 1) + "/" + rowCount);
+                readExec.checkCanceled();
+            }
+        }
+
+        exec.setMessage("Sorting row index");
+        final IntComparator comparator = (a, b) -> {
+            for (int c = 0; c < sortColumns.length; c++) {
+                int cmp = cells[c] == null ? keys[a].getString().compareTo(keys[b].getString())
+                    : comparators[c].compare(cells[c][a], cells[c][b]);
+                if (cmp != 0) {
+                    return sortAscending[c] ? cmp : -cmp;
+                }
+            }
+            return 0;
+        };
+        int[] sorted = new int[rowCount];
+        Arrays.setAll(sorted, i -> i);
+        mergeSort(sorted, sorted.clone(), 0, rowCount, comparator, exec);
+
+        RowKey[] sortedKeys = new RowKey[rowCount];
+        for (int p = 0; p < rowCount; p++) {
+            sortedKeys[p] = keys[sorted[p]];
+        }
+        exec.setProgress(1.0);
+        return new IndexedSortedTable(table, sorted, sortedKeys);
+    }
+
+    /** Stable merge sort of the index range [from, to) of <code>dest</code>, <code>src</code> is a copy of
+     * <code>dest</code> and used as temporary array. */
+    private static void mergeSort(final int[] dest, final int[] src, final int from, final int to,
+        final IntComparator comparator, final ExecutionMonitor exec) throws CanceledExecutionException {
+        final int length = to - from;
+        if (length < 16) {
+            for (int i = from + 1; i < to; i++) {
+                for (int j = i; j > from && comparator.compare(dest[j - 1], dest[j]) > 0; j--) {
+                    int swap = dest[j];
+                    dest[j] = dest[j - 1];
+                    dest[j - 1] = swap;
+                }
+            }
+            return;
+        }
+        final int mid = (from + to) >>> 1;
+        mergeSort(src, dest, from, mid, comparator, exec);
+        mergeSort(src, dest, mid, to, comparator, exec);
+        if (length > 4096) {
+            exec.checkCanceled();
+        }
+        for (int i = from, p = from, q = mid; i < to; i++) {
+            if (q >= to || (p < mid && comparator.compare(src[p], src[q]) <= 0)) {
+                dest[i] = src[p++];
+            } else {
+                dest[i] = src[q++];
+            }
+        }
+    }
+
+    /** @return the row count of the table or -1 if the table doesn't support row range filtering */
+    static long getRowCount(final DataTable table) {
+        if (table instanceof BufferedDataTable) {
+            return ((BufferedDataTable)table).size();
+        } else if (table instanceof ContainerTable) {
+            return ((ContainerTable)table).size();
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("resource")
+    private static CloseableRowIterator iterator(final DataTable table, final TableFilter filter) {
+        if (table instanceof BufferedDataTable) {
+            return ((BufferedDataTable)table).filter(filter).iterator();
+        }
+        return ((ContainerTable)table).iteratorWithFilter(filter, null);
+    }
+
+    /** @return the number of rows */
+    int size() {
+        return m_order.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DataTableSpec getDataTableSpec() {
+        return m_table.getDataTableSpec();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public IndexedRowIterator iterator() {
+        return new IndexedRowIterator();
+    }
+
+    /** Comparator on int values (row indices), avoids boxing. */
+    @FunctionalInterface
+    private interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    /** Iterator on the sorted rows, reads the rows block-wise from the original table. */
+    final class IndexedRowIterator extends CloseableRowIterator {
+
+        private final DataRow[] m_block = new DataRow[BLOCK_SIZE];
+
+        /** Sorted position of the first row in {@link #m_block}, -1 if no block read yet. */
+        private int m_blockStart = -1;
+
+        /** Sorted position of the next row. */
+        private int m_position;
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean hasNext() {
+            return m_position < m_order.length;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public DataRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Iterator at end");
+            }
+            if (m_blockStart < 0 || m_position < m_blockStart || m_position >= m_blockStart + BLOCK_SIZE) {
+                readBlock(m_position);
+            }
+            return m_block[m_position++ - m_blockStart];
+        }
+
+        /** @return the key of the row returned by the next call of {@link #next()} (which must exist) */
+        RowKey peekKey() {
+            return m_keys[m_position];
+        }
+
+        /**
+         * Skips rows without reading them.
+         *
+         * @param count number of rows to skip
+         * @return the number of rows actually skipped, less than the argument if the end is reached
+         */
+        int skip(final int count) {
+            int skipped = Math.min(count, m_order.length - m_position);
+            m_position += skipped;
+            return skipped;
+        }
+
+        /** Reads the rows at the sorted positions [start, start + BLOCK_SIZE) in one pass over the range of
+         * the original table that contains them (which is cheap as the table is held in memory). */
+        private void readBlock(final int start) {
+            final int length = Math.min(BLOCK_SIZE, m_order.length - start);
+            // original index in upper, slot in block in lower bits; sorted to read in table order
+            long[] requests = new long[length];
+            for (int i = 0; i < length; i++) {
+                requests[i] = ((long)m_order[start + i] << 32) | i;
+            }
+            Arrays.sort(requests);
+            Arrays.fill(m_block, null);
+            final long from = requests[0] >>> 32;
+            final long to = requests[length - 1] >>> 32;
+            try (CloseableRowIterator it = iterator(m_table, TableFilter.filterRangeOfRows(from, to))) {
+                long index = from;
+                int r = 0;
+                while (r < length && it.hasNext()) {
+                    DataRow row = it.next();
+                    while (r < length && (requests[r] >>> 32) == index) {
+                        m_block[(int)requests[r]] = row;
+                        r++;
+                    }
+                    index++;
+                }
+                if (r < length) {
+                    throw new IllegalStateException("Table has fewer rows than expected (" + index + ")");
+                }
+            }
+            m_blockStart = start;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {
+            Arrays.fill(m_block, null);
+            m_blockStart = -1;
+            m_position = m_order.length;
+        }
+    }
+}
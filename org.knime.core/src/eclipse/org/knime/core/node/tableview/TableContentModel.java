@@ -391,6 +391,8 @@ private void setDataTableIntern(final DataTable originalData,
                 rowCountFromTable = ((BufferedDataTable)data).size();
             } else if (data instanceof ContainerTable) {
                 rowCountFromTable = ((ContainerTable)data).size();
+            } else if (data instanceof IndexedSortedTable) {
+                rowCountFromTable = ((IndexedSortedTable)data).size();
             } else {
                 rowCountFromTable = -1; // unknown
             }
@@ -1095,6 +1097,18 @@ protected DataRow getRow(final int row) {
         }
         assert (row >= m_rowCountOfInterestInIterator - 1);
 
+        if (m_iterator instanceof IndexedSortedTable.IndexedRowIterator && !m_tableFilter.performsFiltering()) {
+            // rows of a sorted index can be skipped without reading them; only read the rows that end up in the
+            // cache (the row count is final, hence the cache will be filled up to its last index)
+            int skipCount = Math.min(row + m_chunkSize + 1, m_maxRowCount) - cacheSize
+                    - m_rowCountOfInterestInIterator;
+            if (skipCount > 0) {
+                skipCount = ((IndexedSortedTable.IndexedRowIterator)m_iterator).skip(skipCount);
+                m_rowCountInIterator += skipCount;
+                m_rowCountOfInterestInIterator += skipCount;
+            }
+        }
+
         boolean wasRowCountFinal = isRowCountFinal();
 
         // push iterator forward to index row+m_chunkSize (ensures when
@@ -1130,6 +1144,14 @@ private boolean cacheNextRow() {
         DataRow currentRow;
         boolean isHiLit;
         do {
+            if (m_iterator instanceof IndexedSortedTable.IndexedRowIterator && m_tableFilter.performsFiltering()) {
+                // the hilite status is determined from the key in the index, rows not of interest aren't read
+                IndexedSortedTable.IndexedRowIterator indexIt = (IndexedSortedTable.IndexedRowIterator)m_iterator;
+                while (indexIt.hasNext() && !m_tableFilter.matches(
+                    m_hiLiteHdl != null ? m_hiLiteHdl.isHiLit(indexIt.peekKey()) : false)) {
+                    m_rowCountInIterator += indexIt.skip(1);
+                }
+            }
             if (!m_iterator.hasNext()) {
                 // set to false with new data
                 m_isMaxRowCountFinal = true;
@@ -173,11 +173,6 @@ protected DataTable doInBackground() throws Exception {
         long start = System.currentTimeMillis();
         LOGGER.debug("Starting interactive table sorting on column(s) "
                 + sortColNames);
-        boolean[] sortOrders = m_sortOrder.getSortColumnOrder();
-        // it DOES NOT respect blobs -- they will be copied (expensive)
-        DataTableSorter sorter =
-                new DataTableSorter(m_inputTable, rowCount, sortColNames,
-                        sortOrders, false);
         NodeProgressListener progLis = new NodeProgressListener() {
             @Override
             public void progressChanged(final NodeProgressEvent pe) {
@@ -188,7 +183,18 @@ public void progressChanged(final NodeProgressEvent pe) {
         ExecutionMonitor exec = new ExecutionMonitor(m_nodeProgressMonitor);
         m_nodeProgressMonitor.addProgressListener(progLis);
         try {
-            DataTable result = sorter.sort(exec);
+            DataTable result;
+            if (IndexedSortedTable.isApplicable(m_inputTable, m_sortOrder)) {
+                // sorts only the row positions, rows are read from the input table when displayed
+                result = IndexedSortedTable.sort(m_inputTable, m_sortOrder, exec);
+            } else {
+                boolean[] sortOrders = m_sortOrder.getSortColumnOrder();
+                // it DOES NOT respect blobs -- they will be copied (expensive)
+                DataTableSorter sorter =
+                        new DataTableSorter(m_inputTable, rowCount, sortColNames,
+                                sortOrders, false);
+                result = sorter.sort(exec);
+            }
             long elapsedMS = System.currentTimeMillis() - start;
             String time = StringFormat.formatElapsedTime(elapsedMS);
             LOGGER.debug("Interactive table sorting finished (" + time + ")");
@@ -392,6 +392,9 @@ protected static class WorkflowConfiguration {
 
         /** The (temporary) workflow location which should be used to load the workflow. */
         File workflowLocation;
+
+        /** Temporary directory the input ZIP file was extracted to, <code>null</code> if the input is a directory. */
+        File inputTempDir;
     }
 
     /**
@@ -626,7 +629,13 @@ public static String getOptionsString() {
                 + "                      if omitted the workflow is only saved in place\n"
                 + " -workflow.variable=name,value,type => define or overwrite workflow variable\n"
                 + "                      'name' with value 'value' (possibly enclosed by quotes). The\n"
-                + "                      'type' must be one of \"String\", \"int\" or \"double\".";
+                + "                      'type' must be one of \"String\", \"int\" or \"double\".\n"
+                + " -serverQueueDir=... => run as server executing the jobs submitted to the given\n"
+                + "                      directory (files '<name>.job' with one argument per line);\n"
+                + "                      all other arguments are used as defaults for each job;\n"
+                + "                      the server stops once a file '.shutdown' is created there\n"
+                + " -serverThreads=n  => maximum number of jobs executed concurrently in server\n"
+                + "                      mode, defaults to the number of processors";
     }
 
     /**
@@ -667,6 +676,10 @@ public static int mainRun(final String... args) {
         }
 
         try {
+            BatchServer server = BatchServer.fromArguments(args);
+            if (server != null) {
+                return server.run();
+            }
             BatchExecutor exec = new BatchExecutor(args);
             return exec.runAll();
         } catch (IOException ex) {
@@ -717,6 +730,7 @@ protected WorkflowManager loadWorkflow(final WorkflowConfiguration config) throw
             File dir = FileUtil.createTempDir("BatchExecutorInput");
             FileUtil.unzip(config.inputWorkflow, dir);
             config.workflowLocation = dir;
+            config.inputTempDir = dir;
         } else {
             config.workflowLocation = config.inputWorkflow;
         }
@@ -865,6 +879,7 @@ protected void saveWorkflow(final WorkflowManager wfm, final WorkflowConfigurati
 
                 // to be saved into new output zip file
                 FileUtil.zipDir(config.outputFile, workflowOutDir, 9, WORKFLOW_ZIP_FILTER, null);
+                FileUtil.deleteRecursively(outputTempDir);
                 LOGGER.info("Saved workflow availabe at: " + config.outputFile.getAbsolutePath());
             } else if (config.outputDir != null) { // save into dir
                 // copy current workflow dir
@@ -900,7 +915,13 @@ public int runAll() {
         return retVal;
     }
 
-    private int runOne(final WorkflowConfiguration config) {
+    /**
+     * Loads, executes and saves a single workflow; also used by the {@link BatchServer} for each job.
+     *
+     * @param config the workflow configuration
+     * @return an exit code
+     */
+    int runOne(final WorkflowConfiguration config) {
         long t = System.currentTimeMillis();
         WorkflowManager wfm;
         try {
@@ -0,0 +1,313 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.util.StringFormat;
+import org.knime.core.node.workflow.BatchExecutor.IllegalOptionException;
+import org.knime.core.node.workflow.BatchExecutor.WorkflowConfiguration;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Long-running mode of the {@link BatchExecutor}: executes workflows submitted as job files to a queue directory,
+ * several of them concurrently, without paying JVM startup and warm-up costs per workflow.
+ *
+ * <p>A job is a file <code>&lt;name&gt;.job</code> in the queue directory containing the batch executor arguments
+ * of one workflow execution, one argument per line (e.g. <code>-workflowDir=...</code>,
+ * <code>-workflow.variable=...</code>); empty lines and lines starting with '#' are ignored. The server claims a job
+ * by renaming it to <code>&lt;name&gt;.running</code>; when done it writes <code>&lt;name&gt;.result</code> (exit
+ * code and duration) and renames the job file to <code>&lt;name&gt;.done</code>. Job files should be created under a
+ * different name and then renamed to <code>*.job</code> so that they are never picked up half-written. The server
+ * stops once a file <code>.shutdown</code> exists in the queue directory, after finishing all running jobs.
+ *
+ * <p>Each workflow uses its own temp directory (as any loaded workflow). Options that change global state
+ * (preferences, master key) can only be set when starting the server, not per job. Jobs must not use the same
+ * workflow directory concurrently (the workflow is locked while loaded).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class BatchServer {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(BatchServer.class);
+
+    /** Suffix of job files waiting to be run. */
+    static final String JOB_SUFFIX = ".job";
+
+    /** Suffix of claimed job files. */
+    static final String RUNNING_SUFFIX = ".running";
+
+    /** Suffix of finished job files. */
+    static final String DONE_SUFFIX = ".done";
+
+    /** Suffix of result files. */
+    static final String RESULT_SUFFIX = ".result";
+
+    /** Name of the file requesting the server to shut down. */
+    static final String SHUTDOWN_FILE = ".shutdown";
+
+    /** Option enabling the server mode, its value is the queue directory. */
+    static final String QUEUE_DIR_OPTION = "-serverQueueDir";
+
+    /** Option setting the number of concurrently executed jobs. */
+    static final String THREADS_OPTION = "-serverThreads";
+
+    /** Options that are set once for the JVM and hence not allowed in job files. */
+    private static final List<String> GLOBAL_OPTIONS = Arrays.asList("-preferences", "-masterkey");
+
+    private static final long POLL_INTERVAL_MS = 500;
+
+    private final File m_queueDir;
+
+    private final int m_maxJobs;
+
+    private final List<String> m_defaultArgs;
+
+    private final AtomicInteger m_runningJobs = new AtomicInteger();
+
+    /**
+     * @param queueDir the queue directory
+     * @param maxJobs maximum number of jobs executed concurrently
+     * @param defaultArgs arguments prepended to the arguments of each job
+     */
+    BatchServer(final File queueDir, final int maxJobs, final List<String> defaultArgs) {
+        m_queueDir = queueDir;
+        m_maxJobs = maxJobs;
+        m_defaultArgs = defaultArgs;
+    }
+
+    /**
+     * Creates a server if the arguments contain {@link #QUEUE_DIR_OPTION}. Global options (preferences, master key)
+     * are applied right away, all other non-server arguments are used as defaults for each job.
+     *
+     * @param args the command line arguments
+     * @return a new server or <code>null</code> if the arguments don't request the server mode
+     * @throws IllegalOptionException if a server option is invalid
+     * @throws CoreException if the preferences cannot be read from the specified file
+     * @throws FileNotFoundException if the specified preferences file was not found
+     */
+    static BatchServer fromArguments(final String[] args)
+        throws IllegalOptionException, CoreException, FileNotFoundException {
+        File queueDir = null;
+        int maxJobs = Runtime.getRuntime().availableProcessors();
+        List<String> globalArgs = new ArrayList<>();
+        List<String> defaultArgs = new ArrayList<>();
+        for (String s : args) {
+            String[] parts = s.split("=", 2);
+            if (QUEUE_DIR_OPTION.equals(parts[0])) {
+                if (parts.length != 2) {
+                    throw new IllegalOptionException("Couldn't parse " + QUEUE_DIR_OPTION + " argument: " + s);
+                }
+                queueDir = new File(parts[1]);
+            } else if (THREADS_OPTION.equals(parts[0])) {
+                try {
+                    maxJobs = Integer.parseInt(parts[1]);
+                } catch (ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+                    throw new IllegalOptionException("Couldn't parse " + THREADS_OPTION + " argument: " + s, ex);
+                }
+                if (maxJobs < 1) {
+                    throw new IllegalOptionException(THREADS_OPTION + " must be at least 1: " + s);
+                }
+            } else if (isGlobalOption(s)) {
+                globalArgs.add(s);
+            } else {
+                defaultArgs.add(s);
+            }
+        }
+        if (queueDir == null) {
+            return null;
+        }
+        if (!globalArgs.isEmpty()) {
+            new BatchExecutor().parseConfigFromArguments(globalArgs.toArray(new String[globalArgs.size()]));
+        }
+        return new BatchServer(queueDir, maxJobs, defaultArgs);
+    }
+
+    private static boolean isGlobalOption(final String arg) {
+        return GLOBAL_OPTIONS.contains(arg.split("=", 2)[0]);
+    }
+
+    /**
+     * Runs the server until shutdown is requested.
+     *
+     * @return {@link BatchExecutor#EXIT_SUCCESS}, or {@link BatchExecutor#EXIT_ERR_PRESTART} if the queue directory
+     *         can't be read
+     */
+    int run() {
+        if (!m_queueDir.isDirectory()) {
+            LOGGER.error("Queue directory \"" + m_queueDir.getAbsolutePath() + "\" does not exist");
+            return BatchExecutor.EXIT_ERR_PRESTART;
+        }
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(m_maxJobs, r -> {
+            Thread t = new Thread(r, "KNIME-Batch-Job-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        LOGGER.info("Batch server waiting for jobs in \"" + m_queueDir.getAbsolutePath() + "\" (up to " + m_maxJobs
+            + " concurrent jobs)");
+        try {
+            while (!new File(m_queueDir, SHUTDOWN_FILE).exists()) {
+                for (File jobFile : listJobs()) {
+                    if (m_runningJobs.get() >= m_maxJobs) {
+                        break;
+                    }
+                    final String fileName = jobFile.getName();
+                    final String name = fileName.substring(0, fileName.length() - JOB_SUFFIX.length());
+                    final File runningFile = new File(m_queueDir, name + RUNNING_SUFFIX);
+                    // claim the job, another server instance might be faster
+                    if (jobFile.renameTo(runningFile)) {
+                        m_runningJobs.incrementAndGet();
+                        executor.submit(() -> {
+                            try {
+                                runJob(name, runningFile);
+                            } finally {
+                                m_runningJobs.decrementAndGet();
+                            }
+                        });
+                    }
+                }
+                Thread.sleep(POLL_INTERVAL_MS);
+            }
+            LOGGER.info("Batch server shutdown requested, waiting for " + m_runningJobs.get() + " running job(s)");
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+        LOGGER.info("Batch server stopped");
+        return BatchExecutor.EXIT_SUCCESS;
+    }
+
+    private File[] listJobs() {
+        File[] jobs = m_queueDir.listFiles((dir, name) -> name.endsWith(JOB_SUFFIX));
+        if (jobs == null) {
+            return new File[0];
+        }
+        Arrays.sort(jobs, Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+        return jobs;
+    }
+
+    private void runJob(final String name, final File runningFile) {
+        final long start = System.currentTimeMillis();
+        LOGGER.info("===== Starting batch job \"" + name + "\" =====");
+        int exitCode;
+        String message = null;
+        WorkflowConfiguration config = null;
+        try {
+            List<String> args = new ArrayList<>(m_defaultArgs);
+            args.addAll(readJobArguments(runningFile));
+            BatchExecutor executor = new BatchExecutor();
+            config = executor.parseConfigFromArguments(args.toArray(new String[args.size()]));
+            executor.checkConfiguration(config);
+            exitCode = executor.runOne(config);
+        } catch (IllegalOptionException | IOException | CoreException ex) {
+            message = ex.getMessage();
+            LOGGER.error("Invalid batch job \"" + name + "\": " + message, ex);
+            exitCode = BatchExecutor.EXIT_ERR_PRESTART;
+        } catch (Exception ex) {
+            message = ex.getMessage();
+            LOGGER.error("Batch job \"" + name + "\" failed: " + message, ex);
+            exitCode = BatchExecutor.EXIT_ERR_EXECUTION;
+        } finally {
+            if (config != null && config.inputTempDir != null) {
+                FileUtil.deleteRecursively(config.inputTempDir);
+            }
+        }
+        final long duration = System.currentTimeMillis() - start;
+        LOGGER.info("===== Batch job \"" + name + "\" finished with exit code " + exitCode + " in "
+            + StringFormat.formatElapsedTime(duration) + " =====");
+        writeResult(name, exitCode, duration, message);
+        if (!runningFile.renameTo(new File(m_queueDir, name + DONE_SUFFIX))) {
+            LOGGER.warn("Unable to rename job file \"" + runningFile.getAbsolutePath() + "\"");
+        }
+    }
+
+    private static List<String> readJobArguments(final File jobFile) throws IOException, IllegalOptionException {
+        List<String> args = new ArrayList<>();
+        for (String line : Files.readAllLines(jobFile.toPath(), StandardCharsets.UTF_8)) {
+            String arg = line.trim();
+            if (arg.isEmpty() || arg.startsWith("#")) {
+                continue;
+            }
+            if (isGlobalOption(arg)) {
+                throw new IllegalOptionException("Option '" + arg.split("=", 2)[0]
+                    + "' is not allowed in batch jobs, it must be set when starting the server");
+            }
+            args.add(arg);
+        }
+        return args;
+    }
+
+    private void writeResult(final String name, final int exitCode, final long duration, final String message) {
+        StringBuilder b = new StringBuilder();
+        b.append("exitCode=").append(exitCode).append('\n');
+        b.append("durationMillis=").append(duration).append('\n');
+        if (message != null) {
+            b.append("message=").append(message.replace('\n', ' ')).append('\n');
+        }
+        try {
+            Files.write(new File(m_queueDir, name + RESULT_SUFFIX).toPath(),
+                b.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            LOGGER.error("Unable to write result of batch job \"" + name + "\": " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -75,6 +75,7 @@ class CopyWorkflowPersistor implements WorkflowPersistor {
     private final NodeUIInformation m_outportUIInfo;
     private final WorkflowPortTemplate[] m_outportTemplates;
     private final EditorUIInformation m_editorUIInformation;
+    private final boolean m_isBinaryNodeSettings;
     private final String m_name;
     private final WorkflowCipher m_workflowCipher;
     private final MetaNodeTemplateInformation m_templateInformation;
@@ -117,6 +118,7 @@ class CopyWorkflowPersistor implements WorkflowPersistor {
         }
         m_editorUIInformation = original.getEditorUIInformation() != null
             ? EditorUIInformation.builder(original.getEditorUIInformation()).build() : null;
+        m_isBinaryNodeSettings = original.isBinaryNodeSettings();
         m_name = original.getNameField();
         m_workflowCipher = original.getWorkflowCipher().clone();
         m_templateInformation = original.getTemplateInformation().clone();
@@ -278,6 +280,12 @@ public EditorUIInformation getEditorUIInformation() {
         return m_editorUIInformation;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isBinaryNodeSettings() {
+        return m_isBinaryNodeSettings;
+    }
+
     /** {@inheritDoc} */
     @Override
     public NodeContainerMetaPersistor getMetaPersistor() {
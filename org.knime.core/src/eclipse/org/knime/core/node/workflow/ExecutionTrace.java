@@ -0,0 +1,279 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+
+import org.knime.core.data.util.NonClosableOutputStream;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Optional, low-overhead recording of workflow execution events: time nodes spend queued and executing, waits for
+ * the {@link WorkflowLock} and node save and load. Enabled via {@link KNIMEConstants#PROPERTY_EXECUTION_TRACE}, which
+ * defines the capacity of the ring buffer holding the most recent events. If disabled, recording is a no-op.
+ *
+ * <p>The trace is written in the (JSON) trace event format, which can be opened in common timeline viewers
+ * (e.g. chrome://tracing or Perfetto), one line per thread.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class ExecutionTrace {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ExecutionTrace.class);
+
+    /** The recorded phases. */
+    public enum Phase {
+        /** Node job waiting in the thread pool. */
+        QUEUED("queued"),
+        /** Node executing. */
+        EXECUTE("execute"),
+        /** Thread waiting for a (contended) workflow lock, recorded for the workflow. */
+        LOCK_WAIT("lock wait"),
+        /** Node being saved. */
+        SAVE("save"),
+        /** Node being loaded. */
+        LOAD("load");
+
+        private final String m_label;
+
+        Phase(final String label) {
+            m_label = label;
+        }
+
+        /** @return the label shown in the trace */
+        public String getLabel() {
+            return m_label;
+        }
+    }
+
+    private static final ExecutionTrace INSTANCE = init();
+
+    private final AtomicReferenceArray<Event> m_events;
+
+    private final AtomicLong m_nextIndex = new AtomicLong();
+
+    private final long m_startNanos = System.nanoTime();
+
+    /** @param capacity number of events kept, the global trace is created from the system property */
+    ExecutionTrace(final int capacity) {
+        m_events = new AtomicReferenceArray<>(capacity);
+    }
+
+    private static ExecutionTrace init() {
+        final String prop = KNIMEConstants.PROPERTY_EXECUTION_TRACE;
+        final String val = System.getProperty(prop);
+        if (val == null) {
+            return null;
+        }
+        int capacity;
+        try {
+            capacity = Integer.parseInt(val.trim());
+        } catch (NumberFormatException e) {
+            capacity = -1;
+        }
+        if (capacity <= 0) {
+            LOGGER.warn("Unable to parse property " + prop + " (\"" + val + "\"), execution trace is disabled");
+            return null;
+        }
+        LOGGER.debug("Recording execution trace, keeping " + capacity + " events");
+        ExecutionTrace trace = new ExecutionTrace(capacity);
+        final String file = System.getProperty(KNIMEConstants.PROPERTY_EXECUTION_TRACE_FILE);
+        if (file != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(file)))) {
+                    trace.write(out);
+                } catch (IOException e) {
+                    LOGGER.error("Unable to write execution trace to \"" + file + "\": " + e.getMessage(), e);
+                }
+            }, "KNIME Execution Trace Writer"));
+        }
+        return trace;
+    }
+
+    /** @return whether the trace is recorded */
+    public static boolean isEnabled() {
+        return INSTANCE != null;
+    }
+
+    /**
+     * @return current time stamp to be passed as start time to {@link #record(Phase, NodeID, long)}, 0 if the trace
+     *         is disabled
+     */
+    public static long now() {
+        return INSTANCE != null ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records a phase of the given node that started at the given time and ends now, on the calling thread.
+     *
+     * @param phase the phase
+     * @param id the node (or workflow) ID
+     * @param startNanos the start time, as per {@link #now()}
+     */
+    public static void record(final Phase phase, final NodeID id, final long startNanos) {
+        final ExecutionTrace trace = INSTANCE;
+        if (trace != null) {
+            trace.add(phase, id, startNanos);
+        }
+    }
+
+    /** Adds an event for the calling thread ending now, overwriting the oldest event if the buffer is full. */
+    void add(final Phase phase, final NodeID id, final long startNanos) {
+        final Thread thread = Thread.currentThread();
+        final Event event = new Event(phase, id, thread.getId(), thread.getName(), startNanos, System.nanoTime());
+        final long index = m_nextIndex.getAndIncrement();
+        m_events.set((int)(index % m_events.length()), event);
+    }
+
+    /**
+     * Writes the events currently held in the buffer in the trace event format. Does nothing if the trace is
+     * disabled.
+     *
+     * @param out the stream to write to, not closed by this method
+     * @throws IOException if writing fails
+     */
+    public static void writeTrace(final OutputStream out) throws IOException {
+        if (INSTANCE != null) {
+            INSTANCE.write(out);
+        }
+    }
+
+    /** Discards all recorded events. */
+    public static void clear() {
+        final ExecutionTrace trace = INSTANCE;
+        if (trace != null) {
+            trace.clearEvents();
+        }
+    }
+
+    void clearEvents() {
+        for (int i = 0; i < m_events.length(); i++) {
+            m_events.set(i, null);
+        }
+    }
+
+    void write(final OutputStream out) throws IOException {
+        final List<Event> events = new ArrayList<>();
+        for (int i = 0; i < m_events.length(); i++) {
+            Event e = m_events.get(i);
+            if (e != null) {
+                events.add(e);
+            }
+        }
+        events.sort(Comparator.comparingLong(e -> e.m_startNanos));
+        final Map<Long, String> threadNames = new HashMap<>();
+        try (JsonGenerator gen = Json.createGenerator(new NonClosableOutputStream(out))) {
+            gen.writeStartObject();
+            gen.write("displayTimeUnit", "ms");
+            gen.writeStartArray("traceEvents");
+            for (Event e : events) {
+                threadNames.putIfAbsent(e.m_threadID, e.m_threadName);
+                gen.writeStartObject();
+                gen.write("name", e.m_phase.getLabel() + " " + e.m_nodeID);
+                gen.write("cat", e.m_phase.getLabel());
+                gen.write("ph", "X");
+                gen.write("ts", (e.m_startNanos - m_startNanos) / 1000L);
+                gen.write("dur", (e.m_endNanos - e.m_startNanos) / 1000L);
+                gen.write("pid", 1);
+                gen.write("tid", e.m_threadID);
+                gen.writeStartObject("args");
+                gen.write("node", e.m_nodeID.toString());
+                gen.writeEnd();
+                gen.writeEnd();
+            }
+            for (Map.Entry<Long, String> t : threadNames.entrySet()) {
+                gen.writeStartObject();
+                gen.write("name", "thread_name");
+                gen.write("ph", "M");
+                gen.write("pid", 1);
+                gen.write("tid", t.getKey());
+                gen.writeStartObject("args");
+                gen.write("name", t.getValue());
+                gen.writeEnd();
+                gen.writeEnd();
+            }
+            gen.writeEnd();
+            gen.writeEnd();
+        }
+        out.flush();
+    }
+
+    /** A recorded phase. */
+    private static final class Event {
+        private final Phase m_phase;
+        private final NodeID m_nodeID;
+        private final long m_threadID;
+        private final String m_threadName;
+        private final long m_startNanos;
+        private final long m_endNanos;
+
+        Event(final Phase phase, final NodeID nodeID, final long threadID, final String threadName,
+            final long startNanos, final long endNanos) {
+            m_phase = phase;
+            m_nodeID = nodeID;
+            m_threadID = threadID;
+            m_threadName = threadName;
+            m_startNanos = startNanos;
+            m_endNanos = endNanos;
+        }
+    }
+}
@@ -69,6 +69,7 @@
 import org.knime.core.node.NodeSettings;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.config.ConfigBinaryFormat;
 import org.knime.core.node.util.CheckUtils;
 import org.knime.core.node.workflow.FlowLoopContext.RestoredFlowLoopContext;
 import org.knime.core.node.workflow.FlowVariable.Scope;
@@ -212,7 +213,12 @@ public void preLoadNodeContainer(final WorkflowPersistor parentPersistor, final
             InputStream in = new FileInputStream(settingsFile);
             // parentPersitor is null for loaded subnode templates
             in = parentPersistor == null ? in : parentPersistor.decipherInput(in);
-            settings = NodeSettings.loadFromXML(new BufferedInputStream(in));
+            BufferedInputStream bufIn = new BufferedInputStream(in);
+            if (ConfigBinaryFormat.isBinary(bufIn)) {
+                settings = ConfigBinaryFormat.load(bufIn, NodeSettings::new);
+            } else {
+                settings = NodeSettings.loadFromXML(bufIn);
+            }
         } catch (IOException ioe) {
             setDirtyAfterLoad();
             throw ioe;
@@ -521,7 +527,9 @@ public LoadNodeModelSettingsFailPolicy getModelSettingsFailPolicy(
     protected static String save(final SingleNodeContainer singleNC, final ReferencedFile rawNodeDirRef,
         final ExecutionMonitor exec, final WorkflowSaveHelper saveHelper)
                 throws CanceledExecutionException, IOException, LockFailedException {
+        final boolean isBinarySettings = singleNC.getParent().isBinaryNodeSettings();
         String settingsDotXML = singleNC.getDirectNCParent().getCipherFileName(SETTINGS_FILE_NAME);
+        String settingsDotBin = singleNC.getDirectNCParent().getCipherFileName(BINARY_SETTINGS_FILE_NAME);
         ReferencedFile nodeDirRef = rawNodeDirRef;
         ReferencedFile sncWorkingDirRef = singleNC.getNodeContainerDirectory();
         ReferencedFile sncAutoSaveDirRef = singleNC.getAutoSaveDirectory();
@@ -530,14 +538,15 @@ protected static String save(final SingleNodeContainer singleNC, final Reference
         // the if-checks below also update the nodeDirRef so that we can make changes on that object
         if (!saveHelper.isAutoSave() && nodeDirRef.equals(sncWorkingDirRef)) {
             if (!sncWorkingDirRef.isDirty() && nodeDirExists) {
-                return settingsDotXML;
+                // unchanged node, keeps the format it was saved in
+                return new File(nodeDir, settingsDotBin).isFile() ? settingsDotBin : settingsDotXML;
             } else {
                 nodeDirRef = sncWorkingDirRef;
             }
         }
         if (saveHelper.isAutoSave() && nodeDirRef.equals(sncAutoSaveDirRef)) {
             if (!sncAutoSaveDirRef.isDirty() && nodeDirExists) {
-                return settingsDotXML;
+                return new File(nodeDir, settingsDotBin).isFile() ? settingsDotBin : settingsDotXML;
             } else {
                 nodeDirRef = sncAutoSaveDirRef;
             }
@@ -595,10 +604,17 @@ protected static String save(final SingleNodeContainer singleNC, final Reference
             SubNodeContainer subnodeNC = (SubNodeContainer)singleNC;
             FileSubNodeContainerPersistor.save(subnodeNC, settings, exec, nodeDirRef, saveHelper);
         }
-        File nodeSettingsXMLFile = new File(nodeDir, settingsDotXML);
-        OutputStream os = new FileOutputStream(nodeSettingsXMLFile);
+        final String settingsFileName = isBinarySettings ? settingsDotBin : settingsDotXML;
+        // the file in the other format may be left over from a previous save (not deleted for components)
+        new File(nodeDir, isBinarySettings ? settingsDotXML : settingsDotBin).delete();
+        File nodeSettingsFile = new File(nodeDir, settingsFileName);
+        OutputStream os = new FileOutputStream(nodeSettingsFile);
         os = singleNC.getDirectNCParent().cipherOutput(os);
-        settings.saveToXML(os);
+        if (isBinarySettings) {
+            ConfigBinaryFormat.save(settings, os);
+        } else {
+            settings.saveToXML(os);
+        }
         if (saveHelper.isAutoSave() && sncAutoSaveDirRef == null) {
             sncAutoSaveDirRef = nodeDirRef;
             singleNC.setAutoSaveDirectory(sncAutoSaveDirRef);
@@ -613,7 +629,7 @@ protected static String save(final SingleNodeContainer singleNC, final Reference
             singleNC.unsetDirty();
         }
         exec.setProgress(1.0);
-        return settingsDotXML;
+        return settingsFileName;
     }
 
 
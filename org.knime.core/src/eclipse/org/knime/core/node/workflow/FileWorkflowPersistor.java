@@ -130,6 +130,16 @@ public String toString() {
     /** key used to store the editor specific settings (since 2.6). */
     private static final String CFG_EDITOR_INFO = "workflow_editor_settings";
 
+    /** Key for the format of node settings, only present if binary (since 3.8). */
+    private static final String CFG_BINARY_NODE_SETTINGS = "binary_node_settings";
+
+    /**
+     * Appended to the version of workflows whose node settings are saved in binary format. Versions that can't read
+     * binary settings don't know the resulting version and treat the workflow as one from a future version (which
+     * they refuse to load or load with a warning) instead of failing on the settings.bin files.
+     */
+    static final String BINARY_NODE_SETTINGS_VERSION_SUFFIX = "-binary";
+
     /** Key for workflow template information. */
     private static final String CFG_TEMPLATE_INFO = "workflow_template_information";
 
@@ -186,6 +196,8 @@ public String toString() {
 
     private EditorUIInformation m_editorUIInfo;
 
+    private boolean m_isBinaryNodeSettings;
+
     /**
      * Parent persistor, used to create (nested) decryption stream for locked metanodes.
      */
@@ -223,7 +235,10 @@ public String toString() {
     private final List<ReferencedFile> m_obsoleteNodeDirectories;
 
     /** Parse the version string, return {@link LoadVersion#FUTURE} if it can't be parsed. */
-    static LoadVersion parseVersion(final String versionString) {
+    static LoadVersion parseVersion(final String rawVersionString) {
+        final String versionString = rawVersionString.endsWith(BINARY_NODE_SETTINGS_VERSION_SUFFIX)
+            ? rawVersionString.substring(0, rawVersionString.length() - BINARY_NODE_SETTINGS_VERSION_SUFFIX.length())
+            : rawVersionString;
         boolean isBeforeV2 = versionString.equals("0.9.0");
         isBeforeV2 |= versionString.equals("1.0");
         isBeforeV2 |= versionString.matches("1\\.[01234]\\.[0-9].*");
@@ -452,6 +467,16 @@ public EditorUIInformation getEditorUIInformation() {
         return m_editorUIInfo;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @since 3.8
+     */
+    @Override
+    public boolean isBinaryNodeSettings() {
+        return m_isBinaryNodeSettings;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -817,6 +842,7 @@ public void preLoadNodeContainer(final WorkflowPersistor parentPersistor, final
             loadResult.addError(error);
             m_editorUIInfo = null;
         }
+        m_isBinaryNodeSettings = m_workflowSett.getBoolean(CFG_BINARY_NODE_SETTINGS, false);
     }
 
     /** {@inheritDoc} */
@@ -1835,7 +1861,7 @@ public static String save(final WorkflowManager wm, final ReferencedFile rawWork
                 throws IOException, CanceledExecutionException, LockFailedException {
         final String name = wm.getDirectNCParent().getCipherFileName(WORKFLOW_FILE);
         NodeSettings preFilledSettings = new NodeSettings(name);
-        saveHeader(preFilledSettings);
+        saveHeader(preFilledSettings, wm.isBinaryNodeSettings());
         wm.getTemplateInformation().save(preFilledSettings);
         saveWizardState(wm, preFilledSettings, saveHelper);
         saveContent(wm, preFilledSettings, rawWorkflowDirRef, execMon, saveHelper);
@@ -1965,6 +1991,9 @@ private static void saveContent(final WorkflowManager wm, final NodeSettings pre
                 saveOutPort(singlePort, wm, i);
             }
             saveEditorUIInformation(wm, preFilledSettings);
+            if (wm.isProject() && wm.isBinaryNodeSettings()) {
+                preFilledSettings.addBoolean(CFG_BINARY_NODE_SETTINGS, true);
+            }
 
             File workflowFile = new File(workflowDir, fName);
             String toBeDeletedFileName = Role.Template.equals(r) ? TEMPLATE_FILE : WORKFLOW_FILE;
@@ -2009,9 +2038,15 @@ private static void saveContent(final WorkflowManager wm, final NodeSettings pre
 
     /** Add version field. */
     static void saveHeader(final NodeSettings settings) {
+        saveHeader(settings, false);
+    }
+
+    /** Add version field, marked if the node settings are saved in binary format. */
+    private static void saveHeader(final NodeSettings settings, final boolean isBinaryNodeSettings) {
         settings.addString(WorkflowLoadHelper.CFG_CREATED_BY, KNIMEConstants.VERSION);
         settings.addBoolean(WorkflowLoadHelper.CFG_NIGHTLY, KNIMEConstants.isNightlyBuild());
-        settings.addString(WorkflowLoadHelper.CFG_VERSION, getSaveVersion().getVersionString());
+        settings.addString(WorkflowLoadHelper.CFG_VERSION, getSaveVersion().getVersionString()
+            + (isBinaryNodeSettings ? BINARY_NODE_SETTINGS_VERSION_SUFFIX : ""));
     }
 
     /** Saves the status of the wizard if set so in the save-helper.
@@ -2166,11 +2201,16 @@ protected static void saveNodeContainer(final NodeSettingsWO settings, final Ref
 
         ReferencedFile nodeDirectoryRef = new ReferencedFile(workflowDirRef, nodeDirID);
         String fileName;
-        if (container instanceof WorkflowManager) {
-            fileName = FileWorkflowPersistor.save((WorkflowManager)container, nodeDirectoryRef, exec, saveHelper);
-        } else {
-            fileName =  FileSingleNodeContainerPersistor.save(
-                (SingleNodeContainer)container, nodeDirectoryRef, exec, saveHelper);
+        final long traceStart = ExecutionTrace.now();
+        try {
+            if (container instanceof WorkflowManager) {
+                fileName = FileWorkflowPersistor.save((WorkflowManager)container, nodeDirectoryRef, exec, saveHelper);
+            } else {
+                fileName =  FileSingleNodeContainerPersistor.save(
+                    (SingleNodeContainer)container, nodeDirectoryRef, exec, saveHelper);
+            }
+        } finally {
+            ExecutionTrace.record(ExecutionTrace.Phase.SAVE, container.getID(), traceStart);
         }
         saveFileLocation(settings, nodeDirID + "/" + fileName);
         saveNodeType(settings, container);
@@ -48,6 +48,8 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -55,7 +57,6 @@
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.Vector;
 
 import org.knime.core.internal.KNIMEPath;
 import org.knime.core.node.NodeLogger;
@@ -78,17 +79,17 @@ public final class FlowObjectStack implements Iterable<FlowObject> {
     /** Root stack with all constants. */
     private static FlowObjectStack rootStack = new FlowObjectStack();
 
-    /** Stack of FlowObjects, which is shared among nodes along the
-     * workflow. */
-    private final Vector<FlowObject> m_stack;
-    /** Owner of FlowObject object, which are put onto m_stack via this
+    /** Top of the stack of FlowObjects. The elements are immutable and
+     * shared among nodes along the workflow; modifications only replace the
+     * top element, so readers don't need to synchronize. */
+    private volatile Element m_top;
+    /** Owner of FlowObject object, which are put onto m_top via this
      * StackWrapper. */
     private final NodeID m_nodeID;
 
     /** Root stack. */
     private FlowObjectStack() {
         m_nodeID = WorkflowManager.ROOT.getID();
-        m_stack = new Vector<FlowObject>();
         File wsDirPath = KNIMEPath.getWorkspaceDirPath();
         if (wsDirPath != null) {
             push(new FlowVariable("knime.workspace",
@@ -161,24 +162,23 @@ private FlowObjectStack() {
      * @throws NullPointerException If <code>id</code> is <code>null</code>.
      * @throws IllegalFlowObjectStackException If the stacks can't be merged.
      */
-    @SuppressWarnings("unchecked")
     private FlowObjectStack(final NodeID id, final FlowObjectStack[] predStacks, final boolean ignoredFlag) {
         if (id == null) {
             throw new NullPointerException("NodeID argument must not be null.");
         }
-        List<Vector<FlowObject>> predecessors =
-            new ArrayList<Vector<FlowObject>>();
+        List<Element> predecessors = new ArrayList<Element>();
+        boolean hasPredecessor = false;
         for (int i = 0; i < predStacks.length; i++) {
             if (predStacks[i] != null) {
-                predecessors.add(predStacks[i].m_stack);
+                hasPredecessor = true;
+                predecessors.add(predStacks[i].m_top);
             }
         }
-        if (predecessors.isEmpty()) {
-            predecessors.add(rootStack.m_stack);
+        if (!hasPredecessor) {
+            predecessors.add(rootStack.m_top);
         }
-        Vector<FlowObject>[] sos = predecessors.toArray(
-                new Vector[predecessors.size()]);
-        m_stack = merge(resortInputStacks(sos));
+        Element[] sos = predecessors.toArray(new Element[predecessors.size()]);
+        m_top = merge(resortInputStacks(sos));
         m_nodeID = id;
     }
 
@@ -193,26 +193,41 @@ private FlowObjectStack(final NodeID id, final FlowObjectStack[] predStacks, fin
      *         a copy, whereby the copy will be shifted by one and the last
      *         element is the first element of sos.
      */
-    private static Vector<FlowObject>[] resortInputStacks(
-            final Vector<FlowObject>[] sos) {
+    private static Element[] resortInputStacks(final Element[] sos) {
         if (sos.length <= 1) {
             return sos;
         }
-        @SuppressWarnings("unchecked")
-        Vector<FlowObject>[] result = new Vector[sos.length];
+        Element[] result = new Element[sos.length];
         System.arraycopy(sos, 1, result, 0, sos.length - 1);
         result[sos.length - 1] = sos[0];
         return result;
     }
 
-    private static Vector<FlowObject> merge(final Vector<FlowObject>[] sos) {
-        Vector<FlowObject> result = new Vector<FlowObject>();
+    /** Merges the argument stacks (given by their top elements, <code>null</code> for an empty stack). If all
+     * stacks are the same (e.g. a single predecessor or multiple connections from the same node), the result is
+     * shared by reference, see {@link Element#getMerged()}.
+     * @param sos The top elements of the stacks to merge, at least one.
+     * @return The top element of the merged stack.
+     */
+    private static Element merge(final Element[] sos) {
+        boolean isAllSame = true;
+        for (int i = 1; i < sos.length; i++) {
+            isAllSame = isAllSame && sos[i] == sos[0];
+        }
+        if (isAllSame) {
+            return sos[0] == null ? null : sos[0].getMerged();
+        }
+        return mergeInternal(sos);
+    }
+
+    private static Element mergeInternal(final Element[] sos) {
+        List<FlowObject> result = new ArrayList<FlowObject>();
         @SuppressWarnings("unchecked") // no generics in array definition
         Iterator<FlowObject>[] its = new Iterator[sos.length];
         FlowObject[] nexts = new FlowObject[sos.length];
         boolean hasMoreElements = false;
         for (int i = 0; i < sos.length; i++) {
-            its[i] = new FilteredScopeIterator(sos[i].iterator(), Scope.Local);
+            its[i] = new FilteredScopeIterator(toList(sos[i]).iterator(), Scope.Local);
             hasMoreElements = hasMoreElements ||  its[i].hasNext();
         }
         while (hasMoreElements) {
@@ -261,7 +276,21 @@ private static Vector<FlowObject> merge(final Vector<FlowObject>[] sos) {
                 }
             }
         }
-        return result;
+        Element top = null;
+        for (FlowObject o : result) {
+            top = new Element(o, top);
+        }
+        return top;
+    }
+
+    /** @return The objects of the stack with the given top element, bottom of stack first. */
+    private static List<FlowObject> toList(final Element top) {
+        FlowObject[] result = new FlowObject[top == null ? 0 : top.m_size];
+        int i = result.length;
+        for (Element e = top; e != null; e = e.m_below) {
+            result[--i] = e.m_object;
+        }
+        return Arrays.asList(result);
     }
 
     /**
@@ -284,15 +313,12 @@ public <T extends FlowObject> T peek(final Class<T> type) {
      * @since 3.4
      */
     public <T extends FlowObject> Optional<T> peekOptional(final Class<T> type) {
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; i--) {
-                FlowObject e = m_stack.get(i);
-                if (type.isInstance(e)) {
-                    return Optional.of(type.cast(e));
-                }
+        for (Element e = m_top; e != null; e = e.m_below) {
+            if (type.isInstance(e.m_object)) {
+                return Optional.of(type.cast(e.m_object));
             }
-            return Optional.empty();
         }
+        return Optional.empty();
     }
 
     /**
@@ -306,15 +332,12 @@ public <T extends FlowObject> Optional<T> peekOptional(final Class<T> type) {
      * @since 2.8
      */
     public <T extends FlowScopeContext> T peekScopeContext(final Class<T> type, final boolean isInactiveScope) {
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; i--) {
-                FlowObject e = m_stack.get(i);
-                if (type.isInstance(e) && (type.cast(e).isInactiveScope() == isInactiveScope)) {
-                    return type.cast(e);
-                }
+        for (Element e = m_top; e != null; e = e.m_below) {
+            if (type.isInstance(e.m_object) && (type.cast(e.m_object).isInactiveScope() == isInactiveScope)) {
+                return type.cast(e.m_object);
             }
-            return null;
         }
+        return null;
     }
 
     /**
@@ -329,13 +352,14 @@ public <T extends FlowScopeContext> T peekScopeContext(final Class<T> type, fina
      * @see java.util.Stack#pop()
      */
     public <T extends FlowObject> T pop(final Class<T> type) {
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; i--) {
-                FlowObject e = m_stack.remove(i);
-                if (type.isInstance(e)) {
-                    return type.cast(e);
+        synchronized (this) {
+            for (Element e = m_top; e != null; e = e.m_below) {
+                if (type.isInstance(e.m_object)) {
+                    m_top = e.m_below;
+                    return type.cast(e.m_object);
                 }
             }
+            m_top = null;
             return null;
         }
     }
@@ -355,13 +379,14 @@ public <T extends FlowObject> T pop(final Class<T> type) {
      * @since 2.8
      */
     public <T extends FlowScopeContext> T popScopeContext(final Class<T> type, final boolean isInactiveScope) {
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; i--) {
-                FlowObject e = m_stack.remove(i);
-                if (type.isInstance(e) && (type.cast(e).isInactiveScope() == isInactiveScope)) {
-                    return type.cast(e);
+        synchronized (this) {
+            for (Element e = m_top; e != null; e = e.m_below) {
+                if (type.isInstance(e.m_object) && (type.cast(e.m_object).isInactiveScope() == isInactiveScope)) {
+                    m_top = e.m_below;
+                    return type.cast(e.m_object);
                 }
             }
+            m_top = null;
             return null;
         }
     }
@@ -374,20 +399,13 @@ public <T extends FlowScopeContext> T popScopeContext(final Class<T> type, final
      * @throws NoSuchElementException if variable does not exist
      */
     public FlowVariable peekFlowVariable(final String name, final Type type) {
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; i--) {
-                FlowObject e = m_stack.get(i);
-                if (!(e instanceof FlowVariable)) {
-                    continue;
-                }
-                FlowVariable v = (FlowVariable)e;
-                if (v.getName().equals(name) && v.getType().equals(type)) {
-                    return v;
-                }
-            }
+        Element top = m_top;
+        FlowVariable v = top == null ? null : top.getVariableIndex().get(type).get(name);
+        if (v == null) {
+            throw new NoSuchElementException("No such variable \"" + name + "\" of"
+                    + " type " + type);
         }
-        throw new NoSuchElementException("No such variable \"" + name + "\" of"
-                + " type " + type);
+        return v;
     }
 
     /** Get all (visible!) variables on the stack in a non-modifiable map. This map is filtered for double, string,
@@ -407,19 +425,16 @@ public Map<String, FlowVariable> getAvailableFlowVariables() {
     public Map<String, FlowVariable> getAvailableFlowVariables(final FlowVariable.Type... types) {
         LinkedHashMap<String, FlowVariable> hash = new LinkedHashMap<String, FlowVariable>();
         List<Type> typesAsList = Arrays.asList(types);
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; i--) {
-                FlowObject e = m_stack.get(i);
-                if (!(e instanceof FlowVariable)) {
-                    continue;
-                }
-                FlowVariable v = (FlowVariable)e;
-                if (!typesAsList.contains(v.getType())) {
-                    continue;
-                }
-                if (!hash.containsKey(v.getName())) {
-                    hash.put(v.getName(), v);
-                }
+        for (Element e = m_top; e != null; e = e.m_below) {
+            if (!(e.m_object instanceof FlowVariable)) {
+                continue;
+            }
+            FlowVariable v = (FlowVariable)e.m_object;
+            if (!typesAsList.contains(v.getType())) {
+                continue;
+            }
+            if (!hash.containsKey(v.getName())) {
+                hash.put(v.getName(), v);
             }
         }
         return Collections.unmodifiableMap(hash);
@@ -436,13 +451,11 @@ public Map<String, FlowVariable> getAvailableFlowVariables(final FlowVariable.Ty
     List<FlowObject> getFlowObjectsOwnedBy(final NodeID id,
             final Scope... ignoredScopes) {
         List<FlowObject> result = new ArrayList<FlowObject>();
-        synchronized (m_stack) {
-            FilteredScopeIterator it = new FilteredScopeIterator(m_stack.iterator(), ignoredScopes);
-            while (it.hasNext()) {
-                FlowObject v = it.next();
-                if (v.getOwner().equals(id)) {
-                    result.add(v);
-                }
+        FilteredScopeIterator it = new FilteredScopeIterator(toList(m_top).iterator(), ignoredScopes);
+        while (it.hasNext()) {
+            FlowObject v = it.next();
+            if (v.getOwner().equals(id)) {
+                result.add(v);
             }
         }
         return result;
@@ -466,31 +479,50 @@ public void push(final FlowObject item) {
      */
     void pushWithOwner(final FlowObject item) {
         CheckUtils.checkArgument(item.getOwner() != null, "Item should have owner set at this point: %s", item);
-        m_stack.add(item);
+        synchronized (this) {
+            m_top = new Element(item, m_top);
+        }
     }
 
     /**
      * @return true if stack is empty
      */
     boolean isEmpty() {
-        return m_stack.isEmpty();
+        return m_top == null;
     }
 
     /** Get number of elements in the stack.
      * @return size of stack. */
     int size() {
-        return m_stack.size();
+        Element top = m_top;
+        return top == null ? 0 : top.m_size;
     }
 
     /** Get iterator on elements, top of stack first. The iterator is
      * read only and not affected by potential modifications of the stack
-     * after this method returns (iterator on copy).
+     * after this method returns (elements are immutable).
      * {@inheritDoc} */
     @Override
     public Iterator<FlowObject> iterator() {
-        Vector<FlowObject> copy = new Vector<FlowObject>(m_stack);
-        Collections.reverse(copy);
-        return Collections.unmodifiableList(copy).iterator();
+        final Element top = m_top;
+        return new Iterator<FlowObject>() {
+            private Element m_next = top;
+
+            @Override
+            public boolean hasNext() {
+                return m_next != null;
+            }
+
+            @Override
+            public FlowObject next() {
+                if (m_next == null) {
+                    throw new NoSuchElementException("Iterator at end");
+                }
+                FlowObject result = m_next.m_object;
+                m_next = m_next.m_below;
+                return result;
+            }
+        };
     }
 
     /**
@@ -506,10 +538,8 @@ public String toString() {
     public int hashCode() {
         // stacks are not really used in hashs ... but since we implement equals
         int hash = m_nodeID.hashCode();
-        synchronized (m_stack) {
-            for (FlowObject o : m_stack) {
-                hash += o.hashCode();
-            }
+        for (Element e = m_top; e != null; e = e.m_below) {
+            hash += e.m_object.hashCode();
         }
         return hash;
     }
@@ -524,10 +554,23 @@ public boolean equals(final Object obj) {
             return false;
         }
         FlowObjectStack o = (FlowObjectStack)obj;
-        synchronized (m_stack) {
-            return o.m_nodeID.equals(m_nodeID)
-                && o.m_stack.equals(m_stack); // deep equals!
+        if (!o.m_nodeID.equals(m_nodeID)) {
+            return false;
+        }
+        Element e1 = m_top;
+        Element e2 = o.m_top;
+        if ((e1 == null ? 0 : e1.m_size) != (e2 == null ? 0 : e2.m_size)) {
+            return false;
         }
+        // deep equals, shared elements are equal by reference
+        while (e1 != e2) {
+            if (!e1.m_object.equals(e2.m_object)) {
+                return false;
+            }
+            e1 = e1.m_below;
+            e2 = e2.m_below;
+        }
+        return true;
     }
 
     /**
@@ -539,12 +582,9 @@ public String toDeepString() {
         b.append(m_nodeID);
         b.append("---");
         b.append('\n');
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; --i) {
-                FlowObject o = m_stack.get(i);
-                b.append(o);
-                b.append('\n');
-            }
+        for (Element e = m_top; e != null; e = e.m_below) {
+            b.append(e.m_object);
+            b.append('\n');
         }
         b.append("--------");
         return b.toString();
@@ -605,6 +645,105 @@ private static final Pair<String, Type> getVariableDefinition(
         return new Pair<String, Type>(varName, varType);
     }
 
+    /** Immutable element of a stack, linking to the element below. Elements (and hence the bottom part of a stack)
+     * are shared among the stacks of nodes along the workflow. Information derived from the stack below an element
+     * (merge result, variable index) is computed once and cached in the element.
+     */
+    private static final class Element {
+
+        private final FlowObject m_object;
+        private final Element m_below;
+        /** Number of elements in the stack with this element on top. */
+        private final int m_size;
+
+        /** Result of {@link #getMerged()}, valid if {@link #m_isMergedValid} is set. */
+        private Element m_merged;
+        private volatile boolean m_isMergedValid;
+
+        /** Top-most variable per type and name, created on demand. */
+        private volatile Map<Type, Map<String, FlowVariable>> m_variableIndex;
+
+        Element(final FlowObject object, final Element below) {
+            m_object = object;
+            m_below = below;
+            m_size = below == null ? 1 : below.m_size + 1;
+        }
+
+        /** The result of merging the stack with this element on top with itself, i.e. with local variables and
+         * duplicates in a scope removed. That's usually the stack itself (and then returned by reference), so that
+         * the stacks of a chain of nodes share their elements. The result is derived from the merge result of the
+         * element below, the cost is independent of the stack size.
+         * @return The top element of the merged stack, possibly <code>null</code>.
+         */
+        Element getMerged() {
+            if (m_isMergedValid) {
+                return m_merged;
+            }
+            // resolve bottom up and iteratively, stacks can be deep
+            List<Element> unresolved = new ArrayList<Element>();
+            for (Element e = this; e != null && !e.m_isMergedValid; e = e.m_below) {
+                unresolved.add(e);
+            }
+            for (int i = unresolved.size() - 1; i >= 0; i--) {
+                Element e = unresolved.get(i);
+                e.m_merged = e.mergeOnto(e.m_below == null ? null : e.m_below.m_merged);
+                e.m_isMergedValid = true;
+            }
+            return m_merged;
+        }
+
+        /** Puts the object of this element on top of the merged stack below, see {@link FlowObjectStack#mergeInternal(Element[])}.
+         * @param mergedBelow The merge result of the element below.
+         * @return The merge result of this element.
+         */
+        private Element mergeOnto(final Element mergedBelow) {
+            if (m_object instanceof FlowVariable && ((FlowVariable)m_object).getScope() == Scope.Local) {
+                return mergedBelow;
+            }
+            Element duplicate = null;
+            if (!(m_object instanceof FlowScopeContext)) {
+                for (Element e = mergedBelow; e != null && !(e.m_object instanceof FlowScopeContext); e = e.m_below) {
+                    if (e.m_object.equals(m_object)) {
+                        duplicate = e;
+                        break;
+                    }
+                }
+            }
+            if (duplicate == null) {
+                return mergedBelow == m_below ? this : new Element(m_object, mergedBelow);
+            }
+            // an equal object in the same scope is replaced, the order of the other objects is retained
+            List<FlowObject> above = new ArrayList<FlowObject>();
+            for (Element e = mergedBelow; e != duplicate; e = e.m_below) {
+                above.add(e.m_object);
+            }
+            Element top = duplicate.m_below;
+            for (int i = above.size() - 1; i >= 0; i--) {
+                top = new Element(above.get(i), top);
+            }
+            return new Element(m_object, top);
+        }
+
+        /** @return The top-most variables of the stack with this element on top, by type and name. */
+        Map<Type, Map<String, FlowVariable>> getVariableIndex() {
+            Map<Type, Map<String, FlowVariable>> index = m_variableIndex;
+            if (index == null) {
+                index = new EnumMap<Type, Map<String, FlowVariable>>(Type.class);
+                for (Type t : Type.values()) {
+                    index.put(t, new HashMap<String, FlowVariable>());
+                }
+                for (Element e = this; e != null; e = e.m_below) {
+                    if (e.m_object instanceof FlowVariable) {
+                        FlowVariable v = (FlowVariable)e.m_object;
+                        index.get(v.getType()).putIfAbsent(v.getName(), v);
+                    }
+                }
+                m_variableIndex = index;
+            }
+            return index;
+        }
+    }
+
     /** Iterator that removes flow variables with given scopes from an
      * underlying iterator. Used, for instance to remove "local" variables when
      * merging stacks of predecessor nodes.
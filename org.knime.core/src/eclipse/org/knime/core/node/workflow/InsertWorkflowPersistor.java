@@ -213,6 +213,12 @@ public EditorUIInformation getEditorUIInformation() {
         throw new IllegalStateException("no editor information on root wfm");
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isBinaryNodeSettings() {
+        throw new IllegalStateException("no settings format on root wfm");
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean mustWarnOnDataLoadError() {
@@ -77,6 +77,8 @@ public abstract class NodeExecutionJob implements Runnable {
     private final NodeContainer m_nc;
     private final PortObject[] m_data;
 
+    /** Creation time, used to trace the time spent in the queue (see {@link ExecutionTrace}). */
+    private final long m_createdNanos = ExecutionTrace.now();
 
     /** Creates a new execution job for a given node. The array argument
      * represent the available input data..
@@ -101,6 +103,9 @@ protected NodeExecutionJob(final NodeContainer nc, final PortObject[] data) {
     /** {@inheritDoc} */
     @Override
     public final void run() {
+        if (ExecutionTrace.isEnabled()) {
+            ExecutionTrace.record(ExecutionTrace.Phase.QUEUED, m_nc.getID(), m_createdNanos);
+        }
         Deque<NodeContext> contextStack = NodeContext.getContextStack();
         Deque<NodeContext> savedContextStack = new ArrayDeque<NodeContext>(contextStack);
         contextStack.clear();
@@ -171,12 +176,17 @@ private void internalRun() {
                 NodeLogger.getLogger(m_nc.getClass());
                 // start message and keep start time
                 final long time = System.currentTimeMillis();
+                final long traceStart = ExecutionTrace.now();
                 m_logger.debug(m_nc.getNameWithID() + " Start execute");
-                if (executeInactive) {
-                    SingleNodeContainer snc = (SingleNodeContainer)m_nc;
-                    status = snc.performExecuteNode(getPortObjects());
-                } else {
-                    status = mainExecute();
+                try {
+                    if (executeInactive) {
+                        SingleNodeContainer snc = (SingleNodeContainer)m_nc;
+                        status = snc.performExecuteNode(getPortObjects());
+                    } else {
+                        status = mainExecute();
+                    }
+                } finally {
+                    ExecutionTrace.record(ExecutionTrace.Phase.EXECUTE, m_nc.getID(), traceStart);
                 }
                 if (status != null && status.isSuccess()) {
                     String elapsed = StringFormat.formatElapsedTime(System.currentTimeMillis() - time);
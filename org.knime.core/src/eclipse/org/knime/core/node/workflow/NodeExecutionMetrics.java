@@ -0,0 +1,561 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Resource usage of the last execution of a node: wall-clock and CPU time, allocated bytes, rows and bytes written to
+ * tables, table bytes read, number of spills to disk, number of cells written using Java serialization and size of
+ * the created file stores. Instances are created by
+ * the {@link NodeTimer} of each node and are available via {@link NodeTimer#getLastExecutionMetrics()}.
+ *
+ * <p>CPU time and allocated bytes are measured for the thread executing the node and do not include work delegated
+ * to other threads (e.g. a node's own thread pool). The table I/O counters are collected for whatever node is set in
+ * the {@link NodeContext} of the reading/writing thread; data written asynchronously after the node finished
+ * (e.g. small tables that are written to disk later) is not accounted for. Values that are not available on this JVM
+ * are reported as -1.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class NodeExecutionMetrics {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(NodeExecutionMetrics.class);
+
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+    private static final boolean IS_CPU_TIME_SUPPORTED = initCpuTimeSupport();
+
+    private static final ObjectName THREAD_BEAN_NAME = initAllocatedBytesSupport();
+
+    /** Maximum number of file stores remembered per execution; the size is reported as -1 if more are created. */
+    private static final int MAX_TRACKED_FILE_STORES = 100000;
+
+    private final long m_startTime;
+
+    private final long m_wallTime;
+
+    private final long m_cpuTime;
+
+    private final long m_allocatedBytes;
+
+    private final long m_rowsWritten;
+
+    private final long m_tableBytesWritten;
+
+    private final long m_tableBytesRead;
+
+    private final long m_spillCount;
+
+    private final long m_javaSerializedCells;
+
+    private final long m_fileStoreBytes;
+
+    private final boolean m_isSuccess;
+
+    private NodeExecutionMetrics(final long startTime, final long wallTime, final long cpuTime,
+        final long allocatedBytes, final Recorder recorder, final long fileStoreBytes, final boolean isSuccess) {
+        m_startTime = startTime;
+        m_wallTime = wallTime;
+        m_cpuTime = cpuTime;
+        m_allocatedBytes = allocatedBytes;
+        m_rowsWritten = recorder.m_rowsWritten.sum();
+        m_tableBytesWritten = recorder.m_tableBytesWritten.sum();
+        m_tableBytesRead = recorder.m_tableBytesRead.sum();
+        m_spillCount = recorder.m_spillCount.sum();
+        m_javaSerializedCells = recorder.m_javaSerializedCells.sum();
+        m_fileStoreBytes = fileStoreBytes;
+        m_isSuccess = isSuccess;
+    }
+
+    /** @return start of the execution, in milliseconds since the epoch */
+    public long getStartTime() {
+        return m_startTime;
+    }
+
+    /** @return wall-clock duration of the execution in milliseconds */
+    public long getWallTime() {
+        return m_wallTime;
+    }
+
+    /** @return CPU time of the executing thread in nanoseconds or -1 if not available */
+    public long getCpuTime() {
+        return m_cpuTime;
+    }
+
+    /** @return bytes allocated by the executing thread or -1 if not available */
+    public long getAllocatedBytes() {
+        return m_allocatedBytes;
+    }
+
+    /** @return number of rows added to tables created during the execution */
+    public long getRowsWritten() {
+        return m_rowsWritten;
+    }
+
+    /** @return number of bytes written to table files (compressed size) */
+    public long getTableBytesWritten() {
+        return m_tableBytesWritten;
+    }
+
+    /** @return number of bytes read from table files (compressed size) */
+    public long getTableBytesRead() {
+        return m_tableBytesRead;
+    }
+
+    /** @return number of times data was moved from memory to disk while being written (tables and sort chunks) */
+    public long getSpillCount() {
+        return m_spillCount;
+    }
+
+    /** @return number of cells written using Java serialization */
+    public long getJavaSerializedCells() {
+        return m_javaSerializedCells;
+    }
+
+    /** @return size of the file stores created during the execution, in bytes */
+    public long getFileStoreBytes() {
+        return m_fileStoreBytes;
+    }
+
+    /** @return whether the execution was successful */
+    public boolean isSuccess() {
+        return m_isSuccess;
+    }
+
+    /** @return the metrics as JSON object */
+    public JsonObject toJSON() {
+        return Json.createObjectBuilder()
+                .add("startTime", m_startTime)
+                .add("wallTimeMillis", m_wallTime)
+                .add("cpuTimeNanos", m_cpuTime)
+                .add("allocatedBytes", m_allocatedBytes)
+                .add("rowsWritten", m_rowsWritten)
+                .add("tableBytesWritten", m_tableBytesWritten)
+                .add("tableBytesRead", m_tableBytesRead)
+                .add("spillCount", m_spillCount)
+                .add("javaSerializedCells", m_javaSerializedCells)
+                .add("fileStoreBytes", m_fileStoreBytes)
+                .add("success", m_isSuccess)
+                .build();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return toJSON().toString();
+    }
+
+    /* ----------------- Export ----------------- */
+
+    /**
+     * Collects the metrics of all nodes in the workflow (including the content of metanodes and wrapped metanodes)
+     * that have been executed at least once.
+     *
+     * @param wfm the workflow
+     * @return the metrics by node ID, in the order of the nodes in the workflow
+     */
+    public static Map<NodeID, NodeExecutionMetrics> collect(final WorkflowManager wfm) {
+        Map<NodeID, NodeExecutionMetrics> result = new LinkedHashMap<>();
+        collectByNode(wfm).forEach((nc, metrics) -> result.put(nc.getID(), metrics));
+        return result;
+    }
+
+    private static Map<NodeContainer, NodeExecutionMetrics> collectByNode(final WorkflowManager wfm) {
+        Map<NodeContainer, NodeExecutionMetrics> result = new LinkedHashMap<>();
+        collectByNode(wfm, result);
+        return result;
+    }
+
+    private static void collectByNode(final WorkflowManager wfm,
+        final Map<NodeContainer, NodeExecutionMetrics> result) {
+        for (NodeContainer nc : wfm.getNodeContainers()) {
+            NodeExecutionMetrics metrics = nc.getNodeTimer().getLastExecutionMetrics();
+            if (metrics != null) {
+                result.put(nc, metrics);
+            }
+            if (nc instanceof WorkflowManager) {
+                collectByNode((WorkflowManager)nc, result);
+            } else if (nc instanceof SubNodeContainer) {
+                collectByNode(((SubNodeContainer)nc).getWorkflowManager(), result);
+            }
+        }
+    }
+
+    /**
+     * Creates a JSON object containing the metrics of all executed nodes in the workflow, see
+     * {@link #collect(WorkflowManager)}.
+     *
+     * @param wfm the workflow
+     * @return a JSON object with a "nodes" array, each element containing the node ID, name and metrics
+     */
+    public static JsonObject toJSON(final WorkflowManager wfm) {
+        JsonArrayBuilder nodes = Json.createArrayBuilder();
+        for (Map.Entry<NodeContainer, NodeExecutionMetrics> e : collectByNode(wfm).entrySet()) {
+            JsonObjectBuilder node = Json.createObjectBuilder();
+            node.add("nodeID", e.getKey().getID().toString());
+            node.add("name", e.getKey().getName());
+            node.add("metrics", e.getValue().toJSON());
+            nodes.add(node);
+        }
+        return Json.createObjectBuilder().add("workflow", wfm.getNameWithID()).add("nodes", nodes).build();
+    }
+
+    /**
+     * @return the spec of the table created by {@link #createTable(WorkflowManager, ExecutionContext)}
+     */
+    public static DataTableSpec createTableSpec() {
+        DataTableSpecCreator dtsc = new DataTableSpecCreator();
+        dtsc.addColumns(
+            new DataColumnSpecCreator("Node", StringCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Start Time", LongCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Wall Time (ms)", LongCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("CPU Time (ns)", LongCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Allocated Bytes", LongCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Rows Written", LongCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Table Bytes Written", LongCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Table Bytes Read", LongCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Spill Count", LongCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Java Serialized Cells", LongCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("File Store Bytes", LongCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Success", BooleanCell.TYPE).createSpec());
+        return dtsc.createSpec();
+    }
+
+    /**
+     * Creates a table containing the metrics of all executed nodes in the workflow, one row per node with the node ID
+     * as row key, see {@link #collect(WorkflowManager)}.
+     *
+     * @param wfm the workflow
+     * @param exec to create the table
+     * @return a new table
+     */
+    public static BufferedDataTable createTable(final WorkflowManager wfm, final ExecutionContext exec) {
+        BufferedDataContainer result = exec.createDataContainer(createTableSpec());
+        for (Map.Entry<NodeContainer, NodeExecutionMetrics> e : collectByNode(wfm).entrySet()) {
+            NodeExecutionMetrics m = e.getValue();
+            DataRow row = new DefaultRow(new RowKey(e.getKey().getID().toString()),
+                new StringCell(e.getKey().getName()),
+                new LongCell(m.m_startTime),
+                new LongCell(m.m_wallTime),
+                new LongCell(m.m_cpuTime),
+                new LongCell(m.m_allocatedBytes),
+                new LongCell(m.m_rowsWritten),
+                new LongCell(m.m_tableBytesWritten),
+                new LongCell(m.m_tableBytesRead),
+                new LongCell(m.m_spillCount),
+                new LongCell(m.m_javaSerializedCells),
+                new LongCell(m.m_fileStoreBytes),
+                BooleanCell.get(m.m_isSuccess));
+            result.addRowToTable(row);
+        }
+        result.close();
+        return result.getTable();
+    }
+
+    /* ----------------- Recording ----------------- */
+
+    /**
+     * Adds the rows and bytes written by a table (buffer) to the metrics of the node in the current
+     * {@link NodeContext}. Called by the framework when a table is closed.
+     *
+     * @param rows number of rows in the table, 0 if unchanged
+     * @param bytes number of bytes written to disk, 0 if unknown or kept in memory
+     */
+    public static void recordTableWritten(final long rows, final long bytes) {
+        Recorder r = getCurrentRecorder();
+        if (r != null) {
+            r.m_rowsWritten.add(rows);
+            r.m_tableBytesWritten.add(bytes);
+        }
+    }
+
+    /**
+     * Adds the bytes read from a table file to the metrics of the node in the current {@link NodeContext}. Called by
+     * the framework when a table file stream is closed.
+     *
+     * @param bytes number of bytes read
+     */
+    public static void recordTableBytesRead(final long bytes) {
+        Recorder r = getCurrentRecorder();
+        if (r != null) {
+            r.m_tableBytesRead.add(bytes);
+        }
+    }
+
+    /**
+     * Counts a spill (moving data from memory to disk while it's written) for the node in the current
+     * {@link NodeContext}.
+     */
+    public static void recordSpill() {
+        Recorder r = getCurrentRecorder();
+        if (r != null) {
+            r.m_spillCount.increment();
+        }
+    }
+
+    /**
+     * Remembers a file store created by the node in the current {@link NodeContext}; its size is determined when the
+     * execution has finished. Called by the framework when a file store is created.
+     *
+     * @param file the file store's file (or directory)
+     */
+    public static void recordFileStoreCreated(final File file) {
+        Recorder r = getCurrentRecorder();
+        if (r != null) {
+            r.m_fileStoreCount.increment();
+            if (r.m_fileStoreCount.sum() <= MAX_TRACKED_FILE_STORES) {
+                r.m_createdFileStores.add(file);
+            }
+        }
+    }
+
+    /**
+     * Counts a cell written using Java serialization (as its class has no
+     * {@link org.knime.core.data.DataCellSerializer}) for the node in the current {@link NodeContext}.
+     */
+    public static void recordJavaSerializedCell() {
+        Recorder r = getCurrentRecorder();
+        if (r != null) {
+            r.m_javaSerializedCells.increment();
+        }
+    }
+
+    private static Recorder getCurrentRecorder() {
+        NodeContext ctx = NodeContext.getContext();
+        NodeContainer nc = ctx == null ? null : ctx.getNodeContainer();
+        return nc == null ? null : nc.getNodeTimer().getMetricsRecorder();
+    }
+
+    private static boolean initCpuTimeSupport() {
+        try {
+            return THREAD_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_BEAN.isThreadCpuTimeEnabled();
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Allocated bytes are only available in the com.sun.management extension of the thread bean, which isn't
+     * visible to bundles. It's queried via the platform MBean server instead.
+     */
+    private static ObjectName initAllocatedBytesSupport() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(ManagementFactory.THREAD_MXBEAN_NAME);
+            Object enabled = server.getAttribute(name, "ThreadAllocatedMemoryEnabled");
+            return Boolean.TRUE.equals(enabled) ? name : null;
+        } catch (Exception e) {
+            LOGGER.debug("Thread allocated bytes not available: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static long getCurrentThreadCpuTime() {
+        return IS_CPU_TIME_SUPPORTED ? THREAD_BEAN.getCurrentThreadCpuTime() : -1L;
+    }
+
+    private static long getCurrentThreadAllocatedBytes() {
+        if (THREAD_BEAN_NAME == null) {
+            return -1L;
+        }
+        try {
+            Object bytes = ManagementFactory.getPlatformMBeanServer().invoke(THREAD_BEAN_NAME,
+                "getThreadAllocatedBytes", new Object[]{Thread.currentThread().getId()},
+                new String[]{long.class.getName()});
+            return bytes instanceof Long ? (Long)bytes : -1L;
+        } catch (Exception e) {
+            return -1L;
+        }
+    }
+
+    /** Size of the file or (recursively) the directory, files deleted in the meantime count as 0. */
+    private static long getSize(final File file) throws IOException {
+        if (!file.isDirectory()) {
+            return file.length();
+        }
+        try (Stream<Path> files = Files.walk(file.toPath())) {
+            return files.filter(Files::isRegularFile).mapToLong(p -> {
+                try {
+                    return Files.size(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Collects the counters of a node's execution. One instance per {@link NodeTimer}, counters are reset at the
+     * start of each execution.
+     */
+    static final class Recorder {
+
+        private final LongAdder m_rowsWritten = new LongAdder();
+
+        private final LongAdder m_tableBytesWritten = new LongAdder();
+
+        private final LongAdder m_tableBytesRead = new LongAdder();
+
+        private final LongAdder m_spillCount = new LongAdder();
+
+        private final LongAdder m_javaSerializedCells = new LongAdder();
+
+        private final LongAdder m_fileStoreCount = new LongAdder();
+
+        private final Queue<File> m_createdFileStores = new ConcurrentLinkedQueue<>();
+
+        /** Determined by {@link #measureFileStores()}, -1 if unknown. */
+        private long m_fileStoreBytes;
+
+        private long m_startTime;
+
+        private Thread m_thread;
+
+        private long m_startCpuTime;
+
+        private long m_startAllocatedBytes;
+
+        /** Called on the executing thread when the execution starts. */
+        synchronized void start() {
+            m_rowsWritten.reset();
+            m_tableBytesWritten.reset();
+            m_tableBytesRead.reset();
+            m_spillCount.reset();
+            m_javaSerializedCells.reset();
+            m_fileStoreCount.reset();
+            m_createdFileStores.clear();
+            m_fileStoreBytes = 0L;
+            m_startTime = System.currentTimeMillis();
+            m_thread = Thread.currentThread();
+            m_startCpuTime = getCurrentThreadCpuTime();
+            m_startAllocatedBytes = getCurrentThreadAllocatedBytes();
+        }
+
+        /**
+         * Determines the size of the file stores created during the execution. Called when the execution finished,
+         * before {@link #finish(boolean)}; not holding the workflow lock as this accesses the file
+         * system.
+         */
+        void measureFileStores() {
+            long bytes = 0L;
+            try {
+                for (File f = m_createdFileStores.poll(); f != null; f = m_createdFileStores.poll()) {
+                    bytes += getSize(f);
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Unable to determine size of file stores: " + e.getMessage(), e);
+                bytes = -1L;
+            }
+            m_createdFileStores.clear();
+            if (m_fileStoreCount.sum() > MAX_TRACKED_FILE_STORES) {
+                bytes = -1L;
+            }
+            synchronized (this) {
+                m_fileStoreBytes = bytes;
+            }
+        }
+
+        /**
+         * Called when the execution finished, usually on the executing thread.
+         *
+         * @param success whether execution was successful
+         * @return the metrics of the execution
+         */
+        synchronized NodeExecutionMetrics finish(final boolean success) {
+            long cpuTime = -1L;
+            long allocatedBytes = -1L;
+            if (m_thread == Thread.currentThread()) {
+                if (m_startCpuTime >= 0) {
+                    cpuTime = getCurrentThreadCpuTime() - m_startCpuTime;
+                }
+                if (m_startAllocatedBytes >= 0) {
+                    allocatedBytes = getCurrentThreadAllocatedBytes() - m_startAllocatedBytes;
+                }
+            }
+            m_thread = null;
+            long wallTime = System.currentTimeMillis() - m_startTime;
+            return new NodeExecutionMetrics(m_startTime, wallTime, cpuTime, allocatedBytes, this,
+                m_fileStoreBytes, success);
+        }
+    }
+}
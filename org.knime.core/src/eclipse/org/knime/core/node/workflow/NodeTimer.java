@@ -132,6 +132,8 @@ public final class NodeTimer {
     private long m_executionDurationOverall;
     private int m_numberOfExecutionsSinceReset;
     private int m_numberOfExecutionsOverall;
+    private final NodeExecutionMetrics.Recorder m_metricsRecorder = new NodeExecutionMetrics.Recorder();
+    private volatile NodeExecutionMetrics m_lastExecutionMetrics;
 
     /**
      * Container holding stats for the entire instance and all nodes that have been used/timed.
@@ -758,6 +760,20 @@ public int getNrExecsSinceStart() {
         return m_numberOfExecutionsOverall;
     }
 
+    /**
+     * @return resource usage of the last execution (also if it failed) or <code>null</code> if the node hasn't been
+     *         executed since it was created/loaded
+     * @since 3.8
+     */
+    public NodeExecutionMetrics getLastExecutionMetrics() {
+        return m_lastExecutionMetrics;
+    }
+
+    /** @return the recorder collecting the metrics of the current execution */
+    NodeExecutionMetrics.Recorder getMetricsRecorder() {
+        return m_metricsRecorder;
+    }
+
     private void initialize() {
         m_startTime = -1;
         m_lastExecutionDuration = -1;
@@ -774,6 +790,7 @@ public void resetNode() {
 
     public void startExec() {
         m_startTime = System.currentTimeMillis();
+        m_metricsRecorder.start();
     }
 
     public void endExec(final boolean success) {
@@ -787,6 +804,7 @@ public void endExec(final boolean success) {
             m_numberOfExecutionsSinceReset++;
             String cname = getCanonicalName(m_parent);
             GLOBAL_TIMER.addExecutionTime(cname, success, m_lastExecutionDuration);
+            m_lastExecutionMetrics = m_metricsRecorder.finish(success);
         }
         m_startTime = -1;
     }
@@ -220,6 +220,13 @@ public EditorUIInformation getEditorUIInformation() {
         return null;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isBinaryNodeSettings() {
+        throwUnsupportedOperationException();
+        return false;
+    }
+
     /** {@inheritDoc} */
     @Override
     public List<FlowVariable> getWorkflowVariables() {
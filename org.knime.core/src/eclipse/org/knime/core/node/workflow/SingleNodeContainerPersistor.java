@@ -57,6 +57,10 @@ interface SingleNodeContainerPersistor extends NodeContainerPersistor {
     /** Name of the settings file in a node's directory. */
     static final String SETTINGS_FILE_NAME = "settings.xml";
 
+    /** Name of the settings file in a node's directory if saved in binary format, see
+     * {@link WorkflowManager#isBinaryNodeSettings()}. */
+    static final String BINARY_SETTINGS_FILE_NAME = "settings.bin";
+
     /** @return The single node container settings for the new instance, not null. */
     SingleNodeContainerSettings getSNCSettings();
 
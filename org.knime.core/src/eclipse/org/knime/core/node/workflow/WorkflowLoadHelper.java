@@ -368,8 +368,12 @@ public final TemplateNodeContainerPersistor createTemplateLoadPersistor(
                         version, !isTemplateFlow());
                     break;
                 case SubNode:
-                    final ReferencedFile settingsDotXML = new ReferencedFile(dotKNIMERef.getParent(),
-                        SingleNodeContainerPersistor.SETTINGS_FILE_NAME);
+                    ReferencedFile settingsDotXML = new ReferencedFile(dotKNIMERef.getParent(),
+                        SingleNodeContainerPersistor.BINARY_SETTINGS_FILE_NAME);
+                    if (!settingsDotXML.getFile().isFile()) {
+                        settingsDotXML = new ReferencedFile(dotKNIMERef.getParent(),
+                            SingleNodeContainerPersistor.SETTINGS_FILE_NAME);
+                    }
                     persistor = new FileSubNodeContainerPersistor(settingsDotXML, this, version,
                         workflowDataRepository, true);
                     break;
@@ -119,7 +119,14 @@ boolean isHeldByCurrentThread() {
      * @return this.
      */
     public WorkflowLock lock() {
-        m_reentrantLock.lock();
+        if (!ExecutionTrace.isEnabled()) {
+            m_reentrantLock.lock();
+        } else if (!m_reentrantLock.tryLock()) {
+            // only contended acquisitions are traced
+            final long start = ExecutionTrace.now();
+            m_reentrantLock.lock();
+            ExecutionTrace.record(ExecutionTrace.Phase.LOCK_WAIT, m_wfm.getID(), start);
+        }
         if (KNIMEConstants.ASSERTIONS_ENABLED) {
             hasNoChildLocked();
         }
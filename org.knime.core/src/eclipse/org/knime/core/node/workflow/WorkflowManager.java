@@ -262,6 +262,10 @@ public Thread newThread(final Runnable r) {
      */
     private EditorUIInformation m_editorInfo = null;
 
+    /** Whether node settings are saved in binary format, only used for projects (see
+     * {@link #isBinaryNodeSettings()}); stored with the workflow. */
+    private boolean m_isBinaryNodeSettings;
+
     /** Vector holding workflow specific variables. */
     private Vector<FlowVariable> m_workflowVariables;
 
@@ -439,6 +443,7 @@ private static void executeEarlyStartup() {
         // initialize listener list
         m_wfmListeners = new CopyOnWriteArrayList<WorkflowListener>();
         m_templateInformation = MetaNodeTemplateInformation.NONE;
+        m_isBinaryNodeSettings = Boolean.getBoolean(KNIMEConstants.PROPERTY_BINARY_NODE_SETTINGS);
         try (WorkflowLock lock = lock()) {
             // asserted in check -- even from constructor
             lock.queueCheckForNodeStateChangeNotification(false); // get default state right
@@ -486,6 +491,7 @@ private NodeContainerParent assertParentAssignments(final NodeContainerParent di
         m_workflow = new Workflow(this, id);
         m_name = persistor.getName();
         m_editorInfo = persistor.getEditorUIInformation();
+        m_isBinaryNodeSettings = persistor.isBinaryNodeSettings();
         m_templateInformation = persistor.getTemplateInformation();
         m_authorInformation = persistor.getAuthorInformation();
         m_loadVersion = persistor.getLoadVersion();
@@ -2975,6 +2981,8 @@ void doAfterExecution(final NodeContainer nc, final NodeContainerExecutionStatus
         assert isLocalWFM() : "doAfterExecute not allowed for remotely executing workflows";
         assert !nc.getID().equals(this.getID());
         boolean success = status.isSuccess();
+        // accesses the file system, hence done before acquiring the lock
+        nc.getNodeTimer().getMetricsRecorder().measureFileStores();
         try (WorkflowLock lock = lock()) {
             nc.getNodeTimer().endExec(success);
             String st = success ? " - success" : " - failure";
@@ -7849,6 +7857,7 @@ private void postLoad(final Map<NodeID, NodeContainerPersistor> persistorMap,
             // two steps below: loadNodeContainer and loadContent
             ExecutionMonitor sub1 = exec.createSubProgress(1.0 / (2 * m_workflow.getNrNodes()));
             ExecutionMonitor sub2 = exec.createSubProgress(1.0 / (2 * m_workflow.getNrNodes()));
+            final long traceStart = ExecutionTrace.now();
             NodeContext.pushContext(cont);
             try {
                 persistor.loadNodeContainer(tblRep, sub1, subResult);
@@ -7869,6 +7878,7 @@ private void postLoad(final Map<NodeID, NodeContainerPersistor> persistorMap,
             try (WorkflowLock lock = cont instanceof WorkflowManager ? ((WorkflowManager)cont).lock() : lock()) {
                 cont.loadContent(persistor, tblRep, inStack, sub2, subResult, keepNodeMessage);
             }
+            ExecutionTrace.record(ExecutionTrace.Phase.LOAD, cont.getID(), traceStart);
             sub2.setProgress(1.0);
             if (persistor.isDirtyAfterLoad()) {
                 cont.setDirty();
@@ -8650,6 +8660,37 @@ public EditorUIInformation getEditorUIInformation() {
         return m_editorInfo;
     }
 
+    /**
+     * Whether the node settings of this workflow are saved in a compact binary format (settings.bin) rather than as
+     * XML (settings.xml). The format is a property of the project, metanodes and components use the value of their
+     * project. It's stored with the workflow; new workflows default to
+     * {@link KNIMEConstants#PROPERTY_BINARY_NODE_SETTINGS}.
+     *
+     * @return that property
+     * @since 3.8
+     */
+    public boolean isBinaryNodeSettings() {
+        return isProject() ? m_isBinaryNodeSettings : getProjectWFM().isBinaryNodeSettings();
+    }
+
+    /**
+     * Sets the format of node settings, see {@link #isBinaryNodeSettings()}. Only applicable to projects. All node
+     * settings are written in the new format the next time the workflow is saved.
+     *
+     * @param value whether to save node settings in binary format
+     * @since 3.8
+     */
+    public void setBinaryNodeSettings(final boolean value) {
+        CheckUtils.checkState(isProject(), "Settings format can only be set on projects");
+        if (value != m_isBinaryNodeSettings) {
+            try (WorkflowLock lock = lock()) {
+                // all nodes are saved again so that the workflow version matches the format of all settings files
+                setDirtyAll();
+                m_isBinaryNodeSettings = value;
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     void loadSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
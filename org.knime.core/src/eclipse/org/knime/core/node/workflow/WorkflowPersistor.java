@@ -189,6 +189,13 @@ public interface WorkflowPersistor extends NodeContainerPersistor {
      * @since 2.6  */
     public EditorUIInformation getEditorUIInformation();
 
+    /** @return whether node settings of the workflow are saved in binary format, see
+     * {@link WorkflowManager#isBinaryNodeSettings()}. This implementation returns <code>false</code>.
+     * @since 3.8 */
+    public default boolean isBinaryNodeSettings() {
+        return false;
+    }
+
     /** @return the mustWarnOnDataLoadError */
     public boolean mustWarnOnDataLoadError();
 
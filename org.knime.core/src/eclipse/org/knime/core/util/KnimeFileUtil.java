@@ -102,7 +102,8 @@ public static boolean isWorkflowGroup(final File file) {
                 || new File(file, WorkflowPersistor.TEMPLATE_FILE).exists()
                 // node
                 || new File(file, FileSingleNodeContainerPersistor.
-                        SETTINGS_FILE_NAME).exists()) {
+                        SETTINGS_FILE_NAME).exists()
+                || new File(file, FileSingleNodeContainerPersistor.BINARY_SETTINGS_FILE_NAME).exists()) {
             return false;
         }
         return true;
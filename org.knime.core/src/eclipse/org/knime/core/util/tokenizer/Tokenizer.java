@@ -46,6 +46,7 @@
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.Arrays;
 import java.util.Vector;
 
 /**
@@ -76,6 +77,11 @@
  * inside a token or quoted string.
  * <p>
  * You can push back one (the last) token.
+ * <p>
+ * If all delimiters and quotes are single characters and neither comments
+ * nor a line continuation character are set (as for most CSV files), the
+ * tokens are read by a faster implementation, which scans blocks of
+ * characters instead of single characters. The result is the same.
  *
  * @author Peter Ohl, University of Konstanz
  */
@@ -206,6 +212,64 @@ public class Tokenizer {
     /* helps to detect a delimiter if it is not returned but swallowed by the tokenizer */
     private boolean m_lastTokenWasDelimited = false;
 
+    /*
+     * Character classes of the fast path. A character can have multiple of
+     * these flags, they are evaluated in the same order as in the general
+     * implementation (delimiter, quote, whitespace).
+     */
+    private static final byte F_DELIM = 1;
+
+    private static final byte F_QUOTE = 2;
+
+    private static final byte F_WS = 4;
+
+    /* CR and LF: need CR+LF folding and line counting */
+    private static final byte F_NL = 8;
+
+    /* the number of characters read from the source at once by the fast path */
+    private static final int BLOCK_LENGTH = 16384;
+
+    /* marks an empty put back slot of the fast path */
+    private static final int NO_CHAR = -2;
+
+    /*
+     * if set, all delimiters and quotes are single characters and there are
+     * no comments and no line continuation character: tokens are scanned
+     * directly in a block buffer (see nextTokenFast) instead of character by
+     * character through the ring buffer.
+     */
+    private boolean m_fastPath;
+
+    /* the fast path character classes (F_... flags) of chars up to MAX_CHAR */
+    private final byte[] m_fastCharClass;
+
+    /* for characters of class F_DELIM the delimiter they stand for */
+    private final Delimiter[] m_fastDelims;
+
+    /* for characters of class F_QUOTE the quote they start */
+    private final Quote[] m_fastQuotes;
+
+    /* the block buffer of the fast path, allocated with the first token */
+    private char[] m_block;
+
+    /* the index of the next char to read in the block buffer */
+    private int m_blockPos;
+
+    /* the number of valid characters in the block buffer */
+    private int m_blockEnd;
+
+    /* a character pushed back in the fast path, or NO_CHAR */
+    private int m_fastPutBack = NO_CHAR;
+
+    /*
+     * set if the next char in the block buffer is a CR that was read ahead
+     * after a CR: like in getNextChar it is not swallowed if followed by a LF
+     */
+    private boolean m_nextCRReadAhead;
+
+    /* we build the token in here (fast path) */
+    private final StringBuilder m_fastToken;
+
     /**
      * Creates a new tokenizer with the default behaviour.
      *
@@ -224,6 +288,10 @@ public Tokenizer(final Reader source) {
         m_readBytes = 0;
 
         m_charType = new int[MAX_CHAR + 1];
+        m_fastCharClass = new byte[MAX_CHAR + 1];
+        m_fastDelims = new Delimiter[MAX_CHAR + 1];
+        m_fastQuotes = new Quote[MAX_CHAR + 1];
+        m_fastToken = new StringBuilder();
 
         m_delimPatterns = new Vector<Delimiter>();
         m_quotePatterns = new Vector<Quote>();
@@ -275,6 +343,7 @@ public void resetToDefault() {
         m_combineMultipleDelimiters = false;
         m_linesToSkip = 0;
         m_allowLFinQuotes = false;
+        initFastPath();
     }
 
     /**
@@ -319,6 +388,9 @@ public String nextToken() throws TokenizerException {
             m_lastQuotes = null; // delimiters are not quoted
             return tmp;
         }
+        if (m_fastPath) {
+            return nextTokenFast();
+        }
         while (m_linesSkipped < m_linesToSkip) {
             // burn all characters within the first few lines - in disregard of
             // any delimiters, quotes, etc.
@@ -1040,6 +1112,344 @@ private int translateEscChar(final int escChar) {
         }
     }
 
+    /*
+     * Checks whether the current settings can be handled by the fast path and
+     * sets up its character tables. The fast path supports single character
+     * delimiters (also if combined with consecutive delimiters of the same
+     * kind or returned as separate token, but not if included in the token),
+     * single character quotes (with or without escape character, but not if
+     * they remain in the token), whitespaces and lines to skip. Comments, the
+     * line continuation character, multi character patterns, combining
+     * different delimiters and special characters above MAX_CHAR are left to
+     * the general implementation.
+     */
+    private void initFastPath() {
+        if ((m_fastPutBack != NO_CHAR) || (m_blockPos < m_blockEnd)) {
+            // chars buffered by the fast path would be lost when switching
+            // the engine (setSettings and resetToDefault prevent this already)
+            throw new IllegalStateException("Don't change tokenizer settings after reading from it.");
+        }
+        m_fastPath = false;
+        Arrays.fill(m_fastCharClass, (byte)0);
+        Arrays.fill(m_fastDelims, null);
+        Arrays.fill(m_fastQuotes, null);
+        if (!m_commentPatterns.isEmpty() || m_combineMultipleDelimiters || (getLineContChar() >= 0)) {
+            return;
+        }
+        // as in matchPattern the first pattern starting with a char matches
+        for (Delimiter delim : m_delimPatterns) {
+            if ((delim.getDelimiter().length() != 1) || delim.includeInToken()) {
+                return;
+            }
+            char c = delim.getFirstChar();
+            if (c > MAX_CHAR) {
+                return;
+            }
+            if (m_fastDelims[c] == null) {
+                m_fastDelims[c] = delim;
+                m_fastCharClass[c] |= F_DELIM;
+            }
+        }
+        for (Quote quote : m_quotePatterns) {
+            if ((quote.getLeft().length() != 1) || (quote.getRight().length() != 1) || quote.getDontRemoveFlag()) {
+                return;
+            }
+            char c = quote.getFirstCharOfLeft();
+            if (c > MAX_CHAR) {
+                return;
+            }
+            if (m_fastQuotes[c] == null) {
+                m_fastQuotes[c] = quote;
+                m_fastCharClass[c] |= F_QUOTE;
+            }
+        }
+        for (String ws : m_whiteSpaces) {
+            if (ws.charAt(0) > MAX_CHAR) {
+                return;
+            }
+        }
+        for (String ws : m_whiteSpaces) {
+            m_fastCharClass[ws.charAt(0)] |= F_WS;
+        }
+        m_fastCharClass[CR] |= F_NL;
+        m_fastCharClass[LF] |= F_NL;
+        m_fastPath = true;
+    }
+
+    /*
+     * The implementation of nextToken() for settings supported by the fast
+     * path (see initFastPath). Runs of ordinary characters are scanned directly
+     * in the block buffer. A token that lies entirely in the buffer and is
+     * terminated by a delimiter is created from the buffer without building it
+     * in m_fastToken first. The tokens (and flags) returned are the same as the
+     * ones of the general implementation.
+     */
+    private String nextTokenFast() throws TokenizerException {
+        if (m_block == null) {
+            m_block = new char[BLOCK_LENGTH];
+        }
+        while (m_linesSkipped < m_linesToSkip) {
+            int c = nextCharFast();
+            if (c == EOF) {
+                break;
+            }
+            if (c == LF) {
+                m_linesSkipped++;
+            }
+        }
+        m_lastToken = null;
+        m_lastQuotes = null;
+        m_tokenWasDelimiter = false;
+        m_lastTokenWasDelimited = false;
+
+        final StringBuilder token = m_fastToken;
+        token.setLength(0);
+        int lastEndQuoteIdx = -1; // the idx of the end quote last seen or added
+        int c;
+        while (true) {
+            if (m_fastPutBack == NO_CHAR) {
+                final char[] block = m_block;
+                final int start = m_blockPos;
+                final int end = m_blockEnd;
+                int i = start;
+                // whitespaces are part of the run only after the token started
+                if ((token.length() > 0) || ((i < end) && (fastCharClass(block[i]) == 0))) {
+                    while ((i < end) && ((fastCharClass(block[i]) & ~F_WS) == 0)) {
+                        i++;
+                    }
+                }
+                if (i > start) {
+                    if ((token.length() == 0) && (i < end) && (block[i] != CR)
+                            && ((fastCharClass(block[i]) & F_DELIM) != 0)) {
+                        // the entire token is in the buffer, its first char is no whitespace
+                        int tokenEnd = i;
+                        while ((fastCharClass(block[tokenEnd - 1]) & F_WS) != 0) {
+                            tokenEnd--;
+                        }
+                        // (create it before reading the delimiter, which could refill the buffer)
+                        m_lastToken = new String(block, start, tokenEnd - start);
+                        final char delimChar = block[i];
+                        m_blockPos = i + 1;
+                        if (delimChar == LF) {
+                            m_lineNo++;
+                        }
+                        readDelimiterFast(delimChar);
+                        m_lastTokenWasDelimited = m_lastDelimiter == null;
+                        return m_lastToken;
+                    }
+                    token.append(block, start, i - start);
+                    m_blockPos = i;
+                }
+            }
+            c = nextCharFast();
+            if (c == EOF) {
+                break;
+            }
+            final int cClass = fastCharClass(c);
+            if ((cClass & F_DELIM) != 0) {
+                readDelimiterFast(c);
+                cutOffWhiteSpacesFast(token, lastEndQuoteIdx);
+                m_lastTokenWasDelimited = m_lastDelimiter == null; // swallowed delimiter
+                break;
+            }
+            if ((cClass & F_QUOTE) != 0) {
+                Quote quote = m_fastQuotes[c];
+                try {
+                    readQuotedStringFast(quote, token);
+                } catch (TokenizerException fte) {
+                    // seems we are missing the closing quotes...
+                    m_lastDelimiter = null;
+                    m_lastQuotes = null;
+                    throw fte;
+                }
+                lastEndQuoteIdx = token.length() - 1;
+                m_lastQuotes = quote;
+                continue;
+            }
+            if (((cClass & F_WS) != 0) && (token.length() == 0)) {
+                continue;
+            }
+            token.append((char)c);
+        }
+
+        if (c == EOF) {
+            try {
+                m_source.close();
+            } catch (IOException ioe) {
+                // empty.
+            }
+            cutOffWhiteSpacesFast(token, lastEndQuoteIdx);
+        }
+        if ((c == EOF) && (token.length() == 0)) {
+            m_lastToken = null;
+        } else {
+            m_lastToken = token.toString();
+        }
+        return m_lastToken;
+    }
+
+    /*
+     * Returns the fast path character class of c (zero for ordinary chars).
+     */
+    private int fastCharClass(final int c) {
+        return c > MAX_CHAR ? 0 : m_fastCharClass[c];
+    }
+
+    /*
+     * Fast path version of getNextChar(): returns the next character from the
+     * block buffer (refilling it if necessary), swallows a CR immediately
+     * followed by a LF and counts lines.
+     */
+    private int nextCharFast() {
+        int c;
+        if (m_fastPutBack != NO_CHAR) {
+            c = m_fastPutBack;
+            m_fastPutBack = NO_CHAR;
+        } else {
+            if ((m_blockPos == m_blockEnd) && !fillBlock()) {
+                return EOF;
+            }
+            c = m_block[m_blockPos++];
+            if (m_nextCRReadAhead) {
+                m_nextCRReadAhead = false;
+            } else if ((c == CR) && ((m_blockPos < m_blockEnd) || fillBlock())) {
+                if (m_block[m_blockPos] == LF) {
+                    m_blockPos++;
+                    c = LF;
+                } else {
+                    m_nextCRReadAhead = m_block[m_blockPos] == CR;
+                }
+            }
+        }
+        if (c == LF) {
+            m_lineNo++;
+        }
+        return c;
+    }
+
+    /*
+     * Fast path version of putBackChar(int), only one character can be pushed
+     * back.
+     */
+    private void putBackCharFast(final int c) {
+        assert m_fastPutBack == NO_CHAR : "TokenizerPutBack: Buffer overrun!";
+        m_fastPutBack = c;
+        if (c == LF) {
+            m_lineNo--;
+        }
+    }
+
+    /*
+     * Reads the next block from the stream into the block buffer. Returns
+     * false if the EOF was seen.
+     */
+    private boolean fillBlock() {
+        m_readBytes += m_blockEnd;
+        m_blockPos = 0;
+        m_blockEnd = 0;
+        try {
+            int read = m_source.read(m_block, 0, m_block.length);
+            if (read <= 0) {
+                // seen the EOF. Any further read will cause IOException.
+                m_source.close();
+                return false;
+            }
+            m_blockEnd = read;
+            return true;
+        } catch (IOException ioe) {
+            return false;
+        }
+    }
+
+    /*
+     * Fast path version of readDelimiter(Delimiter): the delimiter (a single
+     * char) has been read already. Swallows immediately following delimiters
+     * of the same kind, if they are to be combined, and stores the delimiter
+     * if it is to be returned as token.
+     */
+    private void readDelimiterFast(final int delimChar) {
+        Delimiter delim = m_fastDelims[delimChar];
+        if (delim.combineConsecutiveDelims()) {
+            int nextChar;
+            do {
+                nextChar = nextCharFast();
+            } while (nextChar == delimChar);
+            if (nextChar != EOF) {
+                putBackCharFast(nextChar);
+            }
+        }
+        assert m_lastDelimiter == null;
+        if (delim.returnAsToken()) {
+            // store it to return it with the next call to 'nextToken()'
+            m_lastDelimiter = delim.getDelimiter();
+        }
+    }
+
+    /*
+     * Fast path version of readQuotedString(Quote): the quote begin pattern (a
+     * single char) has been read already. Appends the characters up to the
+     * (discarded) quote end pattern to the token, the characters between
+     * special ones are copied from the block buffer at once.
+     */
+    private void readQuotedStringFast(final Quote quote, final StringBuilder token) throws TokenizerException {
+        final char endChar = quote.getRight().charAt(0);
+        final int escChar = quote.hasEscapeChar() ? quote.getEscape() : NO_CHAR;
+        while (true) {
+            if (m_fastPutBack == NO_CHAR) {
+                final char[] block = m_block;
+                final int start = m_blockPos;
+                final int end = m_blockEnd;
+                int i = start;
+                while (i < end) {
+                    final char ch = block[i];
+                    if ((ch == endChar) || (ch == escChar) || (ch == LF) || (ch == CR)) {
+                        break;
+                    }
+                    i++;
+                }
+                token.append(block, start, i - start);
+                m_blockPos = i;
+            }
+            int nextChar = nextCharFast();
+            if (nextChar == EOF) {
+                // an EOF ends a quoted string
+                return;
+            }
+            if (nextChar == LF && !m_allowLFinQuotes) {
+                // read a LF within quotes: only legal if permitted by user!
+                throw new TokenizerException("New line in quoted string"
+                         + " (or closing quote missing). In line " + (getLineNumber() - 1) + ".");
+            }
+            if (nextChar == escChar) {
+                // see translateEscChar
+                nextChar = nextCharFast();
+                if (nextChar == EOF) {
+                    nextChar = escChar;
+                } else if (nextChar == 't') {
+                    nextChar = '\t';
+                } else if (nextChar == 'n') {
+                    nextChar = LF;
+                }
+            } else if (nextChar == endChar) {
+                return;
+            }
+            token.append((char)nextChar);
+        }
+    }
+
+    /*
+     * Fast path version of cutOffWhiteSpaces(StringBuffer, int).
+     */
+    private void cutOffWhiteSpacesFast(final StringBuilder str, final int index) {
+        int cIdx;
+        for (cIdx = str.length() - 1; cIdx > index; cIdx--) {
+            if ((fastCharClass(str.charAt(cIdx)) & F_WS) == 0) {
+                break;
+            }
+        }
+        str.setLength(cIdx + 1);
+    }
+
     /**
      * After a call to this function the token returned with the last call to
      * the <code>nextToken()</code> function will be returned once again with
@@ -1121,6 +1531,10 @@ public int getLineNumber() {
      * @return the number of bytes returned so far by this tokenizer
      */
     public long getReadBytes() {
+        if (m_fastPath) {
+            // the fast path counts whole blocks, add the part of the current one
+            return m_readBytes + m_blockPos;
+        }
         return m_readBytes;
     }
 
@@ -1134,6 +1548,9 @@ public long getReadBytes() {
     public void closeSourceStream() {
         // discard any characters pushed back.
         clearReadBuffer();
+        m_fastPutBack = NO_CHAR;
+        m_nextCRReadAhead = false;
+        m_blockPos = m_blockEnd;
         try {
             m_source.close();
         } catch (IOException ioe) {
@@ -1169,35 +1586,41 @@ public void setSettings(final TokenizerSettings ftSettings) {
 
         // Fill our own data structures for comment, quotes, delimiters and
         // line contin. char. Don't forget to set the character type
-        // accordingly.
+        // accordingly. Chars above MAX_CHAR share the type of the char with
+        // the same low byte (like in nextToken), the patterns decide then.
         for (Comment comment : ftSettings.getAllComments()) {
             assert comment != null;
             m_commentPatterns.add(comment);
             char c = comment.getFirstCharOfBegin();
-            m_charType[c] |= COMMENT;
+            m_charType[c & MAX_CHAR] |= COMMENT;
         }
         for (Delimiter delim : ftSettings.getAllDelimiters()) {
             assert delim != null;
             m_delimPatterns.add(delim);
             char c = delim.getFirstChar();
-            m_charType[c] |= DELIM;
+            m_charType[c & MAX_CHAR] |= DELIM;
         }
         for (Quote quote : ftSettings.getAllQuotes()) {
             assert quote != null;
             m_quotePatterns.add(quote);
             char c = quote.getFirstCharOfLeft();
-            m_charType[c] |= QUOTE;
+            m_charType[c & MAX_CHAR] |= QUOTE;
         }
         for (String ws : ftSettings.getAllWhiteSpaces()) {
             assert ws != null;
             assert ws.length() == 1;
             m_whiteSpaces.add(ws);
-            m_charType[ws.charAt(0)] |= WSCHAR;
+            m_charType[ws.charAt(0) & MAX_CHAR] |= WSCHAR;
         }
         // finally: the line continuation character.
         String lcc = ftSettings.getLineContinuationCharacter();
         if (lcc != null) {
             assert lcc.length() == 1;
+            if (lcc.charAt(0) > MAX_CHAR) {
+                // stored as char type, the char itself can't be restored
+                throw new IllegalArgumentException("Line continuation character '" + lcc
+                    + "' is not supported, its code must not exceed " + MAX_CHAR);
+            }
             // set the new one
             m_charType[lcc.charAt(0)] |= LINECONT;
         }
@@ -1208,6 +1631,7 @@ public void setSettings(final TokenizerSettings ftSettings) {
         m_linesToSkip = ftSettings.getSkipFirstLines();
         // the flag to allow new lines in quoted strings
         m_allowLFinQuotes = ftSettings.allowLFinQuotes();
+        initFastPath();
     }
 
     /**